@@ -3,14 +3,29 @@ package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp;
 // Importa las clases necesarias de Spring Boot
 import org.springframework.boot.SpringApplication; // Para arrancar la aplicación Spring
 import org.springframework.boot.autoconfigure.SpringBootApplication; // Para habilitar la configuración automática de Spring Boot
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent; // Evento con el entorno ya preparado
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup; // Para registrar los tiempos del arranque
+import org.springframework.context.ApplicationListener; // Para escuchar eventos del arranque
+import org.springframework.core.env.Profiles; // Para comprobar los perfiles activos
 
 // Anotación que marca esta clase como una aplicación Spring Boot
 @SpringBootApplication
 public class DweseTicketLoggerWebappApplication {
 
+	// Número máximo de pasos de arranque que se guardan para el desglose de tiempos
+	private static final int STARTUP_STEPS_CAPACITY = 4096;
+
 	// Método principal que se ejecuta al iniciar la aplicación
 	public static void main(String[] args) {
+		SpringApplication application = new SpringApplication(DweseTicketLoggerWebappApplication.class);
+		// Con los perfiles benchmark o loadtest guarda los pasos del arranque para que StartupTimingReporter
+		// pueda mostrar el desglose. Se decide con el entorno preparado, antes de crear el contexto
+		application.addListeners((ApplicationListener<ApplicationEnvironmentPreparedEvent>) event -> {
+			if (event.getEnvironment().acceptsProfiles(Profiles.of("benchmark | loadtest"))) {
+				application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
+			}
+		});
 		// Arranca la aplicación Spring, configurando el contexto de la aplicación
-		SpringApplication.run(DweseTicketLoggerWebappApplication.class, args);
+		application.run(args);
 	}
 }
@@ -0,0 +1,182 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ajusta el tamaño máximo de los pools de conexiones (principal y réplicas) entre
+ * `app.pool.min-size` y `app.pool.max-size` según la telemetría de cada pool: esperas para obtener
+ * conexión, conexiones activas y en espera, y tiempo de uso de cada conexión. Cada
+ * `app.pool.sample-interval-ms` toma una muestra y aplica `PoolSizingPolicy`.
+ *
+ * Al reducir el máximo, Hikari cierra las conexiones inactivas que sobran cuando superan
+ * `spring.datasource.hikari.idle-timeout`, hasta dejar `minimum-idle`.
+ *
+ * Métricas (etiqueta `pool`): `app.pool.max-size` (tamaño decidido), `app.pool.demand` (conexiones
+ * ocupadas estimadas), `app.pool.acquire.wait` (espera media de la última muestra) y
+ * `app.pool.resizes` (cambios de tamaño, con etiqueta `direction`).
+ */
+@Component
+public class AdaptivePoolSizer {
+
+    // Logger para registrar eventos importantes
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePoolSizer.class);
+
+    // Con false solo se toman muestras (para la sonda de disponibilidad) y el tamaño no cambia
+    @Value("${app.pool.adaptive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.pool.min-size:4}")
+    private int minSize;
+
+    @Value("${app.pool.max-size:40}")
+    private int maxSize;
+
+    // Margen sobre la demanda estimada
+    @Value("${app.pool.headroom:1.3}")
+    private double headroom;
+
+    // Espera media (ms) a partir de la cual el pool crece
+    @Value("${app.pool.grow-wait-ms:20}")
+    private double growWaitMs;
+
+    // Muestras seguidas con demanda baja necesarias para reducir
+    @Value("${app.pool.shrink-after-samples:12}")
+    private int shrinkAfterSamples;
+
+    private final HikariDataSource primaryDataSource;
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final PoolTelemetry poolTelemetry;
+    private final MeterRegistry meterRegistry;
+
+    // Pools gestionados por nombre, la principal primero
+    private final Map<String, ManagedPool> pools = new LinkedHashMap<>();
+
+    public AdaptivePoolSizer(HikariDataSource primaryDataSource, ReadWriteRoutingDataSource routingDataSource,
+                             PoolTelemetry poolTelemetry, MeterRegistry meterRegistry) {
+        this.primaryDataSource = primaryDataSource;
+        this.routingDataSource = routingDataSource;
+        this.poolTelemetry = poolTelemetry;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void registerPools() {
+        List<HikariDataSource> dataSources = new ArrayList<>();
+        dataSources.add(primaryDataSource);
+        for (DataSource replica : routingDataSource.getReplicas()) {
+            if (replica instanceof HikariDataSource hikari) {
+                dataSources.add(hikari);
+            }
+        }
+        for (HikariDataSource dataSource : dataSources) {
+            // Por debajo de minimum-idle Hikari volvería a abrir las conexiones que se cierran
+            int floor = Math.min(maxSize, Math.max(minSize, dataSource.getMinimumIdle()));
+            ManagedPool pool = new ManagedPool(dataSource,
+                    new PoolSizingPolicy(floor, maxSize, headroom, growWaitMs, shrinkAfterSamples));
+            String name = dataSource.getPoolName();
+            Gauge.builder("app.pool.max-size", dataSource, HikariDataSource::getMaximumPoolSize)
+                    .description("Tamaño máximo decidido para el pool")
+                    .tag("pool", name).register(meterRegistry);
+            Gauge.builder("app.pool.demand", pool, p -> p.lastDecision != null ? p.lastDecision.demand() : 0)
+                    .description("Conexiones ocupadas estimadas en la última muestra")
+                    .tag("pool", name).register(meterRegistry);
+            Gauge.builder("app.pool.acquire.wait", pool, p -> p.lastWindow.meanAcquireMs())
+                    .description("Espera media para obtener conexión en la última muestra")
+                    .baseUnit("milliseconds")
+                    .tag("pool", name).register(meterRegistry);
+            pool.grows = Counter.builder("app.pool.resizes").tag("pool", name).tag("direction", "grow").register(meterRegistry);
+            pool.shrinks = Counter.builder("app.pool.resizes").tag("pool", name).tag("direction", "shrink").register(meterRegistry);
+            pools.put(name, pool);
+            logger.info("Pool {} sized adaptively between {} and {} connections (now {})",
+                    name, floor, maxSize, dataSource.getMaximumPoolSize());
+        }
+    }
+
+    /**
+     * Toma una muestra de cada pool y ajusta su tamaño máximo.
+     */
+    @Scheduled(fixedDelayString = "${app.pool.sample-interval-ms:5000}", initialDelayString = "${app.pool.sample-interval-ms:5000}")
+    public void sample() {
+        for (Map.Entry<String, ManagedPool> entry : pools.entrySet()) {
+            ManagedPool pool = entry.getValue();
+            HikariPoolMXBean poolBean = pool.dataSource.getHikariPoolMXBean();
+            if (poolBean == null) {
+                continue; // El pool aún no ha arrancado
+            }
+            long now = System.nanoTime();
+            double windowSeconds = (now - pool.lastSampleNanos) / 1e9;
+            pool.lastSampleNanos = now;
+            PoolTelemetry.Window window = poolTelemetry.drain(entry.getKey());
+            pool.lastWindow = window;
+            if (!enabled) {
+                continue;
+            }
+            int current = pool.dataSource.getMaximumPoolSize();
+            PoolSizingPolicy.Decision decision = pool.policy.decide(current, new PoolSizingPolicy.Sample(
+                    poolBean.getActiveConnections(), poolBean.getThreadsAwaitingConnection(), window, windowSeconds));
+            pool.lastDecision = decision;
+            if (decision.size() != current) {
+                pool.dataSource.setMaximumPoolSize(decision.size());
+                (decision.size() > current ? pool.grows : pool.shrinks).increment();
+                logger.info("Pool {} resized {} -> {} ({}: demand {}, mean wait {} ms, usage {} ms, {} waiting)",
+                        entry.getKey(), current, decision.size(), decision.reason(), String.format("%.1f", decision.demand()),
+                        String.format("%.1f", window.meanAcquireMs()), String.format("%.1f", window.meanUsageMs()),
+                        poolBean.getThreadsAwaitingConnection());
+            }
+        }
+    }
+
+    /**
+     * Ventana de la última muestra de cada pool, la principal primero.
+     */
+    public Map<String, PoolTelemetry.Window> getLastWindows() {
+        Map<String, PoolTelemetry.Window> windows = new LinkedHashMap<>();
+        pools.forEach((name, pool) -> windows.put(name, pool.lastWindow));
+        return Collections.unmodifiableMap(windows);
+    }
+
+    /**
+     * Tamaño máximo actual de un pool, o -1 si no se gestiona.
+     */
+    public int getMaximumPoolSize(String poolName) {
+        ManagedPool pool = pools.get(poolName);
+        return pool != null ? pool.dataSource.getMaximumPoolSize() : -1;
+    }
+
+    public String getPrimaryPoolName() {
+        return primaryDataSource.getPoolName();
+    }
+
+    // Estado de cada pool entre muestras
+    private static final class ManagedPool {
+        final HikariDataSource dataSource;
+        final PoolSizingPolicy policy;
+        volatile PoolTelemetry.Window lastWindow = new PoolTelemetry.Window(0, 0, 0, 0, 0, 0);
+        volatile PoolSizingPolicy.Decision lastDecision;
+        long lastSampleNanos = System.nanoTime();
+        Counter grows;
+        Counter shrinks;
+
+        ManagedPool(HikariDataSource dataSource, PoolSizingPolicy policy) {
+            this.dataSource = dataSource;
+            this.policy = policy;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Estado `connectionPool` de `/actuator/health`, incluido en la sonda de disponibilidad
+ * (`/actuator/health/readiness`). Pasa a DOWN cuando en la última muestra de la principal la espera
+ * media para obtener conexión supera `app.pool.acquire-slo-ms` o alguna petición se quedó sin
+ * conexión, para que el balanceador deje de enviar tráfico a esta instancia mientras dure.
+ *
+ * Las réplicas solo se muestran en el detalle: si no dan conexión, las lecturas van a la principal.
+ */
+@Component
+public class ConnectionPoolHealthIndicator implements HealthIndicator {
+
+    // Espera media máxima (ms) para obtener una conexión de la principal
+    @Value("${app.pool.acquire-slo-ms:250}")
+    private double acquireSloMs;
+
+    private final AdaptivePoolSizer adaptivePoolSizer;
+
+    public ConnectionPoolHealthIndicator(AdaptivePoolSizer adaptivePoolSizer) {
+        this.adaptivePoolSizer = adaptivePoolSizer;
+    }
+
+    @Override
+    public Health health() {
+        Map<String, PoolTelemetry.Window> windows = adaptivePoolSizer.getLastWindows();
+        PoolTelemetry.Window primary = windows.get(adaptivePoolSizer.getPrimaryPoolName());
+        boolean breached = primary != null && (primary.meanAcquireMs() > acquireSloMs || primary.timeouts() > 0);
+        Health.Builder health = breached ? Health.down() : Health.up();
+        health.withDetail("acquireSloMs", acquireSloMs);
+        windows.forEach((name, window) -> {
+            Map<String, Object> detail = new LinkedHashMap<>();
+            detail.put("maxPoolSize", adaptivePoolSizer.getMaximumPoolSize(name));
+            detail.put("meanAcquireMs", window.meanAcquireMs());
+            detail.put("maxAcquireMs", window.maxAcquireMs());
+            detail.put("meanUsageMs", window.meanUsageMs());
+            detail.put("timeouts", window.timeouts());
+            health.withDetail(name, detail);
+        });
+        return health.build();
+    }
+}
@@ -0,0 +1,124 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.servlet.FlashMap;
+import org.springframework.web.servlet.support.AbstractFlashMapManager;
+import org.springframework.web.util.WebUtils;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * `FlashMapManager` que guarda los atributos flash (los mensajes de error y éxito que se pasan con
+ * `RedirectAttributes`) en una cookie en lugar de en la sesión HTTP. Así una redirección no crea
+ * una `HttpSession` en el servidor.
+ *
+ * Los atributos se guardan como texto, que es lo único que los controladores pasan por flash.
+ */
+public class CookieFlashMapManager extends AbstractFlashMapManager {
+
+    // Logger para registrar eventos importantes
+    private static final Logger logger = LoggerFactory.getLogger(CookieFlashMapManager.class);
+
+    // Nombre de la cookie donde viajan los atributos flash
+    public static final String COOKIE_NAME = "TL_FLASH";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Lee los atributos flash guardados en la cookie.
+     *
+     * @param request la petición actual.
+     * @return la lista de FlashMap o null si no hay ninguno.
+     */
+    @Override
+    protected List<FlashMap> retrieveFlashMaps(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE_NAME);
+        if (cookie == null || cookie.getValue() == null || cookie.getValue().isEmpty()) {
+            return null;
+        }
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cookie.getValue());
+            List<StoredFlashMap> stored = objectMapper.readValue(json, new TypeReference<>() {});
+            List<FlashMap> flashMaps = new ArrayList<>();
+            for (StoredFlashMap entry : stored) {
+                flashMaps.add(entry.toFlashMap());
+            }
+            return flashMaps;
+        } catch (Exception e) {
+            logger.warn("Ignoring unreadable flash cookie: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Escribe los atributos flash en la cookie o la borra si ya no queda ninguno.
+     *
+     * @param flashMaps los FlashMap pendientes.
+     * @param request   la petición actual.
+     * @param response  la respuesta actual.
+     */
+    @Override
+    protected void updateFlashMaps(List<FlashMap> flashMaps, HttpServletRequest request, HttpServletResponse response) {
+        Cookie cookie;
+        if (flashMaps.isEmpty()) {
+            cookie = new Cookie(COOKIE_NAME, "");
+            cookie.setMaxAge(0); // Elimina la cookie
+        } else {
+            List<StoredFlashMap> stored = flashMaps.stream().map(StoredFlashMap::from).toList();
+            try {
+                cookie = new Cookie(COOKIE_NAME, Base64.getUrlEncoder().withoutPadding()
+                        .encodeToString(objectMapper.writeValueAsBytes(stored)));
+            } catch (Exception e) {
+                logger.error("Error serializing flash attributes: {}", e.getMessage());
+                return;
+            }
+            cookie.setMaxAge(getFlashMapTimeout());
+        }
+        String contextPath = request.getContextPath();
+        cookie.setPath(contextPath == null || contextPath.isEmpty() ? "/" : contextPath);
+        cookie.setHttpOnly(true);
+        response.addCookie(cookie);
+    }
+
+    /**
+     * Representación serializable de un FlashMap.
+     */
+    record StoredFlashMap(String targetRequestPath,
+                          Map<String, List<String>> targetRequestParams,
+                          long expirationTime,
+                          Map<String, String> attributes) {
+
+        static StoredFlashMap from(FlashMap flashMap) {
+            Map<String, String> attributes = new LinkedHashMap<>();
+            flashMap.forEach((key, value) -> attributes.put(key, value != null ? value.toString() : null));
+            return new StoredFlashMap(flashMap.getTargetRequestPath(),
+                    new LinkedHashMap<>(flashMap.getTargetRequestParams()),
+                    flashMap.getExpirationTime(),
+                    attributes);
+        }
+
+        FlashMap toFlashMap() {
+            FlashMap flashMap = new FlashMap();
+            flashMap.setTargetRequestPath(targetRequestPath);
+            if (targetRequestParams != null) {
+                flashMap.addTargetRequestParams(new LinkedMultiValueMap<>(targetRequestParams));
+            }
+            flashMap.setExpirationTime(expirationTime);
+            if (attributes != null) {
+                flashMap.putAll(attributes);
+            }
+            return flashMap;
+        }
+    }
+}
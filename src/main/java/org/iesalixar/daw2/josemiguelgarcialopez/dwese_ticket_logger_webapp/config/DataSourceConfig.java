@@ -0,0 +1,103 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuración de los `DataSource`: un pool para la base de datos principal (`spring.datasource.*`)
+ * y uno por cada réplica de `app.datasource.replica-urls`, con las mismas credenciales. JPA y
+ * JdbcTemplate usan el `DataSource` con enrutamiento; Flyway, siempre la principal.
+ *
+ * Sin réplicas configuradas todas las conexiones van a la principal, como antes.
+ *
+ * `DataSourceProperties` se registra aquí porque la configuración automática de JDBC se retira
+ * cuando hay un `ConnectionFactory` de R2DBC (el de las lecturas no bloqueantes).
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceConfig {
+
+    // Logger para registrar eventos importantes
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    // URLs JDBC de las réplicas separadas por comas (vacío = sin réplicas)
+    @Value("${app.datasource.replica-urls:}")
+    private List<String> replicaUrls;
+
+    // Tiempo que se deja de usar una réplica que no da conexión
+    @Value("${app.datasource.replica-retry-seconds:30}")
+    private long replicaRetrySeconds;
+
+    /**
+     * Pool de la base de datos principal, configurado con `spring.datasource.hikari.*`.
+     *
+     * @param properties    propiedades `spring.datasource.*`.
+     * @param poolTelemetry telemetría del pool.
+     * @return el pool de la principal.
+     */
+    @Bean
+    @FlywayDataSource // Las migraciones siempre se aplican en la principal
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, PoolTelemetry poolTelemetry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        dataSource.setMetricsTrackerFactory(poolTelemetry); // Telemetría para el tamaño adaptativo
+        return dataSource;
+    }
+
+    /**
+     * Reparto de conexiones entre la principal y las réplicas. Cierra los pools de las réplicas al
+     * parar la aplicación.
+     *
+     * @param primaryDataSource pool de la principal.
+     * @param properties        propiedades `spring.datasource.*` (credenciales y driver).
+     * @return el `DataSource` con enrutamiento.
+     */
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(HikariDataSource primaryDataSource, DataSourceProperties properties) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url.strip()).build();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setMaximumPoolSize(primaryDataSource.getMaximumPoolSize());
+            replica.setMinimumIdle(primaryDataSource.getMinimumIdle());
+            replica.setIdleTimeout(primaryDataSource.getIdleTimeout());
+            replica.setMetricsTrackerFactory(primaryDataSource.getMetricsTrackerFactory());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        logger.info("Read/write routing configured with {} replicas", replicas.size());
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, Duration.ofSeconds(replicaRetrySeconds));
+    }
+
+    /**
+     * `DataSource` de la aplicación: retrasa la obtención de la conexión real hasta la primera
+     * sentencia, cuando ya se sabe si la transacción es de solo lectura.
+     *
+     * @param routingDataSource reparto de conexiones.
+     * @return el `DataSource` principal de la aplicación.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -2,14 +2,21 @@ package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.conf
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.FlashMapManager;
 import org.springframework.web.servlet.LocaleResolver;
+import org.springframework.web.servlet.i18n.CookieLocaleResolver;
 import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.i18n.SessionLocaleResolver;
+import org.springframework.web.servlet.support.SessionFlashMapManager;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Locale;
 
 @Configuration
@@ -18,18 +25,68 @@ public class LocaleConfig implements WebMvcConfigurer {
     // Logger para registrar eventos en esta clase
     private static final Logger logger = LoggerFactory.getLogger(LocaleConfig.class);
 
+    // Idioma por defecto y lista de idiomas disponibles en los ficheros de mensajes
+    private static final Locale DEFAULT_LOCALE = Locale.of("es");
+    private static final List<Locale> SUPPORTED_LOCALES = List.of(Locale.of("es"), Locale.of("en"));
+
+    // Nombre de la cookie que guarda el idioma elegido con ?lang=
+    public static final String LOCALE_COOKIE = "TL_LANG";
+
+    // Modo de resolución del idioma: "cookie" (sin sesión) o "session" (comportamiento anterior)
+    @Value("${app.locale.resolver:cookie}")
+    private String localeResolverMode;
+
     /**
      * Define el `LocaleResolver` que se usará para almacenar la configuración de idioma del usuario.
-     * En este caso, utilizamos `SessionLocaleResolver` para almacenar el idioma en la sesión.
+     * En el modo "cookie" (por defecto) el idioma se lee de la cookie `TL_LANG` o, si no existe, de la
+     * cabecera `Accept-Language`, sin crear una `HttpSession` por visitante. El modo "session" mantiene
+     * `SessionLocaleResolver` para poder comparar ambos.
      *
-     * @return una instancia de `SessionLocaleResolver` con el idioma predeterminado configurado.
+     * @return el `LocaleResolver` del modo configurado, con el español como idioma por defecto.
      */
     @Bean
     public LocaleResolver localeResolver() {
-        SessionLocaleResolver slr = new SessionLocaleResolver();
-        slr.setDefaultLocale(Locale.of("es")); // Establece el español como idioma por defecto
-        logger.info("LocaleResolver configurado con el idioma predeterminado: es");
-        return slr;
+        if (isSessionMode()) {
+            SessionLocaleResolver slr = new SessionLocaleResolver();
+            slr.setDefaultLocale(DEFAULT_LOCALE); // Establece el español como idioma por defecto
+            logger.info("LocaleResolver configurado en modo sesión con el idioma predeterminado: es");
+            return slr;
+        }
+        CookieLocaleResolver clr = new CookieLocaleResolver(LOCALE_COOKIE);
+        clr.setCookieMaxAge(Duration.ofDays(365));
+        clr.setCookieHttpOnly(true);
+        // Sin cookie se usa Accept-Language si es un idioma disponible y, si no, el español
+        clr.setDefaultLocaleFunction(request -> {
+            if (request.getHeader("Accept-Language") == null) {
+                return DEFAULT_LOCALE;
+            }
+            Locale requested = request.getLocale();
+            return SUPPORTED_LOCALES.stream()
+                    .filter(supported -> supported.getLanguage().equals(requested.getLanguage()))
+                    .findFirst()
+                    .orElse(DEFAULT_LOCALE);
+        });
+        logger.info("LocaleResolver configurado en modo cookie (sin sesión) con el idioma predeterminado: es");
+        return clr;
+    }
+
+    /**
+     * Define el `FlashMapManager` con el que viajan los mensajes de `RedirectAttributes`. En el modo
+     * "cookie" se guardan en una cookie para que las redirecciones tampoco creen sesiones.
+     *
+     * @return el `FlashMapManager` del modo configurado.
+     */
+    @Bean(name = DispatcherServlet.FLASH_MAP_MANAGER_BEAN_NAME)
+    public FlashMapManager flashMapManager() {
+        if (isSessionMode()) {
+            return new SessionFlashMapManager();
+        }
+        logger.info("FlashMapManager configurado con cookies (sin sesión)");
+        return new CookieFlashMapManager();
+    }
+
+    private boolean isSessionMode() {
+        return "session".equalsIgnoreCase(localeResolverMode);
     }
 
     /**
@@ -0,0 +1,108 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config;
+
+/**
+ * Decide el tamaño máximo de un pool a partir de lo observado en la última muestra.
+ *
+ * La demanda se estima con la ley de Little: conexiones ocupadas de media = conexiones entregadas
+ * por segundo × tiempo medio de uso. El objetivo es esa demanda (o las conexiones activas en ese
+ * momento, si son más) con un margen, más las peticiones que estaban esperando.
+ *
+ * Crece en cuanto hay presión (peticiones esperando, timeouts o una espera media por encima de
+ * `growWaitMs`), al menos un 50 %. Decrece despacio: solo tras `shrinkAfterSamples` muestras
+ * seguidas con el objetivo por debajo del tamaño actual, y como mucho una cuarta parte cada vez,
+ * para no ir y venir con cada pico.
+ *
+ * Guarda estado (las muestras seguidas a favor de reducir), así que hay una instancia por pool.
+ */
+public class PoolSizingPolicy {
+
+    /**
+     * Estado del pool en el momento de la muestra y lo observado desde la anterior.
+     *
+     * @param active        conexiones en uso.
+     * @param waiting       hilos esperando una conexión.
+     * @param window        acumulados de la ventana.
+     * @param windowSeconds duración de la ventana.
+     */
+    public record Sample(int active, int waiting, PoolTelemetry.Window window, double windowSeconds) {
+    }
+
+    /**
+     * Tamaño decidido y motivo, para el log y las métricas.
+     */
+    public record Decision(int size, double demand, String reason) {
+    }
+
+    private final int minSize;
+    private final int maxSize;
+    private final double headroom;
+    private final double growWaitMs;
+    private final int shrinkAfterSamples;
+
+    private int shrinkVotes;
+
+    /**
+     * @param minSize            tamaño mínimo.
+     * @param maxSize            tamaño máximo.
+     * @param headroom           margen sobre la demanda estimada (1.3 = un 30 % más).
+     * @param growWaitMs         espera media a partir de la cual se crece.
+     * @param shrinkAfterSamples muestras seguidas necesarias para reducir.
+     */
+    public PoolSizingPolicy(int minSize, int maxSize, double headroom, double growWaitMs, int shrinkAfterSamples) {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("Invalid pool bounds: " + minSize + ".." + maxSize);
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.headroom = headroom;
+        this.growWaitMs = growWaitMs;
+        this.shrinkAfterSamples = shrinkAfterSamples;
+    }
+
+    /**
+     * Decide el tamaño para la siguiente ventana.
+     *
+     * @param current tamaño máximo actual del pool.
+     * @param sample  lo observado.
+     * @return la decisión; `size` es igual a `current` si no hay que cambiar nada.
+     */
+    public Decision decide(int current, Sample sample) {
+        PoolTelemetry.Window window = sample.window();
+        double throughput = sample.windowSeconds() > 0 ? window.acquisitions() / sample.windowSeconds() : 0;
+        double demand = Math.max(throughput * window.meanUsageMs() / 1000.0, sample.active());
+        int target = (int) Math.ceil(demand * headroom) + sample.waiting();
+
+        boolean pressure = sample.waiting() > 0 || window.timeouts() > 0 || window.meanAcquireMs() > growWaitMs;
+        if (pressure) {
+            shrinkVotes = 0;
+            int grown = Math.max(target, (int) Math.ceil(current * 1.5));
+            return new Decision(clamp(grown), demand, "pressure");
+        }
+        if (target > current) {
+            shrinkVotes = 0;
+            return new Decision(clamp(target), demand, "demand");
+        }
+        if (target < current && current > minSize) {
+            if (++shrinkVotes >= shrinkAfterSamples) {
+                shrinkVotes = 0;
+                int shrunk = Math.max(target, current - Math.max(1, current / 4));
+                return new Decision(clamp(shrunk), demand, "idle");
+            }
+            return new Decision(clamp(current), demand, "idle-pending");
+        }
+        shrinkVotes = 0;
+        return new Decision(clamp(current), demand, "steady");
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    private int clamp(int size) {
+        return Math.min(maxSize, Math.max(minSize, size));
+    }
+}
@@ -0,0 +1,128 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Telemetría de los pools de Hikari: además de publicar las métricas habituales `hikari.*` en
+ * Micrometer, acumula por pool las esperas para obtener conexión, el tiempo que se usa cada conexión
+ * y los timeouts desde la última muestra. `AdaptivePoolSizer` lee y reinicia esos acumulados en
+ * cada muestra.
+ *
+ * Se instala en cada `HikariDataSource` (principal y réplicas) antes de que arranque el pool.
+ */
+@Component
+public class PoolTelemetry implements MetricsTrackerFactory {
+
+    /**
+     * Lo observado en un pool desde la muestra anterior.
+     *
+     * @param acquisitions    conexiones entregadas.
+     * @param meanAcquireMs   espera media para obtener una conexión.
+     * @param maxAcquireMs    espera máxima para obtener una conexión.
+     * @param usages          conexiones devueltas al pool.
+     * @param meanUsageMs     tiempo medio que se ha tenido cada conexión (consultas y transacción).
+     * @param timeouts        peticiones que no obtuvieron conexión a tiempo.
+     */
+    public record Window(long acquisitions, double meanAcquireMs, double maxAcquireMs,
+                         long usages, double meanUsageMs, long timeouts) {
+    }
+
+    private final MetricsTrackerFactory micrometer;
+    private final Map<String, Tracker> trackers = new ConcurrentHashMap<>();
+
+    public PoolTelemetry(MeterRegistry meterRegistry) {
+        this.micrometer = new MicrometerMetricsTrackerFactory(meterRegistry);
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        Tracker tracker = new Tracker(micrometer.create(poolName, poolStats));
+        trackers.put(poolName, tracker);
+        return tracker;
+    }
+
+    /**
+     * Devuelve lo observado en el pool desde la llamada anterior y empieza una ventana nueva.
+     *
+     * @return la ventana, o una vacía si el pool aún no ha arrancado.
+     */
+    public Window drain(String poolName) {
+        Tracker tracker = trackers.get(poolName);
+        return tracker != null ? tracker.drain() : new Window(0, 0, 0, 0, 0, 0);
+    }
+
+    private static final class Tracker implements IMetricsTracker {
+
+        private final IMetricsTracker delegate;
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder acquireNanos = new LongAdder();
+        private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder usages = new LongAdder();
+        private final LongAdder usageMillis = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+
+        Tracker(IMetricsTracker delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            delegate.recordConnectionCreatedMillis(connectionCreatedMillis);
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquisitions.increment();
+            acquireNanos.add(elapsedAcquiredNanos);
+            maxAcquireNanos.accumulate(elapsedAcquiredNanos);
+            delegate.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usages.increment();
+            usageMillis.add(elapsedBorrowedMillis);
+            delegate.recordConnectionUsageMillis(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+            delegate.recordConnectionTimeout();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+
+        // Los contadores se leen y reinician uno a uno: una conexión entregada justo durante la
+        // lectura puede contarse en la ventana siguiente, lo que no afecta a las decisiones
+        Window drain() {
+            long acquired = acquisitions.sumThenReset();
+            long waited = acquireNanos.sumThenReset();
+            long maxWaited = maxAcquireNanos.getThenReset();
+            long returned = usages.sumThenReset();
+            long used = usageMillis.sumThenReset();
+            long timedOut = timeouts.sumThenReset();
+            double nanosPerMilli = TimeUnit.MILLISECONDS.toNanos(1);
+            return new Window(acquired,
+                    acquired > 0 ? waited / nanosPerMilli / acquired : 0,
+                    maxWaited / nanosPerMilli,
+                    returned,
+                    returned > 0 ? (double) used / returned : 0,
+                    timedOut);
+        }
+    }
+}
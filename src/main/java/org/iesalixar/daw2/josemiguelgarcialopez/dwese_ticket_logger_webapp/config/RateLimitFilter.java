@@ -0,0 +1,115 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita los POST de alta y edición por cliente (dirección IP) con un `RateLimiter` por grupo de
+ * endpoints. La IP es la de `getRemoteAddr()`, que detrás de un proxy de confianza Tomcat ya toma de
+ * X-Forwarded-For (`server.forward-headers-strategy=native`). Los grupos se declaran en `app.ratelimit.groups` y cada uno tiene sus rutas, su ritmo
+ * y su ráfaga:
+ *
+ * <pre>
+ * app.ratelimit.groups=locations
+ * app.ratelimit.locations.paths=/locations/insert,/locations/update
+ * app.ratelimit.locations.rate-per-second=2
+ * app.ratelimit.locations.burst=10
+ * </pre>
+ *
+ * Es un filtro y va de los primeros: una petición rechazada responde 429 con `Retry-After` antes de
+ * leer el formulario (o el archivo subido) y sin tocar la base de datos. Los rechazos se cuentan en
+ * la métrica `app.ratelimit.rejected` (etiqueta `group`).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // Logger para registrar eventos importantes
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    @Value("${app.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    // Limitador de cada ruta (varias rutas comparten el del grupo)
+    private final Map<String, RateLimiter> limiters = new HashMap<>();
+    private final Map<String, Counter> rejected = new HashMap<>();
+
+    // Los tests de controladores (@WebMvcTest) cargan los filtros pero no el registro de métricas
+    public RateLimitFilter(Environment environment, ObjectProvider<MeterRegistry> meterRegistryProvider,
+                           @Value("${app.ratelimit.max-clients:10000}") int maxClients) {
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        String[] groups = environment.getProperty("app.ratelimit.groups", String[].class, new String[0]);
+        for (String group : groups) {
+            String prefix = "app.ratelimit." + group.trim() + ".";
+            RateLimiter limiter = new RateLimiter(group.trim(),
+                    environment.getProperty(prefix + "rate-per-second", Double.class, 1.0),
+                    environment.getProperty(prefix + "burst", Integer.class, 10),
+                    maxClients);
+            for (String path : environment.getProperty(prefix + "paths", String[].class, new String[0])) {
+                limiters.put(path.trim(), limiter);
+            }
+            rejected.put(limiter.getName(), Counter.builder("app.ratelimit.rejected")
+                    .description("Peticiones rechazadas por superar el límite del cliente")
+                    .tag("group", limiter.getName())
+                    .register(meterRegistry));
+            logger.info("Rate limit group {}: {}", limiter.getName(), environment.getProperty(prefix + "paths"));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod()) || !limiters.containsKey(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RateLimiter limiter = limiters.get(request.getServletPath());
+        long waitNanos = limiter.tryAcquire(request.getRemoteAddr(), System.nanoTime());
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        rejected.get(limiter.getName()).increment();
+        logger.debug("Rate limit exceeded by {} on {}", request.getRemoteAddr(), request.getServletPath());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write("Too many requests");
+    }
+
+    // Descarta los cubos de los clientes que llevan un rato sin escribir
+    @Scheduled(fixedDelayString = "${app.ratelimit.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        limiters.values().stream().distinct().forEach(limiter -> {
+            int evicted = limiter.evictIdle(now);
+            if (evicted > 0) {
+                logger.debug("Rate limit group {}: {} idle clients evicted, {} tracked",
+                        limiter.getName(), evicted, limiter.size());
+            }
+        });
+    }
+}
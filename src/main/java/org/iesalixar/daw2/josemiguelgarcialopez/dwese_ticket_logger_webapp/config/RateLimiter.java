@@ -0,0 +1,100 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cubo de fichas por cliente para un grupo de endpoints: cada cliente puede hacer `burst` peticiones
+ * seguidas y después `ratePerSecond` por segundo. No usa bloqueos: cada cubo es un único `AtomicLong`
+ * que se actualiza con compare-and-set.
+ *
+ * El mapa de cubos está acotado a `maxClients`. Un cubo que ha vuelto a llenarse es igual que uno
+ * nuevo, así que se puede descartar sin perder nada (`evictIdle`). Si el mapa está lleno de clientes
+ * activos, los nuevos comparten un cubo común: se limitan entre todos en lugar de llenar la memoria.
+ */
+public class RateLimiter {
+
+    private final String name;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxClients;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Bucket overflow;
+
+    /**
+     * Cubo como instante teórico en el que volverá a estar lleno (algoritmo GCRA): cada petición lo
+     * adelanta un intervalo, y se rechaza si quedaría a más de `burst` intervalos del presente.
+     */
+    private final class Bucket {
+
+        private final AtomicLong fullAt;
+
+        Bucket(long nowNanos) {
+            fullAt = new AtomicLong(nowNanos);
+        }
+
+        long tryAcquire(long nowNanos) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current - nowNanos, 0) + intervalNanos;
+                if (next > burstNanos) {
+                    return next - burstNanos;
+                }
+                if (fullAt.compareAndSet(current, nowNanos + next)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isFull(long nowNanos) {
+            return fullAt.get() - nowNanos <= 0;
+        }
+    }
+
+    public RateLimiter(String name, double ratePerSecond, int burst, int maxClients) {
+        if (ratePerSecond <= 0 || burst < 1 || maxClients < 1) {
+            throw new IllegalArgumentException("Invalid rate limit for " + name);
+        }
+        this.name = name;
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond));
+        this.burstNanos = intervalNanos * burst;
+        this.maxClients = maxClients;
+        this.overflow = new Bucket(System.nanoTime());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Consume una ficha del cliente.
+     *
+     * @return 0 si se admite la petición, o los nanosegundos que faltan para la siguiente ficha.
+     */
+    public long tryAcquire(String client, long nowNanos) {
+        Bucket bucket = buckets.get(client);
+        if (bucket == null) {
+            if (buckets.size() >= maxClients) {
+                return overflow.tryAcquire(nowNanos);
+            }
+            bucket = buckets.computeIfAbsent(client, key -> new Bucket(nowNanos));
+        }
+        return bucket.tryAcquire(nowNanos);
+    }
+
+    /**
+     * Descarta los cubos que han vuelto a llenarse.
+     *
+     * @return número de cubos descartados.
+     */
+    public int evictIdle(long nowNanos) {
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isFull(nowNanos));
+        return before - buckets.size();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,142 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * `DataSource` que reparte las conexiones entre la base de datos principal y sus réplicas:
+ *
+ * - Las transacciones de solo lectura (`@ReadOnlyTransactional` en los DAO) usan las réplicas por
+ *   turnos. El resto, y todo lo que se ejecuta fuera de una transacción, usa la principal.
+ * - Si una réplica no da conexión, se aparta durante `retryAfter` y se prueba la siguiente; sin
+ *   réplicas disponibles se lee de la principal.
+ * - Si el hilo tiene marcada la lectura en la principal (`setPrimaryRequired`, lo hace
+ *   `ReadYourWritesFilter` tras una escritura del usuario), no se usan réplicas.
+ *
+ * La decisión depende de la transacción en curso, así que debe envolverse en un
+ * `LazyConnectionDataSourceProxy`: la conexión real se pide al ejecutar la primera sentencia, cuando
+ * la transacción ya está marcada como de solo lectura.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    // Logger para registrar eventos importantes
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    // Marca de los hilos cuyas lecturas deben ir a la principal
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final long retryAfterNanos;
+    // Instante (System.nanoTime) hasta el que cada réplica está apartada; 0 si está disponible
+    private final AtomicLongArray unavailableUntil;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final AtomicLong replicaConnections = new AtomicLong();
+    private final AtomicLong primaryConnections = new AtomicLong();
+
+    /**
+     * @param primary    base de datos principal.
+     * @param replicas   réplicas de solo lectura (puede estar vacía).
+     * @param retryAfter tiempo que se aparta una réplica que ha fallado.
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, Duration retryAfter) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.retryAfterNanos = retryAfter.toNanos();
+        this.unavailableUntil = new AtomicLongArray(replicas.size());
+    }
+
+    /**
+     * Marca (o desmarca) que las lecturas del hilo actual deben ir a la principal.
+     */
+    public static void setPrimaryRequired(boolean required) {
+        if (required) {
+            PRIMARY_REQUIRED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(username, password);
+    }
+
+    /**
+     * Réplicas configuradas, en orden.
+     */
+    public List<DataSource> getReplicas() {
+        return replicas;
+    }
+
+    public long getReplicaConnections() {
+        return replicaConnections.get();
+    }
+
+    public long getPrimaryConnections() {
+        return primaryConnections.get();
+    }
+
+    private Connection connect(String username, String password) throws SQLException {
+        if (!replicas.isEmpty() && TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !isPrimaryRequired()) {
+            int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                int index = (start + i) % replicas.size();
+                long until = unavailableUntil.get(index);
+                if (until != 0 && System.nanoTime() - until < 0) {
+                    continue; // Apartada tras un fallo reciente
+                }
+                try {
+                    Connection connection = open(replicas.get(index), username, password);
+                    unavailableUntil.set(index, 0);
+                    replicaConnections.incrementAndGet();
+                    return connection;
+                } catch (SQLException e) {
+                    unavailableUntil.set(index, System.nanoTime() + retryAfterNanos);
+                    logger.warn("Replica {} unavailable, skipping it for {} s: {}", index + 1,
+                            Duration.ofNanos(retryAfterNanos).toSeconds(), e.getMessage());
+                }
+            }
+            logger.debug("No replica available, reading from the primary");
+        }
+        Connection connection = open(primary, username, password);
+        primaryConnections.incrementAndGet();
+        return connection;
+    }
+
+    private static Connection open(DataSource dataSource, String username, String password) throws SQLException {
+        return username != null ? dataSource.getConnection(username, password) : dataSource.getConnection();
+    }
+
+    /**
+     * Cierra los pools de las réplicas (el de la principal es un bean propio).
+     */
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Garantiza que un usuario ve sus propios cambios aunque las réplicas vayan con retraso: las
+ * peticiones que escriben (POST, PUT, PATCH, DELETE) leen de la principal y dejan una cookie con
+ * el instante hasta el que las siguientes peticiones de ese navegador también lo harán
+ * (`app.datasource.read-your-writes-seconds`). La marca se guarda en una cookie, no en la sesión.
+ */
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    // Nombre de la cookie con el instante (epoch en ms) hasta el que se lee de la principal
+    public static final String COOKIE_NAME = "TL_RYW";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    // Segundos durante los que un usuario lee de la principal tras escribir (0 = solo en la propia petición)
+    @Value("${app.datasource.read-your-writes-seconds:5}")
+    private int windowSeconds;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        if (write && windowSeconds > 0) {
+            // Antes de seguir con la cadena: después la respuesta puede estar ya enviada (redirecciones)
+            Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(System.currentTimeMillis() + windowSeconds * 1000L));
+            cookie.setMaxAge(windowSeconds);
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+        ReadWriteRoutingDataSource.setPrimaryRequired(write || wroteRecently(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadWriteRoutingDataSource.setPrimaryRequired(false);
+        }
+    }
+
+    private static boolean wroteRecently(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE_NAME);
+        if (cookie == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
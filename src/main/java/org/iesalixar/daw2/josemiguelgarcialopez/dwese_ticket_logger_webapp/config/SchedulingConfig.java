@@ -0,0 +1,12 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config;
+
+import org.springframework.context.annotation.Configuration; // Importa la anotación de configuración de Spring
+import org.springframework.scheduling.annotation.EnableScheduling; // Activa los métodos @Scheduled
+
+/**
+ * Activa las tareas programadas (`@Scheduled`), como el mantenimiento de las particiones de tickets.
+ */
+@Configuration // Marca esta clase como configuración de Spring
+@EnableScheduling // Habilita la ejecución de tareas programadas
+public class SchedulingConfig {
+}
@@ -0,0 +1,44 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.UploadLayout;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.ResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.util.List;
+
+/**
+ * Sirve `/uploads/{nombre}` desde el subdirectorio que le corresponde (ver `UploadLayout`). Si no está
+ * allí, lo busca en la raíz, donde siguen los archivos que aún no se han movido; y si tampoco, vuelve
+ * a mirar en el subdirectorio por si `UploadShardMigrator` lo ha movido entre las dos búsquedas.
+ */
+public class ShardedUploadResourceResolver implements ResourceResolver {
+
+    @Override
+    @Nullable
+    public Resource resolveResource(@Nullable HttpServletRequest request, String requestPath,
+                                    List<? extends Resource> locations, ResourceResolverChain chain) {
+        String sharded;
+        try {
+            sharded = UploadLayout.relativePath(requestPath);
+        } catch (IllegalArgumentException e) {
+            return null; // Con subdirectorios en la URL no es un archivo subido
+        }
+        Resource resource = chain.resolveResource(request, sharded, locations);
+        if (resource == null) {
+            resource = chain.resolveResource(request, requestPath, locations);
+        }
+        if (resource == null) {
+            resource = chain.resolveResource(request, sharded, locations);
+        }
+        return resource;
+    }
+
+    @Override
+    @Nullable
+    public String resolveUrlPath(String resourcePath, List<? extends Resource> locations, ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourcePath, locations);
+    }
+}
@@ -0,0 +1,73 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Set;
+
+/**
+ * Registra un desglose de tiempos del arranque cuando la aplicación está lista: el tiempo total y
+ * lo que tarda la creación de los beans más costosos (migraciones, DataSource, JPA...).
+ * Requiere que la aplicación arranque con un `BufferingApplicationStartup`, que `main` solo instala
+ * con los perfiles benchmark o loadtest.
+ */
+@Component
+public class StartupTimingReporter {
+
+    // Logger para registrar eventos importantes
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimingReporter.class);
+
+    // Número de beans más lentos que se muestran en el desglose
+    private static final int TOP_BEANS = 10;
+
+    // Beans que siempre se muestran porque son los que dependen de la base de datos
+    private static final Set<String> DATABASE_BEANS = Set.of("flyway", "flywayInitializer",
+            "dataSourceScriptDatabaseInitializer", "dataSource", "entityManagerFactory");
+
+    /**
+     * Escribe el desglose de tiempos en el log al terminar el arranque.
+     *
+     * @param event evento de aplicación lista.
+     */
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        logger.info("Aplicación lista en {} ms", event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1);
+
+        if (!(event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup)) {
+            logger.debug("ApplicationStartup sin buffer: no hay desglose de tiempos disponible.");
+            return;
+        }
+        StartupTimeline timeline = startup.getBufferedTimeline();
+
+        logger.info("Desglose del arranque (beans de base de datos):");
+        timeline.getEvents().stream()
+                .filter(e -> "spring.beans.instantiate".equals(e.getStartupStep().getName()))
+                .filter(e -> DATABASE_BEANS.contains(beanName(e.getStartupStep())))
+                .forEach(e -> logger.info("  {} -> {} ms", beanName(e.getStartupStep()), e.getDuration().toMillis()));
+
+        logger.info("Desglose del arranque ({} beans más lentos):", TOP_BEANS);
+        timeline.getEvents().stream()
+                .filter(e -> "spring.beans.instantiate".equals(e.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration, Comparator.<Duration>reverseOrder()))
+                .limit(TOP_BEANS)
+                .forEach(e -> logger.info("  {} -> {} ms", beanName(e.getStartupStep()), e.getDuration().toMillis()));
+    }
+
+    // Obtiene la etiqueta beanName de un paso de arranque
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return step.getName();
+    }
+}
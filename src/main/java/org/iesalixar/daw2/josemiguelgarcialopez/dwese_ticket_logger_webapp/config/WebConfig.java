@@ -42,8 +42,12 @@ public class WebConfig implements WebMvcConfigurer {
             // Configurar Spring para servir archivos desde la ruta obtenida
             //Cuando el servidor reciba una solicitud que coincida con /uploads/**,
             // buscará el archivo en la ruta física uploadPath del sistema de archivos del servidor.
+            // Los archivos están repartidos en subdirectorios: el resolver traduce el nombre a su
+            // ruta. Sin caché, porque los archivos pueden moverse mientras se migran.
             registry.addResourceHandler("/uploads/**")
-                    .addResourceLocations("file:" + uploadPath + "/");
+                    .addResourceLocations("file:" + uploadPath + "/")
+                    .resourceChain(false)
+                    .addResolver(new ShardedUploadResourceResolver());
         } else {
             logger.error("La variable de entorno UPLOAD_PATH no está configurada o está vacía.");
         }
@@ -0,0 +1,78 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.controllers;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.SpendingAnalyticsService; // Servicio de análisis de gasto
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.SpendingQuery; // Consulta de gasto
+import org.slf4j.Logger; // Logger para registrar información
+import org.slf4j.LoggerFactory; // Factoria para crear loggers
+import org.springframework.beans.factory.annotation.Autowired; // Para la inyección de dependencias
+import org.springframework.http.ResponseEntity; // Respuesta HTTP con código de estado
+import org.springframework.web.bind.annotation.*; // Anotaciones para manejar solicitudes web
+import java.time.YearMonth; // Meses de los filtros
+import java.time.format.DateTimeParseException; // Errores al leer los meses
+import java.util.Arrays; // Utilidades para arrays
+import java.util.List; // Lista de elementos
+import java.util.Locale; // Para pasar las dimensiones a mayúsculas
+import java.util.Map; // Cuerpo de los errores
+
+@RestController // Define esta clase como un controlador que devuelve JSON
+@RequestMapping("/api/analytics") // Ruta base para las consultas de análisis
+public class AnalyticsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsController.class); // Logger para esta clase
+
+    @Autowired // Inyección automática de dependencias
+    private SpendingAnalyticsService spendingAnalyticsService; // Servicio de análisis de gasto
+
+    /**
+     * Resultado de una consulta de gasto.
+     *
+     * @param loaded        si el almacén ya ha terminado de cargarse.
+     * @param lines         líneas de ticket en el almacén.
+     * @param elapsedMicros tiempo de la consulta en microsegundos.
+     * @param rows          filas del resultado.
+     */
+    public record SpendingReport(boolean loaded, int lines, long elapsedMicros, List<SpendingQuery.Row> rows) {
+    }
+
+    /**
+     * Suma el gasto de las líneas de ticket agrupado por las dimensiones indicadas, por ejemplo
+     * `/api/analytics/spending?groupBy=category,province,month&category=1&from=2024-01&to=2024-12`.
+     *
+     * @param groupBy     Dimensiones separadas por comas: category, province, supermarket, location, month.
+     * @param category    ID de categoría (incluye sus subcategorías).
+     * @param province    ID de provincia.
+     * @param supermarket ID de supermercado.
+     * @param location    ID de ubicación.
+     * @param from        Primer mes (yyyy-MM).
+     * @param to          Último mes (yyyy-MM).
+     * @return El resultado de la consulta o 400 si los parámetros no son válidos.
+     */
+    @GetMapping("/spending") // Maneja solicitudes GET a /api/analytics/spending
+    public ResponseEntity<?> getSpending(@RequestParam(value = "groupBy", defaultValue = "category") String groupBy,
+                                         @RequestParam(value = "category", required = false) Integer category,
+                                         @RequestParam(value = "province", required = false) Integer province,
+                                         @RequestParam(value = "supermarket", required = false) Integer supermarket,
+                                         @RequestParam(value = "location", required = false) Integer location,
+                                         @RequestParam(value = "from", required = false) String from,
+                                         @RequestParam(value = "to", required = false) String to) {
+        try {
+            List<SpendingQuery.Dimension> dimensions = Arrays.stream(groupBy.split(","))
+                    .map(String::strip)
+                    .filter(name -> !name.isEmpty())
+                    .map(name -> SpendingQuery.Dimension.valueOf(name.toUpperCase(Locale.ROOT)))
+                    .toList();
+            SpendingQuery query = new SpendingQuery(dimensions, category, province, supermarket, location,
+                    from != null ? YearMonth.parse(from) : null, to != null ? YearMonth.parse(to) : null);
+
+            long start = System.nanoTime();
+            List<SpendingQuery.Row> rows = spendingAnalyticsService.querySpending(query);
+            long elapsedMicros = (System.nanoTime() - start) / 1_000;
+            logger.info("Consulta de gasto {} resuelta en {} µs con {} filas", query, elapsedMicros, rows.size());
+            return ResponseEntity.ok(new SpendingReport(spendingAnalyticsService.isLoaded(),
+                    spendingAnalyticsService.getLineCount(), elapsedMicros, rows));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            logger.warn("Consulta de gasto no válida: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+}
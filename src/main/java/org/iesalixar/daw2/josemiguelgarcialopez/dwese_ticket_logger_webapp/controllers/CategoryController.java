@@ -4,15 +4,21 @@ import jakarta.validation.Valid;
 import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.CategoryDAO;
 import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Category;
 import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.FileStorageService;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.ImageRejectedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.List;
@@ -33,6 +39,12 @@ public class CategoryController {
     @Autowired
     private FileStorageService fileStorageService;
 
+    // La imagen y sus datos los pone el servidor al guardar el archivo, nunca el formulario
+    @InitBinder("category")
+    public void initBinder(WebDataBinder binder) {
+        binder.setDisallowedFields("image", "imageFormat", "imageWidth", "imageHeight");
+    }
+
     // Mostrar el listado de categorías
     @GetMapping
     public String listCategories(Model model) {
@@ -48,6 +60,17 @@ public class CategoryController {
         return "category";
     }
 
+    // Devolver solo la fila de una categoría; la usa el listado para actualizarla cuando cambia
+    @GetMapping("/row/{id}")
+    public String showRow(@PathVariable("id") int id, Model model) {
+        Category category = categoryDAO.getCategoryById(id);
+        if (category == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        model.addAttribute("category", category);
+        return "fragments/rows :: category(category=${category})";
+    }
+
     // Mostrar el formulario para crear una nueva categoría
     @GetMapping("/new")
     public String showNewForm(Model model) {
@@ -68,16 +91,9 @@ public class CategoryController {
             return "category-form";
         }
 
-        // Manejo de la imagen
-        if (!imageFile.isEmpty()) {
-            String fileName = fileStorageService.saveFile(imageFile);
-            if (fileName != null) {
-                category.setImage(fileName);
-            } else {
-                String errorMessage = messageSource.getMessage("msg.category.insert.imageError", null, locale);
-                redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
-                return "redirect:/categories/new";
-            }
+        // Manejo de la imagen: se comprueba su cabecera y se guardan sus datos junto al nombre
+        if (!imageFile.isEmpty() && !storeImage(category, imageFile, redirectAttributes, locale, "msg.category.insert.imageError")) {
+            return "redirect:/categories/new";
         }
 
         // Verificar si la categoría con el mismo nombre ya existe
@@ -122,19 +138,10 @@ public class CategoryController {
         }
 
         // Manejo de la imagen: solo actualizar si se sube una nueva imagen
-        if (!imageFile.isEmpty()) {
-            String fileName = fileStorageService.saveFile(imageFile);
-            if (fileName != null) {
-                category.setImage(fileName); // Se actualiza con la nueva imagen
-            } else {
-                String errorMessage = messageSource.getMessage("msg.category.update.imageError", null, locale);
-                redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
-                return "redirect:/categories/edit/" + category.getId();
-            }
-        } else {
-            // Si no se sube una nueva imagen, mantener la imagen actual
-            Category existingCategory = categoryDAO.getCategoryById(category.getId());
-            category.setImage(existingCategory.getImage());
+        // Sin imagen nueva, el DAO no toca la columna y se mantiene la actual
+        category.setImage(null);
+        if (!imageFile.isEmpty() && !storeImage(category, imageFile, redirectAttributes, locale, "msg.category.update.imageError")) {
+            return "redirect:/categories/edit/" + category.getId();
         }
 
         // Verificar si la categoría con el mismo nombre ya existe (excluyendo la categoría actual)
@@ -147,6 +154,11 @@ public class CategoryController {
         try {
             categoryDAO.updateCategory(category);
             return "redirect:/categories";
+        } catch (OptimisticLockingFailureException e) {
+            // Otro usuario ha cambiado o eliminado la categoría desde que se abrió el formulario
+            String errorMessage = messageSource.getMessage("msg.category-controller.update.conflict", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
+            return "redirect:/categories/edit/" + category.getId();
         } catch (Exception e) {
             String errorMessage = messageSource.getMessage("msg.category.update.error", null, locale);
             redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
@@ -157,7 +169,7 @@ public class CategoryController {
 
     // Eliminar una categoría
     @PostMapping("/delete/{id}")
-    public String deleteCategory(@PathVariable("id") int id, RedirectAttributes redirectAttributes) {
+    public String deleteCategory(@PathVariable("id") int id, RedirectAttributes redirectAttributes, Locale locale) {
         try {
             Category category = categoryDAO.getCategoryById(id);
             categoryDAO.deleteCategory(id);
@@ -168,9 +180,65 @@ public class CategoryController {
             }
 
             redirectAttributes.addFlashAttribute("successMessage", "Categoría eliminada exitosamente.");
+        } catch (DataIntegrityViolationException e) {
+            // La usan líneas de ticket: no se borra ni la fila ni su imagen
+            redirectAttributes.addFlashAttribute("errorMessage",
+                    messageSource.getMessage("msg.category-controller.delete.inUse", null, locale));
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", "Error al eliminar la categoría.");
         }
         return "redirect:/categories";
     }
-}
\ No newline at end of file
+
+    // Eliminar las categorías seleccionadas en la lista y, después, sus imágenes de una vez
+    @PostMapping("/delete-selected")
+    public String deleteSelectedCategories(@RequestParam(value = "ids", required = false) List<Integer> ids,
+                                           RedirectAttributes redirectAttributes, Locale locale) {
+        if (ids == null || ids.isEmpty()) {
+            redirectAttributes.addFlashAttribute("errorMessage",
+                    messageSource.getMessage("msg.category-controller.deleteSelected.none", null, locale));
+            return "redirect:/categories";
+        }
+        try {
+            List<String> images = categoryDAO.listImagesByIds(ids);
+            int deleted = categoryDAO.deleteCategories(ids);
+            fileStorageService.deleteFiles(images); // Las filas ya no existen: se borran sus imágenes
+            redirectAttributes.addFlashAttribute("successMessage",
+                    messageSource.getMessage("msg.category-controller.deleteSelected.success", new Object[]{deleted}, locale));
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Selected categories are used by tickets; none deleted");
+            redirectAttributes.addFlashAttribute("errorMessage",
+                    messageSource.getMessage("msg.category-controller.deleteSelected.inUse", null, locale));
+        } catch (Exception e) {
+            logger.error("Error deleting {} selected categories", ids.size(), e);
+            redirectAttributes.addFlashAttribute("errorMessage", "Error al eliminar las categorías.");
+        }
+        return "redirect:/categories";
+    }
+
+    /**
+     * Guarda la imagen subida y pone en la categoría su nombre, formato y dimensiones. Si se rechaza o
+     * no se puede guardar, deja el mensaje de error para la redirección.
+     *
+     * @return true si la imagen se ha guardado.
+     */
+    private boolean storeImage(Category category, MultipartFile imageFile, RedirectAttributes redirectAttributes,
+                               Locale locale, String errorKey) {
+        try {
+            FileStorageService.StoredImage image = fileStorageService.saveImage(imageFile);
+            if (image != null) {
+                category.setImage(image.fileName());
+                category.setImageFormat(image.info().format());
+                category.setImageWidth(image.info().width());
+                category.setImageHeight(image.info().height());
+                return true;
+            }
+            redirectAttributes.addFlashAttribute("errorMessage", messageSource.getMessage(errorKey, null, locale));
+        } catch (ImageRejectedException e) {
+            logger.warn("Imagen de categoría rechazada: {}", e.getMessage());
+            redirectAttributes.addFlashAttribute("errorMessage",
+                    messageSource.getMessage(e.getMessageKey(), e.getMessageArgs(), locale));
+        }
+        return false;
+    }
+}
@@ -0,0 +1,37 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.controllers;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.EntityType; // Entidades que se pueden seguir
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.ChangeEventBroadcaster; // Reparto de los cambios
+import org.springframework.beans.factory.annotation.Autowired; // Para la inyección de dependencias
+import org.springframework.http.HttpStatus; // Códigos de estado HTTP
+import org.springframework.http.MediaType; // Tipo de contenido de la respuesta
+import org.springframework.http.ResponseEntity; // Respuesta HTTP con código de estado
+import org.springframework.web.bind.annotation.*; // Anotaciones para manejar solicitudes web
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter; // Conexión de server-sent events
+import java.util.List; // Lista de elementos
+import java.util.Set; // Conjunto de entidades
+
+@RestController // Define esta clase como un controlador que devuelve datos, no vistas
+@RequestMapping("/events") // Ruta de los eventos de cambio
+public class ChangeEventController {
+
+    @Autowired // Inyección automática de dependencias
+    private ChangeEventBroadcaster changeEventBroadcaster; // Reparte los cambios confirmados
+
+    /**
+     * Abre una conexión de server-sent events que recibe los cambios de las entidades indicadas, por
+     * ejemplo `/events?entity=REGION`. Las páginas de listado la usan para actualizar solo las filas
+     * que cambian.
+     *
+     * @param entities Entidades que se siguen (una o varias).
+     * @return La conexión, o 503 si hay demasiadas abiertas.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE) // Maneja solicitudes GET a /events
+    public ResponseEntity<SseEmitter> subscribe(@RequestParam("entity") List<EntityType> entities) {
+        SseEmitter emitter = changeEventBroadcaster.subscribe(Set.copyOf(entities));
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+}
@@ -0,0 +1,197 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.controllers;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.CategoryDAO; // DAO de categorías
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.EntityType; // Tipos de entidad
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.FieldProjectionDAO; // Proyecciones por campos
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.LocationDAO; // DAO de ubicaciones
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.ProvinceDAO; // DAO de provincias
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.RegionDAO; // DAO de regiones
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.SupermarketDAO; // DAO de supermercados
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.reactive.*; // Filas y repositorios R2DBC
+import org.slf4j.Logger; // Interfaz de logging
+import org.slf4j.LoggerFactory; // Fábrica de loggers
+import org.springframework.beans.factory.annotation.Autowired; // Para la inyección de dependencias
+import org.springframework.http.MediaType; // Tipo de contenido de las respuestas
+import org.springframework.http.ResponseEntity; // Respuesta HTTP con código de estado
+import org.springframework.web.bind.annotation.*; // Anotaciones para manejar solicitudes web
+import reactor.core.publisher.Flux; // Secuencia reactiva de filas
+import java.util.List; // Lista de elementos
+import java.util.Map; // Cuerpo de los errores
+import java.util.function.Function; // Conversión de entidad a fila
+import java.util.function.IntFunction; // Búsqueda de una entidad por ID
+import java.util.function.Supplier; // Listado completo
+
+/**
+ * Listados de la API en dos variantes con el mismo contenido:
+ *
+ * - `/api/{entidad}`: JSON con todas las filas, leídas con los DAO de JPA. El hilo de la petición
+ *   queda ocupado hasta que termina la consulta.
+ * - `/api/{entidad}/stream`: JSON por líneas (`application/x-ndjson`) leído con R2DBC. El hilo de la
+ *   petición se libera enseguida y cada fila se escribe según llega de la base de datos.
+ *
+ * El listado y el detalle (`/api/{entidad}/{id}`) admiten `fields=id,name`: entonces la consulta
+ * selecciona solo esas columnas (ver `FieldProjectionDAO`) y cada fila lleva solo esos campos. Un
+ * campo desconocido, o `fields` sin ningún campo, responde 400 con la lista de campos válidos.
+ */
+@RestController // Define esta clase como un controlador que devuelve JSON
+@RequestMapping("/api") // Ruta base de la API
+public class ListApiController {
+
+    // Logger para registrar eventos importantes
+    private static final Logger logger = LoggerFactory.getLogger(ListApiController.class);
+
+    @Autowired // Inyección automática de dependencias
+    private RegionDAO regionDAO;
+
+    @Autowired
+    private ProvinceDAO provinceDAO;
+
+    @Autowired
+    private SupermarketDAO supermarketDAO;
+
+    @Autowired
+    private LocationDAO locationDAO;
+
+    @Autowired
+    private CategoryDAO categoryDAO;
+
+    @Autowired // Consultas que solo leen los campos pedidos
+    private FieldProjectionDAO fieldProjectionDAO;
+
+    @Autowired // Repositorios de lectura no bloqueante
+    private RegionStreamRepository regionStreamRepository;
+
+    @Autowired
+    private ProvinceStreamRepository provinceStreamRepository;
+
+    @Autowired
+    private SupermarketStreamRepository supermarketStreamRepository;
+
+    @Autowired
+    private LocationStreamRepository locationStreamRepository;
+
+    @Autowired
+    private CategoryStreamRepository categoryStreamRepository;
+
+    @GetMapping("/regions") // Maneja solicitudes GET a /api/regions
+    public ResponseEntity<?> listRegions(@RequestParam(value = "fields", required = false) List<String> fields) {
+        return list(EntityType.REGION, fields, () -> regionDAO.listAllRegions().stream().map(RegionRow::of).toList());
+    }
+
+    @GetMapping("/regions/{id}") // Maneja solicitudes GET a /api/regions/{id}
+    public ResponseEntity<?> getRegion(@PathVariable("id") int id,
+                                    @RequestParam(value = "fields", required = false) List<String> fields) {
+        return get(EntityType.REGION, id, fields, regionDAO::getRegionById, RegionRow::of);
+    }
+
+    @GetMapping(value = "/regions/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<RegionRow> streamRegions() {
+        return regionStreamRepository.streamAll();
+    }
+
+    @GetMapping("/provinces") // Maneja solicitudes GET a /api/provinces
+    public ResponseEntity<?> listProvinces(@RequestParam(value = "fields", required = false) List<String> fields) {
+        return list(EntityType.PROVINCE, fields, () -> provinceDAO.listAllProvinces().stream().map(ProvinceRow::of).toList());
+    }
+
+    @GetMapping("/provinces/{id}") // Maneja solicitudes GET a /api/provinces/{id}
+    public ResponseEntity<?> getProvince(@PathVariable("id") int id,
+                                    @RequestParam(value = "fields", required = false) List<String> fields) {
+        return get(EntityType.PROVINCE, id, fields, provinceDAO::getProvinceById, ProvinceRow::of);
+    }
+
+    @GetMapping(value = "/provinces/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProvinceRow> streamProvinces() {
+        return provinceStreamRepository.streamAll();
+    }
+
+    @GetMapping("/supermarkets") // Maneja solicitudes GET a /api/supermarkets
+    public ResponseEntity<?> listSupermarkets(@RequestParam(value = "fields", required = false) List<String> fields) {
+        return list(EntityType.SUPERMARKET, fields, () -> supermarketDAO.listAllSupermarkets().stream().map(SupermarketRow::of).toList());
+    }
+
+    @GetMapping("/supermarkets/{id}") // Maneja solicitudes GET a /api/supermarkets/{id}
+    public ResponseEntity<?> getSupermarket(@PathVariable("id") int id,
+                                    @RequestParam(value = "fields", required = false) List<String> fields) {
+        return get(EntityType.SUPERMARKET, id, fields, supermarketDAO::getSupermarketById, SupermarketRow::of);
+    }
+
+    @GetMapping(value = "/supermarkets/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<SupermarketRow> streamSupermarkets() {
+        return supermarketStreamRepository.streamAll();
+    }
+
+    @GetMapping("/locations") // Maneja solicitudes GET a /api/locations
+    public ResponseEntity<?> listLocations(@RequestParam(value = "fields", required = false) List<String> fields) {
+        return list(EntityType.LOCATION, fields, () -> locationDAO.listAllLocations().stream().map(LocationRow::of).toList());
+    }
+
+    @GetMapping("/locations/{id}") // Maneja solicitudes GET a /api/locations/{id}
+    public ResponseEntity<?> getLocation(@PathVariable("id") int id,
+                                    @RequestParam(value = "fields", required = false) List<String> fields) {
+        return get(EntityType.LOCATION, id, fields, locationDAO::getLocationById, LocationRow::of);
+    }
+
+    @GetMapping(value = "/locations/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<LocationRow> streamLocations() {
+        return locationStreamRepository.streamAll();
+    }
+
+    @GetMapping("/categories") // Maneja solicitudes GET a /api/categories
+    public ResponseEntity<?> listCategories(@RequestParam(value = "fields", required = false) List<String> fields) {
+        return list(EntityType.CATEGORY, fields, () -> categoryDAO.listAllCategories().stream().map(CategoryRow::of).toList());
+    }
+
+    @GetMapping("/categories/{id}") // Maneja solicitudes GET a /api/categories/{id}
+    public ResponseEntity<?> getCategory(@PathVariable("id") int id,
+                                    @RequestParam(value = "fields", required = false) List<String> fields) {
+        return get(EntityType.CATEGORY, id, fields, categoryDAO::getCategoryById, CategoryRow::of);
+    }
+
+    @GetMapping(value = "/categories/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CategoryRow> streamCategories() {
+        return categoryStreamRepository.streamAll();
+    }
+
+    // Listado completo o, si se piden campos, solo esos campos
+    private ResponseEntity<?> list(EntityType entityType, List<String> fields, Supplier<List<?>> fullRows) {
+        if (fields == null) {
+            return ResponseEntity.ok(fullRows.get());
+        }
+        ResponseEntity<?> badFields = checkFields(entityType, fields);
+        return badFields != null ? badFields : ResponseEntity.ok(fieldProjectionDAO.listFields(entityType, fields));
+    }
+
+    // Detalle completo o, si se piden campos, solo esos campos; 404 si no existe
+    private <T> ResponseEntity<?> get(EntityType entityType, int id, List<String> fields,
+                                      IntFunction<T> finder, Function<T, ?> toRow) {
+        Object row;
+        if (fields == null) {
+            T entity = finder.apply(id);
+            row = entity != null ? toRow.apply(entity) : null;
+        } else {
+            ResponseEntity<?> badFields = checkFields(entityType, fields);
+            if (badFields != null) {
+                return badFields;
+            }
+            row = fieldProjectionDAO.getFields(entityType, id, fields);
+        }
+        return row != null ? ResponseEntity.ok(row) : ResponseEntity.notFound().build();
+    }
+
+    // 400 con los campos válidos si no se pide ninguno o alguno no existe; null si se pueden consultar.
+    // Se comprueba aquí y no con la excepción del DAO, que @Repository traduce a una de acceso a datos
+    private ResponseEntity<?> checkFields(EntityType entityType, List<String> fields) {
+        List<String> validFields = fieldProjectionDAO.listFieldNames(entityType);
+        String error = fields.isEmpty() ? "No fields requested" : fields.stream()
+                .filter(field -> !validFields.contains(field))
+                .findFirst()
+                .map(field -> "Unknown field: " + field)
+                .orElse(null);
+        if (error == null) {
+            return null;
+        }
+        logger.warn("Campos no válidos para {}: {}", entityType, error);
+        return ResponseEntity.badRequest().body(Map.of("error", error, "fields", validFields));
+    }
+}
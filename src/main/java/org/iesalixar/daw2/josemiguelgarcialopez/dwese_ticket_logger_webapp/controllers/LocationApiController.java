@@ -0,0 +1,85 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.controllers;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location; // Entidad de ubicación
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.LocationSearchService; // Búsquedas por cercanía
+import org.slf4j.Logger; // Logger para registrar información
+import org.slf4j.LoggerFactory; // Factoria para crear loggers
+import org.springframework.beans.factory.annotation.Autowired; // Para la inyección de dependencias
+import org.springframework.http.ResponseEntity; // Respuesta HTTP con código de estado
+import org.springframework.web.bind.annotation.*; // Anotaciones para manejar solicitudes web
+import java.util.List; // Lista de elementos
+import java.util.Map; // Cuerpo de los errores
+
+@RestController // Define esta clase como un controlador que devuelve JSON
+@RequestMapping("/api/locations") // Ruta base de la API de ubicaciones
+public class LocationApiController {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationApiController.class); // Logger para esta clase
+
+    // Número máximo de ubicaciones de una búsqueda por cercanía
+    private static final int MAX_NEAREST = 100;
+
+    @Autowired // Inyección automática de dependencias
+    private LocationSearchService locationSearchService; // Búsquedas por cercanía
+
+    /**
+     * Ubicación tal y como se devuelve en la API.
+     */
+    public record LocationSummary(int id, String address, String city, String supermarket, String province,
+                                  Double latitude, Double longitude, Double distanceKm) {
+
+        static LocationSummary of(Location location, Double distanceKm) {
+            return new LocationSummary(location.getId(), location.getAddress(), location.getCity(),
+                    location.getSupermarket().getName(), location.getProvince().getName(),
+                    location.getLatitude(), location.getLongitude(), distanceKm);
+        }
+    }
+
+    /**
+     * Devuelve las `k` ubicaciones más cercanas a un punto, por ejemplo `/api/locations/nearby?lat=37.38&lon=-6.05&k=5`.
+     *
+     * @param latitude  Latitud del punto.
+     * @param longitude Longitud del punto.
+     * @param k         Número de ubicaciones (1 a 100).
+     * @return Las ubicaciones de la más cercana a la más lejana, o 400 si los parámetros no son válidos.
+     */
+    @GetMapping("/nearby") // Maneja solicitudes GET a /api/locations/nearby
+    public ResponseEntity<?> getNearby(@RequestParam("lat") double latitude, @RequestParam("lon") double longitude,
+                                       @RequestParam(value = "k", defaultValue = "5") int k) {
+        if (!validCoordinates(latitude, longitude) || k < 1 || k > MAX_NEAREST) {
+            return ResponseEntity.badRequest().body(Map.of("error", "coordenadas o k fuera de rango"));
+        }
+        logger.info("Buscando las {} ubicaciones más cercanas a ({}, {})", k, latitude, longitude);
+        List<LocationSummary> result = locationSearchService.findNearest(latitude, longitude, k).stream()
+                .map(nearby -> LocationSummary.of(nearby.location(), nearby.distanceKm()))
+                .toList();
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Devuelve las ubicaciones dentro de un rectángulo de coordenadas.
+     *
+     * @param minLatitude  Latitud mínima.
+     * @param minLongitude Longitud mínima.
+     * @param maxLatitude  Latitud máxima.
+     * @param maxLongitude Longitud máxima.
+     * @return Las ubicaciones ordenadas por ID, o 400 si el rectángulo no es válido.
+     */
+    @GetMapping("/within") // Maneja solicitudes GET a /api/locations/within
+    public ResponseEntity<?> getWithin(@RequestParam("minLat") double minLatitude, @RequestParam("minLon") double minLongitude,
+                                       @RequestParam("maxLat") double maxLatitude, @RequestParam("maxLon") double maxLongitude) {
+        if (!validCoordinates(minLatitude, minLongitude) || !validCoordinates(maxLatitude, maxLongitude)
+                || minLatitude > maxLatitude || minLongitude > maxLongitude) {
+            return ResponseEntity.badRequest().body(Map.of("error", "rectángulo no válido"));
+        }
+        logger.info("Buscando ubicaciones entre ({}, {}) y ({}, {})", minLatitude, minLongitude, maxLatitude, maxLongitude);
+        List<LocationSummary> result = locationSearchService.findWithin(minLatitude, minLongitude, maxLatitude, maxLongitude).stream()
+                .map(location -> LocationSummary.of(location, null))
+                .toList();
+        return ResponseEntity.ok(result);
+    }
+
+    private static boolean validCoordinates(double latitude, double longitude) {
+        return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+}
@@ -7,15 +7,20 @@ import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.S
 import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location; // Entidad de ubicación
 import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Province; // Entidad de provincia
 import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Supermarket; // Entidad de supermercado
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.LocationSearchService; // Búsquedas por cercanía
 import org.slf4j.Logger; // Logger para registrar información
 import org.slf4j.LoggerFactory; // Factoria para crear loggers
 import org.springframework.beans.factory.annotation.Autowired; // Para la inyección de dependencias
 import org.springframework.context.MessageSource; // Para la internacionalización de mensajes
+import org.springframework.dao.DataIntegrityViolationException; // Borrado de filas que usan los tickets
+import org.springframework.dao.OptimisticLockingFailureException; // Conflicto de edición concurrente
+import org.springframework.http.HttpStatus; // Código 404 de las filas que ya no existen
 import org.springframework.stereotype.Controller; // Indica que esta clase es un controlador
 import org.springframework.ui.Model; // Modelo para pasar datos a la vista
 import org.springframework.validation.BindingResult; // Resultado de la validación de formularios
 import org.springframework.web.bind.annotation.*; // Anotaciones para manejar solicitudes web
 import org.springframework.web.servlet.mvc.support.RedirectAttributes; // Para manejar redirecciones y mensajes flash
+import org.springframework.web.server.ResponseStatusException; // Respuesta de error con código de estado
 import java.util.List; // Lista de elementos
 import java.util.Locale; // Para la localización de mensajes
 
@@ -34,6 +39,9 @@ public class LocationController {
     @Autowired // Inyección automática de dependencias
     private SupermarketDAO supermarketDAO; // DAO para supermercados
 
+    @Autowired // Inyección automática de dependencias
+    private LocationSearchService locationSearchService; // Búsquedas por cercanía
+
     @Autowired // Inyección automática de dependencias
     private MessageSource messageSource; // Para mensajes internacionalizados
 
@@ -52,6 +60,54 @@ public class LocationController {
         return "location"; // Devuelve la vista para mostrar la lista de ubicaciones
     }
 
+    /**
+     * Devuelve solo la fila de la ubicación en el listado. La usa la página del listado para actualizar
+     * la fila cuando otro usuario la cambia.
+     *
+     * @param id    ID de la ubicación.
+     * @param model Modelo para pasar datos a la vista.
+     * @return El fragmento de la fila, o 404 si ya no existe.
+     */
+    @GetMapping("/row") // Mapea la solicitud GET a "/locations/row"
+    public String showRow(@RequestParam("id") int id, Model model) {
+        Location location = locationDAO.getLocationById(id);
+        if (location == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        model.addAttribute("location", location);
+        return "fragments/rows :: location(location=${location})";
+    }
+
+    /**
+     * Muestra las ubicaciones más cercanas a un punto. Sin coordenadas solo se muestra el formulario.
+     *
+     * @param latitude  Latitud del punto.
+     * @param longitude Longitud del punto.
+     * @param k         Número de ubicaciones a mostrar.
+     * @param model     Modelo para pasar datos a la vista.
+     * @param locale    Localización para mensajes internacionalizados.
+     * @return El nombre de la plantilla Thymeleaf de la búsqueda por cercanía.
+     */
+    @GetMapping("/nearby") // Maneja solicitudes GET a /locations/nearby
+    public String showNearby(@RequestParam(value = "lat", required = false) Double latitude,
+                             @RequestParam(value = "lon", required = false) Double longitude,
+                             @RequestParam(value = "k", defaultValue = "5") int k, Model model, Locale locale) {
+        int limit = Math.max(1, Math.min(k, 50)); // Entre 1 y 50 ubicaciones
+        model.addAttribute("lat", latitude); // Conserva los valores del formulario
+        model.addAttribute("lon", longitude);
+        model.addAttribute("k", limit);
+        if (latitude == null || longitude == null) {
+            return "location-nearby"; // Solo el formulario
+        }
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            model.addAttribute("errorMessage", messageSource.getMessage("msg.location-nearby.invalid", null, locale));
+            return "location-nearby";
+        }
+        logger.info("Buscando las {} ubicaciones más cercanas a ({}, {})", limit, latitude, longitude); // Registro de la acción
+        model.addAttribute("listNearby", locationSearchService.findNearest(latitude, longitude, limit)); // Resultados con su distancia
+        return "location-nearby"; // Devuelve la vista con los resultados
+    }
+
     /**
      * Muestra el formulario para crear una nueva ubicación.
      *
@@ -94,8 +150,12 @@ public class LocationController {
     /**
      * Inserta una nueva ubicación en la base de datos.
      *
+     * Si ya hay una ubicación de la misma provincia con una dirección probablemente igual, se vuelve
+     * al formulario mostrando los candidatos hasta que el usuario confirme que no es un duplicado.
+     *
      * @param location            Objeto que contiene los datos del formulario.
      * @param result              Resultado de la validación del formulario.
+     * @param confirmDuplicate    Si el usuario ha confirmado que la ubicación no es un duplicado.
      * @param redirectAttributes  Atributos para mensajes flash de redirección.
      * @param locale              Localización para mensajes internacionalizados.
      * @param model               Modelo para pasar datos a la vista.
@@ -103,6 +163,7 @@ public class LocationController {
      */
     @PostMapping("/insert") // Maneja solicitudes POST a /locations/insert
     public String insertLocation(@Valid @ModelAttribute("location") Location location, BindingResult result,
+                                 @RequestParam(value = "confirmDuplicate", defaultValue = "false") boolean confirmDuplicate,
                                  RedirectAttributes redirectAttributes, Locale locale, Model model) {
         logger.info("Insertando nueva ubicación con dirección {}", location.getAddress()); // Registro de la acción
         if (result.hasErrors()) { // Verifica si hay errores de validación
@@ -118,6 +179,16 @@ public class LocationController {
             redirectAttributes.addFlashAttribute("errorMessage", errorMessage); // Agrega mensaje flash
             return "redirect:/locations/new"; // Redirige al formulario de nueva ubicación
         }
+        if (!confirmDuplicate) {
+            List<LocationSearchService.DuplicateCandidate> duplicates = locationSearchService.findProbableDuplicates(location); // Direcciones parecidas
+            if (!duplicates.isEmpty()) {
+                logger.warn("La dirección {} se parece a {} ubicaciones existentes.", location.getAddress(), duplicates.size()); // Registro de advertencia
+                model.addAttribute("duplicateCandidates", duplicates); // Candidatos para que el usuario los revise
+                model.addAttribute("listProvinces", provinceDAO.listAllProvinces()); // Agrega la lista de provincias al modelo
+                model.addAttribute("listSupermarkets", supermarketDAO.listAllSupermarkets()); // Agrega la lista de supermercados al modelo
+                return "location-form.html"; // Devuelve el formulario con el aviso
+            }
+        }
         locationDAO.insertLocation(location); // Inserta la nueva ubicación
         logger.info("Ubicación {} insertada con éxito.", location.getAddress()); // Registro de éxito
         return "redirect:/locations"; // Redirige a la lista de ubicaciones
@@ -150,7 +221,14 @@ public class LocationController {
             redirectAttributes.addFlashAttribute("errorMessage", errorMessage); // Agrega mensaje flash
             return "redirect:/locations/edit?id=" + location.getId(); // Redirige al formulario de edición
         }
-        locationDAO.updateLocation(location); // Actualiza la ubicación
+        try {
+            locationDAO.updateLocation(location); // Actualiza la ubicación si nadie la ha cambiado desde que se abrió el formulario
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("La ubicación con ID {} ha cambiado desde que se abrió el formulario.", location.getId());
+            String errorMessage = messageSource.getMessage("msg.location-controller.update.conflict", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage); // Mensaje de error
+            return "redirect:/locations/edit?id=" + location.getId(); // Vuelve a abrir el formulario con los datos actuales
+        }
         logger.info("Ubicación con ID {} actualizada con éxito.", location.getId()); // Registro de éxito
         return "redirect:/locations"; // Redirige a la lista de ubicaciones
     }
@@ -160,13 +238,52 @@ public class LocationController {
      *
      * @param id                  ID de la ubicación a eliminar.
      * @param redirectAttributes  Atributos para mensajes flash de redirección.
+     * @param locale              Configuración regional para los mensajes.
      * @return Redirección a la lista de ubicaciones.
      */
     @PostMapping("/delete") // Maneja solicitudes POST a /locations/delete
-    public String deleteLocation(@RequestParam("id") int id, RedirectAttributes redirectAttributes) {
+    public String deleteLocation(@RequestParam("id") int id, RedirectAttributes redirectAttributes, Locale locale) {
         logger.info("Eliminando ubicación con ID {}", id); // Registro de la acción
-        locationDAO.deleteLocation(id); // Elimina la ubicación
+        try {
+            locationDAO.deleteLocation(id); // Elimina la ubicación
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("La ubicación con ID {} tiene tickets y no se puede eliminar.", id);
+            String errorMessage = messageSource.getMessage("msg.location-controller.delete.inUse", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage); // Mensaje de error
+            return "redirect:/locations";
+        }
         logger.info("Ubicación con ID {} eliminada con éxito.", id); // Registro de éxito
         return "redirect:/locations"; // Redirige a la lista de ubicaciones
     }
+
+    /**
+     * Elimina de una vez las ubicaciones seleccionadas.
+     *
+     * @param ids                 IDs de las ubicaciones marcadas en la lista.
+     * @param redirectAttributes  Atributos para mensajes flash de redirección.
+     * @param locale              Configuración regional para los mensajes.
+     * @return Redirección a la lista de ubicaciones.
+     */
+    @PostMapping("/delete-selected") // Mapea la solicitud POST a "/locations/delete-selected"
+    public String deleteSelected(@RequestParam(value = "ids", required = false) List<Integer> ids,
+                                 RedirectAttributes redirectAttributes, Locale locale) {
+        if (ids == null || ids.isEmpty()) {
+            String errorMessage = messageSource.getMessage("msg.location-controller.deleteSelected.none", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
+            return "redirect:/locations";
+        }
+        logger.info("Eliminando {} ubicaciones seleccionadas", ids.size());
+        int deleted;
+        try {
+            deleted = locationDAO.deleteLocations(ids); // Borrado por conjuntos, hijos incluidos
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Las ubicaciones seleccionadas tienen tickets y no se pueden eliminar.");
+            String errorMessage = messageSource.getMessage("msg.location-controller.deleteSelected.inUse", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
+            return "redirect:/locations";
+        }
+        String successMessage = messageSource.getMessage("msg.location-controller.deleteSelected.success", new Object[]{deleted}, locale);
+        redirectAttributes.addFlashAttribute("successMessage", successMessage);
+        return "redirect:/locations";
+    }
 }
@@ -0,0 +1,69 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.controllers;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.PriceHistoryService; // Servicio del historial de precios
+import org.slf4j.Logger; // Logger para registrar información
+import org.slf4j.LoggerFactory; // Factoria para crear loggers
+import org.springframework.beans.factory.annotation.Autowired; // Para la inyección de dependencias
+import org.springframework.format.annotation.DateTimeFormat; // Formato de las fechas de los parámetros
+import org.springframework.http.ResponseEntity; // Respuesta HTTP con código de estado
+import org.springframework.web.bind.annotation.*; // Anotaciones para manejar solicitudes web
+import java.time.LocalDate; // Fechas del rango
+import java.util.List; // Lista de elementos
+import java.util.Locale; // Para pasar la resolución a mayúsculas
+import java.util.Map; // Cuerpo de los errores
+
+@RestController // Define esta clase como un controlador que devuelve JSON
+@RequestMapping("/api/prices") // Ruta base para el historial de precios
+public class PriceHistoryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryController.class); // Logger para esta clase
+
+    @Autowired // Inyección automática de dependencias
+    private PriceHistoryService priceHistoryService; // Servicio del historial de precios
+
+    /**
+     * Devuelve el historial de precios de un producto en una ubicación, completo o resumido por
+     * periodos, por ejemplo `/api/prices/history?product=Leche&location=1&from=2024-01-01&resolution=week`.
+     *
+     * @param product    Nombre del producto.
+     * @param location   ID de la ubicación.
+     * @param from       Primera fecha (por defecto, un año antes de `to`).
+     * @param to         Última fecha (por defecto, hoy).
+     * @param resolution `raw` para todas las observaciones, o `day`, `week` o `month`.
+     * @return Las observaciones o los periodos, o 400 si los parámetros no son válidos.
+     */
+    @GetMapping("/history") // Maneja solicitudes GET a /api/prices/history
+    public ResponseEntity<?> getHistory(@RequestParam("product") String product,
+                                        @RequestParam("location") int location,
+                                        @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                        @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                        @RequestParam(value = "resolution", defaultValue = "raw") String resolution) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusYears(1);
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "la fecha inicial es posterior a la final"));
+        }
+        logger.info("Historial de precios de {} en la ubicación {} entre {} y {} ({})", product, location, start, end, resolution);
+        if ("raw".equalsIgnoreCase(resolution)) {
+            return ResponseEntity.ok(priceHistoryService.getHistory(product, location, start, end));
+        }
+        PriceHistoryService.Resolution value;
+        try {
+            value = PriceHistoryService.Resolution.valueOf(resolution.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "resolución no válida: " + resolution));
+        }
+        return ResponseEntity.ok(priceHistoryService.getDownsampledHistory(product, location, start, end, value));
+    }
+
+    /**
+     * Lista los productos con historial de precios en una ubicación.
+     *
+     * @param location ID de la ubicación.
+     * @return Los nombres normalizados de los productos.
+     */
+    @GetMapping("/products") // Maneja solicitudes GET a /api/prices/products
+    public List<String> listProducts(@RequestParam("location") int location) {
+        return priceHistoryService.listProducts(location);
+    }
+}
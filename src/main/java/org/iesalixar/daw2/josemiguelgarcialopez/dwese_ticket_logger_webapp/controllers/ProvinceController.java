@@ -10,11 +10,15 @@ import org.slf4j.Logger; // Para el registro de eventos
 import org.slf4j.LoggerFactory; // Para la creación del logger
 import org.springframework.beans.factory.annotation.Autowired; // Para la inyección de dependencias
 import org.springframework.context.MessageSource; // Para la internacionalización de mensajes
+import org.springframework.dao.DataIntegrityViolationException; // Borrado de filas que usan los tickets
+import org.springframework.dao.OptimisticLockingFailureException; // Conflicto de edición concurrente
+import org.springframework.http.HttpStatus; // Código 404 de las filas que ya no existen
 import org.springframework.stereotype.Controller; // Marca la clase como un controlador de Spring MVC
 import org.springframework.ui.Model; // Para pasar datos al modelo de la vista
 import org.springframework.validation.BindingResult; // Para el resultado de la validación
 import org.springframework.web.bind.annotation.*; // Anotaciones para el manejo de peticiones
 import org.springframework.web.servlet.mvc.support.RedirectAttributes; // Para atributos de redirección
+import org.springframework.web.server.ResponseStatusException; // Respuesta de error con código de estado
 import java.util.List; // Para trabajar con listas
 import java.util.Locale; // Para manejar la localización
 
@@ -51,6 +55,24 @@ public class ProvinceController {
         return "province"; // Devuelve el nombre de la vista
     }
 
+    /**
+     * Devuelve solo la fila de la provincia en el listado. La usa la página del listado para actualizar
+     * la fila cuando otro usuario la cambia.
+     *
+     * @param id    ID de la provincia.
+     * @param model Modelo para pasar datos a la vista.
+     * @return El fragmento de la fila, o 404 si ya no existe.
+     */
+    @GetMapping("/row") // Mapea la solicitud GET a "/provinces/row"
+    public String showRow(@RequestParam("id") int id, Model model) {
+        Province province = provinceDAO.getProvinceById(id);
+        if (province == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        model.addAttribute("province", province);
+        return "fragments/rows :: province(province=${province})";
+    }
+
     /**
      * Muestra el formulario para crear una nueva provincia.
      *
@@ -141,7 +163,14 @@ public class ProvinceController {
             redirectAttributes.addFlashAttribute("errorMessage", errorMessage); // Mensaje de error
             return "redirect:/provinces/edit?id=" + province.getId(); // Redirige al formulario de edición
         }
-        provinceDAO.updateProvince(province); // Actualiza la provincia
+        try {
+            provinceDAO.updateProvince(province); // Actualiza la provincia si nadie la ha cambiado desde que se abrió el formulario
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("La provincia con ID {} ha cambiado desde que se abrió el formulario.", province.getId());
+            String errorMessage = messageSource.getMessage("msg.province-controller.update.conflict", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage); // Mensaje de error
+            return "redirect:/provinces/edit?id=" + province.getId(); // Vuelve a abrir el formulario con los datos actuales
+        }
         logger.info("Provincia con ID {} actualizada con éxito.", province.getId());
         return "redirect:/provinces"; // Redirige a la lista de provincias
     }
@@ -151,13 +180,52 @@ public class ProvinceController {
      *
      * @param id                  ID de la provincia a eliminar.
      * @param redirectAttributes  Atributos para mensajes flash de redirección.
+     * @param locale              Configuración regional para los mensajes.
      * @return Redirección a la lista de provincias.
      */
     @PostMapping("/delete") // Mapea la solicitud POST a "/provinces/delete"
-    public String deleteProvince(@RequestParam("id") int id, RedirectAttributes redirectAttributes) {
+    public String deleteProvince(@RequestParam("id") int id, RedirectAttributes redirectAttributes, Locale locale) {
         logger.info("Eliminando provincia con ID {}", id);
-        provinceDAO.deleteProvince(id); // Elimina la provincia
+        try {
+            provinceDAO.deleteProvince(id); // Elimina la provincia
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("La provincia con ID {} tiene ubicaciones con tickets y no se puede eliminar.", id);
+            String errorMessage = messageSource.getMessage("msg.province-controller.delete.inUse", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage); // Mensaje de error
+            return "redirect:/provinces";
+        }
         logger.info("Provincia con ID {} eliminada con éxito.", id);
         return "redirect:/provinces"; // Redirige a la lista de provincias
     }
+
+    /**
+     * Elimina de una vez las provincias seleccionadas, con sus ubicaciones.
+     *
+     * @param ids                 IDs de las provincias marcadas en la lista.
+     * @param redirectAttributes  Atributos para mensajes flash de redirección.
+     * @param locale              Configuración regional para los mensajes.
+     * @return Redirección a la lista de provincias.
+     */
+    @PostMapping("/delete-selected") // Mapea la solicitud POST a "/provinces/delete-selected"
+    public String deleteSelected(@RequestParam(value = "ids", required = false) List<Integer> ids,
+                                 RedirectAttributes redirectAttributes, Locale locale) {
+        if (ids == null || ids.isEmpty()) {
+            String errorMessage = messageSource.getMessage("msg.province-controller.deleteSelected.none", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
+            return "redirect:/provinces";
+        }
+        logger.info("Eliminando {} provincias seleccionadas", ids.size());
+        int deleted;
+        try {
+            deleted = provinceDAO.deleteProvinces(ids); // Borrado por conjuntos, hijos incluidos
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Las provincias seleccionadas tienen ubicaciones con tickets y no se pueden eliminar.");
+            String errorMessage = messageSource.getMessage("msg.province-controller.deleteSelected.inUse", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
+            return "redirect:/provinces";
+        }
+        String successMessage = messageSource.getMessage("msg.province-controller.deleteSelected.success", new Object[]{deleted}, locale);
+        redirectAttributes.addFlashAttribute("successMessage", successMessage);
+        return "redirect:/provinces";
+    }
 }
@@ -8,11 +8,15 @@ import org.slf4j.Logger; // Para el registro de eventos
 import org.slf4j.LoggerFactory; // Para la creación del logger
 import org.springframework.beans.factory.annotation.Autowired; // Para la inyección de dependencias
 import org.springframework.context.MessageSource; // Para la internacionalización de mensajes
+import org.springframework.dao.DataIntegrityViolationException; // Borrado de filas que usan los tickets
+import org.springframework.dao.OptimisticLockingFailureException; // Conflicto de edición concurrente
+import org.springframework.http.HttpStatus; // Código 404 de las filas que ya no existen
 import org.springframework.stereotype.Controller; // Marca la clase como un controlador de Spring MVC
 import org.springframework.ui.Model; // Para pasar datos al modelo de la vista
 import org.springframework.validation.BindingResult; // Para el resultado de la validación
 import org.springframework.web.bind.annotation.*; // Anotaciones para el manejo de peticiones
 import org.springframework.web.servlet.mvc.support.RedirectAttributes; // Para atributos de redirección
+import org.springframework.web.server.ResponseStatusException; // Respuesta de error con código de estado
 import java.util.List; // Para trabajar con listas
 import java.util.Locale; // Para manejar la localización
 
@@ -51,6 +55,24 @@ public class RegionController {
         return "region"; // Devuelve el nombre de la vista
     }
 
+    /**
+     * Devuelve solo la fila de la región en el listado. La usa la página del listado para actualizar
+     * la fila cuando otro usuario la cambia.
+     *
+     * @param id    ID de la región.
+     * @param model Modelo para pasar datos a la vista.
+     * @return El fragmento de la fila, o 404 si ya no existe.
+     */
+    @GetMapping("/row") // Mapea la solicitud GET a "/regions/row"
+    public String showRow(@RequestParam("id") int id, Model model) {
+        Region region = regionDAO.getRegionById(id);
+        if (region == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        model.addAttribute("region", region);
+        return "fragments/rows :: region(region=${region})";
+    }
+
     /**
      * Muestra el formulario para crear una nueva región.
      *
@@ -127,7 +149,14 @@ public class RegionController {
             redirectAttributes.addFlashAttribute("errorMessage", errorMessage); // Mensaje de error
             return "redirect:/regions/edit?id=" + region.getId(); // Redirige al formulario de edición
         }
-        regionDAO.updateRegion(region); // Actualiza la región
+        try {
+            regionDAO.updateRegion(region); // Actualiza la región si nadie la ha cambiado desde que se abrió el formulario
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("La región con ID {} ha cambiado desde que se abrió el formulario.", region.getId());
+            String errorMessage = messageSource.getMessage("msg.region-controller.update.conflict", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage); // Mensaje de error
+            return "redirect:/regions/edit?id=" + region.getId(); // Vuelve a abrir el formulario con los datos actuales
+        }
         logger.info("Región con ID {} actualizada con éxito.", region.getId());
         return "redirect:/regions"; // Redirigir a la lista de regiones
     }
@@ -137,13 +166,52 @@ public class RegionController {
      *
      * @param id                 ID de la región a eliminar.
      * @param redirectAttributes Atributos para mensajes flash de redirección.
+     * @param locale             Configuración regional para los mensajes.
      * @return Redirección a la lista de regiones.
      */
     @PostMapping("/delete") // Mapea la solicitud POST a "/regions/delete"
-    public String deleteRegion(@RequestParam("id") int id, RedirectAttributes redirectAttributes) {
+    public String deleteRegion(@RequestParam("id") int id, RedirectAttributes redirectAttributes, Locale locale) {
         logger.info("Eliminando región con ID {}", id);
-        regionDAO.deleteRegion(id); // Elimina la región
+        try {
+            regionDAO.deleteRegion(id); // Elimina la región
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("La región con ID {} tiene ubicaciones con tickets y no se puede eliminar.", id);
+            String errorMessage = messageSource.getMessage("msg.region-controller.delete.inUse", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage); // Mensaje de error
+            return "redirect:/regions";
+        }
         logger.info("Región con ID {} eliminada con éxito.", id);
         return "redirect:/regions"; // Redirigir a la lista de regiones
     }
+
+    /**
+     * Elimina de una vez las regiones seleccionadas, con sus provincias y ubicaciones.
+     *
+     * @param ids                 IDs de las regiones marcadas en la lista.
+     * @param redirectAttributes  Atributos para mensajes flash de redirección.
+     * @param locale              Configuración regional para los mensajes.
+     * @return Redirección a la lista de regiones.
+     */
+    @PostMapping("/delete-selected") // Mapea la solicitud POST a "/regions/delete-selected"
+    public String deleteSelected(@RequestParam(value = "ids", required = false) List<Integer> ids,
+                                 RedirectAttributes redirectAttributes, Locale locale) {
+        if (ids == null || ids.isEmpty()) {
+            String errorMessage = messageSource.getMessage("msg.region-controller.deleteSelected.none", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
+            return "redirect:/regions";
+        }
+        logger.info("Eliminando {} regiones seleccionadas", ids.size());
+        int deleted;
+        try {
+            deleted = regionDAO.deleteRegions(ids); // Borrado por conjuntos, hijos incluidos
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Las regiones seleccionadas tienen ubicaciones con tickets y no se pueden eliminar.");
+            String errorMessage = messageSource.getMessage("msg.region-controller.deleteSelected.inUse", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
+            return "redirect:/regions";
+        }
+        String successMessage = messageSource.getMessage("msg.region-controller.deleteSelected.success", new Object[]{deleted}, locale);
+        redirectAttributes.addFlashAttribute("successMessage", successMessage);
+        return "redirect:/regions";
+    }
 }
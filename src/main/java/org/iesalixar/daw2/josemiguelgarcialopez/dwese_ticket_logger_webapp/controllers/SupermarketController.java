@@ -7,11 +7,15 @@ import org.slf4j.Logger; // Importa el logger para el registro de eventos
 import org.slf4j.LoggerFactory; // Importa la fábrica para crear loggers
 import org.springframework.beans.factory.annotation.Autowired; // Para la inyección de dependencias
 import org.springframework.context.MessageSource; // Para la internacionalización de mensajes
+import org.springframework.dao.DataIntegrityViolationException; // Borrado de filas que usan los tickets
+import org.springframework.dao.OptimisticLockingFailureException; // Conflicto de edición concurrente
+import org.springframework.http.HttpStatus; // Código 404 de las filas que ya no existen
 import org.springframework.stereotype.Controller; // Marca esta clase como un controlador de Spring
 import org.springframework.ui.Model; // Para pasar datos al modelo de la vista
 import org.springframework.validation.BindingResult; // Para manejar el resultado de la validación
 import org.springframework.web.bind.annotation.*; // Importa las anotaciones para manejar peticiones HTTP
 import org.springframework.web.servlet.mvc.support.RedirectAttributes; // Para pasar atributos de redirección
+import org.springframework.web.server.ResponseStatusException; // Respuesta de error con código de estado
 
 import java.util.List; // Para trabajar con listas
 import java.util.Locale; // Para manejar la localización
@@ -50,6 +54,24 @@ public class SupermarketController {
         return "supermarket"; // Devuelve el nombre de la plantilla a renderizar
     }
 
+    /**
+     * Devuelve solo la fila de el supermercado en el listado. La usa la página del listado para actualizar
+     * la fila cuando otro usuario la cambia.
+     *
+     * @param id    ID de el supermercado.
+     * @param model Modelo para pasar datos a la vista.
+     * @return El fragmento de la fila, o 404 si ya no existe.
+     */
+    @GetMapping("/row") // Mapea la solicitud GET a "/supermarkets/row"
+    public String showRow(@RequestParam("id") int id, Model model) {
+        Supermarket supermarket = supermarketDAO.getSupermarketById(id);
+        if (supermarket == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        model.addAttribute("supermarket", supermarket);
+        return "fragments/rows :: supermarket(supermarket=${supermarket})";
+    }
+
     /**
      * Muestra el formulario para crear un nuevo supermercado.
      *
@@ -126,7 +148,14 @@ public class SupermarketController {
             redirectAttributes.addFlashAttribute("errorMessage", errorMessage); // Agrega el mensaje a los atributos de redirección
             return "redirect:/supermarkets/edit?id=" + supermarket.getId(); // Redirige al formulario de edición
         }
-        supermarketDAO.updateSupermarket(supermarket); // Actualiza el supermercado
+        try {
+            supermarketDAO.updateSupermarket(supermarket); // Actualiza el supermercado si nadie lo ha cambiado desde que se abrió el formulario
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("El supermercado con ID {} ha cambiado desde que se abrió el formulario.", supermarket.getId());
+            String errorMessage = messageSource.getMessage("msg.supermarket-controller.update.conflict", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage); // Mensaje de error
+            return "redirect:/supermarkets/edit?id=" + supermarket.getId(); // Vuelve a abrir el formulario con los datos actuales
+        }
         logger.info("Supermercado con ID {} actualizado con éxito.", supermarket.getId()); // Log de éxito
         return "redirect:/supermarkets"; // Redirige a la lista de supermercados
     }
@@ -136,13 +165,52 @@ public class SupermarketController {
      *
      * @param id                 ID del supermercado a eliminar.
      * @param redirectAttributes Atributos para mensajes flash de redirección.
+     * @param locale             Configuración regional para los mensajes.
      * @return Redirección a la lista de supermercados.
      */
     @PostMapping("/delete") // Maneja las peticiones POST a /supermarkets/delete
-    public String deleteSupermarket(@RequestParam("id") int id, RedirectAttributes redirectAttributes) {
+    public String deleteSupermarket(@RequestParam("id") int id, RedirectAttributes redirectAttributes, Locale locale) {
         logger.info("Eliminando supermercado con ID {}", id); // Log del ID del supermercado
-        supermarketDAO.deleteSupermarket(id); // Elimina el supermercado
+        try {
+            supermarketDAO.deleteSupermarket(id); // Elimina el supermercado
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("El supermercado con ID {} tiene ubicaciones con tickets y no se puede eliminar.", id);
+            String errorMessage = messageSource.getMessage("msg.supermarket-controller.delete.inUse", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage); // Mensaje de error
+            return "redirect:/supermarkets";
+        }
         logger.info("Supermercado con ID {} eliminado con éxito.", id); // Log de éxito
         return "redirect:/supermarkets"; // Redirige a la lista de supermercados
     }
+
+    /**
+     * Elimina de una vez los supermercados seleccionados, con sus ubicaciones.
+     *
+     * @param ids                 IDs de los supermercados marcados en la lista.
+     * @param redirectAttributes  Atributos para mensajes flash de redirección.
+     * @param locale              Configuración regional para los mensajes.
+     * @return Redirección a la lista de supermercados.
+     */
+    @PostMapping("/delete-selected") // Mapea la solicitud POST a "/supermarkets/delete-selected"
+    public String deleteSelected(@RequestParam(value = "ids", required = false) List<Integer> ids,
+                                 RedirectAttributes redirectAttributes, Locale locale) {
+        if (ids == null || ids.isEmpty()) {
+            String errorMessage = messageSource.getMessage("msg.supermarket-controller.deleteSelected.none", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
+            return "redirect:/supermarkets";
+        }
+        logger.info("Eliminando {} supermercados seleccionados", ids.size());
+        int deleted;
+        try {
+            deleted = supermarketDAO.deleteSupermarkets(ids); // Borrado por conjuntos, hijos incluidos
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Los supermercados seleccionados tienen ubicaciones con tickets y no se pueden eliminar.");
+            String errorMessage = messageSource.getMessage("msg.supermarket-controller.deleteSelected.inUse", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
+            return "redirect:/supermarkets";
+        }
+        String successMessage = messageSource.getMessage("msg.supermarket-controller.deleteSelected.success", new Object[]{deleted}, locale);
+        redirectAttributes.addFlashAttribute("successMessage", successMessage);
+        return "redirect:/supermarkets";
+    }
 }
@@ -0,0 +1,40 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.controllers;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.SyncService; // Servicio de sincronización
+import org.slf4j.Logger; // Interfaz de logging
+import org.slf4j.LoggerFactory; // Fábrica de loggers
+import org.springframework.beans.factory.annotation.Autowired; // Para la inyección de dependencias
+import org.springframework.http.ResponseEntity; // Respuesta HTTP con código de estado
+import org.springframework.web.bind.annotation.*; // Anotaciones para manejar solicitudes web
+import java.util.Map; // Cuerpo de los errores
+
+/**
+ * Sincronización incremental para la aplicación móvil: `GET /api/sync` devuelve el catálogo completo
+ * y un token; `GET /api/sync?token=...` devuelve solo lo que ha cambiado desde ese token y uno nuevo.
+ */
+@RestController // Define esta clase como un controlador que devuelve JSON
+@RequestMapping("/api/sync") // Ruta base de la sincronización
+public class SyncController {
+
+    // Logger para registrar eventos importantes
+    private static final Logger logger = LoggerFactory.getLogger(SyncController.class);
+
+    @Autowired // Inyección automática de dependencias
+    private SyncService syncService;
+
+    /**
+     * Cambios desde el token indicado.
+     *
+     * @param token Token de la sincronización anterior; sin él la respuesta es completa.
+     * @return Los cambios y el nuevo token, o 400 si el token no es válido.
+     */
+    @GetMapping // Maneja solicitudes GET a /api/sync
+    public ResponseEntity<?> sync(@RequestParam(value = "token", required = false) String token) {
+        try {
+            return ResponseEntity.ok(syncService.changesSince(token));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Token de sincronización no válido: {}", token);
+            return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.controllers;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.TicketDAO; // DAO para gestionar tickets
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.TicketImportProgress; // Progreso de una importación
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.TicketImportService; // Servicio de importación masiva
+import org.slf4j.Logger; // Logger para registrar información
+import org.slf4j.LoggerFactory; // Factoria para crear loggers
+import org.springframework.beans.factory.annotation.Autowired; // Para la inyección de dependencias
+import org.springframework.context.MessageSource; // Para la internacionalización de mensajes
+import org.springframework.http.ResponseEntity; // Respuesta HTTP con código de estado
+import org.springframework.stereotype.Controller; // Indica que esta clase es un controlador
+import org.springframework.ui.Model; // Modelo para pasar datos a la vista
+import org.springframework.web.bind.annotation.*; // Anotaciones para manejar solicitudes web
+import org.springframework.web.multipart.MultipartFile; // Archivo subido en el formulario
+import org.springframework.web.servlet.mvc.support.RedirectAttributes; // Para manejar redirecciones y mensajes flash
+import java.io.IOException; // Errores al leer el archivo subido
+import java.util.Locale; // Para la localización de mensajes
+
+@Controller // Define esta clase como un controlador
+@RequestMapping("/tickets") // Ruta base para las operaciones de tickets
+public class TicketController {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketController.class); // Logger para esta clase
+
+    @Autowired // Inyección automática de dependencias
+    private TicketImportService ticketImportService; // Servicio de importación masiva
+
+    @Autowired // Inyección automática de dependencias
+    private TicketDAO ticketDAO; // DAO para tickets
+
+    @Autowired // Inyección automática de dependencias
+    private MessageSource messageSource; // Para mensajes internacionalizados
+
+    /**
+     * Muestra el formulario para importar un archivo ZIP de tickets.
+     *
+     * @param model Modelo para pasar datos a la vista.
+     * @return El nombre de la plantilla Thymeleaf de la importación.
+     */
+    @GetMapping("/import") // Maneja solicitudes GET a /tickets/import
+    public String showImportForm(Model model) {
+        logger.info("Mostrando formulario de importación de tickets."); // Registro de la acción
+        model.addAttribute("ticketCount", ticketDAO.countTickets()); // Tickets registrados hasta ahora
+        return "ticket-import"; // Devuelve la vista del formulario
+    }
+
+    /**
+     * Recibe el archivo ZIP y lanza su importación en segundo plano.
+     *
+     * @param archive            Archivo ZIP con los ficheros de ticket.
+     * @param redirectAttributes Atributos para mensajes flash de redirección.
+     * @param locale             Locale para mensajes internacionalizados.
+     * @return Redirección a la página de progreso de la importación.
+     */
+    @PostMapping("/import") // Maneja solicitudes POST a /tickets/import
+    public String importTickets(@RequestParam("archive") MultipartFile archive, RedirectAttributes redirectAttributes, Locale locale) {
+        logger.info("Importando el archivo de tickets {}", archive.getOriginalFilename()); // Registro de la acción
+        if (archive.isEmpty()) {
+            String errorMessage = messageSource.getMessage("msg.ticket-controller.import.empty", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
+            return "redirect:/tickets/import";
+        }
+        try {
+            TicketImportProgress progress = ticketImportService.startImport(archive); // Lee el archivo y encola la importación
+            return "redirect:/tickets/import/" + progress.getId(); // Redirige a la página de progreso
+        } catch (IOException e) {
+            logger.error("Error al leer el archivo de tickets {}: {}", archive.getOriginalFilename(), e.getMessage());
+            String errorMessage = messageSource.getMessage("msg.ticket-controller.import.error", new Object[]{e.getMessage()}, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
+            return "redirect:/tickets/import";
+        }
+    }
+
+    /**
+     * Muestra el progreso de una importación. La vista lo actualiza consultando `/progress`.
+     *
+     * @param id                 ID de la importación.
+     * @param model              Modelo para pasar datos a la vista.
+     * @param redirectAttributes Atributos para mensajes flash de redirección.
+     * @param locale             Locale para mensajes internacionalizados.
+     * @return El nombre de la plantilla Thymeleaf de la importación.
+     */
+    @GetMapping("/import/{id}") // Maneja solicitudes GET a /tickets/import/{id}
+    public String showImportProgress(@PathVariable("id") String id, Model model, RedirectAttributes redirectAttributes, Locale locale) {
+        TicketImportProgress progress = ticketImportService.getProgress(id);
+        if (progress == null) {
+            logger.warn("No existe la importación con ID {}", id);
+            String errorMessage = messageSource.getMessage("msg.ticket-controller.import.notFound", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
+            return "redirect:/tickets/import";
+        }
+        model.addAttribute("ticketCount", ticketDAO.countTickets()); // Tickets registrados hasta ahora
+        model.addAttribute("progress", progress.snapshot()); // Estado inicial de la importación
+        return "ticket-import"; // Devuelve la vista con el progreso
+    }
+
+    /**
+     * Devuelve el progreso de una importación en JSON.
+     *
+     * @param id ID de la importación.
+     * @return El progreso actual o 404 si la importación no existe.
+     */
+    @GetMapping("/import/{id}/progress") // Maneja solicitudes GET a /tickets/import/{id}/progress
+    @ResponseBody
+    public ResponseEntity<TicketImportProgress.Snapshot> getImportProgress(@PathVariable("id") String id) {
+        TicketImportProgress progress = ticketImportService.getProgress(id);
+        if (progress == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(progress.snapshot());
+    }
+}
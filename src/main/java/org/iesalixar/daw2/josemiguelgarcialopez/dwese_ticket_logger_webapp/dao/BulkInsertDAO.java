@@ -0,0 +1,16 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import java.util.List;
+import java.util.Map;
+
+public interface BulkInsertDAO {
+
+    // ID más alto de la tabla (0 si está vacía)
+    int maxId(String table);
+    // Provincias (ID → nombre)
+    Map<Integer, String> listProvinceNames();
+    // Inserta las filas con un único lote JDBC, en una transacción
+    void batchInsert(String sql, List<Object[]> rows);
+    // Ajusta el siguiente ID autogenerado tras insertar IDs explícitos (solo hace falta en H2)
+    void syncIdentity(String table);
+}
@@ -0,0 +1,89 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import jakarta.transaction.Transactional;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inserciones masivas con lotes JDBC, sin pasar por JPA: no se crean entidades ni se publican
+ * `EntityChangeEvent`, así que las filas no llegan al diario de cambios ni a los eventos de las
+ * páginas. Solo lo usa el generador de datos de prueba (`DatasetGenerator`).
+ */
+@Repository // Marca esta clase como un componente de acceso a datos
+@Transactional // Indica que los métodos de esta clase están dentro de una transacción
+public class BulkInsertDAOImpl implements BulkInsertDAO {
+
+    // Logger para registrar eventos importantes en el DAO
+    private static final Logger logger = LoggerFactory.getLogger(BulkInsertDAOImpl.class);
+
+    // Tablas admitidas; los nombres se concatenan en el SQL, así que no se aceptan otros
+    private static final Set<String> TABLES = Set.of("supermarkets", "locations", "categories", "tickets");
+
+    @Autowired // Acceso JDBC para los lotes
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * ID más alto de una tabla.
+     * @param table Tabla
+     * @return El ID, o 0 si está vacía
+     */
+    @Override
+    public int maxId(String table) {
+        Integer max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + checked(table), Integer.class);
+        return max != null ? max : 0;
+    }
+
+    /**
+     * Lista las provincias.
+     * @return Nombre de cada provincia por ID, en orden de ID
+     */
+    @Override
+    public Map<Integer, String> listProvinceNames() {
+        Map<Integer, String> provinces = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM provinces ORDER BY id",
+                rs -> {
+                    provinces.put(rs.getInt(1), rs.getString(2));
+                });
+        return provinces;
+    }
+
+    /**
+     * Inserta un lote de filas.
+     * @param sql  INSERT con un parámetro por columna
+     * @param rows Valores de cada fila
+     */
+    @Override
+    public void batchInsert(String sql, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+
+    /**
+     * En H2 la identidad no avanza al insertar IDs explícitos: se reinicia tras el más alto. MariaDB
+     * ajusta AUTO_INCREMENT por sí misma.
+     * @param table Tabla
+     */
+    @Override
+    public void syncIdentity(String table) {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if ("H2".equals(product)) {
+            int next = maxId(table) + 1;
+            jdbcTemplate.execute("ALTER TABLE " + checked(table) + " ALTER COLUMN id RESTART WITH " + next);
+            logger.info("Identity of {} restarted at {}", table, next);
+        }
+    }
+
+    private static String checked(String table) {
+        if (!TABLES.contains(table)) {
+            throw new IllegalArgumentException("Unsupported table: " + table);
+        }
+        return table;
+    }
+}
@@ -1,6 +1,7 @@
 package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
 
 import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Category;
+import java.util.Collection;
 import java.util.List;
 
 public interface CategoryDAO {
@@ -9,7 +10,15 @@ public interface CategoryDAO {
     void insertCategory(Category category);
     void updateCategory(Category category);
     void deleteCategory(int id);
+    // Elimina las categorías indicadas mediante DELETE por conjuntos; devuelve cuántas se eliminaron
+    int deleteCategories(Collection<Integer> ids);
+    // Nombres de las imágenes de las categorías indicadas (las que tienen imagen)
+    List<String> listImagesByIds(Collection<Integer> ids);
+    // Nombres de todas las imágenes referenciadas por alguna categoría, leídos de la principal
+    List<String> listAllImages();
     Category getCategoryById(int id);
+    // Categorías indicadas (las que no existen se omiten)
+    List<Category> getCategoriesByIds(Collection<Integer> ids);
     boolean existsCategoryByName(String name);
     boolean existsCategoryByNameAndNotId(String name, int id);
 }
@@ -1,12 +1,19 @@
 package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
 
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.EntityType;
 import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Category;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Repository;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
 import jakarta.transaction.Transactional;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,8 +25,12 @@ public class CategoryDAOImpl implements CategoryDAO {
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Autowired // Publica cada alta, cambio o baja (diario de cambios)
+    private ApplicationEventPublisher eventPublisher;
+
     // Listar todas las categorías de la base de datos
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public List<Category> listAllCategories() {
         logger.info("Listing all categories from the database.");
         String query = "SELECT c FROM Category c";
@@ -33,7 +44,11 @@ public class CategoryDAOImpl implements CategoryDAO {
     public void insertCategory(Category category) {
         logger.info("Inserting category with name: {} and image: {}", category.getName(), category.getImage());
         try {
+            // El formulario solo enlaza el ID de la categoría padre: se sustituye por una referencia gestionada
+            Integer parentId = category.getParentCategory() != null ? category.getParentCategory().getId() : null;
+            category.setParentCategory(parentId != null ? entityManager.getReference(Category.class, parentId) : null);
             entityManager.persist(category);
+            eventPublisher.publishEvent(EntityChangeEvent.inserted(EntityType.CATEGORY, category.getId(), journalFields(category, true)));
             logger.info("Inserted category with ID: {}", category.getId());
         } catch (Exception e) {
             logger.error("Error inserting category with name: {}", category.getName(), e);
@@ -43,10 +58,34 @@ public class CategoryDAOImpl implements CategoryDAO {
     // Actualizar una categoría existente en la base de datos
     @Override
     public void updateCategory(Category category) {
-        logger.info("Updating category with id: {}", category.getId());
+        logger.info("Updating category with id: {} at version: {}", category.getId(), category.getVersion());
         try {
-            entityManager.merge(category);
+            // Un único UPDATE sin leer antes la categoría; la imagen solo se escribe si se ha subido una nueva
+            boolean newImage = category.getImage() != null;
+            String query = "UPDATE Category c SET c.name = :name, c.parentCategory = :parent, "
+                    + (newImage ? "c.image = :image, c.imageFormat = :imageFormat, c.imageWidth = :imageWidth, "
+                            + "c.imageHeight = :imageHeight, " : "")
+                    + "c.version = c.version + 1 WHERE c.id = :id AND c.version = :version";
+            Integer parentId = category.getParentCategory() != null ? category.getParentCategory().getId() : null;
+            Query update = entityManager.createQuery(query)
+                    .setParameter("name", category.getName())
+                    .setParameter("parent", parentId != null ? entityManager.getReference(Category.class, parentId) : null)
+                    .setParameter("id", category.getId())
+                    .setParameter("version", category.getVersion());
+            if (newImage) {
+                update.setParameter("image", category.getImage())
+                        .setParameter("imageFormat", category.getImageFormat())
+                        .setParameter("imageWidth", category.getImageWidth())
+                        .setParameter("imageHeight", category.getImageHeight());
+            }
+            if (update.executeUpdate() == 0) {
+                throw new OptimisticLockException("category " + category.getId() + " is no longer at version " + category.getVersion());
+            }
+            eventPublisher.publishEvent(EntityChangeEvent.updated(EntityType.CATEGORY, category.getId(), journalFields(category, newImage)));
             logger.info("Updated category with id: {}", category.getId());
+        } catch (OptimisticLockException e) {
+            logger.warn("Category with id: {} was modified or deleted concurrently.", category.getId());
+            throw e; // El controlador avisa al usuario
         } catch (Exception e) {
             logger.error("Error updating category with id: {}", category.getId(), e);
         }
@@ -57,20 +96,80 @@ public class CategoryDAOImpl implements CategoryDAO {
     public void deleteCategory(int id) {
         logger.info("Deleting category with id: {}", id);
         try {
-            Category category = entityManager.find(Category.class, id);
-            if (category != null) {
-                entityManager.remove(category);
-                logger.info("Deleted category with id: {}", id);
-            } else {
+            if (deleteCategories(List.of(id)) == 0) {
                 logger.warn("Category with id: {} not found.", id);
             }
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Category with id: {} is used by tickets.", id);
+            throw e; // El controlador informa de que no se puede eliminar
         } catch (Exception e) {
             logger.error("Error deleting category with id: {}", id, e);
         }
     }
 
+    // Eliminar varias categorías con DELETE por conjuntos, sin cargarlas. Sus subcategorías quedan sin padre
+    @Override
+    public int deleteCategories(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Integer> existing = entityManager.createQuery("SELECT c.id FROM Category c WHERE c.id IN :ids", Integer.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        if (existing.isEmpty()) {
+            return 0;
+        }
+        logger.info("Deleting {} categories", existing.size());
+        SetDelete.requireUnreferenced(entityManager, "Category", "SELECT ticket_id FROM ticket_lines WHERE category_id IN (:ids)",
+                existing, "categories"); // Las líneas de ticket no tienen clave foránea en MariaDB
+        // Las subcategorías que se conservan pierden el padre; se publica el cambio para que el listado lo refleje
+        List<Object[]> orphans = entityManager.createQuery(
+                        "SELECT c.id, c.name FROM Category c WHERE c.parentCategory.id IN :ids AND c.id NOT IN :ids", Object[].class)
+                .setParameter("ids", existing)
+                .getResultList();
+        if (!orphans.isEmpty()) {
+            entityManager.createQuery("UPDATE Category c SET c.parentCategory = NULL, c.version = c.version + 1 "
+                            + "WHERE c.parentCategory.id IN :ids AND c.id NOT IN :ids")
+                    .setParameter("ids", existing)
+                    .executeUpdate();
+            for (Object[] orphan : orphans) {
+                eventPublisher.publishEvent(EntityChangeEvent.updated(EntityType.CATEGORY, (Integer) orphan[0],
+                        "name", orphan[1], "parentId", null));
+            }
+        }
+        int deleted = SetDelete.execute(entityManager, "DELETE FROM Category c WHERE c.id IN :ids", existing);
+        for (Integer id : existing) {
+            eventPublisher.publishEvent(EntityChangeEvent.deleted(EntityType.CATEGORY, id));
+        }
+        logger.info("Deleted {} categories", deleted);
+        return deleted;
+    }
+
+    // Recuperar los nombres de las imágenes de varias categorías
+    @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
+    public List<String> listImagesByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery("SELECT c.image FROM Category c WHERE c.id IN :ids AND c.image IS NOT NULL", String.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    // Recuperar los nombres de todas las imágenes referenciadas. Sin @ReadOnlyTransactional: una réplica
+    // con retraso no vería las imágenes recién asignadas y se borrarían como huérfanas.
+    @Override
+    public List<String> listAllImages() {
+        List<String> images = entityManager.createQuery("SELECT c.image FROM Category c WHERE c.image IS NOT NULL", String.class)
+                .getResultList();
+        logger.info("Retrieved {} category images.", images.size());
+        return images;
+    }
+
     // Recuperar una categoría por su ID
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public Category getCategoryById(int id) {
         logger.info("Retrieving category by id: {}", id);
         Category category = entityManager.find(Category.class, id);
@@ -82,8 +181,22 @@ public class CategoryDAOImpl implements CategoryDAO {
         return category;
     }
 
+    // Recuperar varias categorías por su ID
+    @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
+    public List<Category> getCategoriesByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        logger.info("Retrieving {} categories by id.", ids.size());
+        return entityManager.createQuery("SELECT c FROM Category c WHERE c.id IN :ids", Category.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
     // Verificar si una categoría con el nombre especificado ya existe en la base de datos
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public boolean existsCategoryByName(String name) {
         logger.info("Checking if category with name: {} exists", name);
         String query = "SELECT COUNT(c) FROM Category c WHERE UPPER(c.name) = :name";
@@ -97,6 +210,7 @@ public class CategoryDAOImpl implements CategoryDAO {
 
     // Verificar si una categoría con el nombre especificado ya existe, excluyendo una categoría por su ID
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public boolean existsCategoryByNameAndNotId(String name, int id) {
         logger.info("Checking if category with name: {} exists excluding id: {}", name, id);
         String query = "SELECT COUNT(c) FROM Category c WHERE UPPER(c.name) = :name AND c.id != :id";
@@ -108,4 +222,14 @@ public class CategoryDAOImpl implements CategoryDAO {
         logger.info("Category with name: {} exists excluding id {}: {}", name, id, exists);
         return exists;
     }
-}
\ No newline at end of file
+
+    // Campos de la entidad que se publican en los eventos de cambio (la imagen y sus datos, solo si se ha escrito)
+    private static Object[] journalFields(Category category, boolean withImage) {
+        Integer parentId = category.getParentCategory() != null ? category.getParentCategory().getId() : null;
+        if (!withImage) {
+            return new Object[]{"name", category.getName(), "parentId", parentId};
+        }
+        return new Object[]{"name", category.getName(), "image", category.getImage(), "imageFormat", category.getImageFormat(),
+                "imageWidth", category.getImageWidth(), "imageHeight", category.getImageHeight(), "parentId", parentId};
+    }
+}
@@ -0,0 +1,52 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Evento que publican los DAO al insertar, actualizar o eliminar una región, provincia, supermercado,
+ * ubicación o categoría. Lleva los campos simples de la entidad (las relaciones, como su ID) tal como
+ * quedan tras el cambio; en las bajas no lleva campos.
+ *
+ * @param entityType tipo de entidad.
+ * @param operation  operación realizada.
+ * @param entityId   ID de la entidad.
+ * @param fields     campos de la entidad en texto (los nulos se conservan), en orden.
+ * @param timestamp  instante del cambio en milisegundos desde epoch.
+ */
+public record EntityChangeEvent(EntityType entityType, Operation operation, int entityId,
+                                Map<String, String> fields, long timestamp) {
+
+    /**
+     * Entidades cuyos cambios se publican. El orden forma parte del formato del diario de cambios:
+     * solo se pueden añadir valores al final.
+     */
+    public enum EntityType { REGION, PROVINCE, SUPERMARKET, LOCATION, CATEGORY }
+
+    /**
+     * Operaciones. El orden forma parte del formato del diario de cambios.
+     */
+    public enum Operation { INSERT, UPDATE, DELETE }
+
+    public static EntityChangeEvent inserted(EntityType entityType, int entityId, Object... keyValues) {
+        return new EntityChangeEvent(entityType, Operation.INSERT, entityId, fields(keyValues), System.currentTimeMillis());
+    }
+
+    public static EntityChangeEvent updated(EntityType entityType, int entityId, Object... keyValues) {
+        return new EntityChangeEvent(entityType, Operation.UPDATE, entityId, fields(keyValues), System.currentTimeMillis());
+    }
+
+    public static EntityChangeEvent deleted(EntityType entityType, int entityId) {
+        return new EntityChangeEvent(entityType, Operation.DELETE, entityId, Map.of(), System.currentTimeMillis());
+    }
+
+    // Convierte pares nombre/valor en un mapa ordenado que admite valores nulos
+    private static Map<String, String> fields(Object... keyValues) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            fields.put(keyValues[i].toString(), keyValues[i + 1] != null ? keyValues[i + 1].toString() : null);
+        }
+        return Collections.unmodifiableMap(fields);
+    }
+}
@@ -0,0 +1,16 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.EntityType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface FieldProjectionDAO {
+
+    // Campos que se pueden pedir de cada entidad, en su orden por defecto
+    List<String> listFieldNames(EntityType entityType);
+    // Todas las filas de la entidad con solo los campos indicados (en ese orden), ordenadas por ID
+    List<Map<String, Object>> listFields(EntityType entityType, Collection<String> fields);
+    // La fila indicada con solo los campos pedidos, o null si no existe
+    Map<String, Object> getFields(EntityType entityType, int id, Collection<String> fields);
+}
@@ -0,0 +1,180 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Repository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Consultas de proyección para los campos que pide un cliente de la API (`fields=id,name`): el
+ * SELECT solo lleva esas columnas y solo se añade un JOIN si algún campo pedido lo necesita. Las
+ * filas se devuelven como mapas campo → valor, sin cargar entidades en el contexto de persistencia.
+ */
+@Repository // Marca esta clase como un componente de acceso a datos
+@Transactional // Indica que los métodos de esta clase están dentro de una transacción
+public class FieldProjectionDAOImpl implements FieldProjectionDAO {
+
+    // Logger para registrar eventos importantes en el DAO
+    private static final Logger logger = LoggerFactory.getLogger(FieldProjectionDAOImpl.class);
+
+    // Campo de la API: expresión JPQL y el JOIN que necesita (null si ninguno)
+    private record Field(String path, String join) {
+    }
+
+    // Entidad de la consulta (con su alias) y sus campos en el orden por defecto
+    private record Projection(String from, String alias, Map<String, Field> fields) {
+    }
+
+    private static final Map<EntityType, Projection> PROJECTIONS = new EnumMap<>(EntityType.class);
+
+    static {
+        PROJECTIONS.put(EntityType.REGION, projection("Region", "r",
+                "id", "r.id", null,
+                "version", "r.version", null,
+                "code", "r.code", null,
+                "name", "r.name", null));
+        PROJECTIONS.put(EntityType.PROVINCE, projection("Province", "p",
+                "id", "p.id", null,
+                "version", "p.version", null,
+                "code", "p.code", null,
+                "name", "p.name", null,
+                "regionId", "p.region.id", null, // La clave ajena, sin JOIN
+                "regionName", "rg.name", "JOIN p.region rg"));
+        PROJECTIONS.put(EntityType.SUPERMARKET, projection("Supermarket", "s",
+                "id", "s.id", null,
+                "version", "s.version", null,
+                "name", "s.name", null));
+        PROJECTIONS.put(EntityType.LOCATION, projection("Location", "l",
+                "id", "l.id", null,
+                "version", "l.version", null,
+                "address", "l.address", null,
+                "city", "l.city", null,
+                "latitude", "l.latitude", null,
+                "longitude", "l.longitude", null,
+                "provinceId", "l.province.id", null,
+                "provinceName", "p.name", "JOIN l.province p",
+                "supermarketId", "l.supermarket.id", null,
+                "supermarketName", "s.name", "JOIN l.supermarket s"));
+        PROJECTIONS.put(EntityType.CATEGORY, projection("Category", "c",
+                "id", "c.id", null,
+                "version", "c.version", null,
+                "name", "c.name", null,
+                "image", "c.image", null,
+                "imageFormat", "c.imageFormat", null,
+                "imageWidth", "c.imageWidth", null,
+                "imageHeight", "c.imageHeight", null,
+                "parentId", "c.parentCategory.id", null,
+                "parentName", "pc.name", "LEFT JOIN c.parentCategory pc"));
+    }
+
+    @PersistenceContext // Inyección del EntityManager para gestionar la persistencia
+    private EntityManager entityManager;
+
+    /**
+     * Campos que se pueden pedir de una entidad.
+     * @param entityType Tipo de entidad
+     * @return Nombres de los campos, en su orden por defecto
+     */
+    @Override
+    public List<String> listFieldNames(EntityType entityType) {
+        return List.copyOf(PROJECTIONS.get(entityType).fields().keySet());
+    }
+
+    /**
+     * Lista todas las filas de una entidad con solo los campos indicados.
+     * @param entityType Tipo de entidad
+     * @param fields     Campos que se devuelven, en ese orden
+     * @return Filas ordenadas por ID
+     * @throws IllegalArgumentException si algún campo no existe
+     */
+    @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
+    public List<Map<String, Object>> listFields(EntityType entityType, Collection<String> fields) {
+        List<String> names = List.copyOf(new LinkedHashSet<>(fields));
+        String query = select(entityType, names) + " ORDER BY " + PROJECTIONS.get(entityType).alias() + ".id";
+        logger.info("Listing {} fields {}", entityType, names);
+        List<Tuple> tuples = entityManager.createQuery(query, Tuple.class).getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            rows.add(toRow(names, tuple));
+        }
+        logger.info("Retrieved {} {} rows", rows.size(), entityType);
+        return rows;
+    }
+
+    /**
+     * Recupera una fila de una entidad con solo los campos indicados.
+     * @param entityType Tipo de entidad
+     * @param id         ID de la fila
+     * @param fields     Campos que se devuelven, en ese orden
+     * @return La fila, o null si no existe
+     * @throws IllegalArgumentException si algún campo no existe
+     */
+    @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
+    public Map<String, Object> getFields(EntityType entityType, int id, Collection<String> fields) {
+        List<String> names = List.copyOf(new LinkedHashSet<>(fields));
+        String query = select(entityType, names) + " WHERE " + PROJECTIONS.get(entityType).alias() + ".id = :id";
+        List<Tuple> tuples = entityManager.createQuery(query, Tuple.class)
+                .setParameter("id", id)
+                .getResultList();
+        if (tuples.isEmpty()) {
+            logger.warn("No {} found with id: {}", entityType, id);
+            return null;
+        }
+        return toRow(names, tuples.get(0));
+    }
+
+    // SELECT y FROM con solo las columnas y los JOIN que necesitan los campos pedidos
+    static String select(EntityType entityType, List<String> names) {
+        Projection projection = PROJECTIONS.get(entityType);
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("No fields requested");
+        }
+        List<String> columns = new ArrayList<>(names.size());
+        Set<String> joins = new LinkedHashSet<>();
+        for (String name : names) {
+            Field field = projection.fields().get(name);
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            columns.add(field.path());
+            if (field.join() != null) {
+                joins.add(field.join());
+            }
+        }
+        StringBuilder query = new StringBuilder("SELECT ").append(String.join(", ", columns))
+                .append(" FROM ").append(projection.from()).append(' ').append(projection.alias());
+        joins.forEach(join -> query.append(' ').append(join));
+        return query.toString();
+    }
+
+    private static Map<String, Object> toRow(List<String> names, Tuple tuple) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            row.put(names.get(i), tuple.get(i));
+        }
+        return row;
+    }
+
+    // Tríos nombre, expresión y JOIN
+    private static Projection projection(String entity, String alias, String... definitions) {
+        Map<String, Field> fields = new LinkedHashMap<>();
+        for (int i = 0; i < definitions.length; i += 3) {
+            fields.put(definitions[i], new Field(definitions[i + 1], definitions[i + 2]));
+        }
+        return new Projection(entity, alias, fields);
+    }
+}
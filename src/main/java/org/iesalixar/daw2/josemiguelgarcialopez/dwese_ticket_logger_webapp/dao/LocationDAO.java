@@ -1,6 +1,7 @@
 package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
 
 import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location;
+import java.util.Collection;
 import java.util.List;
 
 public interface LocationDAO {
@@ -9,7 +10,14 @@ public interface LocationDAO {
     void insertLocation(Location location);
     void updateLocation(Location location);
     void deleteLocation(int id);
+    // Elimina las ubicaciones indicadas mediante DELETE por conjuntos; devuelve cuántas se eliminaron
+    int deleteLocations(Collection<Integer> ids);
+    // Elimina las ubicaciones de las provincias indicadas; devuelve cuántas se eliminaron
+    int deleteLocationsByProvinceIds(Collection<Integer> provinceIds);
+    // Elimina las ubicaciones de los supermercados indicados; devuelve cuántas se eliminaron
+    int deleteLocationsBySupermarketIds(Collection<Integer> supermarketIds);
     Location getLocationById(int id);
     boolean existsLocationByAddress(String address);
     boolean existsLocationByAddressAndNotId(String address, int id);
+    List<Location> getLocationsByIds(Collection<Integer> ids);
 }
@@ -1,13 +1,24 @@
 package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
 
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config.ReadWriteRoutingDataSource;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.EntityType;
 import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Province;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Supermarket;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.AddressDuplicateIndex;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.LocationSpatialIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Repository // Marca esta clase como un componente de acceso a datos
@@ -17,19 +28,48 @@ public class LocationDAOImpl implements LocationDAO {
     // Logger para registrar eventos importantes en el DAO
     private static final Logger logger = LoggerFactory.getLogger(LocationDAOImpl.class);
 
+
     @PersistenceContext // Inyección del EntityManager para gestionar la persistencia
     private EntityManager entityManager;
 
+    @Autowired // Publica cada alta, cambio o baja (diario de cambios)
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired // Índice espacial que se actualiza tras cada alta, cambio o baja
+    private LocationSpatialIndex locationSpatialIndex;
+
+    @Autowired // Índice de direcciones para detectar duplicados aproximados
+    private AddressDuplicateIndex addressDuplicateIndex;
+
+    @Autowired // Agrupa los listados idénticos simultáneos
+    private SingleFlight singleFlight;
+
+    // Fila inmutable del listado de ubicaciones, compartida entre las peticiones simultáneas
+    private record ListRow(Integer id, String address, String city, Double latitude, Double longitude,
+                           Integer provinceId, String provinceName, Integer supermarketId, String supermarketName) {
+    }
+
     /**
      * Lista todas las ubicaciones de la base de datos.
      * @return Lista de ubicaciones
      */
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public List<Location> listAllLocations() {
         logger.info("Listing all locations from the database.");
-        // Consulta para obtener todas las ubicaciones junto con sus provincias y supermercados
-        String query = "SELECT l FROM Location l JOIN FETCH l.province JOIN FETCH l.supermarket";
-        List<Location> locations = entityManager.createQuery(query, Location.class).getResultList(); // Ejecutar consulta
+        // Consulta para obtener todas las ubicaciones junto con sus provincias y supermercados, como
+        // filas y no como entidades de la sesión
+        String query = "SELECT new " + ListRow.class.getName()
+                + "(l.id, l.address, l.city, l.latitude, l.longitude, p.id, p.name, s.id, s.name) "
+                + "FROM Location l JOIN l.province p JOIN l.supermarket s";
+        // Las peticiones simultáneas comparten una sola consulta (salvo si deben leer de la principal)
+        // y sus filas inmutables; cada una construye sus propias ubicaciones, fuera de toda sesión
+        List<ListRow> rows = singleFlight.execute("locations.listAll", !ReadWriteRoutingDataSource.isPrimaryRequired(),
+                () -> List.copyOf(entityManager.createQuery(query, ListRow.class).getResultList())); // Ejecutar consulta
+        List<Location> locations = new ArrayList<>(rows.size());
+        for (ListRow row : rows) {
+            locations.add(toLocation(row));
+        }
         logger.info("Retrieved {} locations from the database.", locations.size()); // Registro del tamaño de la lista
         return locations; // Retornar la lista de ubicaciones
     }
@@ -41,18 +81,45 @@ public class LocationDAOImpl implements LocationDAO {
     @Override
     public void insertLocation(Location location) {
         logger.info("Inserting location with address: {}", location.getAddress());
+        // El formulario solo enlaza los IDs del supermercado y la provincia: se sustituyen por referencias gestionadas
+        location.setSupermarket(entityManager.getReference(Supermarket.class, location.getSupermarket().getId()));
+        location.setProvince(entityManager.getReference(Province.class, location.getProvince().getId()));
         entityManager.persist(location); // Persistir la nueva ubicación en la base de datos
+        eventPublisher.publishEvent(EntityChangeEvent.inserted(EntityType.LOCATION, location.getId(), journalFields(location)));
+        locationSpatialIndex.indexAfterCommit(location.getId(), location.getLatitude(), location.getLongitude()); // Indexar al confirmar
+        addressDuplicateIndex.indexAfterCommit(location); // Indexar la dirección al confirmar
         logger.info("Inserted location with ID: {}", location.getId()); // Registro del ID de la nueva ubicación
     }
 
     /**
-     * Actualiza una ubicación existente en la base de datos.
-     * @param location Ubicación a actualizar
+     * Actualiza una ubicación existente en la base de datos con un único UPDATE, sin leerla antes,
+     * siempre que siga en la versión que se editó.
+     * @param location Ubicación a actualizar (con la versión que se editó)
+     * @throws OptimisticLockException si la ubicación ha cambiado o se ha eliminado entretanto
      */
     @Override
     public void updateLocation(Location location) {
-        logger.info("Updating location with id: {}", location.getId());
-        entityManager.merge(location); // Actualiza la ubicación existente en la base de datos
+        logger.info("Updating location with id: {} at version: {}", location.getId(), location.getVersion());
+        String query = "UPDATE Location l SET l.address = :address, l.city = :city, l.latitude = :latitude, "
+                + "l.longitude = :longitude, l.province = :province, l.supermarket = :supermarket, "
+                + "l.version = l.version + 1 WHERE l.id = :id AND l.version = :version"; // Actualización condicionada a la versión
+        int updated = entityManager.createQuery(query)
+                .setParameter("address", location.getAddress())
+                .setParameter("city", location.getCity())
+                .setParameter("latitude", location.getLatitude())
+                .setParameter("longitude", location.getLongitude())
+                .setParameter("province", entityManager.getReference(Province.class, location.getProvince().getId())) // Sin consultar la provincia
+                .setParameter("supermarket", entityManager.getReference(Supermarket.class, location.getSupermarket().getId())) // Ni el supermercado
+                .setParameter("id", location.getId())
+                .setParameter("version", location.getVersion())
+                .executeUpdate();
+        if (updated == 0) {
+            logger.warn("Location with id: {} was modified or deleted concurrently.", location.getId());
+            throw new OptimisticLockException("location " + location.getId() + " is no longer at version " + location.getVersion());
+        }
+        eventPublisher.publishEvent(EntityChangeEvent.updated(EntityType.LOCATION, location.getId(), journalFields(location)));
+        locationSpatialIndex.indexAfterCommit(location.getId(), location.getLatitude(), location.getLongitude()); // Reindexar al confirmar
+        addressDuplicateIndex.indexAfterCommit(location); // Reindexar la dirección al confirmar
         logger.info("Updated location with id: {}", location.getId()); // Registro de la actualización
     }
 
@@ -63,21 +130,66 @@ public class LocationDAOImpl implements LocationDAO {
     @Override
     public void deleteLocation(int id) {
         logger.info("Deleting location with id: {}", id);
-        Location location = entityManager.find(Location.class, id); // Busca la ubicación por ID
-        if (location != null) {
-            entityManager.remove(location); // Elimina la ubicación encontrada
-            logger.info("Deleted location with id: {}", id); // Registro de la eliminación
-        } else {
+        if (deleteLocations(List.of(id)) == 0) {
             logger.warn("Location with id: {} not found.", id); // Advertencia si la ubicación no se encuentra
         }
     }
 
+    /**
+     * Elimina varias ubicaciones con DELETE por conjuntos, sin cargarlas.
+     * @param ids IDs de las ubicaciones a eliminar
+     * @return número de ubicaciones eliminadas
+     */
+    @Override
+    public int deleteLocations(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String query = "SELECT l.id FROM Location l WHERE l.id IN :ids"; // Solo las que existen, para publicar sus bajas
+        return deleteExisting(entityManager.createQuery(query, Integer.class)
+                .setParameter("ids", ids)
+                .getResultList());
+    }
+
+    /**
+     * Elimina las ubicaciones de varias provincias.
+     * @param provinceIds IDs de las provincias
+     * @return número de ubicaciones eliminadas
+     */
+    @Override
+    public int deleteLocationsByProvinceIds(Collection<Integer> provinceIds) {
+        if (provinceIds.isEmpty()) {
+            return 0;
+        }
+        String query = "SELECT l.id FROM Location l WHERE l.province.id IN :provinceIds"; // Solo los IDs, para publicar las bajas
+        return deleteExisting(entityManager.createQuery(query, Integer.class)
+                .setParameter("provinceIds", provinceIds)
+                .getResultList());
+    }
+
+    /**
+     * Elimina las ubicaciones de varios supermercados.
+     * @param supermarketIds IDs de los supermercados
+     * @return número de ubicaciones eliminadas
+     */
+    @Override
+    public int deleteLocationsBySupermarketIds(Collection<Integer> supermarketIds) {
+        if (supermarketIds.isEmpty()) {
+            return 0;
+        }
+        String query = "SELECT l.id FROM Location l WHERE l.supermarket.id IN :supermarketIds"; // Solo los IDs, para publicar las bajas
+        return deleteExisting(entityManager.createQuery(query, Integer.class)
+                .setParameter("supermarketIds", supermarketIds)
+                .getResultList());
+    }
+
     /**
      * Recupera una ubicación por su ID.
      * @param id ID de la ubicación
      * @return Ubicación correspondiente al ID
      */
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public Location getLocationById(int id) {
         logger.info("Retrieving location by id: {}", id);
         Location location = entityManager.find(Location.class, id); // Busca la ubicación por ID
@@ -95,6 +207,7 @@ public class LocationDAOImpl implements LocationDAO {
      * @return true si una ubicación con la dirección ya existe, false de lo contrario.
      */
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public boolean existsLocationByAddress(String address) {
         logger.info("Checking if location with address: {} exists", address);
         // Consulta para contar ubicaciones con la dirección dada (en mayúsculas)
@@ -113,6 +226,7 @@ public class LocationDAOImpl implements LocationDAO {
      *         false de lo contrario.
      */
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public boolean existsLocationByAddressAndNotId(String address, int id) {
         logger.info("Checking if location with address: {} exists excluding id: {}", address, id);
         // Consulta para contar ubicaciones con la dirección dada, excluyendo el ID especificado
@@ -122,4 +236,61 @@ public class LocationDAOImpl implements LocationDAO {
                 .getSingleResult(); // Obtener el resultado
         return count != null && count > 0; // Retorna true si existe al menos una ubicación
     }
+
+    /**
+     * Recupera varias ubicaciones por su ID, con su provincia y su supermercado.
+     * @param ids IDs de las ubicaciones
+     * @return Ubicaciones encontradas (las que no existen se omiten)
+     */
+    @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
+    public List<Location> getLocationsByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        logger.info("Retrieving {} locations by id.", ids.size());
+        String query = "SELECT l FROM Location l JOIN FETCH l.province JOIN FETCH l.supermarket WHERE l.id IN :ids";
+        return entityManager.createQuery(query, Location.class).setParameter("ids", ids).getResultList();
+    }
+
+    // Elimina ubicaciones que existen y publica sus bajas
+    private int deleteExisting(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        logger.info("Deleting {} locations", ids.size());
+        SetDelete.requireUnreferenced(entityManager, "Location", "SELECT id FROM tickets WHERE location_id IN (:ids)",
+                ids, "locations"); // Los tickets no tienen clave foránea en MariaDB
+        int deleted = SetDelete.execute(entityManager, "DELETE FROM Location l WHERE l.id IN :ids", ids); // Borrado por conjuntos
+        for (Integer id : ids) {
+            eventPublisher.publishEvent(EntityChangeEvent.deleted(EntityType.LOCATION, id));
+            locationSpatialIndex.removeAfterCommit(id); // Quitar del índice al confirmar
+            addressDuplicateIndex.removeAfterCommit(id); // Quitar la dirección del índice al confirmar
+        }
+        logger.info("Deleted {} locations", deleted);
+        return deleted;
+    }
+
+    // Ubicación desacoplada con su provincia y su supermercado, a partir de una fila del listado compartido
+    private static Location toLocation(ListRow row) {
+        Province province = new Province();
+        province.setId(row.provinceId());
+        province.setName(row.provinceName());
+        Supermarket supermarket = new Supermarket();
+        supermarket.setId(row.supermarketId());
+        supermarket.setName(row.supermarketName());
+        Location location = new Location(row.address(), row.city(), supermarket, province);
+        location.setId(row.id());
+        location.setLatitude(row.latitude());
+        location.setLongitude(row.longitude());
+        return location;
+    }
+
+    // Campos de la entidad que se publican en los eventos de cambio
+    private static Object[] journalFields(Location location) {
+        return new Object[]{"address", location.getAddress(), "city", location.getCity(),
+                "provinceId", location.getProvince() != null ? location.getProvince().getId() : null,
+                "supermarketId", location.getSupermarket() != null ? location.getSupermarket().getId() : null,
+                "latitude", location.getLatitude(), "longitude", location.getLongitude()};
+    }
 }
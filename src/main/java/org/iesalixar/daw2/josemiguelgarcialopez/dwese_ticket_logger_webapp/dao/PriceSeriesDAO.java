@@ -0,0 +1,13 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.PriceSeriesBlock;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface PriceSeriesDAO {
+
+    List<PriceSeriesBlock> listBlocks(String product, int locationId, LocalDate from, LocalDate to);
+    PriceSeriesBlock getLastBlock(String product, int locationId);
+    void saveBlock(PriceSeriesBlock block);
+    List<String> listProducts(int locationId);
+}
@@ -0,0 +1,96 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.PriceSeriesBlock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Repository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository // Marca esta clase como un componente de acceso a datos
+@Transactional // Indica que los métodos de esta clase están dentro de una transacción
+public class PriceSeriesDAOImpl implements PriceSeriesDAO {
+
+    // Logger para registrar eventos importantes en el DAO
+    private static final Logger logger = LoggerFactory.getLogger(PriceSeriesDAOImpl.class);
+
+    @PersistenceContext // Inyección del EntityManager para gestionar la persistencia
+    private EntityManager entityManager;
+
+    /**
+     * Lista los bloques de una serie que tienen observaciones dentro del rango de fechas.
+     * @param product    Producto normalizado
+     * @param locationId ID de la ubicación
+     * @param from       Primera fecha del rango
+     * @param to         Última fecha del rango
+     * @return Bloques en orden de inserción
+     */
+    @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
+    public List<PriceSeriesBlock> listBlocks(String product, int locationId, LocalDate from, LocalDate to) {
+        logger.info("Listing price blocks for product {} at location {} between {} and {}", product, locationId, from, to);
+        String query = "SELECT b FROM PriceSeriesBlock b WHERE b.product = :product AND b.location.id = :locationId " +
+                "AND b.lastDay >= :from AND b.firstDay <= :to ORDER BY b.id";
+        return entityManager.createQuery(query, PriceSeriesBlock.class)
+                .setParameter("product", product)
+                .setParameter("locationId", locationId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+    }
+
+    /**
+     * Obtiene el último bloque creado de una serie, que es el que se sigue llenando. Se bloquea
+     * (FOR UPDATE) hasta el final de la transacción: otra importación de la misma serie espera a que
+     * esta guarde el bloque ampliado y lo lee ya con sus observaciones, en lugar de sobrescribirlas.
+     * @param product    Producto normalizado
+     * @param locationId ID de la ubicación
+     * @return El bloque o null si la serie no existe
+     */
+    @Override
+    public PriceSeriesBlock getLastBlock(String product, int locationId) {
+        String query = "SELECT b FROM PriceSeriesBlock b WHERE b.product = :product AND b.location.id = :locationId ORDER BY b.id DESC";
+        List<PriceSeriesBlock> blocks = entityManager.createQuery(query, PriceSeriesBlock.class)
+                .setParameter("product", product)
+                .setParameter("locationId", locationId)
+                .setMaxResults(1)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        return blocks.isEmpty() ? null : blocks.get(0);
+    }
+
+    /**
+     * Inserta un bloque nuevo o actualiza uno existente.
+     * @param block Bloque a guardar
+     */
+    @Override
+    public void saveBlock(PriceSeriesBlock block) {
+        if (block.getId() == null) {
+            // La ubicación solo lleva el ID: se sustituye por una referencia gestionada, sin consultarla
+            block.setLocation(entityManager.getReference(Location.class, block.getLocation().getId()));
+            entityManager.persist(block); // Bloque nuevo
+        } else {
+            entityManager.merge(block); // Bloque que se ha ampliado
+        }
+    }
+
+    /**
+     * Lista los productos con historial de precios en una ubicación.
+     * @param locationId ID de la ubicación
+     * @return Productos ordenados alfabéticamente
+     */
+    @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
+    public List<String> listProducts(int locationId) {
+        logger.info("Listing products with price history at location {}", locationId);
+        String query = "SELECT DISTINCT b.product FROM PriceSeriesBlock b WHERE b.location.id = :locationId ORDER BY b.product";
+        return entityManager.createQuery(query, String.class)
+                .setParameter("locationId", locationId)
+                .getResultList();
+    }
+}
@@ -1,6 +1,7 @@
 package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
 
 import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Province;
+import java.util.Collection;
 import java.util.List;
 
 public interface ProvinceDAO {
@@ -9,6 +10,10 @@ public interface ProvinceDAO {
     void insertProvince(Province province);
     void updateProvince(Province province);
     void deleteProvince(int id);
+    // Elimina las provincias indicadas con sus ubicaciones mediante DELETE por conjuntos; devuelve cuántas provincias se eliminaron
+    int deleteProvinces(Collection<Integer> ids);
+    // Elimina las provincias (y sus ubicaciones) de las regiones indicadas; devuelve cuántas provincias se eliminaron
+    int deleteProvincesByRegionIds(Collection<Integer> regionIds);
     Province getProvinceById(int id);
     boolean existsProvinceByCode(String code);
     boolean existsProvinceByCodeAndNotId(String code, int id);
@@ -1,12 +1,20 @@
 package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
 
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config.ReadWriteRoutingDataSource;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.EntityType;
 import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Province;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Region;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Repository // Marca esta clase como un componente de acceso a datos
@@ -19,15 +27,38 @@ public class ProvinceDAOImpl implements ProvinceDAO {
     @PersistenceContext // Inyección del EntityManager para gestionar la persistencia
     private EntityManager entityManager;
 
+    @Autowired // Publica cada alta, cambio o baja (diario de cambios)
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired // Para eliminar las ubicaciones de las provincias que se eliminan
+    private LocationDAO locationDAO;
+
+    @Autowired // Agrupa los listados idénticos simultáneos
+    private SingleFlight singleFlight;
+
+    // Fila inmutable del listado de provincias, compartida entre las peticiones simultáneas
+    private record ListRow(Integer id, String code, String name, Integer regionId, String regionName) {
+    }
+
     /**
      * Lista todas las provincias de la base de datos.
      * @return Lista de provincias
      */
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public List<Province> listAllProvinces() {
         logger.info("Listing all provinces from the database.");
-        String query = "SELECT p FROM Province p JOIN FETCH p.region"; // Consulta para obtener provincias y sus regiones
-        List<Province> provinces = entityManager.createQuery(query, Province.class).getResultList();
+        // Consulta para obtener provincias y sus regiones, como filas y no como entidades de la sesión
+        String query = "SELECT new " + ListRow.class.getName() + "(p.id, p.code, p.name, r.id, r.name) "
+                + "FROM Province p JOIN p.region r";
+        // Las peticiones simultáneas comparten una sola consulta (salvo si deben leer de la principal)
+        // y sus filas inmutables; cada una construye sus propias provincias, fuera de toda sesión
+        List<ListRow> rows = singleFlight.execute("provinces.listAll", !ReadWriteRoutingDataSource.isPrimaryRequired(),
+                () -> List.copyOf(entityManager.createQuery(query, ListRow.class).getResultList()));
+        List<Province> provinces = new ArrayList<>(rows.size());
+        for (ListRow row : rows) {
+            provinces.add(toProvince(row));
+        }
         logger.info("Retrieved {} provinces from the database.", provinces.size()); // Registro del tamaño de la lista
         return provinces;
     }
@@ -39,43 +70,90 @@ public class ProvinceDAOImpl implements ProvinceDAO {
     @Override
     public void insertProvince(Province province) {
         logger.info("Inserting province with code: {} and name: {}", province.getCode(), province.getName());
+        // El formulario solo enlaza el ID de la región: se sustituye por una referencia gestionada
+        province.setRegion(entityManager.getReference(Region.class, province.getRegion().getId()));
         entityManager.persist(province); // Persistir la nueva provincia en la base de datos
+        eventPublisher.publishEvent(EntityChangeEvent.inserted(EntityType.PROVINCE, province.getId(), journalFields(province)));
         logger.info("Inserted province with ID: {}", province.getId()); // Registro del ID de la nueva provincia
     }
 
     /**
-     * Actualiza una provincia existente en la base de datos.
-     * @param province Provincia a actualizar
+     * Actualiza una provincia existente en la base de datos con un único UPDATE, sin leerla antes,
+     * siempre que siga en la versión que se editó.
+     * @param province Provincia a actualizar (con la versión que se editó)
+     * @throws OptimisticLockException si la provincia ha cambiado o se ha eliminado entretanto
      */
     @Override
     public void updateProvince(Province province) {
-        logger.info("Updating province with id: {}", province.getId());
-        entityManager.merge(province); // Actualiza la provincia existente en la base de datos
+        logger.info("Updating province with id: {} at version: {}", province.getId(), province.getVersion());
+        String query = "UPDATE Province p SET p.code = :code, p.name = :name, p.region = :region, "
+                + "p.version = p.version + 1 WHERE p.id = :id AND p.version = :version"; // Actualización condicionada a la versión
+        int updated = entityManager.createQuery(query)
+                .setParameter("code", province.getCode())
+                .setParameter("name", province.getName())
+                .setParameter("region", entityManager.getReference(Region.class, province.getRegion().getId())) // Sin consultar la región
+                .setParameter("id", province.getId())
+                .setParameter("version", province.getVersion())
+                .executeUpdate();
+        if (updated == 0) {
+            logger.warn("Province with id: {} was modified or deleted concurrently.", province.getId());
+            throw new OptimisticLockException("province " + province.getId() + " is no longer at version " + province.getVersion());
+        }
+        eventPublisher.publishEvent(EntityChangeEvent.updated(EntityType.PROVINCE, province.getId(), journalFields(province)));
         logger.info("Updated province with id: {}", province.getId()); // Registro de la actualización
     }
 
     /**
-     * Elimina una provincia de la base de datos.
+     * Elimina una provincia de la base de datos, junto con sus ubicaciones.
      * @param id ID de la provincia a eliminar
      */
     @Override
     public void deleteProvince(int id) {
         logger.info("Deleting province with id: {}", id);
-        Province province = entityManager.find(Province.class, id); // Busca la provincia por ID
-        if (province != null) {
-            entityManager.remove(province); // Elimina la provincia encontrada
-            logger.info("Deleted province with id: {}", id); // Registro de la eliminación
-        } else {
+        if (deleteProvinces(List.of(id)) == 0) {
             logger.warn("Province with id: {} not found.", id); // Advertencia si la provincia no se encuentra
         }
     }
 
+    /**
+     * Elimina varias provincias y sus ubicaciones con DELETE por conjuntos, sin cargarlas.
+     * @param ids IDs de las provincias a eliminar
+     * @return número de provincias eliminadas
+     */
+    @Override
+    public int deleteProvinces(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String query = "SELECT p.id FROM Province p WHERE p.id IN :ids"; // Solo las que existen, para publicar sus bajas
+        return deleteExisting(entityManager.createQuery(query, Integer.class)
+                .setParameter("ids", ids)
+                .getResultList());
+    }
+
+    /**
+     * Elimina las provincias de varias regiones, junto con sus ubicaciones.
+     * @param regionIds IDs de las regiones
+     * @return número de provincias eliminadas
+     */
+    @Override
+    public int deleteProvincesByRegionIds(Collection<Integer> regionIds) {
+        if (regionIds.isEmpty()) {
+            return 0;
+        }
+        String query = "SELECT p.id FROM Province p WHERE p.region.id IN :regionIds"; // Solo los IDs, para publicar las bajas
+        return deleteExisting(entityManager.createQuery(query, Integer.class)
+                .setParameter("regionIds", regionIds)
+                .getResultList());
+    }
+
     /**
      * Obtiene una provincia por su ID.
      * @param id ID de la provincia
      * @return Provincia correspondiente al ID
      */
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public Province getProvinceById(int id) {
         logger.info("Retrieving province by id: {}", id);
         Province province = entityManager.find(Province.class, id); // Busca la provincia por ID
@@ -93,6 +171,7 @@ public class ProvinceDAOImpl implements ProvinceDAO {
      * @return true si una provincia con el código ya existe, false de lo contrario.
      */
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public boolean existsProvinceByCode(String code) {
         logger.info("Checking if province with code: {} exists", code);
         String query = "SELECT COUNT(p) FROM Province p WHERE UPPER(p.code) = :code"; // Consulta para contar provincias
@@ -113,6 +192,7 @@ public class ProvinceDAOImpl implements ProvinceDAO {
      *         false de lo contrario.
      */
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public boolean existsProvinceByCodeAndNotId(String code, int id) {
         logger.info("Checking if province with code: {} exists excluding id: {}", code, id);
         String query = "SELECT COUNT(p) FROM Province p WHERE UPPER(p.code) = :code AND p.id != :id"; // Consulta para contar provincias excluyendo ID
@@ -124,4 +204,35 @@ public class ProvinceDAOImpl implements ProvinceDAO {
         logger.info("Province with code: {} exists excluding id {}: {}", code, id, exists); // Registro del resultado
         return exists; // Retorna true o false
     }
+
+    // Elimina provincias que existen, primero sus ubicaciones, y publica sus bajas
+    private int deleteExisting(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        logger.info("Deleting {} provinces", ids.size());
+        locationDAO.deleteLocationsByProvinceIds(ids); // Las ubicaciones referencian a la provincia
+        int deleted = SetDelete.execute(entityManager, "DELETE FROM Province p WHERE p.id IN :ids", ids); // Borrado por conjuntos
+        for (Integer id : ids) {
+            eventPublisher.publishEvent(EntityChangeEvent.deleted(EntityType.PROVINCE, id));
+        }
+        logger.info("Deleted {} provinces", deleted);
+        return deleted;
+    }
+
+    // Provincia desacoplada con su región, a partir de una fila del listado compartido
+    private static Province toProvince(ListRow row) {
+        Region region = new Region();
+        region.setId(row.regionId());
+        region.setName(row.regionName());
+        Province province = new Province(row.code(), row.name(), region);
+        province.setId(row.id());
+        return province;
+    }
+
+    // Campos de la entidad que se publican en los eventos de cambio
+    private static Object[] journalFields(Province province) {
+        return new Object[]{"code", province.getCode(), "name", province.getName(),
+                "regionId", province.getRegion() != null ? province.getRegion().getId() : null};
+    }
 }
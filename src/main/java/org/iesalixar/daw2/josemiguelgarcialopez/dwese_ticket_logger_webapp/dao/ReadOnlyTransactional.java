@@ -0,0 +1,21 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un método de un DAO como de solo lectura: su transacción es `readOnly` y, si hay réplicas
+ * configuradas, la conexión se toma de una de ellas (ver `ReadWriteRoutingDataSource`). En los
+ * métodos anotados prevalece sobre el `@Transactional` de la clase.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true)
+public @interface ReadOnlyTransactional {
+}
@@ -1,6 +1,7 @@
 package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
 
 import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Region;
+import java.util.Collection;
 import java.util.List;
 
 
@@ -10,6 +11,8 @@ public interface RegionDAO {
     void insertRegion(Region region);
     void updateRegion(Region region);
     void deleteRegion(int id);
+    // Elimina las regiones indicadas con sus provincias y ubicaciones mediante DELETE por conjuntos; devuelve cuántas regiones se eliminaron
+    int deleteRegions(Collection<Integer> ids);
     Region getRegionById(int id);
     boolean existsRegionByCode(String code);
     boolean existsRegionByCodeAndNotId(String code, int id);
@@ -1,12 +1,17 @@
 package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
 
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.EntityType;
 import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Region;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import java.util.Collection;
 import java.util.List;
 
 @Repository // Indica que esta clase es un componente de acceso a datos
@@ -19,11 +24,18 @@ public class RegionDAOImpl implements RegionDAO {
     @PersistenceContext // Inyección del EntityManager para operaciones de JPA
     private EntityManager entityManager;
 
+    @Autowired // Publica cada alta, cambio o baja (diario de cambios)
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired // Para eliminar las provincias de las regiones que se eliminan
+    private ProvinceDAO provinceDAO;
+
     /**
      * Lista todas las regiones de la base de datos.
      * @return Lista de regiones
      */
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public List<Region> listAllRegions() {
         logger.info("Listing all regions from the database.");
         String query = "SELECT r FROM Region r"; // Consulta JPQL para obtener todas las regiones
@@ -40,42 +52,81 @@ public class RegionDAOImpl implements RegionDAO {
     public void insertRegion(Region region) {
         logger.info("Inserting region with code: {} and name: {}", region.getCode(), region.getName());
         entityManager.persist(region); // Persistir la nueva región en la base de datos
+        eventPublisher.publishEvent(EntityChangeEvent.inserted(EntityType.REGION, region.getId(), journalFields(region)));
         logger.info("Inserted region with ID: {}", region.getId()); // Registro del ID de la nueva región
     }
 
     /**
-     * Actualiza una región existente en la base de datos.
-     * @param region Región a actualizar
+     * Actualiza una región existente en la base de datos con un único UPDATE, sin leerla antes,
+     * siempre que siga en la versión que se editó.
+     * @param region Región a actualizar (con la versión que se editó)
+     * @throws OptimisticLockException si la región ha cambiado o se ha eliminado entretanto
      */
     @Override
     public void updateRegion(Region region) {
-        logger.info("Updating region with id: {}", region.getId());
-        entityManager.merge(region); // Actualiza la región existente en la base de datos
+        logger.info("Updating region with id: {} at version: {}", region.getId(), region.getVersion());
+        String query = "UPDATE Region r SET r.code = :code, r.name = :name, r.version = r.version + 1 "
+                + "WHERE r.id = :id AND r.version = :version"; // Actualización condicionada a la versión
+        int updated = entityManager.createQuery(query)
+                .setParameter("code", region.getCode())
+                .setParameter("name", region.getName())
+                .setParameter("id", region.getId())
+                .setParameter("version", region.getVersion())
+                .executeUpdate();
+        if (updated == 0) {
+            logger.warn("Region with id: {} was modified or deleted concurrently.", region.getId());
+            throw new OptimisticLockException("region " + region.getId() + " is no longer at version " + region.getVersion());
+        }
+        eventPublisher.publishEvent(EntityChangeEvent.updated(EntityType.REGION, region.getId(), journalFields(region)));
         logger.info("Updated region with id: {}", region.getId()); // Registro de la actualización
     }
 
     /**
-     * Elimina una región de la base de datos.
+     * Elimina una región de la base de datos, junto con sus provincias y sus ubicaciones.
      * @param id ID de la región a eliminar
      */
     @Override
     public void deleteRegion(int id) {
         logger.info("Deleting region with id: {}", id);
-        Region region = entityManager.find(Region.class, id); // Busca la región por ID
-        if (region != null) {
-            entityManager.remove(region); // Elimina la región encontrada
-            logger.info("Deleted region with id: {}", id); // Registro de la eliminación
-        } else {
+        if (deleteRegions(List.of(id)) == 0) {
             logger.warn("Region with id: {} not found.", id); // Advertencia si la región no se encuentra
         }
     }
 
+    /**
+     * Elimina varias regiones, sus provincias y sus ubicaciones con DELETE por conjuntos, sin cargarlas.
+     * @param ids IDs de las regiones a eliminar
+     * @return número de regiones eliminadas
+     */
+    @Override
+    public int deleteRegions(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String query = "SELECT r.id FROM Region r WHERE r.id IN :ids"; // Solo las que existen, para publicar sus bajas
+        List<Integer> existing = entityManager.createQuery(query, Integer.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        if (existing.isEmpty()) {
+            return 0;
+        }
+        logger.info("Deleting {} regions", existing.size());
+        provinceDAO.deleteProvincesByRegionIds(existing); // Las provincias referencian a la región
+        int deleted = SetDelete.execute(entityManager, "DELETE FROM Region r WHERE r.id IN :ids", existing); // Borrado por conjuntos
+        for (Integer id : existing) {
+            eventPublisher.publishEvent(EntityChangeEvent.deleted(EntityType.REGION, id));
+        }
+        logger.info("Deleted {} regions", deleted);
+        return deleted;
+    }
+
     /**
      * Recupera una región por su ID.
      * @param id ID de la región a recuperar
      * @return Región encontrada o null si no existe
      */
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public Region getRegionById(int id) {
         logger.info("Retrieving region by id: {}", id);
         Region region = entityManager.find(Region.class, id); // Busca la región por ID
@@ -93,6 +144,7 @@ public class RegionDAOImpl implements RegionDAO {
      * @return true si una región con el código ya existe, false de lo contrario.
      */
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public boolean existsRegionByCode(String code) {
         logger.info("Checking if region with code: {} exists", code);
         String query = "SELECT COUNT(r) FROM Region r WHERE UPPER(r.code) = :code"; // Consulta para contar regiones
@@ -113,6 +165,7 @@ public class RegionDAOImpl implements RegionDAO {
      *         false de lo contrario.
      */
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public boolean existsRegionByCodeAndNotId(String code, int id) {
         logger.info("Checking if region with code: {} exists excluding id: {}", code, id);
         String query = "SELECT COUNT(r) FROM Region r WHERE UPPER(r.code) = :code AND r.id != :id"; // Consulta para contar regiones excluyendo ID
@@ -124,4 +177,9 @@ public class RegionDAOImpl implements RegionDAO {
         logger.info("Region with code: {} exists excluding id {}: {}", code, id, exists); // Registro del resultado
         return exists; // Retorna true o false
     }
+
+    // Campos de la entidad que se publican en los eventos de cambio
+    private static Object[] journalFields(Region region) {
+        return new Object[]{"code", region.getCode(), "name", region.getName()};
+    }
 }
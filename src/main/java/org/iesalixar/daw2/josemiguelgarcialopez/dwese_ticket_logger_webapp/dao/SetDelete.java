@@ -0,0 +1,87 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+
+/**
+ * Borrados por conjuntos (`DELETE ... WHERE id IN :ids`) que comparten los DAO. Los IDs se envían
+ * en bloques para que ninguna sentencia supere los límites de parámetros de la base de datos.
+ *
+ * Las tablas de tickets no tienen claves foráneas en MariaDB (están particionadas), así que los DAO
+ * comprueban con {@link #requireUnreferenced} que ningún ticket usa las filas antes de borrarlas, y
+ * `TicketDAO` comprueba con {@link #requireExisting} que existen las que usa un ticket nuevo. Los
+ * bloqueos sustituyen a los de la clave foránea: el borrado bloquea las filas en exclusiva y el alta
+ * en modo compartido, así que una de las dos espera a que la otra termine.
+ */
+final class SetDelete {
+
+    // Número máximo de IDs por sentencia
+    static final int CHUNK_SIZE = 1000;
+
+    private SetDelete() {
+    }
+
+    /**
+     * Ejecuta `jpql`, que debe tener el parámetro `:ids`, una vez por bloque de IDs.
+     *
+     * @return número total de filas eliminadas.
+     */
+    static int execute(EntityManager entityManager, String jpql, List<Integer> ids) {
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            deleted += entityManager.createQuery(jpql)
+                    .setParameter("ids", ids.subList(from, Math.min(ids.size(), from + CHUNK_SIZE)))
+                    .executeUpdate();
+        }
+        return deleted;
+    }
+
+    /**
+     * Bloquea en exclusiva (`SELECT ... FOR UPDATE`) las filas de `entity` que se van a borrar y
+     * comprueba que la consulta SQL `referencingSql`, que debe tener el parámetro `:ids`, no
+     * encuentra ninguna fila que las use. La comprobación es también una lectura con bloqueo, así que
+     * ve los tickets confirmados mientras se esperaba el bloqueo.
+     *
+     * @throws DataIntegrityViolationException si alguna fila referencia a los IDs, igual que
+     *         fallaría el borrado con la clave foránea.
+     */
+    static void requireUnreferenced(EntityManager entityManager, String entity, String referencingSql, List<Integer> ids, String what) {
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + CHUNK_SIZE));
+            entityManager.createQuery("SELECT e.id FROM " + entity + " e WHERE e.id IN :ids", Integer.class)
+                    .setParameter("ids", chunk)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .getResultList();
+            List<?> references = entityManager.createNativeQuery(referencingSql + " LIMIT 1 FOR UPDATE")
+                    .setParameter("ids", chunk)
+                    .getResultList();
+            if (!references.isEmpty()) {
+                throw new DataIntegrityViolationException(what + " still referenced by tickets");
+            }
+        }
+    }
+
+    /**
+     * Bloquea en modo compartido las filas de `entity` que va a usar un alta y comprueba que existen
+     * todas. Un borrado simultáneo de esas filas espera a que el alta se confirme.
+     *
+     * @throws DataIntegrityViolationException si alguna no existe, igual que fallaría el alta con la
+     *         clave foránea.
+     */
+    static void requireExisting(EntityManager entityManager, String entity, List<Integer> ids, String what) {
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + CHUNK_SIZE));
+            int found = entityManager.createQuery("SELECT e.id FROM " + entity + " e WHERE e.id IN :ids", Integer.class)
+                    .setParameter("ids", chunk)
+                    .setLockMode(LockModeType.PESSIMISTIC_READ)
+                    .getResultList()
+                    .size();
+            if (found < chunk.size()) {
+                throw new DataIntegrityViolationException((chunk.size() - found) + " " + what + " referenced by the tickets do not exist");
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa consultas idénticas simultáneas: si llega una consulta con la misma clave que otra que aún
+ * se está ejecutando, espera a esa y devuelve su mismo resultado (o su misma excepción) en lugar de
+ * lanzar otra contra la base de datos. Evita la avalancha de listados iguales tras un despliegue.
+ *
+ * - La clave debe identificar la consulta y sus parámetros.
+ * - El resultado se comparte entre los hilos, así que debe ser inmutable (registros en una lista
+ *   inmodificable), nunca entidades: pertenecerían a la sesión de otra petición. Cada llamante
+ *   construye a partir de él sus propios objetos.
+ * - Quien llama decide si su consulta puede agruparse. Una petición que debe leer de la principal
+ *   (acaba de escribir) ejecuta su propia consulta para ver sus cambios.
+ *
+ * Métrica `app.dao.single-flight` (etiquetas `query` y `result`: `executed` o `coalesced`).
+ */
+@Component
+public class SingleFlight {
+
+    @Value("${app.dao.single-flight.enabled:true}")
+    private boolean enabled = true;
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Ejecuta la consulta o se une a la que ya esté en curso con la misma clave.
+     *
+     * @param coalesce false para ejecutar la consulta sin agruparla con otras (por ejemplo, si
+     *                 debe leer de la principal).
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, boolean coalesce, Supplier<T> query) {
+        if (!enabled || !coalesce) {
+            return query.get();
+        }
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            counter(key, "coalesced").increment();
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        counter(key, "executed").increment();
+        try {
+            T result = query.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private Counter counter(String key, String result) {
+        return meterRegistry.counter("app.dao.single-flight", "query", key, "result", result);
+    }
+}
@@ -1,6 +1,7 @@
 package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
 
 import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Supermarket;
+import java.util.Collection;
 import java.util.List;
 
 public interface SupermarketDAO {
@@ -9,6 +10,8 @@ public interface SupermarketDAO {
     void insertSupermarket(Supermarket supermarket);
     void updateSupermarket(Supermarket supermarket);
     void deleteSupermarket(int id);
+    // Elimina los supermercados indicados con sus ubicaciones mediante DELETE por conjuntos; devuelve cuántos se eliminaron
+    int deleteSupermarkets(Collection<Integer> ids);
     Supermarket getSupermarketById(int id) ;
     boolean existsSupermarketByName(String name);
     boolean existsSupermarketByNameAndNotId(String name, int id);
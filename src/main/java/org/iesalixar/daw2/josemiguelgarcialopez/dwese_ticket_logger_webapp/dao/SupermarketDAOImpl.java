@@ -1,13 +1,18 @@
 package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
 
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.EntityType;
 import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Supermarket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository // Marca esta clase como un componente de acceso a datos
@@ -20,11 +25,18 @@ public class SupermarketDAOImpl implements SupermarketDAO {
     @PersistenceContext // Inyección del EntityManager para gestionar la persistencia
     private EntityManager entityManager;
 
+    @Autowired // Publica cada alta, cambio o baja (diario de cambios)
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired // Para eliminar las ubicaciones de los supermercados que se eliminan
+    private LocationDAO locationDAO;
+
     /**
      * Lista todos los supermercados de la base de datos.
      * @return Lista de supermercados
      */
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public List<Supermarket> listAllSupermarkets() {
         logger.info("Listing all supermarkets from the database.");
         // Consulta para obtener todos los supermercados
@@ -41,42 +53,80 @@ public class SupermarketDAOImpl implements SupermarketDAO {
     public void insertSupermarket(Supermarket supermarket) {
         logger.info("Inserting supermarket with name: {}", supermarket.getName());
         entityManager.persist(supermarket); // Persistir el nuevo supermercado en la base de datos
+        eventPublisher.publishEvent(EntityChangeEvent.inserted(EntityType.SUPERMARKET, supermarket.getId(), journalFields(supermarket)));
         logger.info("Inserted supermarket with ID: {}", supermarket.getId()); // Registro del ID del nuevo supermercado
     }
 
     /**
-     * Actualiza un supermercado existente en la base de datos.
-     * @param supermarket Supermercado a actualizar
+     * Actualiza un supermercado existente en la base de datos con un único UPDATE, sin leerlo antes,
+     * siempre que siga en la versión que se editó.
+     * @param supermarket Supermercado a actualizar (con la versión que se editó)
+     * @throws OptimisticLockException si el supermercado ha cambiado o se ha eliminado entretanto
      */
     @Override
     public void updateSupermarket(Supermarket supermarket) {
-        logger.info("Updating supermarket with id: {}", supermarket.getId());
-        entityManager.merge(supermarket); // Actualiza el supermercado existente en la base de datos
+        logger.info("Updating supermarket with id: {} at version: {}", supermarket.getId(), supermarket.getVersion());
+        String query = "UPDATE Supermarket s SET s.name = :name, s.version = s.version + 1 "
+                + "WHERE s.id = :id AND s.version = :version"; // Actualización condicionada a la versión
+        int updated = entityManager.createQuery(query)
+                .setParameter("name", supermarket.getName())
+                .setParameter("id", supermarket.getId())
+                .setParameter("version", supermarket.getVersion())
+                .executeUpdate();
+        if (updated == 0) {
+            logger.warn("Supermarket with id: {} was modified or deleted concurrently.", supermarket.getId());
+            throw new OptimisticLockException("supermarket " + supermarket.getId() + " is no longer at version " + supermarket.getVersion());
+        }
+        eventPublisher.publishEvent(EntityChangeEvent.updated(EntityType.SUPERMARKET, supermarket.getId(), journalFields(supermarket)));
         logger.info("Updated supermarket with id: {}", supermarket.getId()); // Registro de la actualización
     }
 
     /**
-     * Elimina un supermercado de la base de datos.
+     * Elimina un supermercado de la base de datos, junto con sus ubicaciones.
      * @param id ID del supermercado a eliminar
      */
     @Override
     public void deleteSupermarket(int id) {
         logger.info("Deleting supermarket with id: {}", id);
-        Supermarket supermarket = entityManager.find(Supermarket.class, id); // Busca el supermercado por ID
-        if (supermarket != null) {
-            entityManager.remove(supermarket); // Elimina el supermercado encontrado
-            logger.info("Deleted supermarket with id: {}", id); // Registro de la eliminación
-        } else {
+        if (deleteSupermarkets(List.of(id)) == 0) {
             logger.warn("Supermarket with id: {} not found.", id); // Advertencia si el supermercado no se encuentra
         }
     }
 
+    /**
+     * Elimina varios supermercados y sus ubicaciones con DELETE por conjuntos, sin cargarlos.
+     * @param ids IDs de los supermercados a eliminar
+     * @return número de supermercados eliminados
+     */
+    @Override
+    public int deleteSupermarkets(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String query = "SELECT s.id FROM Supermarket s WHERE s.id IN :ids"; // Solo los que existen, para publicar sus bajas
+        List<Integer> existing = entityManager.createQuery(query, Integer.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        if (existing.isEmpty()) {
+            return 0;
+        }
+        logger.info("Deleting {} supermarkets", existing.size());
+        locationDAO.deleteLocationsBySupermarketIds(existing); // Las ubicaciones referencian al supermercado
+        int deleted = SetDelete.execute(entityManager, "DELETE FROM Supermarket s WHERE s.id IN :ids", existing); // Borrado por conjuntos
+        for (Integer id : existing) {
+            eventPublisher.publishEvent(EntityChangeEvent.deleted(EntityType.SUPERMARKET, id));
+        }
+        logger.info("Deleted {} supermarkets", deleted);
+        return deleted;
+    }
+
     /**
      * Recupera un supermercado por su ID.
      * @param id ID del supermercado
      * @return Supermercado correspondiente al ID
      */
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public Supermarket getSupermarketById(int id) {
         logger.info("Retrieving supermarket by id: {}", id);
         Supermarket supermarket = entityManager.find(Supermarket.class, id); // Busca el supermercado por ID
@@ -94,6 +144,7 @@ public class SupermarketDAOImpl implements SupermarketDAO {
      * @return true si un supermercado con el nombre ya existe, false de lo contrario.
      */
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public boolean existsSupermarketByName(String name) {
         logger.info("Checking if supermarket with name: {} exists", name);
         // Consulta para contar supermercados con el nombre dado (en mayúsculas)
@@ -114,6 +165,7 @@ public class SupermarketDAOImpl implements SupermarketDAO {
      *         false de lo contrario.
      */
     @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
     public boolean existsSupermarketByNameAndNotId(String name, int id) {
         logger.info("Checking if supermarket with name: {} exists excluding id: {}", name, id);
         // Consulta para contar supermercados con el nombre dado, excluyendo el ID especificado
@@ -125,4 +177,9 @@ public class SupermarketDAOImpl implements SupermarketDAO {
         logger.info("Supermarket with name: {} exists excluding id {}: {}", name, id, exists);
         return exists; // Retorna true si existe
     }
+
+    // Campos de la entidad que se publican en los eventos de cambio
+    private static Object[] journalFields(Supermarket supermarket) {
+        return new Object[]{"name", supermarket.getName()};
+    }
 }
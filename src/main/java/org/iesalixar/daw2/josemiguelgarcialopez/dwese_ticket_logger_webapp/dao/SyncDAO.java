@@ -0,0 +1,34 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.EntityType;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Category;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Supermarket;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface SyncDAO {
+
+    // Hora actual según la base de datos, el mismo reloj que fija 'deleted_at'
+    LocalDateTime currentTimestamp();
+    // Último valor confirmado de la secuencia de cambios
+    long currentSequence();
+    // Valor más alto de la secuencia cuyas lápidas ya se han borrado
+    long purgedSequence();
+    // Siguiente valor de la secuencia; bloquea el contador hasta que termina la transacción
+    long nextSequence();
+    // Filas con un cambio posterior al valor indicado (todas si es null), ordenadas por ID
+    List<Supermarket> listSupermarketsChangedAfter(Long sequence);
+    List<Location> listLocationsChangedAfter(Long sequence);
+    List<Category> listCategoriesChangedAfter(Long sequence);
+    // Guarda en la fila el valor de la secuencia de su último cambio
+    void markChanged(EntityType entityType, int entityId, long sequence);
+    // Registra la baja de una fila con el valor de la secuencia
+    void insertTombstone(EntityType entityType, int entityId, long sequence);
+    // IDs eliminados después del valor indicado, por tipo de entidad
+    Map<EntityType, List<Integer>> listTombstonesAfter(long sequence, Collection<EntityType> entityTypes);
+    // Borra las lápidas anteriores al instante indicado; devuelve cuántas se borraron
+    int deleteTombstonesBefore(LocalDateTime before);
+}
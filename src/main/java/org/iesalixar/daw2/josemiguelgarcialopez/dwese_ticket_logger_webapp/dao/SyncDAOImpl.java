@@ -0,0 +1,214 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.EntityType;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Category;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Supermarket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Repository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consultas de la sincronización incremental. No usan `@ReadOnlyTransactional`: una réplica con
+ * retraso devolvería como "cambiado después de X" menos filas de las que hay, y el cliente no las
+ * volvería a pedir. Todo se lee de la principal.
+ */
+@Repository // Marca esta clase como un componente de acceso a datos
+@Transactional // Indica que los métodos de esta clase están dentro de una transacción
+public class SyncDAOImpl implements SyncDAO {
+
+    // Logger para registrar eventos importantes en el DAO
+    private static final Logger logger = LoggerFactory.getLogger(SyncDAOImpl.class);
+
+    @PersistenceContext // Inyección del EntityManager para gestionar la persistencia
+    private EntityManager entityManager;
+
+    /**
+     * Hora actual de la base de datos.
+     * @return Instante con precisión de microsegundos
+     */
+    @Override
+    public LocalDateTime currentTimestamp() {
+        return (LocalDateTime) entityManager.createNativeQuery("SELECT LOCALTIMESTAMP(6)", LocalDateTime.class)
+                .getSingleResult();
+    }
+
+    /**
+     * Último valor confirmado de la secuencia de cambios. Un cambio que aún no se ha confirmado
+     * recibirá un valor mayor.
+     * @return Valor de la secuencia (0 si aún no hay cambios)
+     */
+    @Override
+    public long currentSequence() {
+        return ((Number) entityManager.createNativeQuery("SELECT last_value FROM sync_sequence WHERE id = 1")
+                .getSingleResult()).longValue();
+    }
+
+    /**
+     * Valor más alto de la secuencia entre las lápidas borradas por la retención. Un token anterior ya
+     * no puede recibir todas las bajas.
+     * @return Valor de la secuencia (0 si no se ha borrado ninguna)
+     */
+    @Override
+    public long purgedSequence() {
+        return ((Number) entityManager.createNativeQuery("SELECT purged_through FROM sync_sequence WHERE id = 1")
+                .getSingleResult()).longValue();
+    }
+
+    /**
+     * Incrementa el contador y devuelve su nuevo valor. El UPDATE bloquea la fila del contador hasta que
+     * termina la transacción, así que las transacciones que cambian datos sincronizados se confirman en
+     * el orden de sus valores.
+     * @return Valor asignado a la transacción en curso
+     */
+    @Override
+    public long nextSequence() {
+        entityManager.createNativeQuery("UPDATE sync_sequence SET last_value = last_value + 1 WHERE id = 1")
+                .executeUpdate();
+        return currentSequence();
+    }
+
+    /**
+     * Lista los supermercados con un cambio posterior a un valor de la secuencia.
+     * @param sequence Valor de la última sincronización, o null para todos
+     * @return Supermercados ordenados por ID
+     */
+    @Override
+    public List<Supermarket> listSupermarketsChangedAfter(Long sequence) {
+        List<Supermarket> supermarkets = changedAfter("SELECT s FROM Supermarket s", "s", sequence, Supermarket.class);
+        logger.info("Retrieved {} supermarkets changed after {}", supermarkets.size(), sequence);
+        return supermarkets;
+    }
+
+    /**
+     * Lista las ubicaciones con un cambio posterior a un valor de la secuencia, con su provincia y su
+     * supermercado.
+     * @param sequence Valor de la última sincronización, o null para todas
+     * @return Ubicaciones ordenadas por ID
+     */
+    @Override
+    public List<Location> listLocationsChangedAfter(Long sequence) {
+        List<Location> locations = changedAfter("SELECT l FROM Location l JOIN FETCH l.province JOIN FETCH l.supermarket",
+                "l", sequence, Location.class);
+        logger.info("Retrieved {} locations changed after {}", locations.size(), sequence);
+        return locations;
+    }
+
+    /**
+     * Lista las categorías con un cambio posterior a un valor de la secuencia, con su categoría padre.
+     * @param sequence Valor de la última sincronización, o null para todas
+     * @return Categorías ordenadas por ID
+     */
+    @Override
+    public List<Category> listCategoriesChangedAfter(Long sequence) {
+        List<Category> categories = changedAfter("SELECT c FROM Category c LEFT JOIN FETCH c.parentCategory",
+                "c", sequence, Category.class);
+        logger.info("Retrieved {} categories changed after {}", categories.size(), sequence);
+        return categories;
+    }
+
+    /**
+     * Guarda en la fila el valor de la secuencia de la transacción que la ha cambiado.
+     * @param entityType Tipo de entidad
+     * @param entityId   ID de la fila
+     * @param sequence   Valor de la secuencia
+     */
+    @Override
+    public void markChanged(EntityType entityType, int entityId, long sequence) {
+        entityManager.createNativeQuery("UPDATE " + table(entityType) + " SET sync_seq = :sequence WHERE id = :id")
+                .setParameter("sequence", sequence)
+                .setParameter("id", entityId)
+                .executeUpdate();
+    }
+
+    /**
+     * Registra la baja de una fila. Se ejecuta en la transacción que la elimina, así que la lápida solo
+     * queda si la baja se confirma.
+     * @param entityType Tipo de entidad
+     * @param entityId   ID de la fila eliminada
+     * @param sequence   Valor de la secuencia de la transacción
+     */
+    @Override
+    public void insertTombstone(EntityType entityType, int entityId, long sequence) {
+        entityManager.createNativeQuery("INSERT INTO sync_tombstones (entity_type, entity_id, sync_seq) VALUES (:type, :id, :sequence)")
+                .setParameter("type", entityType.name())
+                .setParameter("id", entityId)
+                .setParameter("sequence", sequence)
+                .executeUpdate();
+    }
+
+    /**
+     * Lista los IDs eliminados después de un valor de la secuencia.
+     * @param sequence    Valor de la última sincronización
+     * @param entityTypes Tipos de entidad que interesan
+     * @return IDs por tipo de entidad (sin repetir, en orden de baja); los tipos sin bajas no aparecen
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<EntityType, List<Integer>> listTombstonesAfter(long sequence, Collection<EntityType> entityTypes) {
+        List<Object[]> rows = entityManager.createNativeQuery("SELECT entity_type, entity_id FROM sync_tombstones "
+                        + "WHERE sync_seq > :sequence AND entity_type IN (:types) ORDER BY id")
+                .setParameter("sequence", sequence)
+                .setParameter("types", entityTypes.stream().map(EntityType::name).toList())
+                .getResultList();
+        Map<EntityType, List<Integer>> deleted = new EnumMap<>(EntityType.class);
+        for (Object[] row : rows) {
+            List<Integer> ids = deleted.computeIfAbsent(EntityType.valueOf((String) row[0]), type -> new ArrayList<>());
+            Integer id = ((Number) row[1]).intValue();
+            if (!ids.contains(id)) {
+                ids.add(id);
+            }
+        }
+        logger.info("Retrieved {} tombstones after {}", rows.size(), sequence);
+        return deleted;
+    }
+
+    /**
+     * Borra las lápidas anteriores a un instante y recuerda el valor más alto de la secuencia que se
+     * ha borrado, para que los tokens anteriores pidan una sincronización completa.
+     * @param before Límite de la retención
+     * @return Número de lápidas borradas
+     */
+    @Override
+    public int deleteTombstonesBefore(LocalDateTime before) {
+        entityManager.createNativeQuery("UPDATE sync_sequence SET purged_through = GREATEST(purged_through, "
+                        + "(SELECT COALESCE(MAX(sync_seq), 0) FROM sync_tombstones WHERE deleted_at < :before)) WHERE id = 1")
+                .setParameter("before", before)
+                .executeUpdate();
+        int deleted = entityManager.createNativeQuery("DELETE FROM sync_tombstones WHERE deleted_at < :before")
+                .setParameter("before", before)
+                .executeUpdate();
+        logger.info("Deleted {} tombstones older than {}", deleted, before);
+        return deleted;
+    }
+
+    // Añade a la consulta el filtro por 'syncSeq' (si hay valor) y el orden por ID
+    private <T> List<T> changedAfter(String select, String alias, Long sequence, Class<T> type) {
+        String query = select + (sequence != null ? " WHERE " + alias + ".syncSeq > :sequence" : "") + " ORDER BY " + alias + ".id";
+        TypedQuery<T> typedQuery = entityManager.createQuery(query, type);
+        if (sequence != null) {
+            typedQuery.setParameter("sequence", sequence);
+        }
+        return typedQuery.getResultList();
+    }
+
+    // Tabla de cada tipo de entidad sincronizado
+    private static String table(EntityType entityType) {
+        return switch (entityType) {
+            case SUPERMARKET -> "supermarkets";
+            case LOCATION -> "locations";
+            case CATEGORY -> "categories";
+            default -> throw new IllegalArgumentException("not synced: " + entityType);
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Ticket;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface TicketDAO {
+
+    /**
+     * Línea de ticket leída como valores sueltos, sin cargar las entidades.
+     */
+    record TicketLineFact(int ticketId, int categoryId, int locationId, LocalDate ticketDate,
+                          BigDecimal quantity, BigDecimal unitPrice) {
+    }
+
+    void insertTickets(List<Ticket> tickets);
+    long countTickets();
+    void forEachTicketLine(Consumer<TicketLineFact> consumer);
+}
@@ -0,0 +1,100 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Category;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Ticket;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.TicketLine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Repository // Marca esta clase como un componente de acceso a datos
+@Transactional // Indica que los métodos de esta clase están dentro de una transacción
+public class TicketDAOImpl implements TicketDAO {
+
+    // Logger para registrar eventos importantes en el DAO
+    private static final Logger logger = LoggerFactory.getLogger(TicketDAOImpl.class);
+
+    @PersistenceContext // Inyección del EntityManager para gestionar la persistencia
+    private EntityManager entityManager;
+
+    // Tamaño del lote JDBC de Hibernate: cada cuántos tickets se vacía el contexto de persistencia
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    /**
+     * Inserta un lote de tickets (con sus líneas) en una sola transacción. El contexto de persistencia
+     * se vacía cada `batchSize` tickets para que no crezca con lotes grandes.
+     * @param tickets Tickets a insertar
+     */
+    @Override
+    public void insertTickets(List<Ticket> tickets) {
+        logger.info("Inserting batch of {} tickets.", tickets.size());
+        // Sin clave foránea en MariaDB: se comprueba que existen la ubicación y las categorías, y se
+        // bloquean hasta confirmar para que no se borren mientras tanto
+        SetDelete.requireExisting(entityManager, "Location",
+                tickets.stream().map(ticket -> ticket.getLocation().getId()).distinct().sorted().toList(), "locations");
+        SetDelete.requireExisting(entityManager, "Category", tickets.stream()
+                .flatMap(ticket -> ticket.getLines().stream())
+                .map(line -> line.getCategory().getId())
+                .distinct().sorted().toList(), "categories");
+        for (int i = 0; i < tickets.size(); i++) {
+            Ticket ticket = tickets.get(i);
+            // La importación solo indica los IDs de la ubicación y las categorías: se usan referencias
+            // gestionadas, sin consultarlas
+            ticket.setLocation(entityManager.getReference(Location.class, ticket.getLocation().getId()));
+            for (TicketLine line : ticket.getLines()) {
+                line.setCategory(entityManager.getReference(Category.class, line.getCategory().getId()));
+            }
+            entityManager.persist(ticket); // Persistir el ticket y sus líneas
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush(); // Envía los INSERT pendientes agrupados en lotes
+                entityManager.clear(); // Libera las entidades ya escritas
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        logger.info("Inserted batch of {} tickets.", tickets.size());
+    }
+
+    /**
+     * Cuenta los tickets registrados en la base de datos.
+     * @return Número de tickets
+     */
+    @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
+    public long countTickets() {
+        logger.info("Counting tickets in the database.");
+        Long count = entityManager.createQuery("SELECT COUNT(t) FROM Ticket t", Long.class).getSingleResult();
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Recorre todas las líneas de ticket como valores sueltos (sin hidratar entidades), leyendo el
+     * resultado por bloques para no cargarlo entero en memoria.
+     * @param consumer Receptor de cada línea
+     */
+    @Override
+    @ReadOnlyTransactional // Solo lectura: puede ir a una réplica
+    public void forEachTicketLine(Consumer<TicketLineFact> consumer) {
+        logger.info("Scanning all ticket lines.");
+        String query = "SELECT t.id, l.category.id, t.location.id, t.ticketDate, l.quantity, l.unitPrice " +
+                "FROM Ticket t JOIN t.lines l";
+        try (Stream<Object[]> rows = entityManager.createQuery(query, Object[].class)
+                .setHint("org.hibernate.fetchSize", 10_000) // Lectura por bloques
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream()) {
+            rows.forEach(row -> consumer.accept(new TicketLineFact((Integer) row[0], (Integer) row[1], (Integer) row[2],
+                    (LocalDate) row[3], (BigDecimal) row[4], (BigDecimal) row[5])));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+public interface TicketPartitionDAO {
+
+    /**
+     * Partición de una tabla de tickets.
+     *
+     * @param name  nombre de la partición (`pAAAAMM` o `pmax`).
+     * @param month mes que contiene, o null para `pmax`.
+     * @param rows  número aproximado de filas.
+     */
+    record TicketPartition(String name, YearMonth month, long rows) {
+    }
+
+    boolean isPartitioned(String table);
+    List<TicketPartition> listPartitions(String table);
+    LocalDate findMinTicketDate(String table);
+    void addMonthlyPartitions(String table, List<YearMonth> months);
+    void dropPartition(String table, String partition);
+    String archivePartition(String table, String partition);
+}
@@ -0,0 +1,177 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Gestión de las particiones mensuales de `tickets` y `ticket_lines` en MariaDB. Las sentencias son
+ * DDL (cada una se confirma por sí misma), así que se usa JDBC directamente y no hay transacción.
+ */
+@Repository // Marca esta clase como un componente de acceso a datos
+public class TicketPartitionDAOImpl implements TicketPartitionDAO {
+
+    // Logger para registrar eventos importantes en el DAO
+    private static final Logger logger = LoggerFactory.getLogger(TicketPartitionDAOImpl.class);
+
+    // Tablas que se pueden particionar; los nombres se concatenan en el SQL, así que no se aceptan otros
+    private static final Set<String> TABLES = Set.of("tickets", "ticket_lines");
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'uuuuMM");
+
+    @Autowired // Acceso JDBC para las sentencias DDL
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Comprueba si la base de datos es MariaDB (o MySQL) y la tabla está particionada.
+     * @param table Tabla a comprobar
+     * @return true si la tabla tiene particiones
+     */
+    @Override
+    public boolean isPartitioned(String table) {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (product == null || !(product.contains("MariaDB") || product.contains("MySQL"))) {
+            return false; // H2 en pruebas: sin particiones
+        }
+        return partitionCount(checked(table)) > 0;
+    }
+
+    /**
+     * Lista las particiones de una tabla en orden.
+     * @param table Tabla particionada
+     * @return Particiones, de la más antigua a `pmax`
+     */
+    @Override
+    public List<TicketPartition> listPartitions(String table) {
+        return jdbcTemplate.query("SELECT PARTITION_NAME, TABLE_ROWS FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                        "ORDER BY PARTITION_ORDINAL_POSITION",
+                (rs, rowNum) -> {
+                    String name = rs.getString(1);
+                    YearMonth month = "pmax".equals(name) ? null : YearMonth.parse(name, PARTITION_NAME);
+                    return new TicketPartition(name, month, rs.getLong(2));
+                }, checked(table));
+    }
+
+    /**
+     * Obtiene la fecha más antigua de una tabla de tickets.
+     * @param table Tabla de tickets
+     * @return La fecha o null si la tabla está vacía
+     */
+    @Override
+    public LocalDate findMinTicketDate(String table) {
+        return jdbcTemplate.queryForObject("SELECT MIN(ticket_date) FROM " + checked(table), LocalDate.class);
+    }
+
+    /**
+     * Separa de `pmax` una partición por cada mes indicado. Si `pmax` está vacía, MariaDB solo cambia
+     * la definición de la tabla; si no, mueve sus filas a las particiones nuevas.
+     * @param table  Tabla particionada
+     * @param months Meses consecutivos posteriores a la última partición mensual
+     */
+    @Override
+    public void addMonthlyPartitions(String table, List<YearMonth> months) {
+        String partitions = months.stream()
+                .map(month -> "PARTITION " + month.format(PARTITION_NAME) + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "')")
+                .collect(Collectors.joining(", "));
+        logger.info("Adding partitions {} to {}", months, table);
+        jdbcTemplate.execute("ALTER TABLE " + checked(table) + " REORGANIZE PARTITION pmax INTO (" + partitions +
+                ", PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+    }
+
+    /**
+     * Elimina una partición y todas sus filas.
+     * @param table     Tabla particionada
+     * @param partition Partición mensual
+     */
+    @Override
+    public void dropPartition(String table, String partition) {
+        logger.info("Dropping partition {} of {}", partition, table);
+        jdbcTemplate.execute("ALTER TABLE " + checked(table) + " DROP PARTITION " + checkedPartition(partition));
+    }
+
+    /**
+     * Mueve las filas de una partición a una tabla de archivo `tabla_pAAAAMM` (intercambiando la
+     * partición con la tabla vacía, sin copiar filas) y elimina la partición.
+     *
+     * Cada paso es una sentencia DDL que se confirma sola, así que un fallo puede dejar la tabla de
+     * archivo a medias. Al repetir el archivado se continúa desde donde se quedó: se reutiliza la
+     * tabla de archivo, y si ya tiene las filas (el intercambio se hizo) solo falta eliminar la partición.
+     * @param table     Tabla particionada
+     * @param partition Partición mensual
+     * @return Nombre de la tabla de archivo
+     * @throws IllegalStateException si tanto la tabla de archivo como la partición tienen filas y no
+     *         se puede saber cuáles son las archivadas.
+     */
+    @Override
+    public String archivePartition(String table, String partition) {
+        String archive = checked(table) + "_" + checkedPartition(partition);
+        logger.info("Archiving partition {} of {} into {}", partition, table, archive);
+        if (!tableExists(archive)) {
+            jdbcTemplate.execute("CREATE TABLE " + archive + " LIKE " + table);
+        } else {
+            logger.warn("Archive table {} already exists: resuming a previous archive of {}", archive, partition);
+        }
+        if (partitionCount(archive) > 0) {
+            jdbcTemplate.execute("ALTER TABLE " + archive + " REMOVE PARTITIONING");
+        }
+        if (!hasPartition(table, partition)) {
+            return archive; // Ya se eliminó la partición: el archivado anterior terminó
+        }
+        if (countRows(archive) == 0) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " EXCHANGE PARTITION " + partition + " WITH TABLE " + archive);
+        } else if (countRows(table + " PARTITION (" + partition + ")") > 0) {
+            throw new IllegalStateException("Both " + archive + " and partition " + partition + " of " + table + " have rows");
+        }
+        jdbcTemplate.execute("ALTER TABLE " + table + " DROP PARTITION " + partition);
+        return archive;
+    }
+
+    private boolean tableExists(String table) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.TABLES " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?", Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    private int partitionCount(String table) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL", Integer.class, table);
+        return count != null ? count : 0;
+    }
+
+    private boolean hasPartition(String table, String partition) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME = ?", Integer.class, table, partition);
+        return count != null && count > 0;
+    }
+
+    // Número exacto de filas (TABLE_ROWS de information_schema es aproximado)
+    private long countRows(String from) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + from, Long.class);
+        return count != null ? count : 0;
+    }
+
+    private static String checked(String table) {
+        if (!TABLES.contains(table)) {
+            throw new IllegalArgumentException("Tabla no particionable: " + table);
+        }
+        return table;
+    }
+
+    private static String checkedPartition(String partition) {
+        if (!partition.toLowerCase(Locale.ROOT).matches("p\\d{6}")) {
+            throw new IllegalArgumentException("Partición mensual no válida: " + partition);
+        }
+        return partition;
+    }
+}
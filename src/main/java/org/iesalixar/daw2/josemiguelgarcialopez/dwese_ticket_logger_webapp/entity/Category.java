@@ -8,6 +8,7 @@ import lombok.Data; // Genera getters, setters y otros métodos
 import lombok.NoArgsConstructor; // Generador de constructor sin parámetros
 import jakarta.validation.constraints.NotNull; // Validación para campos no nulos
 
+
 /**
  * La clase `Category` representa una entidad que modela una categoría dentro de la base de datos.
  * Contiene campos para identificar y describir la categoría, incluyendo su nombre e imagen asociada.
@@ -25,6 +26,16 @@ public class Category {
     @GeneratedValue(strategy = GenerationType.IDENTITY) // Especifica que el valor se generará automáticamente.
     private Integer id;
 
+    // Versión de la fila para el bloqueo optimista.
+    @Version // Indica que este campo es la versión de la entidad.
+    @Column(name = "version", nullable = false) // Define la columna correspondiente en la tabla.
+    private Integer version;
+
+    // Secuencia del último cambio, para la sincronización incremental. La asigna SyncService en la
+    // transacción del cambio, por eso JPA no la escribe nunca.
+    @Column(name = "sync_seq", insertable = false, updatable = false) // Define la columna correspondiente en la tabla.
+    private Long syncSeq;
+
     // Campo que almacena el nombre de la categoría, como "Electrodomésticos", "Alimentos", etc.
     @NotEmpty(message = "{msg.category.name.notEmpty}") // Validación para no permitir nombres vacíos.
     @Size(max = 100, message = "{msg.category.name.size}") // Validación para el tamaño máximo del nombre.
@@ -36,6 +47,17 @@ public class Category {
     @Column(name = "image", nullable = true, length = 255) // Define la columna correspondiente en la tabla.
     private String image;
 
+    // Formato de la imagen ("png", "jpeg" o "gif") según su cabecera; null si no hay imagen o es anterior.
+    @Column(name = "image_format", nullable = true, length = 10) // Define la columna correspondiente en la tabla.
+    private String imageFormat;
+
+    // Ancho y alto de la imagen en píxeles, leídos de la cabecera al subirla.
+    @Column(name = "image_width", nullable = true) // Define la columna correspondiente en la tabla.
+    private Integer imageWidth;
+
+    @Column(name = "image_height", nullable = true) // Define la columna correspondiente en la tabla.
+    private Integer imageHeight;
+
     // Relación con la categoría padre. Si es nulo, es una categoría principal (padre).
     @ManyToOne(fetch = FetchType.LAZY) // Relación muchos a uno (una subcategoría tiene una categoría padre).
     @JoinColumn(name = "parent_id", referencedColumnName = "id", nullable = true) // Establece el nombre de la columna para el vínculo con la categoría padre.
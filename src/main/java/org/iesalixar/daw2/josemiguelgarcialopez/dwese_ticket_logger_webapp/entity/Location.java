@@ -1,12 +1,15 @@
 package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity;
 
 import jakarta.persistence.*; // Anotaciones de JPA
+import jakarta.validation.constraints.DecimalMax; // Validación de valor máximo
+import jakarta.validation.constraints.DecimalMin; // Validación de valor mínimo
 import jakarta.validation.constraints.NotEmpty; // Validación para campos no vacíos
 import jakarta.validation.constraints.NotNull; // Validación para campos no nulos
 import lombok.AllArgsConstructor; // Generador de constructor con todos los parámetros
 import lombok.Data; // Genera getters, setters y otros métodos
 import lombok.NoArgsConstructor; // Generador de constructor sin parámetros
 
+
 /**
  * La clase `Location` representa una entidad que modela una ubicación.
  * Contiene campos para identificar y describir la ubicación, incluyendo su
@@ -24,6 +27,16 @@ public class Location {
     @GeneratedValue(strategy = GenerationType.IDENTITY) // Especifica que el valor se generará automáticamente.
     private Integer id;
 
+    // Versión de la fila para el bloqueo optimista.
+    @Version // Indica que este campo es la versión de la entidad.
+    @Column(name = "version", nullable = false) // Define la columna correspondiente en la tabla.
+    private Integer version;
+
+    // Secuencia del último cambio, para la sincronización incremental. La asigna SyncService en la
+    // transacción del cambio, por eso JPA no la escribe nunca.
+    @Column(name = "sync_seq", insertable = false, updatable = false) // Define la columna correspondiente en la tabla.
+    private Long syncSeq;
+
     // Dirección de la ubicación. No puede estar vacía.
     @NotEmpty(message = "{msg.location.address.notEmpty}") // Validación para no permitir direcciones vacías.
     @Column(name = "address", nullable = false) // Especifica el nombre de la columna en la base de datos.
@@ -46,6 +59,18 @@ public class Location {
     @JoinColumn(name = "province_id", nullable = false) // Clave foránea a la tabla de provincias.
     private Province province;
 
+    // Latitud de la ubicación en grados (opcional). Se usa en las búsquedas por cercanía.
+    @DecimalMin(value = "-90.0", message = "{msg.location.latitude.range}") // Latitud mínima.
+    @DecimalMax(value = "90.0", message = "{msg.location.latitude.range}") // Latitud máxima.
+    @Column(name = "latitude") // Especifica el nombre de la columna en la base de datos.
+    private Double latitude;
+
+    // Longitud de la ubicación en grados (opcional). Se usa en las búsquedas por cercanía.
+    @DecimalMin(value = "-180.0", message = "{msg.location.longitude.range}") // Longitud mínima.
+    @DecimalMax(value = "180.0", message = "{msg.location.longitude.range}") // Longitud máxima.
+    @Column(name = "longitude") // Especifica el nombre de la columna en la base de datos.
+    private Double longitude;
+
     /**
      * Constructor que excluye el campo `id`. Se utiliza para crear instancias de `Location`
      * cuando el `id` aún no se ha generado (por ejemplo, antes de insertarla en la base de datos).
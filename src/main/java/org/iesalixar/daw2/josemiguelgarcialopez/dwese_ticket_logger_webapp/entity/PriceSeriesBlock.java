@@ -0,0 +1,70 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity;
+
+import jakarta.persistence.*; // Anotaciones de JPA
+import lombok.AllArgsConstructor; // Generador de constructor con todos los parámetros
+import lombok.Data; // Genera getters, setters y otros métodos
+import lombok.NoArgsConstructor; // Generador de constructor sin parámetros
+
+import java.time.LocalDate;
+
+/**
+ * La clase `PriceSeriesBlock` representa un bloque comprimido del historial de precios de un
+ * producto en una ubicación. Guarda hasta 256 observaciones codificadas con `PriceSeriesCodec`
+ * y el rango de fechas que cubren, para poder filtrar los bloques sin decodificarlos.
+ */
+@Entity // Marca esta clase como una entidad JPA.
+@Table(name = "price_series_blocks") // Especifica el nombre de la tabla asociada a esta entidad.
+@Data // Genera automáticamente métodos getter y setter.
+@NoArgsConstructor // Constructor sin parámetros para JPA y otros usos.
+@AllArgsConstructor // Constructor con todos los parámetros.
+public class PriceSeriesBlock {
+
+    // Identificador único del bloque. Es autogenerado y clave primaria.
+    @Id // Indica que este campo es la clave primaria.
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // Especifica que el valor se generará automáticamente.
+    private Integer id;
+
+    // Nombre normalizado del producto.
+    @Column(name = "product", nullable = false, length = 255) // Define la columna correspondiente en la tabla.
+    private String product;
+
+    // Ubicación en la que se observaron los precios.
+    @ManyToOne(fetch = FetchType.LAZY) // Relación de muchos a uno; carga perezosa.
+    @JoinColumn(name = "location_id", nullable = false) // Clave foránea a la tabla de ubicaciones.
+    private Location location;
+
+    // Fecha de la primera observación del bloque.
+    @Column(name = "first_day", nullable = false) // Define la columna correspondiente en la tabla.
+    private LocalDate firstDay;
+
+    // Fecha de la última observación del bloque.
+    @Column(name = "last_day", nullable = false) // Define la columna correspondiente en la tabla.
+    private LocalDate lastDay;
+
+    // Número de observaciones del bloque.
+    @Column(name = "point_count", nullable = false) // Define la columna correspondiente en la tabla.
+    private int pointCount;
+
+    // Observaciones codificadas.
+    @Column(name = "data", nullable = false, length = 4096) // Define la columna correspondiente en la tabla.
+    private byte[] data;
+
+    /**
+     * Constructor que excluye el campo `id`. Se utiliza para crear bloques nuevos antes de insertarlos.
+     *
+     * @param product    Nombre normalizado del producto.
+     * @param location   Ubicación de las observaciones.
+     * @param firstDay   Fecha de la primera observación.
+     * @param lastDay    Fecha de la última observación.
+     * @param pointCount Número de observaciones.
+     * @param data       Observaciones codificadas.
+     */
+    public PriceSeriesBlock(String product, Location location, LocalDate firstDay, LocalDate lastDay, int pointCount, byte[] data) {
+        this.product = product; // Asigna el producto
+        this.location = location; // Asigna la ubicación
+        this.firstDay = firstDay; // Asigna la primera fecha
+        this.lastDay = lastDay; // Asigna la última fecha
+        this.pointCount = pointCount; // Asigna el número de observaciones
+        this.data = data; // Asigna los datos codificados
+    }
+}
@@ -26,6 +26,11 @@ public class Province {
     @GeneratedValue(strategy = GenerationType.IDENTITY) // Especifica que el valor se generará automáticamente.
     private Integer id;
 
+    // Versión de la fila para el bloqueo optimista.
+    @Version // Indica que este campo es la versión de la entidad.
+    @Column(name = "version", nullable = false) // Define la columna correspondiente en la tabla.
+    private Integer version;
+
     // Campo que almacena el código de la provincia, normalmente una cadena corta que identifica la provincia.
     // Ejemplo: "23" para Jaén.
     @NotEmpty(message = "{msg.province.code.notEmpty}") // Validación para no permitir códigos vacíos.
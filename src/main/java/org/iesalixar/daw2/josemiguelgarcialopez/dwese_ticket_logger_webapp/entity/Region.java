@@ -27,6 +27,11 @@ public class Region {
     @GeneratedValue(strategy = GenerationType.IDENTITY) // Especifica que el valor se generará automáticamente.
     private Integer id;
 
+    // Versión de la fila para el bloqueo optimista.
+    @Version // Indica que este campo es la versión de la entidad.
+    @Column(name = "version", nullable = false) // Define la columna correspondiente en la tabla.
+    private Integer version;
+
     // Campo que almacena el código de la región, normalmente una cadena corta que identifica la región.
     // Ejemplo: "01" para Andalucía.
     @NotEmpty(message = "{msg.region.code.notEmpty}") // Validación para no permitir códigos vacíos.
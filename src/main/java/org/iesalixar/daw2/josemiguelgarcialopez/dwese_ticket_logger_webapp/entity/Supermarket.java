@@ -24,6 +24,16 @@ public class Supermarket {
     @GeneratedValue(strategy = GenerationType.IDENTITY) // Especifica que el valor se generará automáticamente.
     private Integer id;
 
+    // Versión de la fila para el bloqueo optimista.
+    @Version // Indica que este campo es la versión de la entidad.
+    @Column(name = "version", nullable = false) // Define la columna correspondiente en la tabla.
+    private Integer version;
+
+    // Secuencia del último cambio, para la sincronización incremental. La asigna SyncService en la
+    // transacción del cambio, por eso JPA no la escribe nunca.
+    @Column(name = "sync_seq", insertable = false, updatable = false) // Define la columna correspondiente en la tabla.
+    private Long syncSeq;
+
     // Nombre del supermercado. No puede estar vacío.
     @NotEmpty(message = "{msg.supermarket.name.notEmpty}") // Validación para no permitir nombres vacíos.
     @Column(name = "name", nullable = false) // Define la columna correspondiente en la tabla.
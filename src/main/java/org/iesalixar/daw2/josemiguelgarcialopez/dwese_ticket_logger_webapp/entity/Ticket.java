@@ -0,0 +1,76 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity;
+
+import jakarta.persistence.*; // Anotaciones de JPA
+import jakarta.validation.constraints.NotNull; // Validación para campos no nulos
+import lombok.AllArgsConstructor; // Generador de constructor con todos los parámetros
+import lombok.Data; // Genera getters, setters y otros métodos
+import lombok.NoArgsConstructor; // Generador de constructor sin parámetros
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * La clase `Ticket` representa un ticket de compra registrado en una ubicación.
+ * Contiene la fecha de la compra, la ubicación donde se hizo y sus líneas.
+ */
+@Entity // Marca esta clase como una entidad JPA.
+@Table(name = "tickets") // Especifica el nombre de la tabla asociada a esta entidad.
+@Data // Genera automáticamente métodos getter y setter.
+@NoArgsConstructor // Constructor sin parámetros para JPA y otros usos.
+@AllArgsConstructor // Constructor con todos los parámetros.
+public class Ticket {
+
+    // Identificador único del ticket. Es autogenerado y clave primaria.
+    @Id // Indica que este campo es la clave primaria.
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // Especifica que el valor se generará automáticamente.
+    private Integer id;
+
+    // Fecha de la compra.
+    @NotNull // La fecha es obligatoria.
+    @Column(name = "ticket_date", nullable = false) // Define la columna correspondiente en la tabla.
+    private LocalDate ticketDate;
+
+    // Ubicación (supermercado y dirección) donde se hizo la compra.
+    @NotNull // La ubicación es obligatoria.
+    @ManyToOne(fetch = FetchType.LAZY) // Relación de muchos a uno; carga perezosa.
+    @JoinColumn(name = "location_id", nullable = false) // Clave foránea a la tabla de ubicaciones.
+    private Location location;
+
+    // Nombre del fichero del que se importó el ticket, si procede.
+    @Column(name = "source_file", length = 255) // Define la columna correspondiente en la tabla.
+    private String sourceFile;
+
+    // Líneas del ticket. Se guardan en `ticket_lines` sin identificador propio, lo que permite
+    // que Hibernate agrupe sus INSERT en lotes JDBC.
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "ticket_lines", joinColumns = @JoinColumn(name = "ticket_id"))
+    @OrderColumn(name = "line_number")
+    private List<TicketLine> lines = new ArrayList<>();
+
+    /**
+     * Constructor que excluye el campo `id`. Se utiliza para crear instancias de `Ticket`
+     * cuando el `id` aún no se ha generado (por ejemplo, antes de insertarlo en la base de datos).
+     *
+     * @param ticketDate Fecha de la compra.
+     * @param location   Ubicación donde se hizo la compra.
+     * @param sourceFile Fichero de origen del ticket.
+     * @param lines      Líneas del ticket.
+     */
+    public Ticket(LocalDate ticketDate, Location location, String sourceFile, List<TicketLine> lines) {
+        this.ticketDate = ticketDate; // Asigna la fecha
+        this.location = location; // Asigna la ubicación
+        this.sourceFile = sourceFile; // Asigna el fichero de origen
+        this.lines = lines; // Asigna las líneas
+    }
+
+    /**
+     * Copia la fecha del ticket en sus líneas antes de guardarlo: `ticket_lines` se particiona por
+     * esa fecha.
+     */
+    @PrePersist // Se ejecuta antes de insertar el ticket.
+    @PreUpdate // Se ejecuta antes de actualizar el ticket.
+    void copyDateToLines() {
+        lines.forEach(line -> line.setTicketDate(ticketDate));
+    }
+}
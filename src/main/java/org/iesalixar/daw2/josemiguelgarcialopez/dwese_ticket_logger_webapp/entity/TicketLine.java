@@ -0,0 +1,57 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity;
+
+import jakarta.persistence.*; // Anotaciones de JPA
+import lombok.AllArgsConstructor; // Generador de constructor con todos los parámetros
+import lombok.Data; // Genera getters, setters y otros métodos
+import lombok.NoArgsConstructor; // Generador de constructor sin parámetros
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * La clase `TicketLine` representa una línea de un ticket: un producto de una categoría,
+ * la cantidad comprada y su precio unitario. Se guarda como parte del `Ticket`.
+ */
+@Embeddable // Se almacena en la tabla de líneas del ticket al que pertenece.
+@Data // Genera automáticamente métodos getter y setter.
+@NoArgsConstructor // Constructor sin parámetros para JPA y otros usos.
+@AllArgsConstructor // Constructor con todos los parámetros.
+public class TicketLine {
+
+    // Categoría del producto comprado.
+    @ManyToOne(fetch = FetchType.LAZY) // Relación de muchos a uno; carga perezosa.
+    @JoinColumn(name = "category_id", nullable = false) // Clave foránea a la tabla de categorías.
+    private Category category;
+
+    // Nombre del producto tal y como aparece en el ticket.
+    @Column(name = "product", nullable = false, length = 255) // Define la columna correspondiente en la tabla.
+    private String product;
+
+    // Cantidad comprada (unidades o peso).
+    @Column(name = "quantity", nullable = false, precision = 10, scale = 3) // Define la columna correspondiente en la tabla.
+    private BigDecimal quantity;
+
+    // Precio por unidad.
+    @Column(name = "unit_price", nullable = false, precision = 10, scale = 2) // Define la columna correspondiente en la tabla.
+    private BigDecimal unitPrice;
+
+    // Fecha del ticket, repetida en cada línea porque es la columna por la que se particiona la tabla.
+    // La copia `Ticket` antes de guardarse.
+    @Column(name = "ticket_date", nullable = false) // Define la columna correspondiente en la tabla.
+    private LocalDate ticketDate;
+
+    /**
+     * Constructor que excluye la fecha, que se toma del ticket al guardarlo.
+     *
+     * @param category  Categoría del producto.
+     * @param product   Nombre del producto.
+     * @param quantity  Cantidad comprada.
+     * @param unitPrice Precio por unidad.
+     */
+    public TicketLine(Category category, String product, BigDecimal quantity, BigDecimal unitPrice) {
+        this.category = category; // Asigna la categoría
+        this.product = product; // Asigna el producto
+        this.quantity = quantity; // Asigna la cantidad
+        this.unitPrice = unitPrice; // Asigna el precio unitario
+    }
+}
@@ -0,0 +1,204 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Diario de cambios: registro binario de solo añadir con cada alta, cambio o baja que publican los DAO
+ * (`EntityChangeEvent`), pensado para auditoría y para reproducir los cambios en otro sistema.
+ *
+ * - Los registros (ver `ChangeRecord`) se escriben en segmentos de `app.journal.segment-bytes` bytes
+ *   mapeados en memoria, así que añadir uno es copiar unos pocos bytes sin llamadas al sistema. Cuando
+ *   un registro no cabe se abre el segmento siguiente.
+ * - El cuerpo y el CRC se escriben antes que la longitud; un registro a medias (caída del proceso) se
+ *   reconoce al arrancar y se sobrescribe.
+ * - Las páginas modificadas se llevan a disco cada `app.journal.force-interval-ms` y al parar. Si cae
+ *   el sistema operativo se pueden perder los registros de ese intervalo; si cae solo la aplicación,
+ *   los registros ya escritos se conservan.
+ *
+ * Los cambios se registran después de confirmarse la transacción que los hizo, fuera de ella: si la
+ * aplicación cae entre la confirmación y la escritura, o la escritura falla, el cambio queda en la base
+ * de datos y no en el diario. Por eso el diario no es un registro completo de los cambios.
+ *
+ * La secuencia sigue el orden en que se escriben los registros, que no tiene por qué coincidir con el
+ * de confirmación: dos transacciones que se confirman a la vez en hilos distintos pueden escribirse en
+ * cualquier orden.
+ */
+@Component
+public class ChangeJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeJournal.class);
+
+    // Cabecera de cada segmento: "TLJ1", versión y secuencia del primer registro
+    static final int SEGMENT_MAGIC = 0x544C4A31;
+    static final int SEGMENT_VERSION = 1;
+    static final int SEGMENT_HEADER_BYTES = 16;
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    @Value("${app.journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.journal.dir:data/journal}")
+    private String directory;
+
+    // Tamaño de cada segmento (64 MB por defecto)
+    @Value("${app.journal.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    private Path dir;
+    private int segmentSize;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long nextSequence;
+    private boolean dirty;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (enabled) {
+            open(Paths.get(directory), segmentBytes);
+        }
+    }
+
+    /**
+     * Abre el diario en un directorio y sigue escribiendo tras el último registro válido.
+     */
+    synchronized void open(Path dir, int segmentSize) throws IOException {
+        if (segmentSize < SEGMENT_HEADER_BYTES + 64) {
+            throw new IllegalArgumentException("segment size too small: " + segmentSize);
+        }
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(dir);
+        List<Path> segments = ChangeJournalReader.segments(dir);
+        if (segments.isEmpty()) {
+            nextSequence = 1;
+            openSegment(1);
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            channel = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            nextSequence = ChangeJournalReader.firstSequence(buffer, last);
+            int position = SEGMENT_HEADER_BYTES;
+            ChangeRecord record;
+            while ((record = ChangeRecord.readFrom(buffer, position)) != null) {
+                nextSequence = record.sequence() + 1;
+                position += ChangeRecord.frameLength(buffer, position);
+            }
+            // Anula la cabecera de un registro a medias; el resto se sobrescribe con los siguientes
+            if (position + ChangeRecord.FRAME_HEADER_BYTES <= buffer.limit()) {
+                buffer.putLong(position, 0);
+            }
+            buffer.position(position);
+        }
+        logger.info("Change journal opened in {}; next sequence {}", dir.toAbsolutePath(), nextSequence);
+    }
+
+    /**
+     * Registra el cambio cuando se confirma la transacción que lo publicó (o al momento si no hay ninguna).
+     * Un fallo al escribir se registra en el log y el cambio, ya confirmado en la base de datos, no llega
+     * al diario.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(EntityChangeEvent event) {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            append(event);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Error writing {} of {} {} to the change journal", event.operation(), event.entityType(), event.entityId(), e);
+        }
+    }
+
+    /**
+     * Añade un registro al diario.
+     *
+     * @return número de secuencia asignado.
+     */
+    public synchronized long append(EntityChangeEvent event) throws IOException {
+        ChangeRecord record = new ChangeRecord(nextSequence, event.timestamp(), event.entityType(), event.operation(),
+                event.entityId(), event.fields());
+        int start = buffer.position();
+        try {
+            record.writeTo(buffer);
+        } catch (BufferOverflowException e) {
+            clear(start);
+            if (start == SEGMENT_HEADER_BYTES) {
+                throw new IllegalArgumentException("change record larger than a journal segment");
+            }
+            force();
+            openSegment(nextSequence);
+            record.writeTo(buffer);
+        }
+        dirty = true;
+        return nextSequence++;
+    }
+
+    /**
+     * Secuencia que recibirá el próximo registro.
+     */
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Lleva a disco las páginas modificadas del segmento actual.
+     */
+    @Scheduled(fixedDelayString = "${app.journal.force-interval-ms:1000}")
+    public synchronized void force() {
+        if (buffer != null && dirty) {
+            buffer.force();
+            dirty = false;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (buffer != null) {
+            force();
+            channel.close();
+            buffer = null;
+            channel = null;
+        }
+    }
+
+    // Crea un segmento vacío cuyo primer registro tendrá la secuencia dada
+    private void openSegment(long firstSequence) throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        Path path = dir.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        buffer.putInt(SEGMENT_MAGIC).putInt(SEGMENT_VERSION).putLong(firstSequence);
+        dirty = true;
+        logger.info("Change journal segment {} created", path.getFileName());
+    }
+
+    // Deja a cero lo escrito desde `start` por un registro que no cupo
+    private void clear(int start) {
+        ByteBuffer rest = buffer.duplicate().position(start);
+        while (rest.hasRemaining()) {
+            rest.put((byte) 0);
+        }
+        buffer.position(start);
+    }
+}
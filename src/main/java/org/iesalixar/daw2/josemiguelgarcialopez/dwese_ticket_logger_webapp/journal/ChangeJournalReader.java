@@ -0,0 +1,90 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Lee el diario de cambios de un directorio. No depende de Spring, así que sirve tanto dentro de la
+ * aplicación como desde `ChangeJournalReplay` con el diario de otra máquina. Se puede leer mientras
+ * la aplicación escribe: la lectura se detiene en el último registro completo.
+ */
+public class ChangeJournalReader {
+
+    private final Path dir;
+
+    public ChangeJournalReader(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Recorre en orden los registros con secuencia mayor o igual que `fromSequence`.
+     *
+     * @return número de registros entregados.
+     * @throws IOException si un segmento no se puede leer o no es un segmento del diario.
+     */
+    public long read(long fromSequence, Consumer<ChangeRecord> consumer) throws IOException {
+        List<Path> segments = segments(dir);
+        long delivered = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            // Se salta el segmento si el siguiente empieza en una secuencia que no supera la pedida
+            if (i + 1 < segments.size() && sequenceOf(segments.get(i + 1)) <= fromSequence) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                firstSequence(buffer, segments.get(i));
+                int position = ChangeJournal.SEGMENT_HEADER_BYTES;
+                ChangeRecord record;
+                while ((record = ChangeRecord.readFrom(buffer, position)) != null) {
+                    if (record.sequence() >= fromSequence) {
+                        consumer.accept(record);
+                        delivered++;
+                    }
+                    position += ChangeRecord.frameLength(buffer, position);
+                }
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * Segmentos del directorio ordenados por su primera secuencia.
+     */
+    static List<Path> segments(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(ChangeJournal.SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Comprueba la cabecera de un segmento y devuelve la secuencia de su primer registro.
+     */
+    static long firstSequence(ByteBuffer buffer, Path segment) throws IOException {
+        if (buffer.limit() < ChangeJournal.SEGMENT_HEADER_BYTES || buffer.getInt(0) != ChangeJournal.SEGMENT_MAGIC) {
+            throw new IOException("not a change journal segment: " + segment);
+        }
+        if (buffer.getInt(4) != ChangeJournal.SEGMENT_VERSION) {
+            throw new IOException("unsupported change journal version " + buffer.getInt(4) + ": " + segment);
+        }
+        return buffer.getLong(8);
+    }
+
+    // La primera secuencia también está en el nombre del segmento (relleno con ceros a 20 cifras)
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - ChangeJournal.SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,73 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.EntityType;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Herramienta de línea de comandos que vuelca el diario de cambios como JSON, un cambio por línea,
+ * para auditarlo o aplicarlo en otro sistema:
+ *
+ * <pre>
+ * java -cp app.jar -Dloader.main=...journal.ChangeJournalReplay org.springframework.boot.loader.launch.PropertiesLauncher \
+ *      data/journal [--from=SECUENCIA] [--entity=LOCATION]
+ * </pre>
+ *
+ * Con `--from` se continúa desde la última secuencia procesada más uno.
+ */
+public class ChangeJournalReplay {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: ChangeJournalReplay <journal-dir> [--from=SEQUENCE] [--entity=TYPE]");
+            System.exit(2);
+        }
+        long from = 1;
+        EntityType entity = null;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--from=")) {
+                from = Long.parseLong(args[i].substring("--from=".length()));
+            } else if (args[i].startsWith("--entity=")) {
+                entity = EntityType.valueOf(args[i].substring("--entity=".length()).toUpperCase(Locale.ROOT));
+            } else {
+                System.err.println("Unknown option: " + args[i]);
+                System.exit(2);
+            }
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        EntityType filter = entity;
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        new ChangeJournalReader(Paths.get(args[0])).read(from, record -> {
+            if (filter != null && record.entityType() != filter) {
+                return;
+            }
+            try {
+                out.write(mapper.writeValueAsString(toJson(record)));
+                out.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
+
+    static Map<String, Object> toJson(ChangeRecord record) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("sequence", record.sequence());
+        json.put("timestamp", record.timestamp());
+        json.put("entity", record.entityType());
+        json.put("operation", record.operation());
+        json.put("id", record.entityId());
+        json.put("fields", record.fields());
+        return json;
+    }
+}
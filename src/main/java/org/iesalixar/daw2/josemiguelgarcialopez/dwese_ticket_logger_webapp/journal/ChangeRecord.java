@@ -0,0 +1,156 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.journal;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.EntityType;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.Operation;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Registro del diario de cambios y su formato binario. Cada registro ocupa:
+ *
+ * <pre>
+ * int   longitud del cuerpo (0 = fin de los datos del segmento)
+ * int   CRC32C del cuerpo
+ * long  número de secuencia
+ * long  instante en ms desde epoch
+ * byte  tipo de entidad (ordinal de EntityType)
+ * byte  operación (ordinal de Operation)
+ * int   ID de la entidad
+ * varint número de campos, y por cada campo:
+ *        varint longitud del nombre + nombre en UTF-8
+ *        varint longitud del valor + 1 (0 = null) + valor en UTF-8
+ * </pre>
+ *
+ * @param sequence   número de secuencia, consecutivo desde 1.
+ * @param timestamp  instante del cambio en milisegundos desde epoch.
+ * @param entityType tipo de entidad.
+ * @param operation  operación.
+ * @param entityId   ID de la entidad.
+ * @param fields     campos de la entidad tras el cambio.
+ */
+public record ChangeRecord(long sequence, long timestamp, EntityType entityType, Operation operation, int entityId,
+                           Map<String, String> fields) {
+
+    // Longitud y CRC que preceden al cuerpo
+    static final int FRAME_HEADER_BYTES = 8;
+
+    private static final EntityType[] ENTITY_TYPES = EntityType.values();
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    /**
+     * Escribe el registro completo (cabecera y cuerpo) en la posición actual del buffer.
+     *
+     * @return bytes escritos.
+     * @throws BufferOverflowException si no cabe; la posición del buffer queda sin definir.
+     */
+    int writeTo(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < FRAME_HEADER_BYTES) {
+            throw new BufferOverflowException();
+        }
+        buffer.position(start + FRAME_HEADER_BYTES);
+        buffer.putLong(sequence);
+        buffer.putLong(timestamp);
+        buffer.put((byte) entityType.ordinal());
+        buffer.put((byte) operation.ordinal());
+        buffer.putInt(entityId);
+        putVarint(buffer, fields.size());
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            byte[] name = field.getKey().getBytes(StandardCharsets.UTF_8);
+            putVarint(buffer, name.length);
+            buffer.put(name);
+            if (field.getValue() == null) {
+                putVarint(buffer, 0);
+            } else {
+                byte[] value = field.getValue().getBytes(StandardCharsets.UTF_8);
+                putVarint(buffer, value.length + 1);
+                buffer.put(value);
+            }
+        }
+        int end = buffer.position();
+        int bodyLength = end - start - FRAME_HEADER_BYTES;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(start + FRAME_HEADER_BYTES).limit(end));
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.putInt(start, bodyLength);
+        return end - start;
+    }
+
+    /**
+     * Lee el registro que empieza en `offset`.
+     *
+     * @return el registro, o null si en esa posición no hay un registro completo y válido (fin de
+     *         los datos o escritura interrumpida).
+     */
+    static ChangeRecord readFrom(ByteBuffer buffer, int offset) {
+        if (offset + FRAME_HEADER_BYTES > buffer.limit()) {
+            return null;
+        }
+        int bodyLength = buffer.getInt(offset);
+        if (bodyLength <= 0 || bodyLength > buffer.limit() - offset - FRAME_HEADER_BYTES) {
+            return null;
+        }
+        ByteBuffer body = buffer.duplicate().position(offset + FRAME_HEADER_BYTES).limit(offset + FRAME_HEADER_BYTES + bodyLength);
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+            return null;
+        }
+        try {
+            long sequence = body.getLong();
+            long timestamp = body.getLong();
+            EntityType entityType = ENTITY_TYPES[body.get()];
+            Operation operation = OPERATIONS[body.get()];
+            int entityId = body.getInt();
+            int count = (int) getVarint(body);
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                String name = getString(body, (int) getVarint(body));
+                int valueLength = (int) getVarint(body);
+                fields.put(name, valueLength == 0 ? null : getString(body, valueLength - 1));
+            }
+            return new ChangeRecord(sequence, timestamp, entityType, operation, entityId, Collections.unmodifiableMap(fields));
+        } catch (RuntimeException e) {
+            return null; // CRC correcto pero contenido de una versión desconocida
+        }
+    }
+
+    /**
+     * Bytes que ocupa el registro completo en el diario.
+     */
+    static int frameLength(ByteBuffer buffer, int offset) {
+        return FRAME_HEADER_BYTES + buffer.getInt(offset);
+    }
+
+    private static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("varint demasiado largo");
+    }
+
+    private static String getString(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,18 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.reactive;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Category;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Categoría tal y como se devuelve en los listados de la API, con el nombre de su categoría padre.
+ */
+@Table("categories")
+public record CategoryRow(@Id Integer id, String name, String image, Integer parentId, String parentName) {
+
+    public static CategoryRow of(Category category) {
+        Category parent = category.getParentCategory();
+        return new CategoryRow(category.getId(), category.getName(), category.getImage(),
+                parent != null ? parent.getId() : null, parent != null ? parent.getName() : null);
+    }
+}
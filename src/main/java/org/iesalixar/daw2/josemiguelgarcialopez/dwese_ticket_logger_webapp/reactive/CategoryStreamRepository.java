@@ -0,0 +1,19 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Lectura no bloqueante de las categorías.
+ */
+public interface CategoryStreamRepository extends Repository<CategoryRow, Integer> {
+
+    /**
+     * Todas las categorías, con el nombre de su categoría padre, ordenadas por ID.
+     * Las filas se emiten según llegan de la base de datos.
+     */
+    @Query("SELECT c.id, c.name, c.image, c.parent_id, pc.name AS parent_name "
+            + "FROM categories c LEFT JOIN categories pc ON pc.id = c.parent_id ORDER BY c.id")
+    Flux<CategoryRow> streamAll();
+}
@@ -0,0 +1,20 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.reactive;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Ubicación tal y como se devuelve en los listados de la API, con su provincia y su supermercado.
+ */
+@Table("locations")
+public record LocationRow(@Id Integer id, String address, String city, Double latitude, Double longitude,
+                          Integer provinceId, String provinceName, Integer supermarketId, String supermarketName) {
+
+    public static LocationRow of(Location location) {
+        return new LocationRow(location.getId(), location.getAddress(), location.getCity(),
+                location.getLatitude(), location.getLongitude(),
+                location.getProvince().getId(), location.getProvince().getName(),
+                location.getSupermarket().getId(), location.getSupermarket().getName());
+    }
+}
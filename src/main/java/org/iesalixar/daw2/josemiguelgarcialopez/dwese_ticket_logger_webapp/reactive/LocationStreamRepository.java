@@ -0,0 +1,21 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Lectura no bloqueante de las ubicaciones.
+ */
+public interface LocationStreamRepository extends Repository<LocationRow, Integer> {
+
+    /**
+     * Todas las ubicaciones, con su provincia y su supermercado, ordenadas por ID.
+     * Las filas se emiten según llegan de la base de datos.
+     */
+    @Query("SELECT l.id, l.address, l.city, l.latitude, l.longitude, "
+            + "l.province_id, p.name AS province_name, l.supermarket_id, s.name AS supermarket_name "
+            + "FROM locations l JOIN provinces p ON p.id = l.province_id "
+            + "JOIN supermarkets s ON s.id = l.supermarket_id ORDER BY l.id")
+    Flux<LocationRow> streamAll();
+}
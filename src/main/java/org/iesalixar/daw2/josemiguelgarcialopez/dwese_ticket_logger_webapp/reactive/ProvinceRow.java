@@ -0,0 +1,17 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.reactive;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Province;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Provincia tal y como se devuelve en los listados de la API, con el nombre de su región.
+ */
+@Table("provinces")
+public record ProvinceRow(@Id Integer id, String code, String name, Integer regionId, String regionName) {
+
+    public static ProvinceRow of(Province province) {
+        return new ProvinceRow(province.getId(), province.getCode(), province.getName(),
+                province.getRegion().getId(), province.getRegion().getName());
+    }
+}
@@ -0,0 +1,19 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Lectura no bloqueante de las provincias.
+ */
+public interface ProvinceStreamRepository extends Repository<ProvinceRow, Integer> {
+
+    /**
+     * Todas las provincias, con el nombre de su región, ordenadas por ID.
+     * Las filas se emiten según llegan de la base de datos.
+     */
+    @Query("SELECT p.id, p.code, p.name, p.region_id, r.name AS region_name "
+            + "FROM provinces p JOIN regions r ON r.id = p.region_id ORDER BY p.id")
+    Flux<ProvinceRow> streamAll();
+}
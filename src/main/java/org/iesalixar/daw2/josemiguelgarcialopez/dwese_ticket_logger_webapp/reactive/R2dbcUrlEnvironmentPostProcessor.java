@@ -0,0 +1,76 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.PropertySource;
+
+/**
+ * Propiedad `app.r2dbc.derived-url`: la URL R2DBC equivalente a `spring.datasource.url`, que
+ * `spring.r2dbc.url` usa cuando no se define R2DBC_URL. Se calcula al leerla y no al arrancar porque
+ * DB_URL puede venir del archivo .env, que `DotenvConfig` carga después.
+ *
+ * Solo se traducen URLs de MariaDB/MySQL y de H2 en memoria; con otras la propiedad no existe y hay
+ * que definir R2DBC_URL.
+ */
+public class R2dbcUrlEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    static final String DERIVED_URL_PROPERTY = "app.r2dbc.derived-url";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        environment.getPropertySources().addLast(new DerivedUrlPropertySource(environment));
+    }
+
+    // El entorno no puede ser el `source` de la fuente: Spring Boot recorre las fuentes de los entornos
+    // que encuentra como `source` y volvería a entrar en esta
+    private static class DerivedUrlPropertySource extends PropertySource<Object> {
+
+        private final ConfigurableEnvironment environment;
+
+        DerivedUrlPropertySource(ConfigurableEnvironment environment) {
+            super("derivedR2dbcUrl");
+            this.environment = environment;
+        }
+
+        @Override
+        public Object getProperty(String name) {
+            if (!DERIVED_URL_PROPERTY.equals(name)) {
+                return null;
+            }
+            try {
+                return toR2dbcUrl(environment.getProperty("spring.datasource.url"));
+            } catch (IllegalArgumentException e) {
+                return null; // DB_URL sin definir: falla la propiedad que la usa, con su propio mensaje
+            }
+        }
+    }
+
+    /**
+     * Traduce una URL JDBC a la URL R2DBC de la misma base de datos. Los parámetros de la URL JDBC se
+     * descartan, salvo las opciones de H2.
+     *
+     * @param jdbcUrl URL JDBC, p. ej. `jdbc:mariadb://host:3306/base?useSSL=false`.
+     * @return la URL R2DBC, p. ej. `r2dbc:mariadb://host:3306/base`, o null si no se sabe traducir.
+     */
+    public static String toR2dbcUrl(String jdbcUrl) {
+        if (jdbcUrl == null) {
+            return null;
+        }
+        for (String prefix : new String[]{"jdbc:mariadb://", "jdbc:mysql://"}) {
+            if (jdbcUrl.startsWith(prefix)) {
+                String rest = jdbcUrl.substring(prefix.length());
+                int query = rest.indexOf('?');
+                return "r2dbc:mariadb://" + (query >= 0 ? rest.substring(0, query) : rest);
+            }
+        }
+        if (jdbcUrl.startsWith("jdbc:h2:mem:")) {
+            String rest = jdbcUrl.substring("jdbc:h2:mem:".length());
+            int options = rest.indexOf(';');
+            return options >= 0
+                    ? "r2dbc:h2:mem:///" + rest.substring(0, options) + "?options=" + rest.substring(options + 1)
+                    : "r2dbc:h2:mem:///" + rest;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,17 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.reactive;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+
+/**
+ * Camino de lectura no bloqueante: repositorios R2DBC de solo lectura sobre las mismas tablas que
+ * usan los DAO de JPA. Cada repositorio devuelve un `Flux` de filas planas (sin entidades ni
+ * relaciones perezosas), que los controladores envían como JSON por líneas a medida que llegan.
+ *
+ * Convive con JPA: las escrituras y las transacciones siguen en los DAO, y aquí no se registra
+ * ningún gestor de transacciones reactivo (ver `spring.autoconfigure.exclude`).
+ */
+@Configuration
+@EnableR2dbcRepositories(basePackageClasses = ReactiveConfig.class) // Solo los repositorios de este paquete
+public class ReactiveConfig {
+}
@@ -0,0 +1,16 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.reactive;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Region;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Región tal y como se devuelve en los listados de la API.
+ */
+@Table("regions")
+public record RegionRow(@Id Integer id, String code, String name) {
+
+    public static RegionRow of(Region region) {
+        return new RegionRow(region.getId(), region.getCode(), region.getName());
+    }
+}
@@ -0,0 +1,18 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Lectura no bloqueante de las regiones.
+ */
+public interface RegionStreamRepository extends Repository<RegionRow, Integer> {
+
+    /**
+     * Todas las regiones, ordenadas por ID.
+     * Las filas se emiten según llegan de la base de datos.
+     */
+    @Query("SELECT id, code, name FROM regions ORDER BY id")
+    Flux<RegionRow> streamAll();
+}
@@ -0,0 +1,16 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.reactive;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Supermarket;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Supermercado tal y como se devuelve en los listados de la API.
+ */
+@Table("supermarkets")
+public record SupermarketRow(@Id Integer id, String name) {
+
+    public static SupermarketRow of(Supermarket supermarket) {
+        return new SupermarketRow(supermarket.getId(), supermarket.getName());
+    }
+}
@@ -0,0 +1,18 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Lectura no bloqueante de los supermercados.
+ */
+public interface SupermarketStreamRepository extends Repository<SupermarketRow, Integer> {
+
+    /**
+     * Todos los supermercados, ordenados por ID.
+     * Las filas se emiten según llegan de la base de datos.
+     */
+    @Query("SELECT id, name FROM supermarkets ORDER BY id")
+    Flux<SupermarketRow> streamAll();
+}
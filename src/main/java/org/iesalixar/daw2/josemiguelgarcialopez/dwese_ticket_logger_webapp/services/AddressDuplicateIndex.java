@@ -0,0 +1,254 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.LocationDAO;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice en memoria para detectar direcciones de ubicación casi duplicadas ("C/ Mayor 3" y
+ * "Calle Mayor, 3") sin compararlas con todas las existentes.
+ *
+ * - Cada dirección se normaliza con `AddressNormalizer` y se descompone en trigramas de caracteres.
+ * - Su firma MinHash de 64 valores se divide en 16 bandas de 4; las direcciones que coinciden en
+ *   alguna banda son candidatas (LSH). Con una similitud de Jaccard de 0,7 la probabilidad de ser
+ *   candidata es del 99 %, y con 0,3 baja al 12 %.
+ * - De las candidatas solo se devuelven las que superan `app.locations.duplicate-similarity` con la
+ *   similitud exacta y tienen los mismos números de portal.
+ *
+ * `LocationDAOImpl` mantiene el índice al día tras cada alta, cambio o baja confirmada.
+ */
+@Service
+public class AddressDuplicateIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AddressDuplicateIndex.class);
+
+    private static final int BANDS = 16;
+    private static final int ROWS_PER_BAND = 4;
+    private static final int SIGNATURE_SIZE = BANDS * ROWS_PER_BAND;
+
+    // Semillas fijas de las funciones hash de la firma
+    private static final long[] SEEDS = new SplittableRandom(0x5EED_AD0E55L).longs(SIGNATURE_SIZE).toArray();
+
+    // Número máximo de coincidencias que se devuelven
+    private static final int MAX_MATCHES = 5;
+
+    // Perezoso: LocationDAOImpl también depende de este índice
+    @Lazy
+    @Autowired
+    private LocationDAO locationDAO;
+
+    // Similitud mínima (Jaccard de trigramas, de 0 a 1) para considerar dos direcciones duplicadas
+    @Value("${app.locations.duplicate-similarity:0.7}")
+    private double minSimilarity;
+
+    /**
+     * Ubicación existente con una dirección parecida.
+     *
+     * @param locationId ID de la ubicación.
+     * @param address    dirección tal como está guardada.
+     * @param similarity similitud con la dirección buscada, de 0 a 1.
+     */
+    public record Match(int locationId, String address, double similarity) {
+    }
+
+    private record Entry(int id, Integer provinceId, String address, Set<String> numbers, int[] shingles, int[] signature) {
+    }
+
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+    // IDs de ubicación por banda de la firma
+    private final Map<Long, Set<Integer>> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Carga todas las ubicaciones cuando la aplicación está lista.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        for (Location location : locationDAO.listAllLocations()) {
+            put(location.getId(), location.getAddress(), provinceId(location));
+        }
+        logger.info("Address index loaded with {} locations in {} buckets in {} ms", entries.size(), buckets.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Indexa (o actualiza) una ubicación cuando se confirme la transacción en curso.
+     */
+    public void indexAfterCommit(Location location) {
+        int id = location.getId();
+        String address = location.getAddress();
+        Integer provinceId = provinceId(location);
+        TransactionCallbacks.afterCommit(() -> put(id, address, provinceId));
+    }
+
+    /**
+     * Quita una ubicación del índice cuando se confirme la transacción en curso.
+     */
+    public void removeAfterCommit(int id) {
+        TransactionCallbacks.afterCommit(() -> remove(id));
+    }
+
+    /**
+     * Añade o actualiza la dirección de una ubicación.
+     */
+    public synchronized void put(int id, String address, Integer provinceId) {
+        remove(id);
+        String normalized = AddressNormalizer.normalize(address);
+        int[] shingles = shingles(normalized);
+        if (shingles.length == 0) {
+            return; // Nada que comparar
+        }
+        Entry entry = new Entry(id, provinceId, address, AddressNormalizer.numbers(normalized), shingles, signature(shingles));
+        entries.put(id, entry);
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfAbsent(bandKey(entry.signature(), band), key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    /**
+     * Quita una ubicación si está indexada.
+     */
+    public synchronized void remove(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            long key = bandKey(entry.signature(), band);
+            Set<Integer> bucket = buckets.get(key);
+            if (bucket != null) {
+                bucket.remove(id);
+                if (bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Busca ubicaciones cuya dirección es probablemente la misma que la dada.
+     *
+     * @param address    dirección a comprobar.
+     * @param provinceId si no es null, solo se comparan ubicaciones de esa provincia.
+     * @param excludeId  si no es null, ubicación que se omite (la que se está editando).
+     * @return coincidencias de la más parecida a la menos parecida.
+     */
+    public List<Match> findSimilar(String address, Integer provinceId, Integer excludeId) {
+        String normalized = AddressNormalizer.normalize(address);
+        int[] shingles = shingles(normalized);
+        if (shingles.length == 0) {
+            return List.of();
+        }
+        Set<String> numbers = AddressNormalizer.numbers(normalized);
+        int[] signature = signature(shingles);
+        Set<Integer> candidates = new HashSet<>();
+        for (int band = 0; band < BANDS; band++) {
+            Set<Integer> bucket = buckets.get(bandKey(signature, band));
+            if (bucket != null) {
+                candidates.addAll(bucket);
+            }
+        }
+        List<Match> matches = new ArrayList<>();
+        for (Integer candidate : candidates) {
+            Entry entry = entries.get(candidate);
+            if (entry == null || candidate.equals(excludeId)
+                    || (provinceId != null && entry.provinceId() != null && !provinceId.equals(entry.provinceId()))
+                    || (!numbers.isEmpty() && !entry.numbers().isEmpty() && !numbers.equals(entry.numbers()))) {
+                continue;
+            }
+            double similarity = jaccard(shingles, entry.shingles());
+            if (similarity >= minSimilarity) {
+                matches.add(new Match(entry.id(), entry.address(), similarity));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Match::similarity).reversed().thenComparingInt(Match::locationId));
+        return matches.size() > MAX_MATCHES ? List.copyOf(matches.subList(0, MAX_MATCHES)) : matches;
+    }
+
+    // Hashes ordenados y sin repetir de los trigramas de la dirección normalizada
+    static int[] shingles(String normalized) {
+        if (normalized.isEmpty()) {
+            return new int[0];
+        }
+        String padded = " " + normalized + " ";
+        int[] hashes = new int[padded.length() - 2];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = padded.substring(i, i + 3).hashCode();
+        }
+        return Arrays.stream(hashes).sorted().distinct().toArray();
+    }
+
+    static int[] signature(int[] shingles) {
+        int[] signature = new int[SIGNATURE_SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int shingle : shingles) {
+            for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                int hash = (int) (mix(shingle ^ SEEDS[i]) >>> 32);
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    // Similitud de Jaccard de dos conjuntos representados como arrays ordenados
+    static double jaccard(int[] a, int[] b) {
+        int common = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) common / (a.length + b.length - common);
+    }
+
+    private static long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int row = band * ROWS_PER_BAND; row < (band + 1) * ROWS_PER_BAND; row++) {
+            key = key * 0x100000001B3L + signature[row];
+        }
+        return mix(key);
+    }
+
+    // Finalizador de SplitMix64: reparte bien los bits de la entrada
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static Integer provinceId(Location location) {
+        return location.getProvince() != null ? location.getProvince().getId() : null;
+    }
+}
@@ -0,0 +1,78 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normaliza direcciones postales para compararlas: minúsculas sin tildes, sin signos de puntuación,
+ * con las abreviaturas de vía habituales desarrolladas y sin las palabras que no distinguen una
+ * dirección de otra. Así "C/ Mayor, nº 3" y "Calle Mayor 3" quedan igual ("calle mayor 3").
+ */
+public final class AddressNormalizer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WITHOUT_NUMBER = Pattern.compile("\\bs\\s*/\\s*n\\b");
+    private static final Pattern SHOPPING_CENTRE = Pattern.compile("\\bc\\.\\s*c\\.");
+    private static final Pattern STREET_SLASH = Pattern.compile("\\bc\\s*/");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern NUMBER = Pattern.compile("\\d+[a-z]?|sn");
+
+    // Abreviaturas de tipo de vía y su forma completa
+    private static final Map<String, String> ABBREVIATIONS = Map.ofEntries(
+            Map.entry("c", "calle"), Map.entry("cl", "calle"), Map.entry("cll", "calle"), Map.entry("clle", "calle"),
+            Map.entry("av", "avenida"), Map.entry("avd", "avenida"), Map.entry("avda", "avenida"),
+            Map.entry("pl", "plaza"), Map.entry("plz", "plaza"), Map.entry("pza", "plaza"),
+            Map.entry("ps", "paseo"), Map.entry("pso", "paseo"),
+            Map.entry("ctra", "carretera"), Map.entry("crta", "carretera"),
+            Map.entry("rda", "ronda"), Map.entry("gta", "glorieta"), Map.entry("trv", "travesia"),
+            Map.entry("urb", "urbanizacion"), Map.entry("pol", "poligono"), Map.entry("polig", "poligono"),
+            Map.entry("cc", "centro comercial"), Map.entry("ccial", "centro comercial"));
+
+    // Palabras que no ayudan a distinguir direcciones
+    private static final Set<String> STOPWORDS = Set.of("de", "del", "la", "las", "el", "los", "y", "n", "num", "numero");
+
+    private AddressNormalizer() {
+    }
+
+    /**
+     * Devuelve la forma normalizada de una dirección.
+     *
+     * @param address dirección tal como la escribió el usuario.
+     * @return palabras normalizadas separadas por un espacio (vacío si no queda ninguna).
+     */
+    public static String normalize(String address) {
+        String text = Normalizer.normalize(address, Normalizer.Form.NFD);
+        text = MARKS.matcher(text).replaceAll("").toLowerCase(Locale.ROOT).replace('º', ' ').replace('ª', ' ');
+        text = WITHOUT_NUMBER.matcher(text).replaceAll(" sn ");
+        text = SHOPPING_CENTRE.matcher(text).replaceAll(" cc ");
+        text = STREET_SLASH.matcher(text).replaceAll(" calle ");
+        List<String> words = new ArrayList<>();
+        for (String token : SEPARATORS.split(text)) {
+            if (token.isEmpty() || STOPWORDS.contains(token)) {
+                continue;
+            }
+            words.add(ABBREVIATIONS.getOrDefault(token, token));
+        }
+        return String.join(" ", words);
+    }
+
+    /**
+     * Devuelve los números de portal (o "sn") de una dirección ya normalizada. Dos direcciones con
+     * números distintos no son la misma aunque el resto del texto coincida.
+     */
+    public static Set<String> numbers(String normalized) {
+        Set<String> numbers = new LinkedHashSet<>();
+        for (String word : normalized.split(" ")) {
+            if (NUMBER.matcher(word).matches()) {
+                numbers.add(word);
+            }
+        }
+        return numbers;
+    }
+}
@@ -0,0 +1,215 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Reparte los cambios confirmados de regiones, provincias, supermercados, ubicaciones y categorías a
+ * los navegadores que tienen abierta su lista, mediante server-sent events. Cada cambio es un evento
+ * `change` pequeño (`{"entity":"REGION","operation":"UPDATE","id":3}`); la página pide después solo la
+ * fila afectada en lugar de recargar la lista entera.
+ *
+ * Los eventos se reparten en un hilo propio, en el orden en que se confirmaron los cambios, para no
+ * retrasar la respuesta de quien hizo el cambio. Cada evento se escribe a la vez en todas las
+ * conexiones con un pool de `app.events.send-threads` hilos, y la conexión que no lo recibe en
+ * `app.events.send-timeout-ms` se cierra: un cliente lento no retrasa a los demás más que ese tiempo.
+ * Cada `app.events.heartbeat-ms` se envía un comentario para que los proxies no cierren la conexión y
+ * para descartar clientes desconectados.
+ */
+@Service
+public class ChangeEventBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeEventBroadcaster.class);
+
+    /**
+     * Contenido de cada evento.
+     */
+    public record ChangeNotice(EntityType entity, EntityChangeEvent.Operation operation, int id) {
+    }
+
+    // Tiempo máximo de una conexión; el navegador se vuelve a conectar solo (30 minutos por defecto)
+    @Value("${app.events.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    // Número máximo de conexiones abiertas a la vez
+    @Value("${app.events.max-clients:500}")
+    private int maxClients;
+
+    // Hilos que escriben en las conexiones
+    @Value("${app.events.send-threads:4}")
+    private int sendThreads;
+
+    // Tiempo máximo para escribir un evento en una conexión antes de cerrarla
+    @Value("${app.events.send-timeout-ms:5000}")
+    private long sendTimeoutMillis;
+
+    // Entidades que sigue cada conexión; las altas se hacen con el cerrojo del mapa para respetar el máximo
+    private final Map<SseEmitter, Set<EntityType>> subscribers = new ConcurrentHashMap<>();
+
+    // Identificador de cada evento enviado
+    private final AtomicLong lastEventId = new AtomicLong();
+
+    // Hilo que reparte los eventos en orden
+    private final ExecutorService sendExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "change-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Hilos que escriben en cada conexión; la cola no pasa del número máximo de conexiones
+    private ThreadPoolExecutor writeExecutor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        writeExecutor = new ThreadPoolExecutor(sendThreads, sendThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxClients)), runnable -> {
+                    Thread thread = new Thread(runnable, "change-events-write-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Abre una conexión que recibirá los cambios de las entidades indicadas.
+     *
+     * @return la conexión, o null si ya hay `app.events.max-clients` abiertas.
+     */
+    public SseEmitter subscribe(Set<EntityType> entities) {
+        SseEmitter emitter = newEmitter();
+        synchronized (subscribers) {
+            if (subscribers.size() >= maxClients) {
+                logger.warn("Rejecting change event subscription: {} clients connected", subscribers.size());
+                return null;
+            }
+            subscribers.put(emitter, Set.copyOf(entities));
+        }
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+        logger.debug("Change event subscriber added for {}; {} connected", entities, subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Envía el cambio a las conexiones interesadas cuando se confirma la transacción que lo publicó.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(EntityChangeEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        ChangeNotice notice = new ChangeNotice(event.entityType(), event.operation(), event.entityId());
+        sendExecutor.execute(() -> {
+            // Se construye una vez y se envía igual a todas las conexiones
+            Set<DataWithMediaType> sse = SseEmitter.event()
+                    .id(Long.toString(lastEventId.incrementAndGet()))
+                    .name("change")
+                    .data(notice, MediaType.APPLICATION_JSON)
+                    .build();
+            broadcast(sse, entities -> entities.contains(notice.entity()));
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.events.heartbeat-ms:25000}")
+    public void heartbeat() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        sendExecutor.execute(() -> {
+            Set<DataWithMediaType> sse = SseEmitter.event().comment("ping").build();
+            broadcast(sse, entities -> true);
+        });
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sendExecutor.shutdownNow();
+        if (writeExecutor != null) {
+            writeExecutor.shutdownNow();
+        }
+        subscribers.keySet().forEach(SseEmitter::complete);
+    }
+
+    // Conexión nueva; las pruebas la sustituyen para ver qué se envía
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    // Escribe el evento en paralelo en las conexiones que lo siguen y espera como mucho
+    // `sendTimeoutMillis`; las que no terminan a tiempo se cierran
+    private void broadcast(Set<DataWithMediaType> sse, Predicate<Set<EntityType>> filter) {
+        Map<SseEmitter, Future<?>> writes = new HashMap<>();
+        subscribers.forEach((emitter, entities) -> {
+            if (filter.test(entities)) {
+                try {
+                    writes.put(emitter, writeExecutor.submit(() -> send(emitter, sse)));
+                } catch (RejectedExecutionException e) {
+                    // Todos los hilos siguen bloqueados con envíos anteriores
+                    logger.warn("Dropping change event subscriber: write queue is full");
+                    subscribers.remove(emitter);
+                }
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        writes.forEach((emitter, write) -> {
+            try {
+                write.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // Cliente lento: deja de recibir eventos. El hilo que escribe cierra la conexión al
+                // interrumpirse (completeWithError espera a que termine el envío en curso)
+                logger.debug("Dropping change event subscriber: send took more than {} ms", sendTimeoutMillis);
+                subscribers.remove(emitter);
+                write.cancel(true);
+            } catch (ExecutionException | CancellationException e) {
+                subscribers.remove(emitter);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private void send(SseEmitter emitter, Set<DataWithMediaType> sse) {
+        try {
+            emitter.send(sse);
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado, conexión ya cerrada o envío interrumpido por lento
+            subscribers.remove(emitter);
+            emitter.completeWithError(e);
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.BulkInsertDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generador de datos sintéticos para probar la aplicación con volúmenes de producción: supermercados,
+ * ubicaciones, un árbol de categorías (con imágenes) y tickets con sus líneas, añadidos a lo que ya
+ * haya en la base de datos. Solo se activa con `app.generator.enabled=true`:
+ *
+ * <pre>
+ * java -jar app.jar --app.generator.enabled=true --app.generator.locations=2000000 --app.generator.categories=500000
+ * </pre>
+ *
+ * - El reparto está sesgado con una distribución de Zipf de exponente `app.generator.skew` (0 =
+ *   uniforme): pocas cadenas tienen la mayoría de las tiendas, pocas provincias la mayoría de las
+ *   ubicaciones, pocas tiendas la mayoría de los tickets y pocas categorías la mayoría de las líneas.
+ * - Las filas se insertan con lotes JDBC de `app.generator.batch-size` (`BulkInsertDAO`), en
+ *   `app.generator.threads` hilos y con IDs explícitos. No pasan por los DAO de JPA, así que no se
+ *   registran en el diario de cambios.
+ * - Las categorías se insertan nivel a nivel, para que cada padre exista antes que sus hijos.
+ * - Con la misma semilla (`app.generator.seed`) y la misma configuración se generan los mismos datos.
+ *
+ * Al terminar cierra la aplicación, salvo con `app.generator.exit=false`.
+ */
+@Component
+@ConditionalOnProperty(name = "app.generator.enabled", havingValue = "true")
+public class DatasetGenerator implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    private static final String[] CHAINS = {"Mercado", "Super", "Hiper", "Despensa", "Ahorro", "Frescos", "Económico", "Barrio"};
+    private static final String[] STREETS = {"Calle Mayor", "Avenida de la Constitución", "Calle Real", "Plaza de España",
+            "Calle Nueva", "Avenida de Andalucía", "Calle del Sol", "Paseo de la Estación", "Calle San Juan", "Ronda Norte"};
+    private static final String[] CATEGORY_WORDS = {"Frutas", "Verduras", "Lácteos", "Bebidas", "Carnes", "Pescados",
+            "Panadería", "Congelados", "Limpieza", "Higiene", "Conservas", "Dulces", "Mascotas", "Hogar"};
+    private static final String[] PRODUCTS = {"Leche", "Pan", "Huevos", "Aceite", "Arroz", "Tomate", "Manzana", "Yogur",
+            "Queso", "Agua", "Café", "Pasta", "Pollo", "Detergente", "Galletas"};
+
+    // Imágenes de las categorías: cuadrados de un color, guardados en PNG una vez y copiados
+    private static final int IMAGE_SIZE = 64;
+    private static final int IMAGE_COLORS = 16;
+
+    @Autowired
+    private BulkInsertDAO bulkInsertDAO;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Value("${UPLOAD_PATH}")
+    private String uploadPath;
+
+    @Value("${app.generator.supermarkets:200}")
+    private int supermarkets;
+
+    @Value("${app.generator.locations:100000}")
+    private int locations;
+
+    @Value("${app.generator.categories:10000}")
+    private int categories;
+
+    // Categorías raíz e hijos de cada categoría
+    @Value("${app.generator.category-roots:20}")
+    private int categoryRoots;
+
+    @Value("${app.generator.category-fanout:8}")
+    private int categoryFanout;
+
+    // Proporción de categorías con imagen (0-1)
+    @Value("${app.generator.category-image-ratio:0.3}")
+    private double categoryImageRatio;
+
+    @Value("${app.generator.tickets:200000}")
+    private int tickets;
+
+    // Líneas medias por ticket
+    @Value("${app.generator.lines-per-ticket:5}")
+    private int linesPerTicket;
+
+    // Meses hacia atrás en los que se reparten las fechas de los tickets
+    @Value("${app.generator.ticket-months:12}")
+    private int ticketMonths;
+
+    @Value("${app.generator.skew:1.0}")
+    private double skew;
+
+    @Value("${app.generator.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.generator.threads:4}")
+    private int threads;
+
+    @Value("${app.generator.seed:42}")
+    private long seed;
+
+    @Value("${app.generator.exit:true}")
+    private boolean exit;
+
+    // Filas de un bloque por sentencia, en el orden en que se insertan
+    @FunctionalInterface
+    private interface ChunkBuilder {
+        Map<String, List<Object[]>> build(int from, int to, SplittableRandom random);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        logger.info("Generating {} supermarkets, {} locations, {} categories and {} tickets (skew {}, {} threads)",
+                supermarkets, locations, categories, tickets, skew, threads);
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            int supermarketBase = bulkInsertDAO.maxId("supermarkets");
+            int locationBase = bulkInsertDAO.maxId("locations");
+            int categoryBase = bulkInsertDAO.maxId("categories");
+            int ticketBase = bulkInsertDAO.maxId("tickets");
+
+            generateSupermarkets(executor, supermarketBase);
+            generateLocations(executor, locationBase, supermarketBase);
+            generateCategories(executor, categoryBase);
+            generateTickets(executor, ticketBase, locationBase, categoryBase);
+
+            for (String table : List.of("supermarkets", "locations", "categories", "tickets")) {
+                bulkInsertDAO.syncIdentity(table);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        logger.info("Dataset generated in {} s", (System.nanoTime() - start) / 1_000_000_000);
+        if (exit) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    private void generateSupermarkets(ExecutorService executor, int base) throws InterruptedException {
+        insert(executor, "supermarkets", supermarkets, 1, (from, to, random) -> {
+            List<Object[]> rows = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                rows.add(new Object[]{base + i + 1, CHAINS[i % CHAINS.length] + " " + (base + i + 1)});
+            }
+            return Map.of("INSERT INTO supermarkets (id, name) VALUES (?, ?)", rows);
+        });
+    }
+
+    private void generateLocations(ExecutorService executor, int base, int supermarketBase) throws InterruptedException {
+        Map<Integer, String> provinces = bulkInsertDAO.listProvinceNames();
+        if (provinces.isEmpty() || supermarkets == 0) {
+            logger.warn("No provinces or supermarkets: skipping locations");
+            locations = 0;
+            return;
+        }
+        Integer[] provinceIds = provinces.keySet().toArray(new Integer[0]);
+        ZipfSampler provinceSampler = new ZipfSampler(provinceIds.length, skew);
+        ZipfSampler supermarketSampler = new ZipfSampler(supermarkets, skew);
+        insert(executor, "locations", locations, 2, (from, to, random) -> {
+            List<Object[]> rows = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                int provinceId = provinceIds[provinceSampler.sample(random)];
+                rows.add(new Object[]{base + i + 1,
+                        STREETS[random.nextInt(STREETS.length)] + ", " + (1 + random.nextInt(250)),
+                        provinces.get(provinceId),
+                        supermarketBase + 1 + supermarketSampler.sample(random),
+                        provinceId,
+                        36.0 + random.nextDouble() * 7.8, // Península y Baleares, aproximadamente
+                        -9.3 + random.nextDouble() * 12.6});
+            }
+            return Map.of("INSERT INTO locations (id, address, city, supermarket_id, province_id, latitude, longitude) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+        });
+    }
+
+    private void generateCategories(ExecutorService executor, int base) throws InterruptedException, IOException {
+        byte[][] images = renderImages();
+        Path root = Paths.get(uploadPath);
+        int roots = Math.max(1, categoryRoots);
+        int fanout = Math.max(1, categoryFanout);
+        // Cada nivel es un rango contiguo: los hijos de [start, end) son [roots + start * fanout, roots + end * fanout)
+        int start = 0;
+        int end = Math.min(categories, roots);
+        while (start < end) {
+            int levelStart = start;
+            insert(executor, "categories", end - start, 3 + start, (from, to, random) -> {
+                List<Object[]> rows = new ArrayList<>(to - from);
+                for (int k = levelStart + from; k < levelStart + to; k++) {
+                    Integer parentId = k < roots ? null : base + 1 + (k - roots) / fanout;
+                    String image = null;
+                    if (random.nextDouble() < categoryImageRatio) {
+                        image = writeImage(root, images[random.nextInt(images.length)]);
+                    }
+                    rows.add(new Object[]{base + k + 1, CATEGORY_WORDS[k % CATEGORY_WORDS.length] + " " + (base + k + 1),
+                            image, parentId, image != null ? "png" : null,
+                            image != null ? IMAGE_SIZE : null, image != null ? IMAGE_SIZE : null});
+                }
+                return Map.of("INSERT INTO categories (id, name, image, parent_id, image_format, image_width, image_height) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+            });
+            start = end;
+            end = (int) Math.min(categories, roots + (long) end * fanout);
+        }
+    }
+
+    private void generateTickets(ExecutorService executor, int base, int locationBase, int categoryBase)
+            throws InterruptedException {
+        if (locations == 0 || categories == 0) {
+            logger.warn("No generated locations or categories: skipping tickets");
+            return;
+        }
+        ZipfSampler locationSampler = new ZipfSampler(locations, skew);
+        ZipfSampler categorySampler = new ZipfSampler(categories, skew);
+        ZipfSampler productSampler = new ZipfSampler(PRODUCTS.length, skew);
+        LocalDate today = LocalDate.now();
+        int days = Math.max(1, ticketMonths * 30);
+        int maxLines = Math.max(1, 2 * linesPerTicket - 1);
+        insert(executor, "tickets", tickets, -1, (from, to, random) -> {
+            List<Object[]> ticketRows = new ArrayList<>(to - from);
+            List<Object[]> lineRows = new ArrayList<>((to - from) * linesPerTicket);
+            for (int i = from; i < to; i++) {
+                int ticketId = base + i + 1;
+                LocalDate date = today.minusDays(random.nextInt(days));
+                ticketRows.add(new Object[]{ticketId, date, locationBase + 1 + locationSampler.sample(random)});
+                int lines = 1 + random.nextInt(maxLines);
+                for (int line = 1; line <= lines; line++) {
+                    lineRows.add(new Object[]{ticketId, line, categoryBase + 1 + categorySampler.sample(random),
+                            PRODUCTS[productSampler.sample(random)],
+                            BigDecimal.valueOf(1 + random.nextInt(5)),
+                            BigDecimal.valueOf(0.2 + random.nextDouble() * 20).setScale(2, RoundingMode.HALF_UP),
+                            date});
+                }
+            }
+            // Primero los tickets: en H2 las líneas tienen clave foránea
+            Map<String, List<Object[]>> statements = new LinkedHashMap<>();
+            statements.put("INSERT INTO tickets (id, ticket_date, location_id) VALUES (?, ?, ?)", ticketRows);
+            statements.put("INSERT INTO ticket_lines (ticket_id, line_number, category_id, product, quantity, unit_price, ticket_date) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)", lineRows);
+            return statements;
+        });
+    }
+
+    // Reparte [0, count) en bloques de batchSize, los construye e inserta en paralelo y espera a todos
+    private void insert(ExecutorService executor, String label, int count, long stream, ChunkBuilder builder)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0; from < count; from += batchSize) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(count, from + batchSize);
+            // Semilla propia de cada bloque: el resultado no depende del orden de los hilos
+            SplittableRandom random = new SplittableRandom(seed * 1_000_003L + stream * 7_919L + chunkFrom);
+            futures.add(executor.submit(() -> builder.build(chunkFrom, chunkTo, random)
+                    .forEach(bulkInsertDAO::batchInsert)));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Error generating " + label, e.getCause());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        logger.info("Generated {} {} in {} s ({} rows/s)", count, label, String.format("%.1f", seconds),
+                String.format("%.0f", count / Math.max(seconds, 1e-3)));
+    }
+
+    private static String writeImage(Path root, byte[] png) {
+        String fileName = UUID.randomUUID() + ".png";
+        Path path = UploadLayout.resolve(root, fileName);
+        try {
+            Files.createDirectories(path.getParent());
+            Files.write(path, png);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return fileName;
+    }
+
+    private static byte[][] renderImages() throws IOException {
+        byte[][] images = new byte[IMAGE_COLORS][];
+        for (int i = 0; i < IMAGE_COLORS; i++) {
+            BufferedImage image = new BufferedImage(IMAGE_SIZE, IMAGE_SIZE, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = image.createGraphics();
+            graphics.setColor(Color.getHSBColor(i / (float) IMAGE_COLORS, 0.5f, 0.9f));
+            graphics.fillRect(0, 0, IMAGE_SIZE, IMAGE_SIZE);
+            graphics.dispose();
+            ByteArrayOutputStream png = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", png);
+            images[i] = png.toByteArray();
+        }
+        return images;
+    }
+}
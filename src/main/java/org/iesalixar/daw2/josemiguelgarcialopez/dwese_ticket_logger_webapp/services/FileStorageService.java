@@ -3,16 +3,18 @@ package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.serv
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collection;
 import java.util.UUID;
 
 
@@ -28,6 +30,47 @@ public class FileStorageService {
     private String uploadPath;
 
 
+    // Lee la cabecera de las imágenes subidas y aplica los límites de tamaño
+    @Autowired
+    private ImageInspector imageInspector;
+
+
+    /**
+     * Imagen guardada: nombre del archivo y datos de su cabecera.
+     */
+    public record StoredImage(String fileName, ImageInspector.ImageInfo info) {
+    }
+
+
+    /**
+     * Guarda una imagen tras comprobar su cabecera. La extensión sale del formato detectado, no del
+     * nombre que envía el cliente, y el contenido se copia al disco sin cargarlo entero en memoria.
+     *
+     * @param file La imagen a guardar.
+     * @return El nombre del archivo y los datos de la imagen, o null si ocurre un error de escritura.
+     * @throws ImageRejectedException si no es una imagen admitida o supera los límites.
+     */
+    public StoredImage saveImage(MultipartFile file) {
+        try {
+            ImageInspector.ImageInfo info;
+            try (InputStream in = file.getInputStream()) {
+                info = imageInspector.inspect(in);
+            }
+            String uniqueFileName = UUID.randomUUID() + "." + info.extension();
+            Path filePath = UploadLayout.resolve(Paths.get(uploadPath), uniqueFileName);
+            Files.createDirectories(filePath.getParent());
+            try (InputStream in = file.getInputStream()) {
+                Files.copy(in, filePath);
+            }
+            logger.info("Imagen {} ({} {}x{}) guardada con éxito.", uniqueFileName, info.format(), info.width(), info.height());
+            return new StoredImage(uniqueFileName, info);
+        } catch (IOException e) {
+            logger.error("Error al guardar la imagen: {}", e.getMessage());
+            return null;
+        }
+    }
+
+
     /**
      * Guarda un archivo en el sistema de archivos y devuelve el nombre del archivo guardado.
      *
@@ -41,8 +84,8 @@ public class FileStorageService {
             String uniqueFileName = UUID.randomUUID().toString() + "." + fileExtension;
 
 
-            // Ruta completa del archivo
-            Path filePath = Paths.get(uploadPath + File.separator + uniqueFileName);
+            // Ruta completa del archivo, en el subdirectorio que le corresponde (ver UploadLayout)
+            Path filePath = UploadLayout.resolve(Paths.get(uploadPath), uniqueFileName);
 
 
             // Crear los directorios si no existen
@@ -69,15 +112,51 @@ public class FileStorageService {
      */
     public void deleteFile(String fileName) {
         try {
-            Path filePath = Paths.get(uploadPath, fileName);
-            Files.deleteIfExists(filePath);
+            delete(fileName);
             logger.info("Archivo {} eliminado con éxito.", fileName);
-        } catch (IOException e) {
+        } catch (IOException | IllegalArgumentException e) {
             logger.error("Error al eliminar el archivo {}: {}", fileName, e.getMessage());
         }
     }
 
 
+    /**
+     * Elimina varios archivos del sistema de archivos de una vez, con un único registro al final.
+     * Un archivo que no se puede eliminar no impide eliminar los demás.
+     *
+     * @param fileNames Los nombres de los archivos a eliminar.
+     * @return El número de archivos eliminados.
+     */
+    public int deleteFiles(Collection<String> fileNames) {
+        int deleted = 0;
+        int failed = 0;
+        for (String fileName : fileNames) {
+            try {
+                if (delete(fileName)) {
+                    deleted++;
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                failed++;
+                logger.debug("Error al eliminar el archivo {}: {}", fileName, e.getMessage());
+            }
+        }
+        if (failed > 0) {
+            logger.error("Eliminados {} de {} archivos; {} no se pudieron eliminar.", deleted, fileNames.size(), failed);
+        } else {
+            logger.info("Eliminados {} de {} archivos.", deleted, fileNames.size());
+        }
+        return deleted;
+    }
+
+
+    // Borra el archivo de su subdirectorio y, si aún no se ha movido, de la raíz
+    private boolean delete(String fileName) throws IOException {
+        Path root = Paths.get(uploadPath);
+        boolean deleted = Files.deleteIfExists(UploadLayout.resolve(root, fileName));
+        return Files.deleteIfExists(UploadLayout.legacyPath(root, fileName)) || deleted;
+    }
+
+
     /**
      * Obtiene la extensión del archivo.
      *
@@ -0,0 +1,64 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codificación por diccionario de IDs de base de datos: cada ID distinto recibe un código denso
+ * (0, 1, 2...) por orden de aparición, que se usa como índice en las columnas y en los arrays de
+ * agregación. Los códigos no cambian una vez asignados. No es thread-safe: la sincronización la
+ * hace quien la usa.
+ */
+class IdDictionary {
+
+    private final Map<Integer, Integer> codesById = new HashMap<>();
+    private final List<String> labels = new ArrayList<>();
+    private int[] ids = new int[16];
+
+    /**
+     * Devuelve el código del ID, asignándole uno nuevo si no lo tenía.
+     *
+     * @param id    ID de base de datos.
+     * @param label nombre para mostrar (se actualiza si el ID ya existía).
+     * @return el código denso del ID.
+     */
+    int encode(int id, String label) {
+        Integer code = codesById.get(id);
+        if (code != null) {
+            labels.set(code, label);
+            return code;
+        }
+        int newCode = labels.size();
+        if (newCode == ids.length) {
+            ids = Arrays.copyOf(ids, newCode * 2);
+        }
+        ids[newCode] = id;
+        labels.add(label);
+        codesById.put(id, newCode);
+        return newCode;
+    }
+
+    /**
+     * @param id ID de base de datos.
+     * @return el código del ID o -1 si no está en el diccionario.
+     */
+    int code(int id) {
+        Integer code = codesById.get(id);
+        return code != null ? code : -1;
+    }
+
+    int id(int code) {
+        return ids[code];
+    }
+
+    String label(int code) {
+        return labels.get(code);
+    }
+
+    int size() {
+        return labels.size();
+    }
+}
@@ -0,0 +1,107 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Inspección de las imágenes subidas antes de guardarlas. Solo lee la cabecera (formato, ancho y alto)
+ * con el `ImageReader` de ImageIO, sin decodificar los píxeles: una imagen de 50.000 × 50.000 se
+ * rechaza leyendo unos pocos bytes, antes de que ningún código intente cargarla en memoria.
+ *
+ * Se admiten PNG, JPEG y GIF, con un máximo de `app.uploads.image.max-width` ×
+ * `app.uploads.image.max-height` píxeles y `app.uploads.image.max-pixels` en total.
+ */
+@Component
+public class ImageInspector {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageInspector.class);
+
+    // Formato de ImageIO admitido → extensión con la que se guarda
+    private static final Map<String, String> EXTENSIONS = Map.of("png", "png", "jpeg", "jpg", "gif", "gif");
+
+    /**
+     * Datos de la cabecera de una imagen.
+     *
+     * @param format    formato ("png", "jpeg" o "gif").
+     * @param extension extensión con la que se guarda el archivo.
+     */
+    public record ImageInfo(String format, String extension, int width, int height) {
+
+        public long pixels() {
+            return (long) width * height;
+        }
+    }
+
+    private final int maxWidth;
+    private final int maxHeight;
+    private final long maxPixels;
+
+    public ImageInspector(@Value("${app.uploads.image.max-width:4096}") int maxWidth,
+                          @Value("${app.uploads.image.max-height:4096}") int maxHeight,
+                          @Value("${app.uploads.image.max-pixels:16777216}") long maxPixels) {
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+        this.maxPixels = maxPixels;
+    }
+
+    /**
+     * Lee la cabecera de la imagen y comprueba los límites. Solo se leen (y se guardan en memoria) los
+     * bytes de la cabecera; el flujo no se cierra.
+     *
+     * @throws ImageRejectedException si no es una imagen admitida o supera los límites.
+     * @throws IOException            si falla la lectura.
+     */
+    public ImageInfo inspect(InputStream in) throws IOException {
+        ImageInfo info = readHeader(in);
+        if (info.width() > maxWidth || info.height() > maxHeight) {
+            logger.warn("Imagen rechazada: {}x{} supera {}x{}", info.width(), info.height(), maxWidth, maxHeight);
+            throw new ImageRejectedException(ImageRejectedException.Reason.DIMENSIONS,
+                    info.width() + "x" + info.height() + " exceeds " + maxWidth + "x" + maxHeight,
+                    info.width(), info.height(), maxWidth, maxHeight);
+        }
+        if (info.pixels() > maxPixels) {
+            logger.warn("Imagen rechazada: {} píxeles supera {}", info.pixels(), maxPixels);
+            throw new ImageRejectedException(ImageRejectedException.Reason.PIXELS,
+                    info.pixels() + " pixels exceeds " + maxPixels,
+                    String.format(Locale.ROOT, "%.1f", info.pixels() / 1e6), String.format(Locale.ROOT, "%.1f", maxPixels / 1e6));
+        }
+        return info;
+    }
+
+    private static ImageInfo readHeader(InputStream in) throws IOException {
+        // La caché en memoria solo guarda lo que lee el ImageReader; sin caché en disco
+        try (ImageInputStream stream = new MemoryCacheImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            while (readers.hasNext()) {
+                ImageReader reader = readers.next();
+                try {
+                    String format = reader.getFormatName().toLowerCase(Locale.ROOT);
+                    String extension = EXTENSIONS.get(format);
+                    if (extension == null) {
+                        continue;
+                    }
+                    reader.setInput(stream, true, true); // Solo hacia delante y sin metadatos
+                    return new ImageInfo(format, extension, reader.getWidth(0), reader.getHeight(0));
+                } catch (IOException | RuntimeException e) {
+                    logger.debug("Cabecera de imagen no válida: {}", e.getMessage());
+                    break;
+                } finally {
+                    reader.dispose();
+                }
+            }
+        }
+        throw new ImageRejectedException(ImageRejectedException.Reason.UNREADABLE, "not a PNG, JPEG or GIF image");
+    }
+}
@@ -0,0 +1,34 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+/**
+ * Imagen subida que no se guarda: no es un formato admitido o supera los límites de tamaño. El motivo
+ * y sus argumentos permiten mostrar al usuario un mensaje localizado.
+ */
+public class ImageRejectedException extends RuntimeException {
+
+    /**
+     * Motivos de rechazo; cada uno tiene su mensaje `msg.image.rejected.<motivo en minúsculas>`.
+     */
+    public enum Reason { UNREADABLE, DIMENSIONS, PIXELS }
+
+    private final Reason reason;
+    private final Object[] messageArgs;
+
+    public ImageRejectedException(Reason reason, String message, Object... messageArgs) {
+        super(message);
+        this.reason = reason;
+        this.messageArgs = messageArgs;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public String getMessageKey() {
+        return "msg.image.rejected." + reason.name().toLowerCase();
+    }
+
+    public Object[] getMessageArgs() {
+        return messageArgs.clone();
+    }
+}
@@ -0,0 +1,113 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.LocationDAO;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Búsquedas de ubicaciones por cercanía y por dirección parecida: los índices en memoria deciden qué
+ * ubicaciones devolver y después se cargan de una vez con su provincia y su supermercado.
+ */
+@Service
+public class LocationSearchService {
+
+    @Autowired
+    private LocationSpatialIndex locationSpatialIndex;
+
+    @Autowired
+    private AddressDuplicateIndex addressDuplicateIndex;
+
+    @Autowired
+    private LocationDAO locationDAO;
+
+    /**
+     * Ubicación encontrada y su distancia al punto de búsqueda.
+     */
+    public record NearbyLocation(Location location, double distanceKm) {
+    }
+
+    /**
+     * Ubicación existente cuya dirección es probablemente la misma que otra.
+     */
+    public record DuplicateCandidate(Location location, double similarity) {
+    }
+
+    /**
+     * Busca las `k` ubicaciones más cercanas a un punto.
+     *
+     * @return las ubicaciones de la más cercana a la más lejana.
+     */
+    public List<NearbyLocation> findNearest(double latitude, double longitude, int k) {
+        List<LocationSpatialIndex.Neighbor> neighbors = locationSpatialIndex.nearest(latitude, longitude, k);
+        Map<Integer, Location> locations = loadAndPrune(neighbors.stream().map(neighbor -> neighbor.point().id()).toList());
+        if (locations.size() < neighbors.size()) {
+            // Había ubicaciones borradas en cascada (con su provincia o su supermercado): se repite sin ellas
+            neighbors = locationSpatialIndex.nearest(latitude, longitude, k);
+            locations = loadAndPrune(neighbors.stream().map(neighbor -> neighbor.point().id()).toList());
+        }
+        List<NearbyLocation> result = new ArrayList<>(neighbors.size());
+        for (LocationSpatialIndex.Neighbor neighbor : neighbors) {
+            Location location = locations.get(neighbor.point().id());
+            if (location != null) {
+                result.add(new NearbyLocation(location, neighbor.distanceKm()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Busca las ubicaciones dentro de un rectángulo de coordenadas.
+     *
+     * @throws IllegalArgumentException si el rectángulo no es válido.
+     */
+    public List<Location> findWithin(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        List<Integer> ids = locationSpatialIndex.within(minLatitude, minLongitude, maxLatitude, maxLongitude).stream()
+                .map(LocationSpatialIndex.Point::id)
+                .toList();
+        Map<Integer, Location> locations = loadAndPrune(ids);
+        return ids.stream().map(locations::get).filter(location -> location != null).toList();
+    }
+
+    /**
+     * Busca ubicaciones de la misma provincia con una dirección probablemente igual a la de `location`
+     * (la propia ubicación se omite si ya tiene ID).
+     *
+     * @return los candidatos del más parecido al menos parecido.
+     */
+    public List<DuplicateCandidate> findProbableDuplicates(Location location) {
+        Integer provinceId = location.getProvince() != null ? location.getProvince().getId() : null;
+        List<AddressDuplicateIndex.Match> matches = addressDuplicateIndex.findSimilar(location.getAddress(), provinceId, location.getId());
+        List<Integer> ids = matches.stream().map(AddressDuplicateIndex.Match::locationId).toList();
+        Map<Integer, Location> locations = locationDAO.getLocationsByIds(ids).stream()
+                .collect(Collectors.toMap(Location::getId, Function.identity()));
+        List<DuplicateCandidate> result = new ArrayList<>(matches.size());
+        for (AddressDuplicateIndex.Match match : matches) {
+            Location existing = locations.get(match.locationId());
+            if (existing != null) {
+                result.add(new DuplicateCandidate(existing, match.similarity()));
+            } else {
+                addressDuplicateIndex.remove(match.locationId()); // Borrada en cascada
+            }
+        }
+        return result;
+    }
+
+    // Carga las ubicaciones y quita del índice las que ya no existen
+    private Map<Integer, Location> loadAndPrune(List<Integer> ids) {
+        Map<Integer, Location> locations = locationDAO.getLocationsByIds(ids).stream()
+                .collect(Collectors.toMap(Location::getId, Function.identity()));
+        for (Integer id : ids) {
+            if (!locations.containsKey(id)) {
+                locationSpatialIndex.remove(id);
+            }
+        }
+        return locations;
+    }
+}
@@ -0,0 +1,298 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.LocationDAO;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Índice espacial en memoria de las ubicaciones con coordenadas: una rejilla de celdas de
+ * `app.locations.grid-cell-degrees` grados en la que cada celda guarda sus puntos.
+ *
+ * - Los k vecinos más cercanos se buscan recorriendo anillos de celdas alrededor del punto hasta que
+ *   la distancia mínima posible a los anillos siguientes supera la del k-ésimo candidato.
+ * - Las búsquedas por rectángulo solo visitan las celdas que lo cubren.
+ *
+ * Si hay más celdas que recorrer que celdas ocupadas, se comprueban todos los puntos directamente.
+ * `LocationDAOImpl` mantiene el índice al día tras cada alta, cambio o baja confirmada. Las lecturas
+ * usan una copia inmutable de la rejilla, así que no se bloquean entre sí ni con las escrituras.
+ */
+@Service
+public class LocationSpatialIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationSpatialIndex.class);
+
+    // Radio medio de la Tierra en km
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    // Perezoso: LocationDAOImpl también depende de este índice
+    @Lazy
+    @Autowired
+    private LocationDAO locationDAO;
+
+    // Tamaño de las celdas de la rejilla en grados (0.05 grados son unos 5,5 km de latitud)
+    @Value("${app.locations.grid-cell-degrees:0.05}")
+    private double cellDegrees;
+
+    /**
+     * Ubicación indexada.
+     */
+    public record Point(int id, double latitude, double longitude) {
+    }
+
+    /**
+     * Ubicación encontrada y su distancia al punto de búsqueda.
+     */
+    public record Neighbor(Point point, double distanceKm) {
+    }
+
+    // Copia inmutable de la rejilla: puntos por celda y por ID
+    private record Grid(Map<Long, Point[]> cells, Map<Integer, Point> points) {
+    }
+
+    private volatile Grid grid = new Grid(Map.of(), Map.of());
+
+    /**
+     * Carga todas las ubicaciones con coordenadas cuando la aplicación está lista.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        Map<Long, List<Point>> cells = new HashMap<>();
+        Map<Integer, Point> points = new HashMap<>();
+        for (Location location : locationDAO.listAllLocations()) {
+            if (location.getLatitude() != null && location.getLongitude() != null) {
+                Point point = new Point(location.getId(), location.getLatitude(), location.getLongitude());
+                points.put(point.id(), point);
+                cells.computeIfAbsent(cellKey(point.latitude(), point.longitude()), key -> new ArrayList<>()).add(point);
+            }
+        }
+        Map<Long, Point[]> cellArrays = new HashMap<>();
+        cells.forEach((key, list) -> cellArrays.put(key, list.toArray(Point[]::new)));
+        synchronized (this) {
+            grid = new Grid(cellArrays, points);
+        }
+        logger.info("Spatial index loaded with {} locations in {} cells in {} ms", points.size(), cellArrays.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Indexa (o actualiza) una ubicación cuando se confirme la transacción en curso, o ya si no hay
+     * ninguna. Sin coordenadas, la ubicación se quita del índice.
+     */
+    public void indexAfterCommit(int id, Double latitude, Double longitude) {
+        TransactionCallbacks.afterCommit(() -> {
+            if (latitude != null && longitude != null) {
+                put(new Point(id, latitude, longitude));
+            } else {
+                remove(id);
+            }
+        });
+    }
+
+    /**
+     * Quita una ubicación del índice cuando se confirme la transacción en curso.
+     */
+    public void removeAfterCommit(int id) {
+        TransactionCallbacks.afterCommit(() -> remove(id));
+    }
+
+    /**
+     * Añade o mueve un punto.
+     */
+    public synchronized void put(Point point) {
+        Grid current = grid;
+        Map<Long, Point[]> cells = new HashMap<>(current.cells());
+        Map<Integer, Point> points = new HashMap<>(current.points());
+        Point previous = points.put(point.id(), point);
+        if (previous != null) {
+            removeFromCell(cells, previous);
+        }
+        long key = cellKey(point.latitude(), point.longitude());
+        Point[] cell = cells.getOrDefault(key, new Point[0]);
+        Point[] updated = Arrays.copyOf(cell, cell.length + 1);
+        updated[cell.length] = point;
+        cells.put(key, updated);
+        grid = new Grid(cells, points);
+    }
+
+    /**
+     * Quita un punto si está indexado.
+     */
+    public synchronized void remove(int id) {
+        Grid current = grid;
+        if (!current.points().containsKey(id)) {
+            return;
+        }
+        Map<Long, Point[]> cells = new HashMap<>(current.cells());
+        Map<Integer, Point> points = new HashMap<>(current.points());
+        removeFromCell(cells, points.remove(id));
+        grid = new Grid(cells, points);
+    }
+
+    public int size() {
+        return grid.points().size();
+    }
+
+    /**
+     * Busca las `k` ubicaciones más cercanas a un punto.
+     *
+     * @return las ubicaciones ordenadas de la más cercana a la más lejana.
+     */
+    public List<Neighbor> nearest(double latitude, double longitude, int k) {
+        Grid current = grid;
+        if (k <= 0 || current.points().isEmpty()) {
+            return List.of();
+        }
+        // Montículo de máximos con los k mejores candidatos: la cabeza es el más lejano
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(Comparator.comparingDouble(Neighbor::distanceKm).reversed());
+        int row = cellIndex(latitude);
+        int column = cellIndex(longitude);
+        int visited = 0;
+        for (int ring = 0; visited < current.points().size(); ring++) {
+            if ((ring == 0 ? 1 : 8L * ring) > current.cells().size()) {
+                // El anillo tiene más celdas de las que hay ocupadas: es más rápido mirar todos los puntos
+                best.clear();
+                consider(best, current.points().values(), latitude, longitude, k);
+                break;
+            }
+            for (int dRow = -ring; dRow <= ring; dRow++) {
+                // En las filas intermedias del anillo solo están las dos columnas de los extremos
+                int step = Math.abs(dRow) == ring ? 1 : 2 * ring;
+                for (int dColumn = -ring; dColumn <= ring; dColumn += step) {
+                    Point[] cell = current.cells().get(cellKey(row + dRow, column + dColumn));
+                    if (cell != null) {
+                        consider(best, Arrays.asList(cell), latitude, longitude, k);
+                        visited += cell.length;
+                    }
+                }
+            }
+            if (best.size() == k && best.peek().distanceKm() <= minDistanceBeyondRing(ring, latitude)) {
+                break;
+            }
+        }
+        List<Neighbor> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Neighbor::distanceKm));
+        return result;
+    }
+
+    /**
+     * Busca las ubicaciones dentro de un rectángulo de coordenadas.
+     *
+     * @return las ubicaciones ordenadas por ID.
+     * @throws IllegalArgumentException si el rectángulo no es válido.
+     */
+    public List<Point> within(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        if (minLatitude > maxLatitude || minLongitude > maxLongitude) {
+            throw new IllegalArgumentException("el rectángulo no es válido");
+        }
+        Grid current = grid;
+        List<Point> result = new ArrayList<>();
+        int firstRow = cellIndex(minLatitude);
+        int lastRow = cellIndex(maxLatitude);
+        int firstColumn = cellIndex(minLongitude);
+        int lastColumn = cellIndex(maxLongitude);
+        long covered = (long) (lastRow - firstRow + 1) * (lastColumn - firstColumn + 1);
+        if (covered > current.cells().size()) {
+            for (Point point : current.points().values()) {
+                if (inside(point, minLatitude, minLongitude, maxLatitude, maxLongitude)) {
+                    result.add(point);
+                }
+            }
+        } else {
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    Point[] cell = current.cells().get(cellKey(row, column));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (Point point : cell) {
+                        if (inside(point, minLatitude, minLongitude, maxLatitude, maxLongitude)) {
+                            result.add(point);
+                        }
+                    }
+                }
+            }
+        }
+        result.sort(Comparator.comparingInt(Point::id));
+        return result;
+    }
+
+    /**
+     * Distancia del círculo máximo (fórmula del semiverseno) en km.
+     */
+    public static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double dLatitude = Math.toRadians(latitude2 - latitude1);
+        double dLongitude = Math.toRadians(longitude2 - longitude1);
+        double a = Math.pow(Math.sin(dLatitude / 2), 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * Math.pow(Math.sin(dLongitude / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static void consider(PriorityQueue<Neighbor> best, Collection<Point> points, double latitude, double longitude, int k) {
+        for (Point point : points) {
+            double distance = distanceKm(latitude, longitude, point.latitude(), point.longitude());
+            if (best.size() < k) {
+                best.add(new Neighbor(point, distance));
+            } else if (distance < best.peek().distanceKm()) {
+                best.poll();
+                best.add(new Neighbor(point, distance));
+            }
+        }
+    }
+
+    /**
+     * Cota inferior de la distancia a cualquier punto fuera de los anillos 0..ring: difiere del punto
+     * de búsqueda en más de `ring` celdas de latitud o de longitud.
+     */
+    private double minDistanceBeyondRing(int ring, double latitude) {
+        double gap = Math.toRadians(ring * cellDegrees);
+        double byLatitude = EARTH_RADIUS_KM * gap;
+        double maxLatitude = Math.toRadians(Math.min(90, Math.abs(latitude) + (ring + 1) * cellDegrees));
+        double byLongitude = 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.cos(maxLatitude) * Math.sin(gap / 2)));
+        return Math.min(byLatitude, byLongitude);
+    }
+
+    private static boolean inside(Point point, double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        return point.latitude() >= minLatitude && point.latitude() <= maxLatitude
+                && point.longitude() >= minLongitude && point.longitude() <= maxLongitude;
+    }
+
+    private void removeFromCell(Map<Long, Point[]> cells, Point point) {
+        long key = cellKey(point.latitude(), point.longitude());
+        Point[] cell = cells.get(key);
+        Point[] remaining = Arrays.stream(cell).filter(p -> p.id() != point.id()).toArray(Point[]::new);
+        if (remaining.length == 0) {
+            cells.remove(key);
+        } else {
+            cells.put(key, remaining);
+        }
+    }
+
+    private int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / cellDegrees);
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return cellKey(cellIndex(latitude), cellIndex(longitude));
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,224 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import jakarta.transaction.Transactional;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.PriceSeriesDAO;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.PriceSeriesBlock;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Ticket;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.TicketLine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Historial de precios de cada producto en cada ubicación. Las observaciones (fecha y precio
+ * unitario de cada línea de ticket importada) se guardan en bloques de `PriceSeriesCodec`, de modo
+ * que una consulta por rango solo lee y decodifica los bloques que lo cortan.
+ */
+@Service
+public class PriceHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryService.class);
+
+    private static final Comparator<Observation> BY_DAY = Comparator.comparingInt(Observation::day);
+
+    @Autowired
+    private PriceSeriesDAO priceSeriesDAO;
+
+    /**
+     * Resolución de las consultas agregadas.
+     */
+    public enum Resolution { DAY, WEEK, MONTH }
+
+    /**
+     * Precio observado en una fecha.
+     */
+    public record PricePoint(LocalDate date, BigDecimal price) {
+    }
+
+    /**
+     * Resumen de las observaciones de un periodo: primer, máximo, mínimo, último y precio medio.
+     */
+    public record PriceBucket(LocalDate start, BigDecimal open, BigDecimal high, BigDecimal low, BigDecimal close,
+                              BigDecimal average, int count) {
+    }
+
+    private record SeriesKey(String product, int locationId) {
+    }
+
+    private record Observation(int day, long cents) {
+    }
+
+    /**
+     * Añade al historial los precios de las líneas de los tickets, en una sola transacción.
+     *
+     * @param tickets tickets importados.
+     */
+    @Transactional
+    public void recordTickets(List<Ticket> tickets) {
+        Map<SeriesKey, List<Observation>> observationsBySeries = new LinkedHashMap<>();
+        for (Ticket ticket : tickets) {
+            int day = (int) ticket.getTicketDate().toEpochDay();
+            for (TicketLine line : ticket.getLines()) {
+                SeriesKey key = new SeriesKey(normalizeProduct(line.getProduct()), ticket.getLocation().getId());
+                observationsBySeries.computeIfAbsent(key, k -> new ArrayList<>()).add(new Observation(day, toCents(line.getUnitPrice())));
+            }
+        }
+        observationsBySeries.forEach(this::appendToSeries);
+        logger.info("Recorded prices for {} series from {} tickets", observationsBySeries.size(), tickets.size());
+    }
+
+    /**
+     * Devuelve las observaciones de una serie dentro de un rango de fechas, ordenadas por fecha.
+     *
+     * @param product    nombre del producto (se normaliza).
+     * @param locationId ID de la ubicación.
+     * @param from       primera fecha incluida.
+     * @param to         última fecha incluida.
+     */
+    public List<PricePoint> getHistory(String product, int locationId, LocalDate from, LocalDate to) {
+        return loadRange(product, locationId, from, to).stream()
+                .map(observation -> new PricePoint(LocalDate.ofEpochDay(observation.day()), BigDecimal.valueOf(observation.cents(), 2)))
+                .toList();
+    }
+
+    /**
+     * Devuelve una serie reducida a un resumen por día, semana (desde el lunes) o mes.
+     *
+     * @param product    nombre del producto (se normaliza).
+     * @param locationId ID de la ubicación.
+     * @param from       primera fecha incluida.
+     * @param to         última fecha incluida.
+     * @param resolution tamaño de cada periodo.
+     */
+    public List<PriceBucket> getDownsampledHistory(String product, int locationId, LocalDate from, LocalDate to, Resolution resolution) {
+        List<PriceBucket> buckets = new ArrayList<>();
+        List<Observation> observations = loadRange(product, locationId, from, to);
+        int start = 0;
+        while (start < observations.size()) {
+            LocalDate bucketStart = bucketStart(observations.get(start).day(), resolution);
+            long open = observations.get(start).cents();
+            long high = open;
+            long low = open;
+            long sum = 0;
+            int end = start;
+            while (end < observations.size() && bucketStart(observations.get(end).day(), resolution).equals(bucketStart)) {
+                long cents = observations.get(end).cents();
+                high = Math.max(high, cents);
+                low = Math.min(low, cents);
+                sum += cents;
+                end++;
+            }
+            int count = end - start;
+            buckets.add(new PriceBucket(bucketStart, BigDecimal.valueOf(open, 2), BigDecimal.valueOf(high, 2),
+                    BigDecimal.valueOf(low, 2), BigDecimal.valueOf(observations.get(end - 1).cents(), 2),
+                    BigDecimal.valueOf(sum, 2).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP), count));
+            start = end;
+        }
+        return buckets;
+    }
+
+    /**
+     * Lista los productos con historial en una ubicación.
+     */
+    public List<String> listProducts(int locationId) {
+        return priceSeriesDAO.listProducts(locationId);
+    }
+
+    /**
+     * Normaliza el nombre de un producto para usarlo como clave de la serie: sin espacios repetidos
+     * y en mayúsculas.
+     */
+    public static String normalizeProduct(String product) {
+        String normalized = product.strip().replaceAll("\\s+", " ").toUpperCase(Locale.ROOT);
+        return normalized.length() > 255 ? normalized.substring(0, 255) : normalized;
+    }
+
+    // Une las observaciones nuevas al último bloque de la serie mientras tenga hueco y crea bloques para el resto
+    private void appendToSeries(SeriesKey key, List<Observation> observations) {
+        List<Observation> pending = new ArrayList<>(observations);
+        pending.sort(BY_DAY);
+        PriceSeriesBlock last = priceSeriesDAO.getLastBlock(key.product(), key.locationId());
+        if (last != null && last.getPointCount() < PriceSeriesCodec.MAX_POINTS) {
+            List<Observation> merged = decode(last);
+            merged.addAll(pending);
+            merged.sort(BY_DAY); // Ordenación estable: a igual día se conserva el orden de llegada
+            int size = Math.min(PriceSeriesCodec.MAX_POINTS, merged.size());
+            fill(last, merged.subList(0, size));
+            priceSeriesDAO.saveBlock(last);
+            pending = merged.subList(size, merged.size());
+        }
+        for (int from = 0; from < pending.size(); from += PriceSeriesCodec.MAX_POINTS) {
+            Location location = new Location(); // Solo el ID: PriceSeriesDAO la resuelve al guardar el bloque
+            location.setId(key.locationId());
+            PriceSeriesBlock block = new PriceSeriesBlock();
+            block.setProduct(key.product());
+            block.setLocation(location);
+            fill(block, pending.subList(from, Math.min(from + PriceSeriesCodec.MAX_POINTS, pending.size())));
+            priceSeriesDAO.saveBlock(block);
+        }
+    }
+
+    private List<Observation> loadRange(String product, int locationId, LocalDate from, LocalDate to) {
+        int first = (int) from.toEpochDay();
+        int last = (int) to.toEpochDay();
+        List<Observation> observations = new ArrayList<>();
+        for (PriceSeriesBlock block : priceSeriesDAO.listBlocks(normalizeProduct(product), locationId, from, to)) {
+            for (Observation observation : decode(block)) {
+                if (observation.day() >= first && observation.day() <= last) {
+                    observations.add(observation);
+                }
+            }
+        }
+        // Los bloques pueden solaparse si llegan tickets atrasados
+        observations.sort(BY_DAY);
+        return observations;
+    }
+
+    private static List<Observation> decode(PriceSeriesBlock block) {
+        PriceSeriesCodec.Points points = PriceSeriesCodec.decode(block.getData());
+        List<Observation> observations = new ArrayList<>(points.size());
+        for (int i = 0; i < points.size(); i++) {
+            observations.add(new Observation(points.days()[i], points.cents()[i]));
+        }
+        return observations;
+    }
+
+    private static void fill(PriceSeriesBlock block, List<Observation> observations) {
+        int[] days = new int[observations.size()];
+        long[] cents = new long[observations.size()];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = observations.get(i).day();
+            cents[i] = observations.get(i).cents();
+        }
+        block.setFirstDay(LocalDate.ofEpochDay(days[0]));
+        block.setLastDay(LocalDate.ofEpochDay(days[days.length - 1]));
+        block.setPointCount(days.length);
+        block.setData(PriceSeriesCodec.encode(days, cents, days.length));
+    }
+
+    private static LocalDate bucketStart(int day, Resolution resolution) {
+        LocalDate date = LocalDate.ofEpochDay(day);
+        return switch (resolution) {
+            case DAY -> date;
+            case WEEK -> date.with(DayOfWeek.MONDAY);
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
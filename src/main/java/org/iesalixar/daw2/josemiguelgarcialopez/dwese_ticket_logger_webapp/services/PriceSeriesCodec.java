@@ -0,0 +1,120 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Codificación compacta de un bloque de observaciones de precio (día, precio en céntimos) ordenadas
+ * por día. Se guarda el primer punto y, para los siguientes, la diferencia con el anterior:
+ *
+ * <pre>
+ * varint(n) zigzag(día0) zigzag(precio0) { varint(díaᵢ - díaᵢ₋₁) zigzag(precioᵢ - precioᵢ₋₁) }
+ * </pre>
+ *
+ * Los varint usan 7 bits por byte, así que una observación al día siguiente con el mismo precio ocupa
+ * dos bytes, frente a los más de 20 de una fila sin comprimir.
+ */
+public final class PriceSeriesCodec {
+
+    // Observaciones máximas por bloque (peor caso: 256 × 15 bytes, por debajo de los 4096 de la columna)
+    public static final int MAX_POINTS = 256;
+
+    /**
+     * Observaciones decodificadas de un bloque.
+     *
+     * @param days  días (`LocalDate.toEpochDay()`) en orden no decreciente.
+     * @param cents precio de cada observación en céntimos.
+     */
+    public record Points(int[] days, long[] cents) {
+
+        public int size() {
+            return days.length;
+        }
+    }
+
+    private PriceSeriesCodec() {
+    }
+
+    /**
+     * Codifica las primeras `count` observaciones.
+     *
+     * @throws IllegalArgumentException si los días no están ordenados o hay más de `MAX_POINTS`.
+     */
+    public static byte[] encode(int[] days, long[] cents, int count) {
+        if (count > MAX_POINTS) {
+            throw new IllegalArgumentException("un bloque admite como máximo " + MAX_POINTS + " observaciones");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(2 + count * 3);
+        writeVarint(out, count);
+        for (int i = 0; i < count; i++) {
+            if (i == 0) {
+                writeVarint(out, zigzag(days[0]));
+                writeVarint(out, zigzag(cents[0]));
+            } else {
+                long dayDelta = (long) days[i] - days[i - 1];
+                if (dayDelta < 0) {
+                    throw new IllegalArgumentException("las observaciones deben estar ordenadas por día");
+                }
+                writeVarint(out, dayDelta);
+                writeVarint(out, zigzag(cents[i] - cents[i - 1]));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodifica un bloque.
+     *
+     * @throws IllegalArgumentException si los datos están truncados o no son válidos.
+     */
+    public static Points decode(byte[] data) {
+        int[] position = {0};
+        int count = (int) readVarint(data, position);
+        if (count < 0 || count > MAX_POINTS) {
+            throw new IllegalArgumentException("bloque de precios no válido");
+        }
+        int[] days = new int[count];
+        long[] cents = new long[count];
+        for (int i = 0; i < count; i++) {
+            if (i == 0) {
+                days[0] = (int) unzigzag(readVarint(data, position));
+                cents[0] = unzigzag(readVarint(data, position));
+            } else {
+                days[i] = (int) (days[i - 1] + readVarint(data, position));
+                cents[i] = cents[i - 1] + unzigzag(readVarint(data, position));
+            }
+        }
+        return new Points(days, cents);
+    }
+
+    // Convierte un entero con signo en uno sin signo para que los valores pequeños negativos ocupen poco
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] data, int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position[0] >= data.length) {
+                throw new IllegalArgumentException("bloque de precios truncado");
+            }
+            byte b = data[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("varint demasiado largo");
+    }
+}
@@ -0,0 +1,164 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Analiza los ficheros de ticket (texto o CSV separado por ';') que exportan las apps de los supermercados.
+ * Formato, una entrada por línea (las líneas vacías y las que empiezan por '#' se ignoran):
+ *
+ * <pre>
+ * FECHA;2024-10-01
+ * UBICACION;Av. Canal Sur, s/n
+ * LINEA;Smartphones;Teléfono XYZ;1;199.90
+ * </pre>
+ *
+ * La ubicación puede indicarse por su dirección o por su ID; la categoría, por su nombre. También se
+ * aceptan las claves DATE, LOCATION y LINE. Las direcciones se comparan normalizadas y, si no hay
+ * ninguna igual, se usa la única ubicación con una dirección muy parecida (`AddressDuplicateIndex`).
+ * Las búsquedas se hacen en memoria, así que una instancia puede usarse desde varios hilos a la vez.
+ */
+public class ReceiptParser {
+
+    private static final String SEPARATOR = ";";
+    private static final DateTimeFormatter SPANISH_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    /**
+     * Mapas de búsqueda construidos a partir de los DAO antes de empezar la importación.
+     *
+     * @param locationIdsByAddress IDs de ubicación por dirección normalizada con `AddressNormalizer`.
+     * @param locationIds          IDs de ubicación existentes (por si el ticket usa el ID).
+     * @param categoryIdsByName    IDs de categoría por nombre en mayúsculas.
+     * @param addressIndex         índice de direcciones parecidas, o null para exigir la dirección exacta.
+     */
+    public record Lookup(Map<String, Integer> locationIdsByAddress,
+                         Set<Integer> locationIds,
+                         Map<String, Integer> categoryIdsByName,
+                         AddressDuplicateIndex addressIndex) {
+    }
+
+    /**
+     * Línea de ticket ya resuelta contra las categorías existentes.
+     */
+    public record ParsedLine(int categoryId, String product, BigDecimal quantity, BigDecimal unitPrice) {
+    }
+
+    /**
+     * Ticket ya resuelto contra las ubicaciones existentes.
+     */
+    public record ParsedReceipt(String fileName, LocalDate date, int locationId, List<ParsedLine> lines) {
+    }
+
+    private final Lookup lookup;
+
+    public ReceiptParser(Lookup lookup) {
+        this.lookup = lookup;
+    }
+
+    /**
+     * Analiza un fichero de ticket.
+     *
+     * @param fileName nombre del fichero (para los mensajes de error).
+     * @param content  contenido del fichero en UTF-8.
+     * @return el ticket resuelto.
+     * @throws IllegalArgumentException si el formato no es válido o alguna referencia no existe.
+     */
+    public ParsedReceipt parse(String fileName, byte[] content) {
+        LocalDate date = null;
+        Integer locationId = null;
+        List<ParsedLine> lines = new ArrayList<>();
+
+        String[] rows = new String(content, StandardCharsets.UTF_8).split("\\R");
+        for (int i = 0; i < rows.length; i++) {
+            String row = rows[i].strip();
+            if (row.isEmpty() || row.startsWith("#")) {
+                continue;
+            }
+            String[] fields = row.split(SEPARATOR, -1);
+            int lineNumber = i + 1;
+            switch (fields[0].strip().toUpperCase(Locale.ROOT)) {
+                case "FECHA", "DATE" -> date = parseDate(field(fields, 1, lineNumber), lineNumber);
+                case "UBICACION", "LOCATION" -> locationId = resolveLocation(field(fields, 1, lineNumber), lineNumber);
+                case "LINEA", "LINE" -> lines.add(parseLine(fields, lineNumber));
+                default -> throw new IllegalArgumentException("línea " + lineNumber + ": entrada desconocida '" + fields[0] + "'");
+            }
+        }
+
+        if (date == null) {
+            throw new IllegalArgumentException("falta la fecha del ticket");
+        }
+        if (locationId == null) {
+            throw new IllegalArgumentException("falta la ubicación del ticket");
+        }
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("el ticket no tiene líneas");
+        }
+        return new ParsedReceipt(fileName, date, locationId, lines);
+    }
+
+    private ParsedLine parseLine(String[] fields, int lineNumber) {
+        String categoryName = field(fields, 1, lineNumber);
+        Integer categoryId = lookup.categoryIdsByName().get(categoryName.toUpperCase());
+        if (categoryId == null) {
+            throw new IllegalArgumentException("línea " + lineNumber + ": categoría desconocida '" + categoryName + "'");
+        }
+        String product = field(fields, 2, lineNumber);
+        BigDecimal quantity = parseDecimal(field(fields, 3, lineNumber), lineNumber);
+        BigDecimal unitPrice = parseDecimal(field(fields, 4, lineNumber), lineNumber);
+        return new ParsedLine(categoryId, product, quantity, unitPrice);
+    }
+
+    private int resolveLocation(String value, int lineNumber) {
+        Integer byAddress = lookup.locationIdsByAddress().get(AddressNormalizer.normalize(value));
+        if (byAddress != null) {
+            return byAddress;
+        }
+        if (value.length() < 10 && value.chars().allMatch(Character::isDigit) && lookup.locationIds().contains(Integer.parseInt(value))) {
+            return Integer.parseInt(value);
+        }
+        if (lookup.addressIndex() != null) {
+            // El índice puede tener ubicaciones borradas después de construir los mapas
+            List<AddressDuplicateIndex.Match> matches = lookup.addressIndex().findSimilar(value, null, null).stream()
+                    .filter(match -> lookup.locationIds().contains(match.locationId()))
+                    .toList();
+            if (matches.size() == 1 || (matches.size() > 1 && matches.get(0).similarity() > matches.get(1).similarity())) {
+                return matches.get(0).locationId();
+            }
+            if (!matches.isEmpty()) {
+                throw new IllegalArgumentException("línea " + lineNumber + ": ubicación ambigua '" + value + "'");
+            }
+        }
+        throw new IllegalArgumentException("línea " + lineNumber + ": ubicación desconocida '" + value + "'");
+    }
+
+    private static LocalDate parseDate(String value, int lineNumber) {
+        try {
+            return value.contains("/") ? LocalDate.parse(value, SPANISH_DATE) : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("línea " + lineNumber + ": fecha no válida '" + value + "'");
+        }
+    }
+
+    private static BigDecimal parseDecimal(String value, int lineNumber) {
+        try {
+            return new BigDecimal(value.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("línea " + lineNumber + ": número no válido '" + value + "'");
+        }
+    }
+
+    private static String field(String[] fields, int index, int lineNumber) {
+        if (index >= fields.length || fields[index].isBlank()) {
+            throw new IllegalArgumentException("línea " + lineNumber + ": falta el campo " + (index + 1));
+        }
+        return fields[index].strip();
+    }
+}
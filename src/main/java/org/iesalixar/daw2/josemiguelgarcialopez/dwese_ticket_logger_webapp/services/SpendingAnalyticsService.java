@@ -0,0 +1,247 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import jakarta.annotation.PreDestroy;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.CategoryDAO;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.LocationDAO;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.TicketDAO;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.TicketDAO.TicketLineFact;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Category;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Ticket;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.TicketLine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Consultas de gasto sobre las líneas de ticket a partir de un almacén columnar en memoria
+ * (`TicketLineColumns`) en lugar de cargar entidades con JPA. El almacén se llena al arrancar, en
+ * segundo plano, con una lectura de todas las líneas y se amplía con cada lote guardado por la
+ * importación de tickets.
+ *
+ * Las consultas comparten un bloqueo de lectura; la carga y las altas toman el de escritura. Las
+ * categorías y ubicaciones creadas después de cargar las dimensiones se leen una vez por lote, solo
+ * las que faltan.
+ */
+@Service
+public class SpendingAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpendingAnalyticsService.class);
+
+    @Autowired
+    private TicketDAO ticketDAO;
+
+    @Autowired
+    private LocationDAO locationDAO;
+
+    @Autowired
+    private CategoryDAO categoryDAO;
+
+    // Permite desactivar la carga al arrancar (por ejemplo, en las pruebas de carga)
+    @Value("${app.analytics.enabled:true}")
+    private boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TicketLineColumns columns = new TicketLineColumns();
+    // Tickets ya incluidos, para no contar dos veces los que se importan mientras se carga el almacén
+    private final BitSet ticketIds = new BitSet();
+    private volatile boolean loaded;
+
+    // La carga inicial se ejecuta fuera del hilo de arranque; mientras dura, `isLoaded` devuelve false
+    private final ExecutorService loadExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "analytics-load");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Empieza a cargar todas las líneas de ticket en el almacén cuando la aplicación está lista.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoad() {
+        if (!enabled) {
+            logger.info("Analytics store disabled (app.analytics.enabled=false).");
+            return;
+        }
+        loadExecutor.execute(this::load);
+    }
+
+    // Carga completa con el bloqueo de escritura: las consultas esperan a que termine
+    void load() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            refreshDimensions();
+            // Los tickets añadidos antes de la carga ya están en el almacén
+            BitSet appendedBefore = (BitSet) ticketIds.clone();
+            // Líneas de categorías o ubicaciones creadas después de leer las dimensiones
+            List<TicketLineFact> deferred = new ArrayList<>();
+            ticketDAO.forEachTicketLine(line -> {
+                if (appendedBefore.get(line.ticketId())) {
+                    return;
+                }
+                ticketIds.set(line.ticketId());
+                if (!columns.hasCategory(line.categoryId()) || !columns.hasLocation(line.locationId())) {
+                    deferred.add(line);
+                    return;
+                }
+                append(line.categoryId(), line.locationId(), line.ticketDate(), line.quantity(), line.unitPrice());
+            });
+            int skipped = 0;
+            if (!deferred.isEmpty()) {
+                defineMissing(deferred.stream().map(TicketLineFact::categoryId).toList(),
+                        deferred.stream().map(TicketLineFact::locationId).toList());
+                for (TicketLineFact line : deferred) {
+                    if (!append(line.categoryId(), line.locationId(), line.ticketDate(), line.quantity(), line.unitPrice())) {
+                        skipped++;
+                    }
+                }
+            }
+            loaded = true;
+            logger.info("Analytics store loaded with {} ticket lines ({} skipped) in {} ms", columns.size(), skipped,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            logger.error("Could not load the analytics store", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Añade al almacén las líneas de tickets recién guardados.
+     *
+     * @param tickets tickets ya persistidos (con ID).
+     */
+    public void appendTickets(List<Ticket> tickets) {
+        if (!enabled) {
+            return;
+        }
+        List<Integer> categoryIds = new ArrayList<>();
+        List<Integer> locationIds = new ArrayList<>();
+        for (Ticket ticket : tickets) {
+            locationIds.add(ticket.getLocation().getId());
+            for (TicketLine line : ticket.getLines()) {
+                categoryIds.add(line.getCategory().getId());
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            defineMissing(categoryIds, locationIds);
+            for (Ticket ticket : tickets) {
+                if (ticketIds.get(ticket.getId())) {
+                    continue;
+                }
+                ticketIds.set(ticket.getId());
+                for (TicketLine line : ticket.getLines()) {
+                    append(line.getCategory().getId(), ticket.getLocation().getId(), ticket.getTicketDate(),
+                            line.getQuantity(), line.getUnitPrice());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ejecuta una consulta de gasto sobre las líneas cargadas.
+     *
+     * @param query agrupaciones y filtros.
+     * @return las filas del resultado.
+     * @throws IllegalArgumentException si la consulta genera demasiados grupos.
+     */
+    public List<SpendingQuery.Row> querySpending(SpendingQuery query) {
+        lock.readLock().lock();
+        try {
+            return columns.aggregate(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return número de líneas de ticket cargadas.
+     */
+    public int getLineCount() {
+        lock.readLock().lock();
+        try {
+            return columns.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        loadExecutor.shutdownNow();
+    }
+
+    // Se llama con el bloqueo de escritura
+    private boolean append(int categoryId, int locationId, LocalDate ticketDate, BigDecimal quantity, BigDecimal unitPrice) {
+        long amountCents = quantity.multiply(unitPrice).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        if (!columns.append(categoryId, locationId, ticketDate, amountCents)) {
+            logger.warn("Skipping ticket line with unknown category {} or location {}", categoryId, locationId);
+            return false;
+        }
+        return true;
+    }
+
+    // Carga (o actualiza) las categorías y ubicaciones con sus provincias y supermercados
+    private void refreshDimensions() {
+        categoryDAO.listAllCategories().forEach(this::defineCategory);
+        locationDAO.listAllLocations().forEach(this::defineLocation);
+    }
+
+    // Lee solo las categorías y ubicaciones que aún no están en el almacén, con una consulta de cada tipo
+    private void defineMissing(List<Integer> categoryIds, List<Integer> locationIds) {
+        Set<Integer> missingCategories = new HashSet<>();
+        for (Integer id : categoryIds) {
+            if (!columns.hasCategory(id)) {
+                missingCategories.add(id);
+            }
+        }
+        Set<Integer> missingLocations = new HashSet<>();
+        for (Integer id : locationIds) {
+            if (!columns.hasLocation(id)) {
+                missingLocations.add(id);
+            }
+        }
+        if (!missingCategories.isEmpty()) {
+            categoryDAO.getCategoriesByIds(missingCategories).forEach(this::defineCategory);
+        }
+        if (!missingLocations.isEmpty()) {
+            locationDAO.getLocationsByIds(missingLocations).forEach(this::defineLocation);
+        }
+    }
+
+    private void defineCategory(Category category) {
+        Category parent = category.getParentCategory();
+        columns.defineCategory(category.getId(), category.getName(), parent != null ? parent.getId() : null);
+    }
+
+    private void defineLocation(Location location) {
+        columns.defineLocation(location.getId(), location.getAddress() + " (" + location.getCity() + ")",
+                location.getProvince().getId(), location.getProvince().getName(),
+                location.getSupermarket().getId(), location.getSupermarket().getName());
+    }
+}
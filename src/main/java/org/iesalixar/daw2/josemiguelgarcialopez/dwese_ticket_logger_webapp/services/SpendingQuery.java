@@ -0,0 +1,53 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consulta de gasto sobre las líneas de ticket: dimensiones por las que agrupar y filtros opcionales.
+ * Filtrar por una categoría incluye todo su subárbol; agrupar por categoría suma cada subárbol
+ * colgando de la categoría filtrada (o de las categorías raíz si no hay filtro).
+ *
+ * @param groupBy       dimensiones de agrupación, en el orden en que se devuelven.
+ * @param categoryId    categoría (con sus subcategorías) o null.
+ * @param provinceId    provincia o null.
+ * @param supermarketId supermercado o null.
+ * @param locationId    ubicación o null.
+ * @param from          primer mes incluido o null.
+ * @param to            último mes incluido o null.
+ */
+public record SpendingQuery(List<Dimension> groupBy,
+                            Integer categoryId,
+                            Integer provinceId,
+                            Integer supermarketId,
+                            Integer locationId,
+                            YearMonth from,
+                            YearMonth to) {
+
+    /**
+     * Dimensiones por las que se puede agrupar.
+     */
+    public enum Dimension { CATEGORY, PROVINCE, SUPERMARKET, LOCATION, MONTH }
+
+    public SpendingQuery {
+        groupBy = List.copyOf(groupBy);
+        if (groupBy.stream().distinct().count() != groupBy.size()) {
+            throw new IllegalArgumentException("dimensión de agrupación repetida: " + groupBy);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("el mes inicial es posterior al final");
+        }
+    }
+
+    /**
+     * Fila del resultado: los valores de cada dimensión agrupada, el importe total y el número de líneas.
+     *
+     * @param group valores por dimensión (en minúsculas): {id, name} o el mes "yyyy-MM".
+     * @param total importe total en euros.
+     * @param lines número de líneas de ticket sumadas.
+     */
+    public record Row(Map<String, Object> group, BigDecimal total, long lines) {
+    }
+}
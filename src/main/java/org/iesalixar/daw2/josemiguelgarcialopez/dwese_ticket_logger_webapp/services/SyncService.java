@@ -0,0 +1,143 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.EntityType;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.SyncDAO;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.reactive.CategoryRow;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.reactive.LocationRow;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.reactive.SupermarketRow;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sincronización incremental de supermercados, ubicaciones y categorías para clientes sin conexión
+ * permanente (la aplicación móvil). El cliente guarda el token de cada respuesta y lo envía en la
+ * siguiente; recibe solo las filas modificadas desde entonces y los IDs eliminados, así que el coste
+ * depende de lo que haya cambiado y no del tamaño del catálogo.
+ *
+ * - Cada transacción que cambia filas sincronizadas toma, con su primer `EntityChangeEvent`, el
+ *   siguiente valor de la secuencia `sync_sequence` y lo guarda en `sync_seq` de las filas que cambia
+ *   y en la lápida (`sync_tombstones`) de cada una que borra, también las de las ubicaciones
+ *   eliminadas en cascada. Todo va en la misma transacción que el cambio.
+ * - El contador queda bloqueado hasta que la transacción termina, así que los valores se confirman en
+ *   orden. El nuevo token es el último valor confirmado: los cambios con un valor menor ya están en la
+ *   respuesta y los que siguen pendientes recibirán uno mayor, por larga que sea su transacción. El
+ *   precio es que las transacciones que cambian filas sincronizadas se confirman de una en una.
+ * - Las cargas masivas de `BulkInsertDAO` no publican eventos: sus filas quedan con `sync_seq` 0 y
+ *   solo llegan en una sincronización completa.
+ * - Sin token, con uno de la versión anterior, o con uno cuyas lápidas ya ha borrado la retención
+ *   (`app.sync.tombstone-retention-days`), la respuesta es completa (`full = true`) y el cliente debe
+ *   sustituir lo que tiene.
+ */
+@Service
+public class SyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncService.class);
+
+    // Entidades que se sincronizan
+    private static final Set<EntityType> SYNCED = Set.of(EntityType.SUPERMARKET, EntityType.LOCATION, EntityType.CATEGORY);
+
+    @Autowired
+    private SyncDAO syncDAO;
+
+    // Clave con la que se guarda en la transacción en curso su valor de la secuencia
+    private static final Object SEQUENCE_KEY = SyncService.class.getName() + ".sequence";
+
+    // Días que se conservan las lápidas; un token más antiguo obliga a una sincronización completa
+    @Value("${app.sync.tombstone-retention-days:30}")
+    private int tombstoneRetentionDays;
+
+    /**
+     * Cambios desde la última sincronización.
+     *
+     * @param token     token de la respuesta anterior, o null para la primera sincronización.
+     * @param full      true si la respuesta lleva todas las filas y sustituye a lo que tiene el cliente.
+     * @param deleted   IDs eliminados por tipo de entidad (vacío en las respuestas completas).
+     */
+    public record Changes(String token, boolean full, List<SupermarketRow> supermarkets, List<LocationRow> locations,
+                          List<CategoryRow> categories, Map<EntityType, List<Integer>> deleted) {
+    }
+
+    /**
+     * Devuelve los cambios posteriores al token. Todas las consultas van en una transacción para que
+     * vean el mismo estado de la base de datos.
+     *
+     * @throws IllegalArgumentException si el token no es válido.
+     */
+    @Transactional
+    public Changes changesSince(String token) {
+        Long since = token != null && !token.isBlank() ? SyncToken.decode(token) : null;
+        long current = syncDAO.currentSequence();
+        // Un token posterior al contador viene de otra base de datos (por ejemplo, una restaurada)
+        boolean full = since == null || since < syncDAO.purgedSequence() || since > current;
+        if (full) {
+            since = null;
+        }
+        Changes changes = new Changes(SyncToken.encode(current), full,
+                syncDAO.listSupermarketsChangedAfter(since).stream().map(SupermarketRow::of).toList(),
+                syncDAO.listLocationsChangedAfter(since).stream().map(LocationRow::of).toList(),
+                syncDAO.listCategoriesChangedAfter(since).stream().map(CategoryRow::of).toList(),
+                full ? Map.of() : syncDAO.listTombstonesAfter(since, SYNCED));
+        logger.info("Sync since {} ({}): {} supermarkets, {} locations, {} categories, {} deleted types",
+                since, full ? "full" : "incremental", changes.supermarkets().size(), changes.locations().size(),
+                changes.categories().size(), changes.deleted().size());
+        return changes;
+    }
+
+    /**
+     * Anota cada cambio con el valor de la secuencia de su transacción (en la fila, o en la lápida si es
+     * una baja) dentro de la transacción que lo hace: si se deshace, la anotación tampoco queda.
+     */
+    @EventListener
+    public void onChange(EntityChangeEvent event) {
+        if (!SYNCED.contains(event.entityType())) {
+            return;
+        }
+        long sequence = transactionSequence();
+        if (event.operation() == EntityChangeEvent.Operation.DELETE) {
+            syncDAO.insertTombstone(event.entityType(), event.entityId(), sequence);
+        } else {
+            syncDAO.markChanged(event.entityType(), event.entityId(), sequence);
+        }
+    }
+
+    // Valor de la secuencia de la transacción en curso: se toma con su primer cambio y lo comparten
+    // los siguientes, así que el contador solo se incrementa (y se bloquea) una vez por transacción
+    private long transactionSequence() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return syncDAO.nextSequence();
+        }
+        Long sequence = (Long) TransactionSynchronizationManager.getResource(SEQUENCE_KEY);
+        if (sequence == null) {
+            sequence = syncDAO.nextSequence();
+            TransactionSynchronizationManager.bindResource(SEQUENCE_KEY, sequence);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SEQUENCE_KEY);
+                }
+            });
+        }
+        return sequence;
+    }
+
+    /**
+     * Borra las lápidas que superan la retención.
+     */
+    @Scheduled(cron = "${app.sync.purge-cron:0 45 3 * * *}")
+    public void purgeTombstones() {
+        syncDAO.deleteTombstonesBefore(syncDAO.currentTimestamp().minusDays(tombstoneRetentionDays));
+    }
+}
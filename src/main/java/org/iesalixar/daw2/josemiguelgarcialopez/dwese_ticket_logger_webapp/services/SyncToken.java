@@ -0,0 +1,55 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Token de la sincronización incremental. Para el cliente es un texto opaco que devuelve tal cual en
+ * la siguiente sincronización; dentro lleva una versión de formato y el último valor de la secuencia
+ * de cambios (`sync_sequence`) que ya tiene el cliente.
+ */
+final class SyncToken {
+
+    private static final String VERSION = "2";
+
+    // Los tokens de la versión 1 llevaban un instante; sus clientes hacen una sincronización completa
+    private static final String PREVIOUS_VERSION = "1";
+
+    private SyncToken() {
+    }
+
+    static String encode(long sequence) {
+        String text = VERSION + ":" + sequence;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @return la secuencia del token, o null si es de una versión anterior y hay que sincronizar todo.
+     * @throws IllegalArgumentException si el token no lo ha generado esta aplicación.
+     */
+    static Long decode(String token) {
+        String text;
+        try {
+            text = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+        int separator = text.indexOf(':');
+        String version = separator < 0 ? "" : text.substring(0, separator);
+        if (PREVIOUS_VERSION.equals(version) && text.substring(separator + 1).matches("-?\\d+")) {
+            return null;
+        }
+        if (!VERSION.equals(version)) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+        try {
+            long sequence = Long.parseLong(text.substring(separator + 1));
+            if (sequence < 0) {
+                throw new IllegalArgumentException("Invalid sync token");
+            }
+            return sequence;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progreso de una importación masiva de tickets. Los contadores se actualizan desde los hilos del
+ * pool de análisis y del guardado, y la vista los consulta con `snapshot()`.
+ */
+public class TicketImportProgress {
+
+    /**
+     * Fases de una importación.
+     */
+    public enum State { PARSING, STORING, DONE, FAILED }
+
+    /**
+     * Error al procesar un fichero concreto del archivo.
+     */
+    public record FileError(String fileName, String message) {
+    }
+
+    /**
+     * Copia inmutable del progreso, apta para serializar a JSON.
+     */
+    public record Snapshot(String id, State state, int totalFiles, int parsedFiles, int storedTickets,
+                           int failedFiles, List<FileError> errors, long elapsedMillis, String message) {
+    }
+
+    // Número máximo de errores que se guardan para mostrarlos (el contador sigue contando el resto)
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final String id;
+    private final Instant startedAt = Instant.now();
+    private final AtomicInteger parsedFiles = new AtomicInteger();
+    private final AtomicInteger storedTickets = new AtomicInteger();
+    private final AtomicInteger failedFiles = new AtomicInteger();
+    private final ConcurrentLinkedQueue<FileError> errors = new ConcurrentLinkedQueue<>();
+    private volatile int totalFiles;
+    private volatile State state = State.PARSING;
+    private volatile Instant finishedAt;
+    private volatile String message;
+
+    public TicketImportProgress(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    void setTotalFiles(int totalFiles) {
+        this.totalFiles = totalFiles;
+    }
+
+    void fileParsed() {
+        parsedFiles.incrementAndGet();
+    }
+
+    void fileFailed(String fileName, String error) {
+        parsedFiles.incrementAndGet();
+        if (failedFiles.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+            errors.add(new FileError(fileName, error));
+        }
+    }
+
+    void ticketsStored(int count) {
+        storedTickets.addAndGet(count);
+    }
+
+    void storing() {
+        state = State.STORING;
+    }
+
+    void done() {
+        finishedAt = Instant.now();
+        state = State.DONE;
+    }
+
+    void failed(String message) {
+        this.message = message;
+        finishedAt = Instant.now();
+        state = State.FAILED;
+    }
+
+    boolean isFinished() {
+        return state == State.DONE || state == State.FAILED;
+    }
+
+    /**
+     * Devuelve una copia del progreso actual.
+     *
+     * @return el estado, los contadores y los errores registrados hasta ahora.
+     */
+    public Snapshot snapshot() {
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        return new Snapshot(id, state, totalFiles, parsedFiles.get(), storedTickets.get(), failedFiles.get(),
+                List.copyOf(errors), Duration.between(startedAt, end).toMillis(), message);
+    }
+}
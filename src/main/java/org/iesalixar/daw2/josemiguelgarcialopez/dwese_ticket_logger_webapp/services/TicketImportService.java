@@ -0,0 +1,284 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import jakarta.annotation.PreDestroy;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.CategoryDAO;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.LocationDAO;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.TicketDAO;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Category;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Ticket;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.TicketLine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Importación masiva de tickets a partir de un archivo ZIP con ficheros de ticket (.txt o .csv).
+ * Los ficheros se analizan en paralelo en un pool fork/join contra mapas en memoria de ubicaciones y
+ * categorías construidos una sola vez con los DAO, y los tickets resultantes se guardan por lotes.
+ * La importación se ejecuta en segundo plano y su progreso se consulta con `getProgress`.
+ */
+@Service
+public class TicketImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketImportService.class);
+
+    // Número de ficheros por debajo del cual una tarea fork/join deja de dividirse
+    private static final int PARSE_THRESHOLD = 32;
+
+    // Número de importaciones terminadas que se conservan para consultar su resultado
+    private static final int MAX_FINISHED_JOBS = 20;
+
+    @Autowired
+    private LocationDAO locationDAO;
+
+    @Autowired
+    private CategoryDAO categoryDAO;
+
+    @Autowired
+    private TicketDAO ticketDAO;
+
+    @Autowired
+    private SpendingAnalyticsService spendingAnalyticsService;
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private AddressDuplicateIndex addressDuplicateIndex;
+
+    // Tickets que se guardan en cada transacción
+    @Value("${app.tickets.import.batch-size:500}")
+    private int storeBatchSize;
+
+    // Tamaño máximo descomprimido del archivo, para no agotar la memoria con un ZIP malicioso
+    @Value("${app.tickets.import.max-uncompressed-bytes:268435456}")
+    private long maxUncompressedBytes;
+
+    // Número máximo de entradas del archivo (también las que se ignoran), por el mismo motivo
+    @Value("${app.tickets.import.max-entries:100000}")
+    private int maxEntries;
+
+    // Pool fork/join para analizar los ficheros en paralelo
+    private final ForkJoinPool parsePool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    // Las importaciones se ejecutan de una en una, fuera del hilo de la petición
+    private final ExecutorService importExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ticket-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, TicketImportProgress> imports = new ConcurrentHashMap<>();
+
+    /**
+     * Fichero de ticket extraído del archivo.
+     */
+    record ReceiptFile(String name, byte[] content) {
+    }
+
+    /**
+     * Lee el archivo subido y lanza su importación en segundo plano.
+     *
+     * @param archive archivo ZIP con los ficheros de ticket.
+     * @return el progreso de la importación recién creada.
+     * @throws IOException si el archivo no se puede leer o supera el tamaño permitido.
+     */
+    public TicketImportProgress startImport(MultipartFile archive) throws IOException {
+        // El fichero temporal de la subida se borra al terminar la petición, así que se lee ahora
+        List<ReceiptFile> files;
+        try (InputStream in = archive.getInputStream()) {
+            files = readArchive(in);
+        }
+        TicketImportProgress progress = new TicketImportProgress(UUID.randomUUID().toString());
+        progress.setTotalFiles(files.size());
+        pruneFinishedImports();
+        imports.put(progress.getId(), progress);
+        logger.info("Import {} queued with {} receipt files from {}", progress.getId(), files.size(), archive.getOriginalFilename());
+        importExecutor.submit(() -> runImport(files, progress));
+        return progress;
+    }
+
+    /**
+     * Devuelve el progreso de una importación.
+     *
+     * @param id identificador de la importación.
+     * @return el progreso o null si no existe.
+     */
+    public TicketImportProgress getProgress(String id) {
+        return imports.get(id);
+    }
+
+    private void runImport(List<ReceiptFile> files, TicketImportProgress progress) {
+        long start = System.nanoTime();
+        try {
+            ReceiptParser parser = new ReceiptParser(buildLookup());
+            List<ReceiptParser.ParsedReceipt> receipts = parsePool.invoke(new ParseTask(files, 0, files.size(), parser, progress));
+            logger.info("Import {}: parsed {} receipts ({} files failed) in {} ms", progress.getId(), receipts.size(),
+                    progress.snapshot().failedFiles(), (System.nanoTime() - start) / 1_000_000);
+
+            progress.storing();
+            for (int from = 0; from < receipts.size(); from += storeBatchSize) {
+                List<Ticket> batch = receipts.subList(from, Math.min(from + storeBatchSize, receipts.size())).stream()
+                        .map(this::toTicket)
+                        .toList();
+                ticketDAO.insertTickets(batch);
+                spendingAnalyticsService.appendTickets(batch); // Mantiene al día el almacén de análisis
+                priceHistoryService.recordTickets(batch); // Añade los precios al historial
+                progress.ticketsStored(batch.size());
+            }
+            progress.done();
+            logger.info("Import {} finished in {} ms", progress.getId(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.error("Import {} failed", progress.getId(), e);
+            progress.failed(e.getMessage());
+        }
+    }
+
+    // Construye los mapas de búsqueda con una sola consulta por entidad
+    private ReceiptParser.Lookup buildLookup() {
+        Map<String, Integer> locationIdsByAddress = new HashMap<>();
+        Set<Integer> locationIds = new HashSet<>();
+        for (Location location : locationDAO.listAllLocations()) {
+            locationIdsByAddress.putIfAbsent(AddressNormalizer.normalize(location.getAddress()), location.getId());
+            locationIds.add(location.getId());
+        }
+        Map<String, Integer> categoryIdsByName = new HashMap<>();
+        for (Category category : categoryDAO.listAllCategories()) {
+            categoryIdsByName.putIfAbsent(category.getName().toUpperCase(), category.getId());
+        }
+        return new ReceiptParser.Lookup(Map.copyOf(locationIdsByAddress), Set.copyOf(locationIds), Map.copyOf(categoryIdsByName),
+                addressDuplicateIndex);
+    }
+
+    // Convierte un ticket analizado en la entidad; las relaciones solo llevan el ID y TicketDAO las
+    // sustituye por referencias gestionadas al guardar
+    private Ticket toTicket(ReceiptParser.ParsedReceipt receipt) {
+        Location location = new Location();
+        location.setId(receipt.locationId());
+        List<TicketLine> lines = new ArrayList<>(receipt.lines().size());
+        for (ReceiptParser.ParsedLine line : receipt.lines()) {
+            Category category = new Category();
+            category.setId(line.categoryId());
+            lines.add(new TicketLine(category, line.product(), line.quantity(), line.unitPrice()));
+        }
+        return new Ticket(receipt.date(), location, receipt.fileName(), lines);
+    }
+
+    // Extrae del ZIP los ficheros .txt y .csv, ignorando directorios y metadatos del sistema
+    private List<ReceiptFile> readArchive(InputStream in) throws IOException {
+        List<ReceiptFile> files = new ArrayList<>();
+        long totalBytes = 0;
+        int entries = 0;
+        try (ZipInputStream zip = new ZipInputStream(in)) {
+            ZipEntry entry;
+            byte[] buffer = new byte[8192];
+            while ((entry = zip.getNextEntry()) != null) {
+                if (++entries > maxEntries) {
+                    throw new IOException("El archivo supera el número de entradas permitido (" + maxEntries + ")");
+                }
+                String name = entry.getName();
+                String lowerName = name.toLowerCase(Locale.ROOT);
+                String baseName = name.substring(name.lastIndexOf('/') + 1);
+                if (entry.isDirectory() || name.startsWith("__MACOSX/") || baseName.startsWith(".")
+                        || !(lowerName.endsWith(".txt") || lowerName.endsWith(".csv"))) {
+                    continue;
+                }
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                int read;
+                while ((read = zip.read(buffer)) != -1) {
+                    totalBytes += read;
+                    if (totalBytes > maxUncompressedBytes) {
+                        throw new IOException("El archivo supera el tamaño descomprimido permitido (" + maxUncompressedBytes + " bytes)");
+                    }
+                    content.write(buffer, 0, read);
+                }
+                files.add(new ReceiptFile(name, content.toByteArray()));
+            }
+        }
+        return files;
+    }
+
+    // Elimina las importaciones terminadas más antiguas
+    private void pruneFinishedImports() {
+        List<TicketImportProgress> finished = imports.values().stream()
+                .filter(TicketImportProgress::isFinished)
+                .toList();
+        for (int i = 0; i < finished.size() - MAX_FINISHED_JOBS; i++) {
+            imports.remove(finished.get(i).getId());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        importExecutor.shutdownNow();
+        parsePool.shutdownNow();
+    }
+
+    /**
+     * Tarea fork/join que divide la lista de ficheros por la mitad hasta `PARSE_THRESHOLD` y
+     * analiza cada tramo de forma secuencial. Los resultados mantienen el orden del archivo.
+     */
+    private static final class ParseTask extends RecursiveTask<List<ReceiptParser.ParsedReceipt>> {
+
+        private final List<ReceiptFile> files;
+        private final int from;
+        private final int to;
+        private final ReceiptParser parser;
+        private final TicketImportProgress progress;
+
+        ParseTask(List<ReceiptFile> files, int from, int to, ReceiptParser parser, TicketImportProgress progress) {
+            this.files = files;
+            this.from = from;
+            this.to = to;
+            this.parser = parser;
+            this.progress = progress;
+        }
+
+        @Override
+        protected List<ReceiptParser.ParsedReceipt> compute() {
+            if (to - from <= PARSE_THRESHOLD) {
+                List<ReceiptParser.ParsedReceipt> parsed = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    ReceiptFile file = files.get(i);
+                    try {
+                        parsed.add(parser.parse(file.name(), file.content()));
+                        progress.fileParsed();
+                    } catch (IllegalArgumentException e) {
+                        progress.fileFailed(file.name(), e.getMessage());
+                    }
+                }
+                return parsed;
+            }
+            int middle = (from + to) >>> 1;
+            ParseTask left = new ParseTask(files, from, middle, parser, progress);
+            ParseTask right = new ParseTask(files, middle, to, parser, progress);
+            left.fork();
+            List<ReceiptParser.ParsedReceipt> result = new ArrayList<>(right.compute());
+            result.addAll(0, left.join());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.SpendingQuery.Dimension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Almacén columnar en memoria de las líneas de ticket. Cada línea ocupa una posición en un array
+ * primitivo por dimensión (categoría, provincia, supermercado, ubicación y mes, codificados con
+ * `IdDictionary`) y otro con el importe en céntimos: 28 bytes por línea y recorridos secuenciales
+ * sin crear objetos.
+ *
+ * Las consultas traducen cada filtro y agrupación a un array código → índice de grupo (-1 si la
+ * fila queda fuera), de modo que el recorrido solo hace búsquedas en arrays y sumas. Las filas se
+ * reparten en tramos que se recorren en paralelo en el pool común de fork/join.
+ *
+ * No es thread-safe: `SpendingAnalyticsService` serializa las escrituras frente a las lecturas.
+ */
+class TicketLineColumns {
+
+    // Número máximo de grupos de una consulta (cada tramo paralelo reserva dos long[] de este tamaño)
+    static final int MAX_GROUPS = 1 << 18;
+
+    // Filas mínimas por tramo para que compense repartir el recorrido entre hilos
+    private static final int MIN_ROWS_PER_TASK = 1 << 16;
+
+    private static final Dimension[] DIMENSIONS = Dimension.values();
+
+    private final IdDictionary categories = new IdDictionary();
+    private final IdDictionary provinces = new IdDictionary();
+    private final IdDictionary supermarkets = new IdDictionary();
+    private final IdDictionary locations = new IdDictionary();
+    private final IdDictionary months = new IdDictionary();
+
+    // Código de la categoría padre por código de categoría (-1 para las raíces)
+    private int[] categoryParent = new int[16];
+    // Códigos de provincia y supermercado por código de ubicación
+    private int[] locationProvince = new int[16];
+    private int[] locationSupermarket = new int[16];
+
+    // Una columna por dimensión, en el orden de `Dimension`, y el importe de cada línea en céntimos
+    private final int[][] columns = new int[DIMENSIONS.length][1024];
+    private long[] amountCents = new long[1024];
+    private int size;
+
+    /**
+     * Registra o actualiza una categoría.
+     *
+     * @param id       ID de la categoría.
+     * @param name     nombre de la categoría.
+     * @param parentId ID de la categoría padre o null.
+     */
+    void defineCategory(int id, String name, Integer parentId) {
+        int code = categories.encode(id, name);
+        // El padre puede no haberse registrado aún: se codifica ya y su nombre se fija al registrarlo
+        int parentCode = parentId != null ? categoryCode(parentId) : -1;
+        categoryParent = ensureCapacity(categoryParent, Math.max(code, parentCode));
+        categoryParent[code] = parentCode;
+    }
+
+    private int categoryCode(int id) {
+        int code = categories.code(id);
+        if (code >= 0) {
+            return code;
+        }
+        code = categories.encode(id, String.valueOf(id));
+        categoryParent = ensureCapacity(categoryParent, code);
+        categoryParent[code] = -1;
+        return code;
+    }
+
+    /**
+     * Registra o actualiza una ubicación. Las líneas ya cargadas conservan la provincia y el
+     * supermercado que tenía la ubicación al añadirlas.
+     */
+    void defineLocation(int id, String label, int provinceId, String provinceName, int supermarketId, String supermarketName) {
+        int code = locations.encode(id, label);
+        locationProvince = ensureCapacity(locationProvince, code);
+        locationSupermarket = ensureCapacity(locationSupermarket, code);
+        locationProvince[code] = provinces.encode(provinceId, provinceName);
+        locationSupermarket[code] = supermarkets.encode(supermarketId, supermarketName);
+    }
+
+    boolean hasCategory(int id) {
+        return categories.code(id) >= 0;
+    }
+
+    boolean hasLocation(int id) {
+        return locations.code(id) >= 0;
+    }
+
+    /**
+     * Añade una línea de ticket.
+     *
+     * @param categoryId  ID de la categoría.
+     * @param locationId  ID de la ubicación del ticket.
+     * @param ticketDate  fecha del ticket.
+     * @param amountCents importe de la línea (cantidad por precio) en céntimos.
+     * @return false si la categoría o la ubicación no están registradas.
+     */
+    boolean append(int categoryId, int locationId, LocalDate ticketDate, long amountCents) {
+        int category = categories.code(categoryId);
+        int location = locations.code(locationId);
+        if (category < 0 || location < 0) {
+            return false;
+        }
+        int month = months.encode(ticketDate.getYear() * 12 + ticketDate.getMonthValue() - 1, YearMonth.from(ticketDate).toString());
+        if (size == this.amountCents.length) {
+            int capacity = size + (size >> 1);
+            for (int d = 0; d < columns.length; d++) {
+                columns[d] = Arrays.copyOf(columns[d], capacity);
+            }
+            this.amountCents = Arrays.copyOf(this.amountCents, capacity);
+        }
+        columns[Dimension.CATEGORY.ordinal()][size] = category;
+        columns[Dimension.PROVINCE.ordinal()][size] = locationProvince[location];
+        columns[Dimension.SUPERMARKET.ordinal()][size] = locationSupermarket[location];
+        columns[Dimension.LOCATION.ordinal()][size] = location;
+        columns[Dimension.MONTH.ordinal()][size] = month;
+        this.amountCents[size] = amountCents;
+        size++;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Ejecuta una consulta de gasto.
+     *
+     * @param query agrupaciones y filtros.
+     * @return las filas con importe, ordenadas por las dimensiones agrupadas.
+     * @throws IllegalArgumentException si la consulta genera más de `MAX_GROUPS` grupos.
+     */
+    List<SpendingQuery.Row> aggregate(SpendingQuery query) {
+        int[][] maps = new int[DIMENSIONS.length][];
+        int[][] groupCodes = new int[DIMENSIONS.length][];
+        int[] radix = new int[DIMENSIONS.length];
+        long groups = 1;
+        for (Dimension dimension : DIMENSIONS) {
+            int d = dimension.ordinal();
+            int[] raw = rawGroups(dimension, query);
+            if (query.groupBy().contains(dimension)) {
+                // Compacta los códigos de grupo usados a índices 0..n-1
+                int[] indexByCode = new int[raw.length];
+                Arrays.fill(indexByCode, -1);
+                int[] codes = new int[raw.length];
+                int count = 0;
+                for (int code = 0; code < raw.length; code++) {
+                    int group = raw[code];
+                    if (group >= 0) {
+                        if (indexByCode[group] < 0) {
+                            indexByCode[group] = count;
+                            codes[count++] = group;
+                        }
+                        raw[code] = indexByCode[group];
+                    }
+                }
+                groupCodes[d] = Arrays.copyOf(codes, count);
+                radix[d] = count;
+            } else {
+                radix[d] = 1;
+            }
+            maps[d] = raw;
+            groups *= radix[d];
+        }
+        if (groups > MAX_GROUPS) {
+            throw new IllegalArgumentException("la consulta genera demasiados grupos (" + groups + ", máximo " + MAX_GROUPS + ")");
+        }
+
+        int rows = size;
+        int tasks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), rows / MIN_ROWS_PER_TASK));
+        int groupCount = (int) groups;
+        Partial total = IntStream.range(0, tasks).parallel()
+                .mapToObj(t -> scan(maps, radix, groupCount, (int) ((long) rows * t / tasks), (int) ((long) rows * (t + 1) / tasks)))
+                .reduce(Partial::merge)
+                .orElseGet(() -> new Partial(groupCount));
+
+        return toRows(query, total, groupCodes, radix);
+    }
+
+    // Recorre las filas [from, to) sumando cada importe en su grupo
+    private Partial scan(int[][] maps, int[] radix, int groups, int from, int to) {
+        Partial partial = new Partial(groups);
+        long[] sums = partial.sums;
+        long[] counts = partial.counts;
+        int[][] columns = this.columns;
+        long[] amounts = this.amountCents;
+        rows:
+        for (int row = from; row < to; row++) {
+            int key = 0;
+            for (int d = 0; d < maps.length; d++) {
+                int group = maps[d][columns[d][row]];
+                if (group < 0) {
+                    continue rows;
+                }
+                key = key * radix[d] + group;
+            }
+            sums[key] += amounts[row];
+            counts[key]++;
+        }
+        return partial;
+    }
+
+    // Traduce cada código de la dimensión a su código de grupo (-1 si lo excluye un filtro)
+    private int[] rawGroups(Dimension dimension, SpendingQuery query) {
+        boolean grouped = query.groupBy().contains(dimension);
+        return switch (dimension) {
+            case CATEGORY -> categoryGroups(query.categoryId(), grouped);
+            case PROVINCE -> idGroups(provinces, query.provinceId(), grouped);
+            case SUPERMARKET -> idGroups(supermarkets, query.supermarketId(), grouped);
+            case LOCATION -> idGroups(locations, query.locationId(), grouped);
+            case MONTH -> monthGroups(query.from(), query.to(), grouped);
+        };
+    }
+
+    private int[] idGroups(IdDictionary dictionary, Integer filterId, boolean grouped) {
+        int filter = filterId != null ? dictionary.code(filterId) : -1;
+        int[] raw = new int[dictionary.size()];
+        for (int code = 0; code < raw.length; code++) {
+            boolean included = filterId == null || code == filter;
+            raw[code] = !included ? -1 : grouped ? code : 0;
+        }
+        return raw;
+    }
+
+    private int[] monthGroups(YearMonth from, YearMonth to, boolean grouped) {
+        int first = from != null ? from.getYear() * 12 + from.getMonthValue() - 1 : Integer.MIN_VALUE;
+        int last = to != null ? to.getYear() * 12 + to.getMonthValue() - 1 : Integer.MAX_VALUE;
+        int[] raw = new int[months.size()];
+        for (int code = 0; code < raw.length; code++) {
+            int month = months.id(code);
+            boolean included = month >= first && month <= last;
+            raw[code] = !included ? -1 : grouped ? code : 0;
+        }
+        return raw;
+    }
+
+    private int[] categoryGroups(Integer filterId, boolean grouped) {
+        int filter = filterId != null ? categories.code(filterId) : -1;
+        int[] raw = new int[categories.size()];
+        for (int code = 0; code < raw.length; code++) {
+            int group = filterId != null && filter < 0 ? -1 : subtreeGroup(code, filter);
+            raw[code] = group < 0 ? -1 : grouped ? group : 0;
+        }
+        return raw;
+    }
+
+    /**
+     * Sube por los padres de la categoría hasta la categoría filtrada y devuelve el hijo directo de
+     * esta por el que se ha llegado (o la propia categoría filtrada si es ella). Sin filtro devuelve la
+     * raíz. Devuelve -1 si la categoría no pertenece al subárbol o si los padres forman un ciclo.
+     */
+    private int subtreeGroup(int code, int filter) {
+        int previous = code;
+        int node = code;
+        for (int steps = 0; node >= 0 && steps <= categories.size(); steps++) {
+            if (node == filter) {
+                return steps == 0 ? filter : previous;
+            }
+            int parent = categoryParent[node];
+            if (filter < 0 && parent < 0) {
+                return node;
+            }
+            previous = node;
+            node = parent;
+        }
+        return -1;
+    }
+
+    private List<SpendingQuery.Row> toRows(SpendingQuery query, Partial total, int[][] groupCodes, int[] radix) {
+        List<int[]> keys = new ArrayList<>();
+        for (int key = 0; key < total.counts.length; key++) {
+            if (total.counts[key] == 0) {
+                continue;
+            }
+            // Descompone la clave en el código de cada dimensión agrupada
+            int[] codes = new int[DIMENSIONS.length + 1];
+            int rest = key;
+            for (int d = DIMENSIONS.length - 1; d >= 0; d--) {
+                if (groupCodes[d] != null) {
+                    codes[d] = groupCodes[d][rest % radix[d]];
+                }
+                rest /= radix[d];
+            }
+            codes[DIMENSIONS.length] = key;
+            keys.add(codes);
+        }
+
+        Comparator<int[]> order = (a, b) -> 0;
+        for (Dimension dimension : query.groupBy()) {
+            int d = dimension.ordinal();
+            order = dimension == Dimension.MONTH
+                    ? order.thenComparingInt(codes -> months.id(codes[d]))
+                    : order.thenComparing(codes -> dictionary(dimension).label(codes[d]), String.CASE_INSENSITIVE_ORDER);
+        }
+        keys.sort(order);
+
+        List<SpendingQuery.Row> rows = new ArrayList<>(keys.size());
+        for (int[] codes : keys) {
+            Map<String, Object> group = new LinkedHashMap<>();
+            for (Dimension dimension : query.groupBy()) {
+                int code = codes[dimension.ordinal()];
+                IdDictionary dictionary = dictionary(dimension);
+                String name = dimension.name().toLowerCase();
+                if (dimension == Dimension.MONTH) {
+                    group.put(name, dictionary.label(code));
+                } else {
+                    Map<String, Object> value = new LinkedHashMap<>();
+                    value.put("id", dictionary.id(code));
+                    value.put("name", dictionary.label(code));
+                    group.put(name, value);
+                }
+            }
+            int key = codes[DIMENSIONS.length];
+            rows.add(new SpendingQuery.Row(group, BigDecimal.valueOf(total.sums[key], 2), total.counts[key]));
+        }
+        return rows;
+    }
+
+    private IdDictionary dictionary(Dimension dimension) {
+        return switch (dimension) {
+            case CATEGORY -> categories;
+            case PROVINCE -> provinces;
+            case SUPERMARKET -> supermarkets;
+            case LOCATION -> locations;
+            case MONTH -> months;
+        };
+    }
+
+    private static int[] ensureCapacity(int[] array, int index) {
+        return index < array.length ? array : Arrays.copyOf(array, Math.max(index + 1, array.length * 2));
+    }
+
+    /**
+     * Sumas parciales de un tramo de filas.
+     */
+    private static final class Partial {
+        private final long[] sums;
+        private final long[] counts;
+
+        Partial(int groups) {
+            sums = new long[groups];
+            counts = new long[groups];
+        }
+
+        Partial merge(Partial other) {
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += other.sums[i];
+                counts[i] += other.counts[i];
+            }
+            return this;
+        }
+    }
+}
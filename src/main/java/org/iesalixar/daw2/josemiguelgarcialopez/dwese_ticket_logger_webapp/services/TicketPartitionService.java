@@ -0,0 +1,144 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.TicketPartitionDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mantenimiento de las particiones mensuales de `tickets` y `ticket_lines` (ver la migración
+ * `db/vendor/mariadb/V6`). Al arrancar y cada día:
+ *
+ * - Crea las particiones del mes actual y de los `app.tickets.partitions.months-ahead` siguientes,
+ *   separándolas de `pmax` antes de que lleguen tickets de esas fechas.
+ * - Si `app.tickets.retention-months` es mayor que 0, elimina (`drop`) o archiva (`archive`, en
+ *   tablas `tabla_pAAAAMM`) las particiones anteriores al periodo de retención. Es una operación
+ *   sobre la definición de la tabla, no un DELETE fila a fila.
+ *
+ * En bases de datos sin particiones (H2 en las pruebas) no hace nada. Los datos ya cargados en
+ * memoria (análisis e historial de precios) no se ven afectados por la retención.
+ */
+@Service
+public class TicketPartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketPartitionService.class);
+
+    // Se borran antes las líneas que sus tickets
+    private static final List<String> TABLES = List.of("ticket_lines", "tickets");
+
+    @Autowired
+    private TicketPartitionDAO ticketPartitionDAO;
+
+    // Meses futuros para los que se crean particiones por adelantado
+    @Value("${app.tickets.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    // Meses completos que se conservan además del actual (0 = sin límite)
+    @Value("${app.tickets.retention-months:0}")
+    private int retentionMonths;
+
+    // Qué hacer con las particiones caducadas: "drop" o "archive"
+    @Value("${app.tickets.retention-action:archive}")
+    private String retentionAction;
+
+    /**
+     * Crea las particiones que falten al arrancar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        maintain();
+    }
+
+    /**
+     * Crea las particiones que falten y aplica la retención en todas las tablas de tickets.
+     */
+    @Scheduled(cron = "${app.tickets.partitions.cron:0 30 3 * * *}")
+    public synchronized void maintain() {
+        YearMonth current = YearMonth.now();
+        for (String table : TABLES) {
+            try {
+                if (!ticketPartitionDAO.isPartitioned(table)) {
+                    logger.debug("Table {} is not partitioned, skipping partition maintenance", table);
+                    continue;
+                }
+                List<TicketPartitionDAO.TicketPartition> partitions = ticketPartitionDAO.listPartitions(table);
+                LocalDate minDate = partitions.stream().anyMatch(partition -> partition.month() != null)
+                        ? null : ticketPartitionDAO.findMinTicketDate(table);
+                List<YearMonth> missing = monthsToAdd(partitions, minDate, current, monthsAhead);
+                if (!missing.isEmpty()) {
+                    ticketPartitionDAO.addMonthlyPartitions(table, missing);
+                }
+                for (TicketPartitionDAO.TicketPartition partition : expired(partitions, current, retentionMonths)) {
+                    if ("drop".equalsIgnoreCase(retentionAction)) {
+                        ticketPartitionDAO.dropPartition(table, partition.name());
+                        logger.info("Dropped partition {} of {} (~{} rows)", partition.name(), table, partition.rows());
+                    } else {
+                        String archive = ticketPartitionDAO.archivePartition(table, partition.name());
+                        logger.info("Archived partition {} of {} (~{} rows) into {}", partition.name(), table, partition.rows(), archive);
+                    }
+                }
+            } catch (DataAccessException | IllegalStateException e) {
+                logger.error("Partition maintenance failed for table {}", table, e);
+            }
+        }
+    }
+
+    /**
+     * Calcula los meses que hay que separar de `pmax`: desde el siguiente a la última partición
+     * mensual (o, si no hay ninguna, desde el mes del ticket más antiguo) hasta `monthsAhead` meses
+     * después del actual.
+     *
+     * @param partitions particiones actuales, en orden.
+     * @param minDate    fecha más antigua de la tabla, o null si está vacía o ya hay particiones mensuales.
+     * @param current    mes actual.
+     * @param monthsAhead meses futuros que deben tener partición.
+     */
+    static List<YearMonth> monthsToAdd(List<TicketPartitionDAO.TicketPartition> partitions, LocalDate minDate,
+                                       YearMonth current, int monthsAhead) {
+        YearMonth last = null;
+        for (TicketPartitionDAO.TicketPartition partition : partitions) {
+            if (partition.month() != null) {
+                last = partition.month();
+            }
+        }
+        YearMonth start;
+        if (last != null) {
+            start = last.plusMonths(1);
+        } else if (minDate != null && YearMonth.from(minDate).isBefore(current)) {
+            start = YearMonth.from(minDate);
+        } else {
+            start = current;
+        }
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = start; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        return months;
+    }
+
+    /**
+     * Devuelve las particiones mensuales anteriores al periodo de retención: se conservan el mes
+     * actual y los `retentionMonths` anteriores.
+     */
+    static List<TicketPartitionDAO.TicketPartition> expired(List<TicketPartitionDAO.TicketPartition> partitions,
+                                                            YearMonth current, int retentionMonths) {
+        if (retentionMonths <= 0) {
+            return List.of();
+        }
+        YearMonth cutoff = current.minusMonths(retentionMonths);
+        return partitions.stream()
+                .filter(partition -> partition.month() != null && partition.month().isBefore(cutoff))
+                .toList();
+    }
+}
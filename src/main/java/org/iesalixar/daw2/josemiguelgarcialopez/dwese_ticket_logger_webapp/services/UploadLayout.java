@@ -0,0 +1,60 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+/**
+ * Ubicación de los archivos subidos dentro de `UPLOAD_PATH`. Cada archivo va en dos niveles de
+ * subdirectorios tomados del hash de su nombre (`3f/a0/nombre.png`), hasta 65.536 directorios, para
+ * que ningún directorio acumule cientos de miles de archivos. En la base de datos y en las URL
+ * (`/uploads/nombre.png`) se sigue usando solo el nombre.
+ *
+ * Los archivos anteriores están en la raíz (`legacyPath`) hasta que `UploadShardMigrator` los mueve;
+ * mientras tanto se buscan en los dos sitios.
+ */
+public final class UploadLayout {
+
+    private UploadLayout() {
+    }
+
+    /**
+     * Ruta relativa del archivo en el directorio de subidas, con '/' ("3f/a0/nombre.png").
+     *
+     * @throws IllegalArgumentException si el nombre no es un nombre de archivo simple.
+     */
+    public static String relativePath(String fileName) {
+        String hash = String.format("%08x", crc(checkName(fileName)));
+        return hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + fileName;
+    }
+
+    /**
+     * Ruta del archivo en el directorio de subidas.
+     */
+    public static Path resolve(Path root, String fileName) {
+        String relative = relativePath(fileName);
+        return root.resolve(relative.substring(0, 2)).resolve(relative.substring(3, 5)).resolve(fileName);
+    }
+
+    /**
+     * Ruta del archivo en la raíz del directorio de subidas, donde se guardaba antes de repartirlos.
+     */
+    public static Path legacyPath(Path root, String fileName) {
+        return root.resolve(checkName(fileName));
+    }
+
+    // Un nombre con separadores o "..", venga de donde venga, no debe salir del directorio de subidas
+    private static String checkName(String fileName) {
+        if (fileName == null || fileName.isEmpty() || fileName.equals(".") || fileName.equals("..")
+                || fileName.indexOf('/') >= 0 || fileName.indexOf('\\') >= 0) {
+            throw new IllegalArgumentException("Invalid upload file name: " + fileName);
+        }
+        return fileName;
+    }
+
+    private static long crc(String fileName) {
+        CRC32 crc = new CRC32();
+        crc.update(fileName.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,220 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.CategoryDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Borra los archivos del directorio de subidas (`UPLOAD_PATH`) que ya no referencia ninguna categoría:
+ * imágenes sustituidas en una edición, o guardadas antes de que fallara el alta. Cada día:
+ *
+ * 1. Recorre el directorio (y sus subdirectorios) en paralelo, con `app.uploads.reconciler.parallelism`
+ *    hilos, y se queda con los archivos modificados hace más de `app.uploads.reconciler.grace-hours`.
+ * 2. Lee después las imágenes referenciadas en `categories`. Leerlas después del recorrido y el margen
+ *    de gracia evitan borrar una imagen que se acaba de subir y aún no se ha guardado su categoría.
+ * 3. Borra las huérfanas en lotes de `app.uploads.reconciler.batch-size`, con una pausa de
+ *    `app.uploads.reconciler.batch-pause-ms` entre lotes para no saturar el disco.
+ *
+ * Registra en el log los archivos y bytes recuperados, y los acumula en las métricas
+ * `app.uploads.orphans.deleted` y `app.uploads.orphans.reclaimed` (bytes).
+ */
+@Service
+public class UploadReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadReconciler.class);
+
+    @Value("${UPLOAD_PATH}")
+    private String uploadPath;
+
+    @Value("${app.uploads.reconciler.enabled:true}")
+    private boolean enabled;
+
+    // Antigüedad mínima de un archivo para considerarlo huérfano
+    @Value("${app.uploads.reconciler.grace-hours:24}")
+    private long graceHours;
+
+    @Value("${app.uploads.reconciler.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.uploads.reconciler.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.uploads.reconciler.batch-pause-ms:200}")
+    private long batchPauseMs;
+
+    private final CategoryDAO categoryDAO;
+    private final Counter deletedFiles;
+    private final Counter reclaimedBytes;
+
+    /**
+     * Resultado de una pasada.
+     *
+     * @param scanned        archivos encontrados.
+     * @param orphans        archivos sin referencia y fuera del margen de gracia.
+     * @param deleted        archivos borrados.
+     * @param reclaimedBytes bytes liberados.
+     */
+    public record Report(int scanned, int orphans, int deleted, long reclaimedBytes, Duration elapsed) {
+    }
+
+    // Archivo encontrado en el recorrido: ruta, nombre (el que se guarda en la base de datos), tamaño y fecha
+    record StoredFile(Path path, String name, long size, Instant modified) {
+    }
+
+    public UploadReconciler(CategoryDAO categoryDAO, MeterRegistry meterRegistry) {
+        this.categoryDAO = categoryDAO;
+        this.deletedFiles = Counter.builder("app.uploads.orphans.deleted")
+                .description("Archivos subidos huérfanos borrados")
+                .register(meterRegistry);
+        this.reclaimedBytes = Counter.builder("app.uploads.orphans.reclaimed")
+                .description("Espacio liberado al borrar archivos subidos huérfanos")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.uploads.reconciler.cron:0 15 4 * * *}")
+    public void scheduledReconcile() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            reconcile();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Upload reconciliation failed", e);
+        }
+    }
+
+    /**
+     * Hace una pasada completa: recorre, compara con la base de datos y borra las huérfanas.
+     */
+    public synchronized Report reconcile() throws IOException {
+        long start = System.nanoTime();
+        Path root = Paths.get(uploadPath);
+        if (!Files.isDirectory(root)) {
+            logger.info("Upload directory {} does not exist, nothing to reconcile", root.toAbsolutePath());
+            return new Report(0, 0, 0, 0, Duration.ZERO);
+        }
+        List<StoredFile> files = scan(root, parallelism);
+        Set<String> referenced = new HashSet<>(categoryDAO.listAllImages());
+        List<StoredFile> orphans = orphans(files, referenced, Instant.now().minus(Duration.ofHours(graceHours)));
+
+        int deleted = 0;
+        long reclaimed = 0;
+        for (int i = 0; i < orphans.size(); i++) {
+            if (i > 0 && i % batchSize == 0 && !pause()) {
+                break;
+            }
+            StoredFile orphan = orphans.get(i);
+            try {
+                if (Files.deleteIfExists(orphan.path())) {
+                    deleted++;
+                    reclaimed += orphan.size();
+                }
+            } catch (IOException e) {
+                logger.warn("Could not delete orphaned upload {}: {}", orphan.name(), e.getMessage());
+            }
+        }
+        deletedFiles.increment(deleted);
+        reclaimedBytes.increment(reclaimed);
+        Report report = new Report(files.size(), orphans.size(), deleted, reclaimed,
+                Duration.ofNanos(System.nanoTime() - start));
+        logger.info("Upload reconciliation: {} files scanned, {} orphans, {} deleted, {} bytes reclaimed in {} ms",
+                report.scanned(), report.orphans(), report.deleted(), report.reclaimedBytes(), report.elapsed().toMillis());
+        return report;
+    }
+
+    /**
+     * Archivos que no están referenciados y se modificaron antes del límite de gracia.
+     */
+    static List<StoredFile> orphans(List<StoredFile> files, Set<String> referenced, Instant modifiedBefore) {
+        return files.stream()
+                .filter(file -> !referenced.contains(file.name()))
+                .filter(file -> file.modified().isBefore(modifiedBefore))
+                .toList();
+    }
+
+    /**
+     * Recorre el directorio en paralelo: cada subdirectorio es una tarea del pool. Se omiten los
+     * archivos ocultos (que empiezan por '.').
+     */
+    static List<StoredFile> scan(Path root, int parallelism) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            return pool.invoke(new ScanTask(root));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Devuelve false si se ha interrumpido el hilo durante la pausa
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Upload reconciliation interrupted");
+            return false;
+        }
+    }
+
+    private static final class ScanTask extends RecursiveTask<List<StoredFile>> {
+
+        private final Path dir;
+
+        ScanTask(Path dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        protected List<StoredFile> compute() {
+            List<StoredFile> files = new ArrayList<>();
+            List<ScanTask> subdirs = new ArrayList<>();
+            try (Stream<Path> entries = Files.list(dir)) {
+                for (Path entry : (Iterable<Path>) entries::iterator) {
+                    if (entry.getFileName().toString().startsWith(".")) {
+                        continue;
+                    }
+                    BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                    if (attributes.isDirectory()) {
+                        ScanTask task = new ScanTask(entry);
+                        task.fork();
+                        subdirs.add(task);
+                    } else if (attributes.isRegularFile()) {
+                        // Subdirectorio o raíz (aún sin migrar), la referencia es solo el nombre
+                        files.add(new StoredFile(entry, entry.getFileName().toString(), attributes.size(), attributes.lastModifiedTime().toInstant()));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            for (ScanTask task : subdirs) {
+                files.addAll(task.join());
+            }
+            return files;
+        }
+    }
+}
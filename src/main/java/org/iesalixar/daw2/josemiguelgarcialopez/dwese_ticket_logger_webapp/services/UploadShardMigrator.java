@@ -0,0 +1,126 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.stream.Stream;
+
+/**
+ * Mueve los archivos subidos que siguen en la raíz de `UPLOAD_PATH` a su subdirectorio (ver
+ * `UploadLayout`) sin parar la aplicación: mientras dura, `/uploads/**` los busca en los dos sitios y
+ * cada archivo se mueve con un `rename` atómico, así que siempre está en uno de ellos.
+ *
+ * Se ejecuta en segundo plano al arrancar (`app.uploads.shard-migration.enabled`), en lotes de
+ * `batch-size` archivos con una pausa de `batch-pause-ms` entre lotes. Es idempotente: cuando ya no
+ * quedan archivos en la raíz no hace nada. También se puede lanzar aparte, con la aplicación en marcha:
+ *
+ * <pre>
+ * java -cp app.jar -Dloader.main=...services.UploadShardMigrator org.springframework.boot.loader.launch.PropertiesLauncher \
+ *      /ruta/de/uploads [--batch-size=500] [--pause-ms=100]
+ * </pre>
+ */
+@Component
+public class UploadShardMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadShardMigrator.class);
+
+    @Value("${UPLOAD_PATH}")
+    private String uploadPath;
+
+    @Value("${app.uploads.shard-migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.uploads.shard-migration.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.uploads.shard-migration.batch-pause-ms:100}")
+    private long batchPauseMs;
+
+    /**
+     * Lanza la migración en un hilo propio al arrancar, para no retrasar el arranque.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                migrate(Paths.get(uploadPath), batchSize, batchPauseMs);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Upload shard migration failed", e);
+            } catch (InterruptedException e) {
+                logger.warn("Upload shard migration interrupted");
+            }
+        }, "upload-shard-migration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Mueve a su subdirectorio los archivos de la raíz (salvo los ocultos).
+     *
+     * @return número de archivos movidos.
+     */
+    public static int migrate(Path root, int batchSize, long pauseMs) throws IOException, InterruptedException {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        int moved = 0;
+        int skipped = 0;
+        try (Stream<Path> entries = Files.list(root)) {
+            for (Path source : (Iterable<Path>) entries::iterator) {
+                String name = source.getFileName().toString();
+                if (name.startsWith(".") || !Files.isRegularFile(source)) {
+                    continue;
+                }
+                Path target = UploadLayout.resolve(root, name);
+                try {
+                    Files.createDirectories(target.getParent());
+                    Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+                    moved++;
+                } catch (FileAlreadyExistsException | AtomicMoveNotSupportedException e) {
+                    skipped++;
+                    logger.warn("Upload {} not moved: {}", name, e.toString());
+                }
+                if (moved > 0 && moved % batchSize == 0) {
+                    logger.info("Upload shard migration: {} files moved", moved);
+                    Thread.sleep(pauseMs);
+                }
+            }
+        }
+        if (moved > 0 || skipped > 0) {
+            logger.info("Upload shard migration finished: {} files moved, {} skipped", moved, skipped);
+        }
+        return moved;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.err.println("Usage: UploadShardMigrator <upload-dir> [--batch-size=N] [--pause-ms=MS]");
+            System.exit(2);
+        }
+        int batchSize = 500;
+        long pauseMs = 100;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--batch-size=")) {
+                batchSize = Integer.parseInt(args[i].substring("--batch-size=".length()));
+            } else if (args[i].startsWith("--pause-ms=")) {
+                pauseMs = Long.parseLong(args[i].substring("--pause-ms=".length()));
+            }
+        }
+        int moved = migrate(Paths.get(args[0]), batchSize, pauseMs);
+        System.out.println(moved + " files moved");
+    }
+}
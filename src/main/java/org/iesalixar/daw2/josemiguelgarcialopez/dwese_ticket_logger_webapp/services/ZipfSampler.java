@@ -0,0 +1,45 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Elige posiciones entre 0 y n - 1 con una distribución de Zipf: la posición k sale con probabilidad
+ * proporcional a 1 / (k + 1)^s. Con s = 0 es uniforme; con s ≈ 1 unas pocas posiciones se llevan la
+ * mayoría (las cadenas grandes tienen casi todas las tiendas, unas pocas tiendas casi todos los
+ * tickets). Es inmutable y se puede compartir entre hilos.
+ */
+final class ZipfSampler {
+
+    // Probabilidad acumulada hasta cada posición; null si es uniforme
+    private final double[] cumulative;
+    private final int n;
+
+    ZipfSampler(int n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be positive: " + n);
+        }
+        this.n = n;
+        if (exponent <= 0) {
+            cumulative = null;
+            return;
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+    }
+
+    int sample(RandomGenerator random) {
+        if (cumulative == null) {
+            return random.nextInt(n);
+        }
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(n - 1, index >= 0 ? index : -index - 1);
+    }
+}
@@ -0,0 +1,23 @@
+-- Secuencia de la sincronización incremental (/api/sync). Cada transacción que modifica supermercados,
+-- ubicaciones o categorías toma el siguiente valor de 'sync_sequence' y lo guarda en las filas que
+-- cambia y en las lápidas de las que borra. El UPDATE del contador bloquea su fila hasta que la
+-- transacción termina, así que los valores se confirman en orden: cuando se lee N, todo cambio con
+-- un valor menor o igual ya está confirmado y todo cambio pendiente recibirá uno mayor.
+CREATE TABLE IF NOT EXISTS sync_sequence (
+    id INT PRIMARY KEY,
+    last_value BIGINT NOT NULL,
+    purged_through BIGINT NOT NULL
+);
+
+INSERT INTO sync_sequence (id, last_value, purged_through) VALUES (1, 0, 0);
+
+-- Las filas existentes quedan con 0: llegan a los clientes en su próxima sincronización completa
+ALTER TABLE supermarkets ADD COLUMN sync_seq BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE locations ADD COLUMN sync_seq BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE categories ADD COLUMN sync_seq BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE sync_tombstones ADD COLUMN sync_seq BIGINT DEFAULT 0 NOT NULL;
+
+CREATE INDEX idx_supermarkets_sync_seq ON supermarkets (sync_seq);
+CREATE INDEX idx_locations_sync_seq ON locations (sync_seq);
+CREATE INDEX idx_categories_sync_seq ON categories (sync_seq);
+CREATE INDEX idx_sync_tombstones_sync_seq ON sync_tombstones (sync_seq);
@@ -0,0 +1,21 @@
+-- Crear la tabla 'tickets': un ticket de compra en una ubicación concreta
+CREATE TABLE IF NOT EXISTS tickets (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    ticket_date DATE NOT NULL,
+    location_id INT NOT NULL,
+    source_file VARCHAR(255) NULL,
+    FOREIGN KEY (location_id) REFERENCES locations(id)
+);
+
+-- Crear la tabla 'ticket_lines': las líneas de cada ticket, asociadas a una categoría
+CREATE TABLE IF NOT EXISTS ticket_lines (
+    ticket_id INT NOT NULL,
+    line_number INT NOT NULL,
+    category_id INT NOT NULL,
+    product VARCHAR(255) NOT NULL,
+    quantity DECIMAL(10, 3) NOT NULL,
+    unit_price DECIMAL(10, 2) NOT NULL,
+    PRIMARY KEY (ticket_id, line_number),
+    FOREIGN KEY (ticket_id) REFERENCES tickets(id),
+    FOREIGN KEY (category_id) REFERENCES categories(id)
+);
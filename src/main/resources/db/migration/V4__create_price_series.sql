@@ -0,0 +1,15 @@
+-- Crear la tabla 'price_series_blocks': historial de precios de cada producto en cada ubicación,
+-- guardado en bloques comprimidos (deltas codificados como varint) de hasta 256 observaciones
+CREATE TABLE IF NOT EXISTS price_series_blocks (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    product VARCHAR(255) NOT NULL,
+    location_id INT NOT NULL,
+    first_day DATE NOT NULL,
+    last_day DATE NOT NULL,
+    point_count INT NOT NULL,
+    data VARBINARY(4096) NOT NULL,
+    FOREIGN KEY (location_id) REFERENCES locations(id) ON DELETE CASCADE
+);
+
+-- Índice para las consultas por rango de fechas de una serie
+CREATE INDEX idx_price_series_blocks_series ON price_series_blocks (product, location_id, last_day);
@@ -0,0 +1,8 @@
+-- Añadir las coordenadas (WGS84, en grados) a las ubicaciones para las búsquedas por cercanía
+ALTER TABLE locations ADD COLUMN latitude DOUBLE NULL;
+ALTER TABLE locations ADD COLUMN longitude DOUBLE NULL;
+
+-- Coordenadas aproximadas de las ubicaciones de ejemplo
+UPDATE locations SET latitude = 37.3859, longitude = -6.0553 WHERE id = 1 AND latitude IS NULL;
+UPDATE locations SET latitude = 37.3767, longitude = -6.0459 WHERE id = 2 AND latitude IS NULL;
+UPDATE locations SET latitude = 37.3728, longitude = -6.0717 WHERE id = 3 AND latitude IS NULL;
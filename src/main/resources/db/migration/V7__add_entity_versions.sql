@@ -0,0 +1,6 @@
+-- Añadir la columna de versión (bloqueo optimista) a las entidades que se editan desde los formularios
+ALTER TABLE regions ADD COLUMN version INT NOT NULL DEFAULT 0;
+ALTER TABLE provinces ADD COLUMN version INT NOT NULL DEFAULT 0;
+ALTER TABLE supermarkets ADD COLUMN version INT NOT NULL DEFAULT 0;
+ALTER TABLE locations ADD COLUMN version INT NOT NULL DEFAULT 0;
+ALTER TABLE categories ADD COLUMN version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,5 @@
+-- Datos de la cabecera de la imagen de cada categoría (formato y dimensiones en píxeles), leídos al
+-- subirla, para planificar su tratamiento sin abrir el archivo. Las imágenes anteriores quedan a NULL.
+ALTER TABLE categories ADD COLUMN image_format VARCHAR(10) NULL;
+ALTER TABLE categories ADD COLUMN image_width INT NULL;
+ALTER TABLE categories ADD COLUMN image_height INT NULL;
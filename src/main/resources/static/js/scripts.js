@@ -0,0 +1,131 @@
+// Actualiza el progreso de la importación de tickets hasta que termina
+(function () {
+    const section = document.getElementById('ticket-import-progress');
+    if (!section) {
+        return;
+    }
+    const field = name => section.querySelector('[data-field="' + name + '"]');
+
+    function render(progress) {
+        ['state', 'parsedFiles', 'totalFiles', 'storedTickets', 'failedFiles', 'elapsedMillis']
+            .forEach(name => field(name).textContent = progress[name]);
+        const done = progress.state === 'STORING' || progress.state === 'DONE'
+            ? progress.storedTickets : progress.parsedFiles;
+        const total = progress.totalFiles || 1;
+        field('bar').style.width = Math.min(100, Math.round(100 * done / total)) + '%';
+        field('errors').innerHTML = '';
+        progress.errors.forEach(error => {
+            const item = document.createElement('li');
+            item.textContent = error.fileName + ': ' + error.message;
+            field('errors').appendChild(item);
+        });
+        if (progress.message) {
+            field('message').textContent = progress.message;
+            field('message').classList.remove('d-none');
+        }
+    }
+
+    function poll() {
+        fetch(section.dataset.progressUrl)
+            .then(response => response.json())
+            .then(progress => {
+                render(progress);
+                if (progress.state !== 'DONE' && progress.state !== 'FAILED') {
+                    setTimeout(poll, 500);
+                }
+            });
+    }
+
+    poll();
+})();
+
+// Rellena las coordenadas de la búsqueda por cercanía con la posición del navegador
+(function () {
+    const button = document.getElementById('nearby-geolocate');
+    if (!button || !navigator.geolocation) {
+        return;
+    }
+    button.addEventListener('click', () => {
+        navigator.geolocation.getCurrentPosition(position => {
+            document.getElementById('lat').value = position.coords.latitude.toFixed(6);
+            document.getElementById('lon').value = position.coords.longitude.toFixed(6);
+            document.getElementById('nearby-form').submit();
+        });
+    });
+})();
+
+// Mantiene al día las filas de los listados con los cambios que hacen otros usuarios
+(function () {
+    const table = document.querySelector('table[data-live-entity]');
+    if (!table || !window.EventSource) {
+        return;
+    }
+    const body = table.tBodies[0];
+    const rowOf = id => body.querySelector('tr[data-id="' + id + '"]');
+
+    function removeRow(id) {
+        const row = rowOf(id);
+        if (row) {
+            row.remove();
+        }
+    }
+
+    // Pide solo la fila cambiada y la sustituye, o la añade al final si es nueva
+    function refreshRow(id) {
+        fetch(table.dataset.rowUrl + id)
+            .then(response => {
+                if (response.status === 404) {
+                    removeRow(id);
+                    return null;
+                }
+                return response.ok ? response.text() : null;
+            })
+            .then(html => {
+                if (!html) {
+                    return;
+                }
+                const template = document.createElement('template');
+                template.innerHTML = html.trim();
+                const row = template.content.querySelector('tr');
+                const current = rowOf(id);
+                if (current) {
+                    // Se conserva la casilla de selección múltiple
+                    const selected = current.querySelector('input[name="ids"]:checked');
+                    const checkbox = row.querySelector('input[name="ids"]');
+                    if (selected && checkbox) {
+                        checkbox.checked = true;
+                    }
+                    current.replaceWith(row);
+                } else {
+                    body.appendChild(row);
+                }
+            });
+    }
+
+    const events = new EventSource(table.dataset.eventsUrl);
+    let disconnected = false;
+    events.addEventListener('change', event => {
+        const change = JSON.parse(event.data);
+        if (change.operation === 'DELETE') {
+            removeRow(change.id);
+        } else {
+            refreshRow(change.id);
+        }
+    });
+    events.addEventListener('error', () => disconnected = true);
+    events.addEventListener('open', () => {
+        // Tras un corte se pudo perder algún cambio: se recarga la lista una vez
+        if (disconnected) {
+            events.close();
+            window.location.reload();
+        }
+    });
+})();
+
+// Casilla de la cabecera que marca o desmarca todas las filas de la lista
+document.querySelectorAll('input[data-select-all]').forEach(toggle => {
+    toggle.addEventListener('change', () => {
+        toggle.closest('table').querySelectorAll('tbody input[name="' + toggle.dataset.selectAll + '"]')
+            .forEach(checkbox => checkbox.checked = toggle.checked);
+    });
+});
@@ -0,0 +1,59 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.controllers.ChangeEventController;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.ChangeEventBroadcaster;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Prueba `/events` con un máximo de una conexión abierta.
+ */
+public class ChangeEventControllerTest {
+
+    private final ChangeEventBroadcaster broadcaster = new ChangeEventBroadcaster();
+    private final MockMvc mockMvc;
+
+    public ChangeEventControllerTest() {
+        ReflectionTestUtils.setField(broadcaster, "timeoutMillis", 60_000L);
+        ReflectionTestUtils.setField(broadcaster, "maxClients", 1);
+        ReflectionTestUtils.setField(broadcaster, "sendThreads", 1);
+        ReflectionTestUtils.setField(broadcaster, "sendTimeoutMillis", 1000L);
+        ReflectionTestUtils.invokeMethod(broadcaster, "start");
+        ChangeEventController controller = new ChangeEventController();
+        ReflectionTestUtils.setField(controller, "changeEventBroadcaster", broadcaster);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ReflectionTestUtils.invokeMethod(broadcaster, "shutdown");
+    }
+
+    /**
+     * La primera conexión se abre; con el máximo alcanzado se responde 503.
+     */
+    @Test
+    public void testServiceUnavailableAtMaxClients() throws Exception {
+        mockMvc.perform(get("/events").param("entity", "REGION", "PROVINCE"))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+        mockMvc.perform(get("/events").param("entity", "REGION"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    /**
+     * Una entidad desconocida es una petición incorrecta.
+     */
+    @Test
+    public void testUnknownEntity() throws Exception {
+        mockMvc.perform(get("/events").param("entity", "TICKET"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,85 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Prueba el parámetro `fields` de los listados y detalles de la API sobre los datos de ejemplo.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ListApiControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Sin `fields` se devuelven las filas completas.
+     */
+    @Test
+    public void testFullRows() throws Exception {
+        mockMvc.perform(get("/api/provinces/41"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value("41"))
+                .andExpect(jsonPath("$.regionName").value("ANDALUCÍA"));
+    }
+
+    /**
+     * Con `fields` cada fila lleva solo esos campos.
+     */
+    @Test
+    public void testRequestedFields() throws Exception {
+        mockMvc.perform(get("/api/provinces").param("fields", "id,regionName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[40].id").value(41))
+                .andExpect(jsonPath("$[40].regionName").value("ANDALUCÍA"))
+                .andExpect(jsonPath("$[40].name").doesNotExist());
+        mockMvc.perform(get("/api/locations/1").param("fields", "supermarketName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.supermarketName").value("Mercadona"))
+                .andExpect(jsonPath("$.id").doesNotExist());
+        mockMvc.perform(get("/api/locations/999999").param("fields", "id"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Un campo desconocido responde 400 con los campos válidos, en el listado y en el detalle.
+     */
+    @Test
+    public void testUnknownFields() throws Exception {
+        mockMvc.perform(get("/api/categories").param("fields", "id,nope"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unknown field: nope"))
+                .andExpect(jsonPath("$.fields", hasItem("parentName")));
+        mockMvc.perform(get("/api/categories/1").param("fields", "nope"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.fields", hasItem("parentName")));
+        // La comprobación va antes que la búsqueda: también para un ID que no existe
+        mockMvc.perform(get("/api/categories/999999").param("fields", "nope"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * `fields` sin ningún campo responde 400, en el listado y en el detalle.
+     */
+    @Test
+    public void testEmptyFields() throws Exception {
+        mockMvc.perform(get("/api/regions").param("fields", ""))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.fields", hasItem("code")));
+        mockMvc.perform(get("/api/regions/1").param("fields", ""))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/supermarkets/1").param("fields", ","))
+                .andExpect(status().isBadRequest());
+    }
+}
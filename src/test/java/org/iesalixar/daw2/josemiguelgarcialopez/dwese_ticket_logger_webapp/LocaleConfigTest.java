@@ -0,0 +1,76 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config.LocaleConfig;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.controllers.HomeController;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import jakarta.servlet.http.Cookie;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(HomeController.class) // Prueba la resolución del idioma sin sesión sobre la página de inicio
+public class LocaleConfigTest {
+
+    // Inyecta MockMvc para realizar peticiones simuladas
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Sin cookie ni Accept-Language se usa el español y no se crea ninguna sesión.
+     */
+    @Test
+    public void testDefaultLocaleWithoutSession() throws Exception {
+        MvcResult result = mockMvc.perform(get("/"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(Locale.of("es"), result.getResponse().getLocale());
+        assertNull(result.getRequest().getSession(false)); // No se ha creado sesión
+    }
+
+    /**
+     * Sin cookie se respeta la cabecera Accept-Language.
+     */
+    @Test
+    public void testAcceptLanguage() throws Exception {
+        MvcResult result = mockMvc.perform(get("/").header("Accept-Language", "en-GB,en;q=0.8"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals("en", result.getResponse().getLocale().getLanguage());
+        assertNull(result.getRequest().getSession(false));
+    }
+
+    /**
+     * El parámetro ?lang= cambia el idioma guardándolo en una cookie, no en la sesión.
+     */
+    @Test
+    public void testLangParameterSetsCookie() throws Exception {
+        MvcResult result = mockMvc.perform(get("/").param("lang", "en"))
+                .andExpect(status().isOk())
+                .andExpect(cookie().value(LocaleConfig.LOCALE_COOKIE, "en"))
+                .andReturn();
+        assertEquals("en", result.getResponse().getLocale().getLanguage());
+        assertNull(result.getRequest().getSession(false));
+    }
+
+    /**
+     * La cookie de idioma tiene prioridad sobre Accept-Language.
+     */
+    @Test
+    public void testCookieWinsOverAcceptLanguage() throws Exception {
+        MvcResult result = mockMvc.perform(get("/")
+                        .cookie(new Cookie(LocaleConfig.LOCALE_COOKIE, "es"))
+                        .header("Accept-Language", "en"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals("es", result.getResponse().getLocale().getLanguage());
+    }
+}
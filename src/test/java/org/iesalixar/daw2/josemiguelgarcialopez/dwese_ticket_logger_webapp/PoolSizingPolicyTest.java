@@ -0,0 +1,64 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config.PoolSizingPolicy;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config.PoolTelemetry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Prueba las decisiones de tamaño del pool con muestras de 5 segundos.
+ */
+public class PoolSizingPolicyTest {
+
+    private final PoolSizingPolicy policy = new PoolSizingPolicy(4, 40, 1.3, 20, 3);
+
+    /**
+     * Con peticiones esperando el pool crece al menos un 50 %, sin pasar del máximo.
+     */
+    @Test
+    public void testGrowsUnderPressure() {
+        assertEquals(15, policy.decide(10, sample(8, 3, 500, 30, 40)).size());
+        assertEquals(40, policy.decide(30, sample(30, 20, 500, 30, 40)).size());
+    }
+
+    /**
+     * Sin presión, el tamaño sigue la demanda de la ley de Little: 400 conexiones/s × 50 ms = 20
+     * ocupadas de media, 26 con el margen.
+     */
+    @Test
+    public void testFollowsDemand() {
+        PoolSizingPolicy.Decision decision = policy.decide(10, sample(8, 0, 2000, 1, 50));
+        assertEquals(20.0, decision.demand(), 1e-9);
+        assertEquals(26, decision.size());
+    }
+
+    /**
+     * Con poca demanda reduce solo tras varias muestras seguidas, y poco a poco hasta el mínimo.
+     */
+    @Test
+    public void testShrinksSlowly() {
+        PoolTelemetry.Window idle = new PoolTelemetry.Window(5, 0.1, 0.3, 5, 2, 0);
+        PoolSizingPolicy.Sample sample = new PoolSizingPolicy.Sample(0, 0, idle, 5);
+        assertEquals(20, policy.decide(20, sample).size());
+        assertEquals(20, policy.decide(20, sample).size());
+        assertEquals(15, policy.decide(20, sample).size());
+
+        // Un pico reinicia la cuenta
+        policy.decide(15, sample);
+        assertEquals(26, policy.decide(15, sample(20, 0, 100, 1, 10)).size());
+
+        int size = 26;
+        for (int i = 0; i < 30; i++) {
+            size = policy.decide(size, sample).size();
+        }
+        assertEquals(4, size);
+    }
+
+    // Muestra de 5 s con `acquisitions` entregas, espera y uso medios en ms
+    private static PoolSizingPolicy.Sample sample(int active, int waiting, long acquisitions, double meanAcquireMs, double meanUsageMs) {
+        PoolTelemetry.Window window = new PoolTelemetry.Window(acquisitions, meanAcquireMs, meanAcquireMs * 3,
+                acquisitions, meanUsageMs, 0);
+        return new PoolSizingPolicy.Sample(active, waiting, window, 5);
+    }
+}
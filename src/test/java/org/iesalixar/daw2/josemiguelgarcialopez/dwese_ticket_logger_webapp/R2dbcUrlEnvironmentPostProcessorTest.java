@@ -0,0 +1,47 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.reactive.R2dbcUrlEnvironmentPostProcessor;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class R2dbcUrlEnvironmentPostProcessorTest {
+
+    @Test
+    public void testToR2dbcUrl() {
+        assertEquals("r2dbc:mariadb://db:3306/tickets",
+                R2dbcUrlEnvironmentPostProcessor.toR2dbcUrl("jdbc:mariadb://db:3306/tickets?useSSL=false"));
+        assertEquals("r2dbc:mariadb://db/tickets", R2dbcUrlEnvironmentPostProcessor.toR2dbcUrl("jdbc:mysql://db/tickets"));
+        assertEquals("r2dbc:h2:mem:///test?options=MODE=MariaDB;DB_CLOSE_DELAY=-1",
+                R2dbcUrlEnvironmentPostProcessor.toR2dbcUrl("jdbc:h2:mem:test;MODE=MariaDB;DB_CLOSE_DELAY=-1"));
+        assertEquals("r2dbc:h2:mem:///test", R2dbcUrlEnvironmentPostProcessor.toR2dbcUrl("jdbc:h2:mem:test"));
+        assertNull(R2dbcUrlEnvironmentPostProcessor.toR2dbcUrl("jdbc:postgresql://db/tickets"));
+        assertNull(R2dbcUrlEnvironmentPostProcessor.toR2dbcUrl(null));
+    }
+
+    /**
+     * Sin R2DBC_URL se usa la traducción de DB_URL, aunque DB_URL se defina después de preparar el
+     * entorno (como hace `DotenvConfig` con el archivo .env); con R2DBC_URL, esa.
+     */
+    @Test
+    public void testFallsBackToDerivedUrl() {
+        StandardEnvironment environment = new StandardEnvironment();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url", "${DB_URL}");
+        properties.put("spring.r2dbc.url", "${R2DBC_URL:${app.r2dbc.derived-url}}");
+        environment.getPropertySources().addFirst(new MapPropertySource("application", properties));
+        new R2dbcUrlEnvironmentPostProcessor().postProcessEnvironment(environment, null);
+
+        properties.put("DB_URL", "jdbc:mariadb://db:3306/tickets");
+        assertEquals("r2dbc:mariadb://db:3306/tickets", environment.getProperty("spring.r2dbc.url"));
+
+        properties.put("R2DBC_URL", "r2dbc:mariadb://otra:3306/tickets");
+        assertEquals("r2dbc:mariadb://otra:3306/tickets", environment.getProperty("spring.r2dbc.url"));
+    }
+}
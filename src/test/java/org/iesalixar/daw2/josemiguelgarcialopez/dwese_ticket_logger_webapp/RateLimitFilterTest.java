@@ -0,0 +1,70 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Límite de peticiones sobre un servidor real, para que Tomcat resuelva la IP del cliente a partir de
+ * X-Forwarded-For: las pruebas llegan desde localhost, que es un proxy de confianza. Una ruta sin
+ * controlador con ráfaga de 2 basta: lo que el filtro deja pasar responde 404.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.ratelimit.groups=probe",
+        "app.ratelimit.probe.paths=/ratelimit-probe",
+        "app.ratelimit.probe.rate-per-second=0.01",
+        "app.ratelimit.probe.burst=2"})
+@ActiveProfiles("test")
+public class RateLimitFilterTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    /**
+     * Pasada la ráfaga, el mismo cliente recibe 429 con los segundos que debe esperar (una ficha cada
+     * 100 s).
+     */
+    @Test
+    public void testRejectsWithRetryAfter() throws Exception {
+        assertNotEquals(429, post("203.0.113.10").statusCode());
+        assertNotEquals(429, post("203.0.113.10").statusCode());
+
+        HttpResponse<String> rejected = post("203.0.113.10");
+        assertEquals(429, rejected.statusCode());
+        long retryAfter = Long.parseLong(rejected.headers().firstValue("Retry-After").orElseThrow());
+        assertTrue(retryAfter > 0 && retryAfter <= 101, "Retry-After: " + retryAfter);
+        assertEquals("Too many requests", rejected.body());
+    }
+
+    /**
+     * Cada IP reenviada por el proxy tiene su propio límite: uno que lo agota no frena a los demás.
+     */
+    @Test
+    public void testLimitsEachForwardedClient() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            post("203.0.113.20");
+        }
+        assertEquals(429, post("203.0.113.20").statusCode());
+        assertNotEquals(429, post("203.0.113.21").statusCode());
+    }
+
+    private HttpResponse<String> post(String forwardedFor) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/ratelimit-probe"))
+                .header("X-Forwarded-For", forwardedFor)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
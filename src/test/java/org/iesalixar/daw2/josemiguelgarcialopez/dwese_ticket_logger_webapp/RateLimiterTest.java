@@ -0,0 +1,64 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config.RateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba el cubo de fichas con un reloj simulado: 2 peticiones por segundo y ráfaga de 3.
+ */
+public class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Admite la ráfaga, rechaza la siguiente indicando la espera y recupera una ficha cada medio segundo.
+     */
+    @Test
+    public void testBurstThenRate() {
+        RateLimiter limiter = new RateLimiter("test", 2, 3, 100);
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("a", now));
+        }
+        assertEquals(SECOND / 2, limiter.tryAcquire("a", now));
+        assertTrue(limiter.tryAcquire("a", now + SECOND / 4) > 0);
+        assertEquals(0, limiter.tryAcquire("a", now + SECOND / 2));
+
+        // Cada cliente tiene su cubo
+        assertEquals(0, limiter.tryAcquire("b", now));
+    }
+
+    /**
+     * Solo se descartan los cubos que han vuelto a llenarse.
+     */
+    @Test
+    public void testEvictsRefilledBuckets() {
+        RateLimiter limiter = new RateLimiter("test", 2, 3, 100);
+        long now = 1_000 * SECOND;
+        limiter.tryAcquire("a", now);
+        limiter.tryAcquire("b", now + SECOND);
+        assertEquals(1, limiter.evictIdle(now + SECOND));
+        assertEquals(1, limiter.size());
+    }
+
+    /**
+     * Con el mapa lleno, los clientes nuevos comparten un cubo en lugar de añadir entradas.
+     */
+    @Test
+    public void testBoundedClients() {
+        RateLimiter limiter = new RateLimiter("test", 2, 3, 2);
+        long now = System.nanoTime();
+        limiter.tryAcquire("a", now);
+        limiter.tryAcquire("b", now);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("c" + i, now));
+        }
+        assertTrue(limiter.tryAcquire("d", now) > 0);
+        assertEquals(2, limiter.size());
+    }
+}
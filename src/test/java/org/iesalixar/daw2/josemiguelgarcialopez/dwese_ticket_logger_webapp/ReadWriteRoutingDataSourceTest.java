@@ -0,0 +1,103 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.config.ReadWriteRoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Prueba el enrutamiento de lecturas con dos bases de datos H2 en memoria que hacen de principal y
+ * de réplica: cada una tiene una tabla con su propio nombre.
+ */
+public class ReadWriteRoutingDataSourceTest {
+
+    @AfterEach
+    public void clearPrimaryRequired() {
+        ReadWriteRoutingDataSource.setPrimaryRequired(false);
+    }
+
+    /**
+     * Las transacciones de solo lectura van a la réplica; las de escritura y lo que va fuera de una
+     * transacción, a la principal.
+     */
+    @Test
+    public void testReadOnlyTransactionsUseReplica() {
+        Routing routing = routing(List.of(database("replica")));
+        assertEquals("replica", routing.readOnly().execute(status -> routing.jdbc().queryForObject("SELECT name FROM node", String.class)));
+        assertEquals("primary", routing.readWrite().execute(status -> routing.jdbc().queryForObject("SELECT name FROM node", String.class)));
+        assertEquals("primary", routing.jdbc().queryForObject("SELECT name FROM node", String.class));
+    }
+
+    /**
+     * Tras una escritura del usuario (lectura en la principal marcada) no se usan las réplicas.
+     */
+    @Test
+    public void testPrimaryRequiredBypassesReplica() {
+        Routing routing = routing(List.of(database("replica")));
+        ReadWriteRoutingDataSource.setPrimaryRequired(true);
+        assertEquals("primary", routing.readOnly().execute(status -> routing.jdbc().queryForObject("SELECT name FROM node", String.class)));
+    }
+
+    /**
+     * Una réplica caída se salta y, si no queda ninguna, se lee de la principal.
+     */
+    @Test
+    public void testFallbackWhenReplicaIsDown() {
+        Routing withHealthyReplica = routing(List.of(new UnavailableDataSource(), database("replica")));
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica", withHealthyReplica.readOnly().execute(status -> withHealthyReplica.jdbc().queryForObject("SELECT name FROM node", String.class)));
+        }
+
+        Routing withoutReplicas = routing(List.of(new UnavailableDataSource()));
+        assertEquals("primary", withoutReplicas.readOnly().execute(status -> withoutReplicas.jdbc().queryForObject("SELECT name FROM node", String.class)));
+    }
+
+    private record Routing(JdbcTemplate jdbc, TransactionTemplate readOnly, TransactionTemplate readWrite) {
+    }
+
+    private static Routing routing(List<DataSource> replicas) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(database("primary"), replicas, Duration.ofMinutes(1));
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return new Routing(new JdbcTemplate(dataSource), readOnly, new TransactionTemplate(transactionManager));
+    }
+
+    // Base de datos H2 en memoria con una tabla `node` que contiene su nombre
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static final class UnavailableDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            throw new SQLException("Connection refused");
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLException("Connection refused");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.SingleFlight;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Prueba que las consultas simultáneas con la misma clave se ejecutan una sola vez.
+ */
+public class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight(meterRegistry);
+
+    /**
+     * Mientras la primera consulta está en curso, las demás esperan y reciben su mismo resultado.
+     */
+    @Test
+    public void testCoalescesConcurrentCalls() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        List<String> rows = List.of("Almería", "Cádiz");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<List<String>> leader = executor.submit(() -> singleFlight.execute("q", true, () -> {
+                executions.incrementAndGet();
+                await(release);
+                return rows;
+            }));
+            while (executions.get() == 0) {
+                Thread.sleep(1);
+            }
+            List<Future<List<String>>> followers = List.of(
+                    executor.submit(() -> singleFlight.execute("q", true, () -> List.of("otra"))),
+                    executor.submit(() -> singleFlight.execute("q", true, () -> List.of("otra"))));
+            while (coalesced() < 2) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertSame(rows, leader.get(5, TimeUnit.SECONDS));
+            for (Future<List<String>> follower : followers) {
+                assertSame(rows, follower.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Terminada la consulta, la siguiente vuelve a ejecutarse
+        assertEquals(List.of("nueva"), singleFlight.execute("q", true, () -> List.of("nueva")));
+        assertEquals(2.0, meterRegistry.counter("app.dao.single-flight", "query", "q", "result", "executed").count());
+    }
+
+    /**
+     * Quien no puede agrupar su consulta (debe leer de la principal) ejecuta la suya aunque haya otra en curso.
+     */
+    @Test
+    public void testUncoalescedCallRunsItsOwnQuery() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("q", true, () -> {
+                executions.incrementAndGet();
+                await(release);
+                return "réplica";
+            }));
+            while (executions.get() == 0) {
+                Thread.sleep(1);
+            }
+            assertEquals("principal", singleFlight.execute("q", false, () -> "principal"));
+            release.countDown();
+            assertEquals("réplica", leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0.0, coalesced());
+    }
+
+    /**
+     * Un error de la consulta se propaga a quien la ejecutó y no queda guardado.
+     */
+    @Test
+    public void testFailureIsNotCached() {
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("q", true, () -> {
+            throw new IllegalStateException("caída");
+        }));
+        assertEquals("ok", singleFlight.execute("q", true, () -> "ok"));
+    }
+
+    private double coalesced() {
+        return meterRegistry.counter("app.dao.single-flight", "query", "q", "result", "coalesced").count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.RegionDAO;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.SupermarketDAO;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Region;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Supermarket;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.MessageSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+/**
+ * Guardar un formulario abierto antes de que otro usuario cambiara la fila vuelve al formulario con
+ * el aviso de conflicto en lugar de sobrescribir el cambio. Cada prueba se deshace al terminar.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+public class StaleEditControllerTest {
+
+    private static final Locale SPANISH = Locale.of("es");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MessageSource messageSource;
+
+    @Autowired
+    private RegionDAO regionDAO;
+
+    @Autowired
+    private SupermarketDAO supermarketDAO;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    public void testStaleRegionUpdate() throws Exception {
+        Region region = regionDAO.getRegionById(1);
+        entityManager.clear();
+        int version = region.getVersion();
+        regionDAO.updateRegion(region); // Otro usuario guarda antes
+
+        mockMvc.perform(post("/regions/update").param("lang", "es")
+                        .param("id", "1")
+                        .param("code", region.getCode())
+                        .param("name", "Edición perdida")
+                        .param("version", Integer.toString(version)))
+                .andExpect(redirectedUrl("/regions/edit?id=1"))
+                .andExpect(flash().attribute("errorMessage",
+                        messageSource.getMessage("msg.region-controller.update.conflict", null, SPANISH)));
+        entityManager.clear();
+        assertEquals(region.getName(), regionDAO.getRegionById(1).getName());
+    }
+
+    @Test
+    public void testCurrentRegionUpdate() throws Exception {
+        Region region = regionDAO.getRegionById(1);
+        entityManager.clear();
+
+        mockMvc.perform(post("/regions/update").param("lang", "es")
+                        .param("id", "1")
+                        .param("code", region.getCode())
+                        .param("name", "Nombre nuevo")
+                        .param("version", Integer.toString(region.getVersion())))
+                .andExpect(redirectedUrl("/regions"));
+        entityManager.clear();
+        assertEquals("Nombre nuevo", regionDAO.getRegionById(1).getName());
+    }
+
+    @Test
+    public void testStaleSupermarketUpdate() throws Exception {
+        Supermarket supermarket = supermarketDAO.getSupermarketById(2);
+        entityManager.clear();
+        int version = supermarket.getVersion();
+        supermarketDAO.updateSupermarket(supermarket);
+
+        mockMvc.perform(post("/supermarkets/update").param("lang", "es")
+                        .param("id", "2")
+                        .param("name", "Edición perdida")
+                        .param("version", Integer.toString(version)))
+                .andExpect(redirectedUrl("/supermarkets/edit?id=2"))
+                .andExpect(flash().attribute("errorMessage",
+                        messageSource.getMessage("msg.supermarket-controller.update.conflict", null, SPANISH)));
+    }
+}
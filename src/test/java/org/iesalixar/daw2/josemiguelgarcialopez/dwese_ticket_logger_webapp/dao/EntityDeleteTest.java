@@ -0,0 +1,143 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Category;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Province;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Supermarket;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Ticket;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.TicketLine;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Borrados por conjuntos de los DAO sobre los datos de ejemplo. Cada prueba se deshace al terminar.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class EntityDeleteTest {
+
+    @Autowired
+    private LocationDAO locationDAO;
+
+    @Autowired
+    private CategoryDAO categoryDAO;
+
+    @Autowired
+    private ProvinceDAO provinceDAO;
+
+    @Autowired
+    private SupermarketDAO supermarketDAO;
+
+    @Autowired
+    private TicketDAO ticketDAO;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Más IDs que un bloque: el DELETE ... IN se reparte en dos sentencias y borra todas.
+     */
+    @Test
+    public void testDeleteLocationsInChunks() {
+        Supermarket supermarket = entityManager.getReference(Supermarket.class, 1);
+        Province province = entityManager.getReference(Province.class, 41);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < SetDelete.CHUNK_SIZE + 1; i++) {
+            Location location = new Location("Calle de Prueba, " + i, "Sevilla", supermarket, province);
+            entityManager.persist(location);
+            ids.add(location.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(ids.size(), locationDAO.deleteLocations(ids));
+        assertEquals(0L, entityManager.createQuery("SELECT COUNT(l) FROM Location l WHERE l.id IN :ids", Long.class)
+                .setParameter("ids", ids)
+                .getSingleResult());
+    }
+
+    /**
+     * Borrar una ubicación suelta usa el mismo camino que el borrado por conjuntos.
+     */
+    @Test
+    public void testDeleteLocation() {
+        long before = countLocations();
+        locationDAO.deleteLocation(3);
+        locationDAO.deleteLocation(999_999); // No existe: no borra nada
+
+        entityManager.clear();
+        assertNull(locationDAO.getLocationById(3));
+        assertEquals(before - 1, countLocations());
+    }
+
+    /**
+     * Las subcategorías que no se borran quedan sin padre y suben de versión.
+     */
+    @Test
+    public void testDeleteCategoriesOrphansSubcategories() {
+        Integer version = categoryDAO.getCategoryById(5).getVersion();
+        entityManager.clear();
+
+        assertEquals(2, categoryDAO.deleteCategories(List.of(1, 4)));
+
+        entityManager.clear();
+        assertNull(categoryDAO.getCategoryById(1));
+        assertNull(categoryDAO.getCategoryById(4));
+        for (int id : List.of(5, 6)) {
+            Category orphan = categoryDAO.getCategoryById(id);
+            assertNull(orphan.getParentCategory());
+        }
+        assertEquals(version + 1, categoryDAO.getCategoryById(5).getVersion());
+        // Las subcategorías de otros padres no cambian
+        assertEquals(2, categoryDAO.getCategoryById(7).getParentCategory().getId());
+    }
+
+    /**
+     * Las ubicaciones y categorías que usan los tickets no se borran, tampoco en cascada desde la
+     * provincia o el supermercado: en MariaDB no hay clave foránea que lo impida.
+     */
+    @Test
+    public void testDeleteBlockedByTickets() {
+        Ticket ticket = new Ticket(LocalDate.now(), entityManager.getReference(Location.class, 1), "prueba.txt",
+                List.of(new TicketLine(entityManager.getReference(Category.class, 4), "Teléfono",
+                        new BigDecimal("1.000"), new BigDecimal("199.90"))));
+        ticketDAO.insertTickets(List.of(ticket));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThrows(DataIntegrityViolationException.class, () -> locationDAO.deleteLocation(1));
+        assertThrows(DataIntegrityViolationException.class, () -> locationDAO.deleteLocations(List.of(2, 1)));
+        assertThrows(DataIntegrityViolationException.class, () -> provinceDAO.deleteProvince(41));
+        assertThrows(DataIntegrityViolationException.class, () -> supermarketDAO.deleteSupermarkets(List.of(1)));
+        assertThrows(DataIntegrityViolationException.class, () -> categoryDAO.deleteCategory(4));
+        assertThrows(DataIntegrityViolationException.class, () -> categoryDAO.deleteCategories(List.of(1, 4)));
+
+        // No se ha borrado nada, ni siquiera las filas sin tickets del mismo lote
+        entityManager.clear();
+        assertNotNull(locationDAO.getLocationById(1));
+        assertNotNull(locationDAO.getLocationById(2));
+        assertNotNull(categoryDAO.getCategoryById(1));
+        assertEquals(1, categoryDAO.getCategoryById(5).getParentCategory().getId());
+    }
+
+    private long countLocations() {
+        return entityManager.createQuery("SELECT COUNT(l) FROM Location l", Long.class).getSingleResult();
+    }
+}
@@ -0,0 +1,145 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Altas con las relaciones indicadas solo por su ID, como llegan de los formularios
+ * (`*{province.id}`) y de la importación de tickets: el DAO debe resolverlas antes de guardar.
+ * Cada prueba se deshace al terminar.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class EntityInsertTest {
+
+    @Autowired
+    private ProvinceDAO provinceDAO;
+
+    @Autowired
+    private LocationDAO locationDAO;
+
+    @Autowired
+    private CategoryDAO categoryDAO;
+
+    @Autowired
+    private TicketDAO ticketDAO;
+
+    @Autowired
+    private PriceSeriesDAO priceSeriesDAO;
+
+    @Test
+    public void testInsertProvince() {
+        Province province = new Province("99", "Provincia de prueba", region(1));
+        provinceDAO.insertProvince(province);
+
+        assertNotNull(province.getId());
+        assertEquals(1, provinceDAO.getProvinceById(province.getId()).getRegion().getId());
+    }
+
+    @Test
+    public void testInsertLocation() {
+        Location location = new Location("Calle de Prueba, 1", "Sevilla", supermarket(2), province(41));
+        locationDAO.insertLocation(location);
+
+        assertNotNull(location.getId());
+        Location stored = locationDAO.getLocationById(location.getId());
+        assertEquals(2, stored.getSupermarket().getId());
+        assertEquals(41, stored.getProvince().getId());
+    }
+
+    @Test
+    public void testInsertSubcategory() {
+        Category subcategory = new Category("Tabletas", null, category(1));
+        categoryDAO.insertCategory(subcategory);
+
+        assertNotNull(subcategory.getId());
+        assertEquals(1, categoryDAO.getCategoryById(subcategory.getId()).getParentCategory().getId());
+    }
+
+    @Test
+    public void testInsertImportedTicket() {
+        long before = ticketDAO.countTickets();
+        // Como lo construye TicketImportService: la ubicación y las categorías solo llevan el ID
+        List<TicketLine> lines = List.of(
+                new TicketLine(category(4), "Teléfono", new BigDecimal("1.000"), new BigDecimal("199.90")),
+                new TicketLine(category(11), "Tostadora", new BigDecimal("2.000"), new BigDecimal("24.50")));
+        Ticket ticket = new Ticket(LocalDate.now(), location(1), "prueba.txt", lines);
+        ticketDAO.insertTickets(List.of(ticket));
+
+        assertNotNull(ticket.getId());
+        assertEquals(before + 1, ticketDAO.countTickets());
+    }
+
+    /**
+     * Una ubicación o categoría que no existe se rechaza como lo haría la clave foránea.
+     */
+    @Test
+    public void testInsertTicketWithMissingReference() {
+        List<TicketLine> lines = List.of(new TicketLine(category(4), "Teléfono", new BigDecimal("1.000"), new BigDecimal("199.90")));
+        assertThrows(DataIntegrityViolationException.class,
+                () -> ticketDAO.insertTickets(List.of(new Ticket(LocalDate.now(), location(999_999), "prueba.txt", lines))));
+        List<TicketLine> missingCategory = List.of(new TicketLine(category(999_999), "Teléfono", new BigDecimal("1.000"), new BigDecimal("199.90")));
+        assertThrows(DataIntegrityViolationException.class,
+                () -> ticketDAO.insertTickets(List.of(new Ticket(LocalDate.now(), location(1), "prueba.txt", missingCategory))));
+    }
+
+    @Test
+    public void testInsertPriceSeriesBlock() {
+        PriceSeriesBlock block = new PriceSeriesBlock();
+        block.setProduct("LECHE");
+        block.setLocation(location(1)); // Como lo construye PriceHistoryService
+        block.setFirstDay(LocalDate.now());
+        block.setLastDay(LocalDate.now());
+        block.setPointCount(0);
+        block.setData(new byte[0]);
+        priceSeriesDAO.saveBlock(block);
+
+        assertNotNull(block.getId());
+        assertEquals(block.getId(), priceSeriesDAO.getLastBlock("LECHE", 1).getId());
+    }
+
+    // Referencias con solo el ID, como las que enlaza un formulario
+    private static Region region(int id) {
+        Region region = new Region();
+        region.setId(id);
+        return region;
+    }
+
+    private static Province province(int id) {
+        Province province = new Province();
+        province.setId(id);
+        return province;
+    }
+
+    private static Supermarket supermarket(int id) {
+        Supermarket supermarket = new Supermarket();
+        supermarket.setId(id);
+        return supermarket;
+    }
+
+    private static Location location(int id) {
+        Location location = new Location();
+        location.setId(id);
+        return location;
+    }
+
+    private static Category category(int id) {
+        Category category = new Category();
+        category.setId(id);
+        return category;
+    }
+}
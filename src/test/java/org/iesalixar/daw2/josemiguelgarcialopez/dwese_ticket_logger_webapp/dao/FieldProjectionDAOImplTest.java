@@ -0,0 +1,91 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.EntityType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Consultas de proyección: qué columnas y qué JOIN lleva cada consulta, y qué filas devuelve sobre los
+ * datos de ejemplo.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class FieldProjectionDAOImplTest {
+
+    @Autowired
+    private FieldProjectionDAO fieldProjectionDAO;
+
+    /**
+     * El SELECT lleva solo las columnas pedidas, en su orden, y ningún JOIN si no hace falta.
+     */
+    @Test
+    public void testSelectsOnlyRequestedColumns() {
+        assertEquals("SELECT r.code FROM Region r", FieldProjectionDAOImpl.select(EntityType.REGION, List.of("code")));
+        assertEquals("SELECT p.id, p.region.id FROM Province p",
+                FieldProjectionDAOImpl.select(EntityType.PROVINCE, List.of("id", "regionId")));
+        assertEquals("SELECT s.name, s.id FROM Supermarket s",
+                FieldProjectionDAOImpl.select(EntityType.SUPERMARKET, List.of("name", "id")));
+        assertEquals("SELECT l.latitude, l.longitude, l.province.id, l.supermarket.id FROM Location l",
+                FieldProjectionDAOImpl.select(EntityType.LOCATION, List.of("latitude", "longitude", "provinceId", "supermarketId")));
+        assertEquals("SELECT c.image, c.parentCategory.id FROM Category c",
+                FieldProjectionDAOImpl.select(EntityType.CATEGORY, List.of("image", "parentId")));
+    }
+
+    /**
+     * Los nombres de las relaciones añaden solo su JOIN, una vez.
+     */
+    @Test
+    public void testJoinsOnlyWhatIsNeeded() {
+        assertEquals("SELECT p.name, rg.name FROM Province p JOIN p.region rg",
+                FieldProjectionDAOImpl.select(EntityType.PROVINCE, List.of("name", "regionName")));
+        assertEquals("SELECT l.address, p.name FROM Location l JOIN l.province p",
+                FieldProjectionDAOImpl.select(EntityType.LOCATION, List.of("address", "provinceName")));
+        assertEquals("SELECT s.name, p.name, l.supermarket.id FROM Location l JOIN l.supermarket s JOIN l.province p",
+                FieldProjectionDAOImpl.select(EntityType.LOCATION, List.of("supermarketName", "provinceName", "supermarketId")));
+        // LEFT JOIN: las categorías raíz también salen
+        assertEquals("SELECT c.id, pc.name FROM Category c LEFT JOIN c.parentCategory pc",
+                FieldProjectionDAOImpl.select(EntityType.CATEGORY, List.of("id", "parentName")));
+    }
+
+    @Test
+    public void testRejectsUnknownOrEmptyFields() {
+        assertThrows(IllegalArgumentException.class, () -> FieldProjectionDAOImpl.select(EntityType.REGION, List.of()));
+        assertThrows(IllegalArgumentException.class, () -> FieldProjectionDAOImpl.select(EntityType.REGION, List.of("id", "nope")));
+        assertThrows(IllegalArgumentException.class, () -> FieldProjectionDAOImpl.select(EntityType.PROVINCE, List.of("")));
+        // Los campos de una entidad no valen para otra
+        assertThrows(IllegalArgumentException.class, () -> FieldProjectionDAOImpl.select(EntityType.SUPERMARKET, List.of("regionName")));
+        // A través del repositorio, la excepción llega traducida
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> fieldProjectionDAO.getFields(EntityType.CATEGORY, 1, List.of("nope")));
+    }
+
+    /**
+     * Cada fila lleva solo los campos pedidos, sin repetir y en ese orden.
+     */
+    @Test
+    public void testRows() {
+        List<Map<String, Object>> provinces = fieldProjectionDAO.listFields(EntityType.PROVINCE, List.of("name", "regionName", "name"));
+        assertEquals(52, provinces.size());
+        assertEquals(Map.of("name", "Sevilla", "regionName", "ANDALUCÍA"), provinces.get(40));
+        assertEquals(List.of("name", "regionName"), List.copyOf(provinces.get(40).keySet()));
+
+        List<Map<String, Object>> categories = fieldProjectionDAO.listFields(EntityType.CATEGORY, List.of("id", "parentName"));
+        Map<String, Object> root = categories.get(0);
+        assertEquals(1, root.get("id"));
+        assertNull(root.get("parentName"));
+
+        Map<String, Object> location = fieldProjectionDAO.getFields(EntityType.LOCATION, 1, List.of("supermarketName", "id"));
+        assertEquals(List.of("supermarketName", "id"), List.copyOf(location.keySet()));
+        assertEquals("Mercadona", location.get("supermarketName"));
+        assertNull(fieldProjectionDAO.getFields(EntityType.LOCATION, 999_999, List.of("id")));
+    }
+}
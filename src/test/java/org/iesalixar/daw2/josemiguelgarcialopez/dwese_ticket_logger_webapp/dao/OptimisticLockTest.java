@@ -0,0 +1,133 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Category;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Province;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Region;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Supermarket;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Actualizaciones con la versión que se editó: la primera se aplica y sube la versión; otra con la
+ * misma versión (un formulario abierto antes de ese cambio) se rechaza sin tocar la fila. Cada
+ * prueba se deshace al terminar.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class OptimisticLockTest {
+
+    @Autowired
+    private RegionDAO regionDAO;
+
+    @Autowired
+    private ProvinceDAO provinceDAO;
+
+    @Autowired
+    private SupermarketDAO supermarketDAO;
+
+    @Autowired
+    private LocationDAO locationDAO;
+
+    @Autowired
+    private CategoryDAO categoryDAO;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    public void testStaleRegion() {
+        Region edited = regionDAO.getRegionById(1);
+        entityManager.clear();
+        int version = edited.getVersion();
+        edited.setName("Primera edición");
+        regionDAO.updateRegion(edited);
+
+        Region stale = regionDAO.getRegionById(1);
+        entityManager.clear();
+        stale.setVersion(version);
+        stale.setName("Edición perdida");
+        assertThrows(OptimisticLockingFailureException.class, () -> regionDAO.updateRegion(stale));
+
+        Region stored = regionDAO.getRegionById(1);
+        assertEquals("Primera edición", stored.getName());
+        assertEquals(version + 1, stored.getVersion());
+    }
+
+    @Test
+    public void testStaleProvince() {
+        Province edited = provinceDAO.getProvinceById(41);
+        entityManager.clear();
+        int version = edited.getVersion();
+        provinceDAO.updateProvince(edited);
+
+        edited.setName("Edición perdida");
+        assertThrows(OptimisticLockingFailureException.class, () -> provinceDAO.updateProvince(edited));
+        entityManager.clear();
+        assertEquals("Sevilla", provinceDAO.getProvinceById(41).getName());
+        assertEquals(version + 1, provinceDAO.getProvinceById(41).getVersion());
+    }
+
+    @Test
+    public void testStaleSupermarket() {
+        Supermarket edited = supermarketDAO.getSupermarketById(1);
+        entityManager.clear();
+        supermarketDAO.updateSupermarket(edited);
+
+        edited.setName("Edición perdida");
+        assertThrows(OptimisticLockingFailureException.class, () -> supermarketDAO.updateSupermarket(edited));
+        entityManager.clear();
+        assertEquals("Mercadona", supermarketDAO.getSupermarketById(1).getName());
+    }
+
+    @Test
+    public void testStaleLocation() {
+        Location edited = locationDAO.getLocationById(1);
+        entityManager.clear();
+        String address = edited.getAddress();
+        locationDAO.updateLocation(edited);
+
+        edited.setAddress("Calle Perdida, 1");
+        assertThrows(OptimisticLockingFailureException.class, () -> locationDAO.updateLocation(edited));
+        entityManager.clear();
+        assertEquals(address, locationDAO.getLocationById(1).getAddress());
+    }
+
+    @Test
+    public void testStaleCategory() {
+        Category edited = categoryDAO.getCategoryById(4);
+        entityManager.clear();
+        categoryDAO.updateCategory(edited);
+
+        edited.setName("Edición perdida");
+        assertThrows(OptimisticLockingFailureException.class, () -> categoryDAO.updateCategory(edited));
+        entityManager.clear();
+        assertEquals("Smartphones", categoryDAO.getCategoryById(4).getName());
+    }
+
+    /**
+     * Una fila borrada mientras se editaba también es un conflicto.
+     */
+    @Test
+    public void testDeletedWhileEditing() {
+        Supermarket edited = new Supermarket("Supermercado de prueba");
+        supermarketDAO.insertSupermarket(edited);
+        entityManager.flush();
+        entityManager.clear();
+        Supermarket stored = supermarketDAO.getSupermarketById(edited.getId());
+        entityManager.clear();
+        supermarketDAO.deleteSupermarket(stored.getId());
+
+        assertThrows(OptimisticLockingFailureException.class, () -> supermarketDAO.updateSupermarket(stored));
+    }
+}
@@ -0,0 +1,62 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Province;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+/**
+ * Los listados que agrupa {@link SingleFlight} devuelven objetos propios de cada llamada, fuera de
+ * la sesión, con las relaciones que muestran las vistas ya rellenas.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class SharedListTest {
+
+    @Autowired
+    private ProvinceDAO provinceDAO;
+
+    @Autowired
+    private LocationDAO locationDAO;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    public void testListAllProvincesIsDetached() {
+        List<Province> provinces = provinceDAO.listAllProvinces();
+
+        assertEquals(52, provinces.size());
+        Province sevilla = provinces.stream().filter(p -> p.getId() == 41).findFirst().orElseThrow();
+        assertEquals("Sevilla", sevilla.getName());
+        assertEquals("ANDALUCÍA", sevilla.getRegion().getName());
+        assertFalse(entityManager.contains(sevilla));
+        assertNotSame(sevilla, provinceDAO.listAllProvinces().get(provinces.indexOf(sevilla)));
+    }
+
+    @Test
+    public void testListAllLocationsIsDetached() {
+        List<Location> locations = locationDAO.listAllLocations();
+
+        assertEquals(3, locations.size());
+        for (Location location : locations) {
+            assertFalse(entityManager.contains(location));
+            assertEquals(41, location.getProvince().getId());
+            assertEquals("Sevilla", location.getProvince().getName());
+        }
+        Location first = locations.stream().filter(l -> l.getId() == 1).findFirst().orElseThrow();
+        assertEquals("Mercadona", first.getSupermarket().getName());
+    }
+}
@@ -0,0 +1,104 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Category;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Ticket;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.TicketLine;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Un borrado que llega mientras se guarda un ticket que usa la fila espera a que el ticket se
+ * confirme y entonces lo ve, como haría con la clave foránea. Los cambios se confirman de verdad,
+ * así que la prueba borra el ticket al terminar.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class TicketReferenceLockTest {
+
+    @Autowired
+    private TicketDAO ticketDAO;
+
+    @Autowired
+    private LocationDAO locationDAO;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testDeleteWaitsForTicketInsert() throws Exception {
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> insert = executor.submit(() -> transaction.executeWithoutResult(status -> {
+                ticketDAO.insertTickets(List.of(new Ticket(LocalDate.now(), location(3), "lock-test.txt",
+                        List.of(new TicketLine(category(4), "Teléfono", new BigDecimal("1.000"), new BigDecimal("199.90"))))));
+                inserted.countDown();
+                await(release); // El ticket sigue sin confirmar mientras llega el borrado
+            }));
+            assertTrue(inserted.await(5, TimeUnit.SECONDS));
+
+            Future<?> delete = executor.submit(() -> locationDAO.deleteLocation(3));
+            assertThrows(TimeoutException.class, () -> delete.get(300, TimeUnit.MILLISECONDS)); // Espera al bloqueo
+
+            release.countDown();
+            insert.get(5, TimeUnit.SECONDS);
+            ExecutionException e = assertThrows(ExecutionException.class, () -> delete.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(DataIntegrityViolationException.class, e.getCause());
+            assertNotNull(locationDAO.getLocationById(3));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+            jdbcTemplate.update("DELETE FROM ticket_lines WHERE ticket_id IN (SELECT id FROM tickets WHERE source_file = 'lock-test.txt')");
+            jdbcTemplate.update("DELETE FROM tickets WHERE source_file = 'lock-test.txt'");
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Location location(int id) {
+        Location location = new Location();
+        location.setId(id);
+        return location;
+    }
+
+    private static Category category(int id) {
+        Category category = new Category();
+        category.setId(id);
+        return category;
+    }
+}
@@ -0,0 +1,110 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.journal;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.EntityType;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.Operation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChangeJournalTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Los registros se leen tal como se escribieron, en orden, aunque ocupen varios segmentos.
+     */
+    @Test
+    public void testRecordsSpanSegments() throws IOException {
+        ChangeJournal journal = new ChangeJournal();
+        journal.open(dir, 256);
+        for (int i = 1; i <= 50; i++) {
+            journal.append(EntityChangeEvent.inserted(EntityType.LOCATION, i, "address", "Calle Mayor " + i, "latitude", null));
+        }
+        journal.append(EntityChangeEvent.deleted(EntityType.LOCATION, 7));
+        journal.close();
+
+        assertTrue(ChangeJournalReader.segments(dir).size() > 1);
+        List<ChangeRecord> records = readAll(1);
+        assertEquals(51, records.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i + 1, records.get(i).sequence());
+            assertEquals(i + 1, records.get(i).entityId());
+            assertEquals("Calle Mayor " + (i + 1), records.get(i).fields().get("address"));
+            assertTrue(records.get(i).fields().containsKey("latitude"));
+            assertNull(records.get(i).fields().get("latitude"));
+        }
+        assertEquals(Operation.DELETE, records.get(50).operation());
+        assertTrue(records.get(50).fields().isEmpty());
+    }
+
+    /**
+     * La lectura puede empezar en cualquier secuencia.
+     */
+    @Test
+    public void testReadFromSequence() throws IOException {
+        ChangeJournal journal = new ChangeJournal();
+        journal.open(dir, 256);
+        for (int i = 1; i <= 30; i++) {
+            journal.append(EntityChangeEvent.updated(EntityType.REGION, i, "code", "R" + i, "name", "Región " + i));
+        }
+        journal.close();
+
+        List<ChangeRecord> records = readAll(17);
+        assertEquals(14, records.size());
+        assertEquals(17, records.get(0).sequence());
+        assertEquals("Región 30", records.get(13).fields().get("name"));
+    }
+
+    /**
+     * Al reabrir se continúa tras el último registro completo y se descarta uno escrito a medias.
+     */
+    @Test
+    public void testReopenAfterTornWrite() throws IOException {
+        ChangeJournal journal = new ChangeJournal();
+        journal.open(dir, 4096);
+        journal.append(EntityChangeEvent.inserted(EntityType.CATEGORY, 1, "name", "Frutas"));
+        journal.append(EntityChangeEvent.inserted(EntityType.CATEGORY, 2, "name", "Verduras"));
+        journal.close();
+
+        // Se estropea el CRC del segundo registro, como si su escritura no hubiera terminado
+        Path segment = ChangeJournalReader.segments(dir).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int second = ChangeJournal.SEGMENT_HEADER_BYTES + ChangeRecord.frameLength(buffer, ChangeJournal.SEGMENT_HEADER_BYTES);
+            buffer.putInt(second + 4, buffer.getInt(second + 4) ^ 1);
+            buffer.force();
+        }
+
+        journal = new ChangeJournal();
+        journal.open(dir, 4096);
+        assertEquals(2, journal.getNextSequence());
+        journal.append(EntityChangeEvent.inserted(EntityType.CATEGORY, 3, "name", "Lácteos"));
+        journal.close();
+
+        List<ChangeRecord> records = readAll(1);
+        assertEquals(2, records.size());
+        assertEquals(1, records.get(0).entityId());
+        assertEquals(3, records.get(1).entityId());
+        assertEquals(2, records.get(1).sequence());
+        assertEquals("Lácteos", records.get(1).fields().get("name"));
+    }
+
+    private List<ChangeRecord> readAll(long from) throws IOException {
+        List<ChangeRecord> records = new ArrayList<>();
+        new ChangeJournalReader(dir).read(from, records::add);
+        return records;
+    }
+}
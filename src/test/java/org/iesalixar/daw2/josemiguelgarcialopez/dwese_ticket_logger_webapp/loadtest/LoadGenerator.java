@@ -0,0 +1,148 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.loadtest;
+
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga en bucle abierto. Cada petición tiene una hora de inicio prevista según la
+ * tasa objetivo y su latencia se mide desde esa hora, no desde el envío real. Así, si la aplicación
+ * se atasca y las peticiones se acumulan, la espera también cuenta (corrección de "coordinated omission").
+ */
+public class LoadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+
+    // Semilla fija para que la secuencia de escenarios sea reproducible entre ejecuciones
+    private static final long SEED = 42L;
+
+    private final URI baseUri;
+    private final LoadTestConfig config;
+    private final List<Scenario> scenarios;
+
+    public LoadGenerator(URI baseUri, LoadTestConfig config) {
+        this.baseUri = baseUri;
+        this.config = config;
+        this.scenarios = config.getScenarios();
+    }
+
+    /**
+     * Lanza la carga configurada: primero el calentamiento (no se mide) y después la fase medida.
+     *
+     * @return los resultados de cada escenario, en el orden de la configuración.
+     * @throws InterruptedException si se interrumpe la espera.
+     */
+    public LoadTestReport run() throws InterruptedException {
+        Map<Scenario, ScenarioStats> stats = new LinkedHashMap<>();
+        Map<Scenario, AtomicLong> sequences = new LinkedHashMap<>();
+        for (Scenario scenario : scenarios) {
+            stats.put(scenario, new ScenarioStats());
+            sequences.put(scenario, scenario.newSequence());
+        }
+        int[] cumulativeWeights = cumulativeWeights();
+        Random random = new Random(SEED);
+
+        int concurrency = config.getConcurrency();
+        Semaphore inFlight = new Semaphore(concurrency);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        HttpClient client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER) // Se mide el POST, no la redirección posterior
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / config.getRatePerSecond());
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(config.getWarmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+        logger.info("Load test against {}: {} req/s, warm-up {} s, duration {} s, concurrency {}",
+                baseUri, config.getRatePerSecond(), config.getWarmupSeconds(), config.getDurationSeconds(), concurrency);
+
+        try {
+            for (long i = 0; ; i++) {
+                long intendedStart = start + i * intervalNanos;
+                if (intendedStart >= end) {
+                    break;
+                }
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Scenario scenario = pick(random, cumulativeWeights);
+                boolean measured = intendedStart >= measureFrom;
+                // Si se alcanza el límite de peticiones en vuelo el bucle espera, pero la latencia
+                // se sigue contando desde intendedStart
+                inFlight.acquire();
+                client.sendAsync(scenario.toRequest(baseUri, sequences.get(scenario).getAndIncrement()),
+                                HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            long latencyNanos = System.nanoTime() - intendedStart;
+                            inFlight.release();
+                            if (measured) {
+                                boolean ok = error == null && response.statusCode() < 400;
+                                stats.get(scenario).record(latencyNanos, ok);
+                            }
+                        });
+            }
+            // Espera a que terminen las peticiones pendientes
+            inFlight.acquire(concurrency);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, LoadTestReport.ScenarioResult> results = new LinkedHashMap<>();
+        stats.forEach((scenario, s) -> results.put(scenario.name(),
+                new LoadTestReport.ScenarioResult(s.recorder.getIntervalHistogram(), s.errors.get())));
+        return new LoadTestReport(results, config.getDurationSeconds());
+    }
+
+    private int[] cumulativeWeights() {
+        int[] cumulative = new int[scenarios.size()];
+        int total = 0;
+        for (int i = 0; i < scenarios.size(); i++) {
+            total += scenarios.get(i).weight();
+            cumulative[i] = total;
+        }
+        return cumulative;
+    }
+
+    private Scenario pick(Random random, int[] cumulativeWeights) {
+        int r = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (r < cumulativeWeights[i]) {
+                return scenarios.get(i);
+            }
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+
+    /**
+     * Latencias (en microsegundos) y errores de un escenario. El `Recorder` admite escrituras concurrentes.
+     */
+    private static final class ScenarioStats {
+        private final Recorder recorder = new Recorder(3);
+        private final AtomicLong errors = new AtomicLong();
+
+        void record(long latencyNanos, boolean ok) {
+            recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+}
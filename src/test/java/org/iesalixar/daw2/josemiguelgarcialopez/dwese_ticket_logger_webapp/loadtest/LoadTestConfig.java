@@ -0,0 +1,103 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Configuración del arnés de carga. Se lee de `loadtest/loadtest.properties` y cualquier
+ * clave puede sobrescribirse con una propiedad del sistema (-Dloadtest.rate-per-second=500).
+ */
+public class LoadTestConfig {
+
+    private static final String RESOURCE = "loadtest/loadtest.properties";
+
+    private final Properties properties;
+
+    private LoadTestConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Carga la configuración desde el classpath y aplica las propiedades del sistema por encima.
+     *
+     * @return la configuración del arnés.
+     */
+    public static LoadTestConfig load() {
+        Properties properties = new Properties();
+        try (InputStream in = LoadTestConfig.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("No se encuentra " + RESOURCE + " en el classpath");
+            }
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Las propiedades del sistema tienen prioridad sobre el fichero
+        System.getProperties().stringPropertyNames().stream()
+                .filter(key -> key.startsWith("loadtest."))
+                .forEach(key -> properties.setProperty(key, System.getProperty(key)));
+        return new LoadTestConfig(properties);
+    }
+
+    public double getRatePerSecond() {
+        return Double.parseDouble(require("loadtest.rate-per-second"));
+    }
+
+    public int getWarmupSeconds() {
+        return Integer.parseInt(properties.getProperty("loadtest.warmup-seconds", "0"));
+    }
+
+    public int getDurationSeconds() {
+        return Integer.parseInt(require("loadtest.duration-seconds"));
+    }
+
+    public int getConcurrency() {
+        return Integer.parseInt(properties.getProperty("loadtest.concurrency", "64"));
+    }
+
+    public double getRegressionTolerance() {
+        return Double.parseDouble(properties.getProperty("loadtest.regression-tolerance", "0.25"));
+    }
+
+    public List<Double> getComparedPercentiles() {
+        return Arrays.stream(properties.getProperty("loadtest.compared-percentiles", "50,99").split(","))
+                .map(String::trim)
+                .map(Double::parseDouble)
+                .toList();
+    }
+
+    /**
+     * Construye los escenarios declarados en `loadtest.scenarios`.
+     *
+     * @return la lista de escenarios con su peso relativo.
+     */
+    public List<Scenario> getScenarios() {
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String name : require("loadtest.scenarios").split(",")) {
+            name = name.trim();
+            String prefix = "loadtest.scenario." + name + ".";
+            String[] request = require(prefix + "request").trim().split("\\s+", 2);
+            scenarios.add(new Scenario(
+                    name,
+                    request[0].toUpperCase(),
+                    request[1],
+                    properties.getProperty(prefix + "form"),
+                    Integer.parseInt(require(prefix + "weight")),
+                    Long.parseLong(properties.getProperty(prefix + "seq-start", "1"))));
+        }
+        return scenarios;
+    }
+
+    private String require(String key) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException("Falta la propiedad " + key + " en la configuración de carga");
+        }
+        return value;
+    }
+}
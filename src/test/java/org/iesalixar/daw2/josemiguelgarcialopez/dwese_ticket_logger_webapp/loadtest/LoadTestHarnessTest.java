@@ -0,0 +1,58 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.loadtest;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Arnés de carga de los endpoints web. Arranca la aplicación en un puerto aleatorio con H2 embebida
+ * (perfil "loadtest"), reproduce la mezcla de `loadtest/loadtest.properties` a la tasa objetivo y
+ * deja el informe en `target/loadtest`. Si existe `loadtest/baseline.properties` se compara con ella.
+ *
+ * Se ejecuta con: mvn -Ploadtest test
+ */
+@Tag("loadtest")
+@ActiveProfiles("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoadTestHarnessTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestHarnessTest.class);
+
+    private static final String BASELINE = "loadtest/baseline.properties";
+
+    @LocalServerPort
+    private int port;
+
+    /**
+     * Lanza la mezcla de peticiones configurada, escribe el informe y lo compara con la línea base.
+     */
+    @Test
+    void runConfiguredMix() throws Exception {
+        LoadTestConfig config = LoadTestConfig.load();
+        LoadTestReport report = new LoadGenerator(URI.create("http://localhost:" + port + "/"), config).run();
+
+        Path reportFile = report.write(Path.of("target", "loadtest"));
+        logger.info("Load test report written to {}", reportFile.toAbsolutePath());
+        report.toProperties().forEach((key, value) -> logger.info("{} = {}", key, value));
+
+        Properties baseline = LoadTestReport.loadBaseline(BASELINE);
+        if (baseline == null) {
+            logger.info("No baseline found at {}; copy {} there to start tracking regressions.", BASELINE, reportFile);
+            return;
+        }
+        List<String> regressions = report.compareWith(baseline, config.getRegressionTolerance(), config.getComparedPercentiles());
+        regressions.forEach(regression -> logger.warn("Regression: {}", regression));
+        assertTrue(regressions.isEmpty(), "Regresiones respecto a la línea base: " + regressions);
+    }
+}
@@ -0,0 +1,154 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Informe de una ejecución de carga. Se guarda como `report.properties` (una clave por escenario y
+ * percentil, en milisegundos) junto a la distribución completa de cada escenario en formato `.hgrm`.
+ * El mismo formato sirve de línea base: basta con copiar un informe aceptado a
+ * `src/test/resources/loadtest/baseline.properties`.
+ */
+public class LoadTestReport {
+
+    // Percentiles que se escriben en el informe
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    /**
+     * Resultado de un escenario.
+     *
+     * @param histogram latencias en microsegundos.
+     * @param errors    respuestas con estado >= 400 o peticiones fallidas.
+     */
+    public record ScenarioResult(Histogram histogram, long errors) {
+    }
+
+    private final Map<String, ScenarioResult> results;
+    private final int durationSeconds;
+
+    public LoadTestReport(Map<String, ScenarioResult> results, int durationSeconds) {
+        this.results = results;
+        this.durationSeconds = durationSeconds;
+    }
+
+    public Map<String, ScenarioResult> getResults() {
+        return results;
+    }
+
+    /**
+     * Convierte el informe en propiedades ordenadas (`<escenario>.<métrica>=<valor>`).
+     *
+     * @return las propiedades del informe.
+     */
+    public Map<String, String> toProperties() {
+        Map<String, String> properties = new TreeMap<>();
+        results.forEach((name, result) -> {
+            Histogram histogram = result.histogram();
+            properties.put(name + ".count", Long.toString(histogram.getTotalCount()));
+            properties.put(name + ".errors", Long.toString(result.errors()));
+            properties.put(name + ".throughput.rps", format((double) histogram.getTotalCount() / durationSeconds));
+            properties.put(name + ".mean.ms", format(histogram.getMean() / 1000.0));
+            for (double percentile : PERCENTILES) {
+                properties.put(percentileKey(name, percentile), format(histogram.getValueAtPercentile(percentile) / 1000.0));
+            }
+            properties.put(name + ".max.ms", format(histogram.getMaxValue() / 1000.0));
+        });
+        return properties;
+    }
+
+    /**
+     * Escribe `report.properties` y un fichero `.hgrm` por escenario en el directorio indicado.
+     *
+     * @param directory directorio de salida (se crea si no existe).
+     * @return la ruta del fichero de informe.
+     * @throws IOException si no se puede escribir.
+     */
+    public Path write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path reportFile = directory.resolve("report.properties");
+        StringBuilder sb = new StringBuilder("# Informe de carga (latencias en ms corregidas por coordinated omission)\n");
+        toProperties().forEach((key, value) -> sb.append(key).append('=').append(value).append('\n'));
+        Files.writeString(reportFile, sb.toString());
+
+        for (Map.Entry<String, ScenarioResult> entry : results.entrySet()) {
+            try (OutputStream out = Files.newOutputStream(directory.resolve(entry.getKey() + ".hgrm"));
+                 PrintStream print = new PrintStream(out)) {
+                // Valores en microsegundos, escalados a milisegundos en la salida
+                entry.getValue().histogram().outputPercentileDistribution(print, 1000.0);
+            }
+        }
+        return reportFile;
+    }
+
+    /**
+     * Compara el informe con una línea base y devuelve las regresiones encontradas.
+     *
+     * @param baseline    propiedades de la línea base.
+     * @param tolerance   margen relativo permitido (0.25 = 25 %).
+     * @param percentiles percentiles a comparar.
+     * @return una descripción por cada métrica que empeora más de lo permitido.
+     */
+    public List<String> compareWith(Properties baseline, double tolerance, List<Double> percentiles) {
+        List<String> regressions = new ArrayList<>();
+        Map<String, String> current = toProperties();
+        for (String name : results.keySet()) {
+            for (double percentile : percentiles) {
+                String key = percentileKey(name, percentile);
+                String expected = baseline.getProperty(key);
+                if (expected == null) {
+                    continue; // Escenario o percentil nuevo: no hay con qué comparar
+                }
+                double limit = Double.parseDouble(expected) * (1 + tolerance);
+                double actual = Double.parseDouble(current.get(key));
+                if (actual > limit) {
+                    regressions.add(String.format(Locale.ROOT, "%s: %.3f ms > %.3f ms (línea base %s ms + %.0f %%)",
+                            key, actual, limit, expected, tolerance * 100));
+                }
+            }
+            String baselineErrors = baseline.getProperty(name + ".errors");
+            if (baselineErrors != null && results.get(name).errors() > Long.parseLong(baselineErrors)) {
+                regressions.add(name + ".errors: " + results.get(name).errors() + " > " + baselineErrors);
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Carga una línea base del classpath.
+     *
+     * @param resource ruta del recurso.
+     * @return las propiedades, o null si no existe la línea base.
+     * @throws IOException si no se puede leer.
+     */
+    public static Properties loadBaseline(String resource) throws IOException {
+        try (InputStream in = LoadTestReport.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                return null;
+            }
+            Properties baseline = new Properties();
+            baseline.load(in);
+            return baseline;
+        }
+    }
+
+    private static String percentileKey(String name, double percentile) {
+        String p = percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+        return name + ".p" + p + ".ms";
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
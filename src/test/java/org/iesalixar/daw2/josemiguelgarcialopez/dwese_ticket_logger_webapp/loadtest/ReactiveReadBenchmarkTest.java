@@ -0,0 +1,145 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.DweseTicketLoggerWebappApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compara el listado de provincias leído con los DAO de JPA (`/api/provinces`) y con R2DBC
+ * (`/api/provinces/stream`) a varios niveles de concurrencia en bucle cerrado: cada cliente lanza
+ * una petición nueva en cuanto termina la anterior.
+ *
+ * Tomcat se limita a 2 hilos de petición por núcleo y ambos pools a 10 conexiones, para que lo que
+ * se mida sea cuántas conexiones concurrentes atiende cada núcleo. Un nivel se da por atendido si
+ * no hay errores y el p99 no pasa de `loadtest.reactive.p99-limit-ms`. El resultado queda en
+ * `target/loadtest/reactive-read.properties`.
+ *
+ * Se ejecuta con: mvn -Ploadtest test
+ */
+@Tag("loadtest")
+class ReactiveReadBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveReadBenchmarkTest.class);
+
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
+    private static final int[] CONCURRENCY_LEVELS = {16, 64, 256, 1024};
+    private static final int SECONDS = Integer.getInteger("loadtest.reactive.seconds", 10);
+    private static final long P99_LIMIT_MS = Long.getLong("loadtest.reactive.p99-limit-ms", 1000);
+
+    private record Result(double throughput, double p50Ms, double p99Ms, long errors) {
+    }
+
+    @Test
+    void compareBlockingAndReactiveReads() throws Exception {
+        Map<String, String> variants = new LinkedHashMap<>();
+        variants.put("blocking", "/api/provinces");
+        variants.put("reactive", "/api/provinces/stream");
+
+        Map<String, String> report = new LinkedHashMap<>();
+        report.put("cores", Integer.toString(CORES));
+        report.put("tomcat-threads", Integer.toString(2 * CORES));
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DweseTicketLoggerWebappApplication.class)
+                .profiles("loadtest")
+                .properties("server.port=0",
+                        "server.tomcat.threads.max=" + (2 * CORES),
+                        "server.tomcat.max-connections=4096",
+                        "spring.datasource.hikari.maximum-pool-size=10",
+                        "app.pool.adaptive.enabled=false",
+                        "spring.r2dbc.pool.max-size=10")
+                .run()) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(2, CORES));
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(executor)
+                    .build();
+            try {
+                for (Map.Entry<String, String> variant : variants.entrySet()) {
+                    URI uri = URI.create("http://localhost:" + port + variant.getValue());
+                    run(client, uri, 16, 2); // Calentamiento
+                    int sustained = 0;
+                    for (int concurrency : CONCURRENCY_LEVELS) {
+                        Result result = run(client, uri, concurrency, SECONDS);
+                        String prefix = variant.getKey() + ".c" + concurrency + ".";
+                        report.put(prefix + "throughput", String.format("%.1f", result.throughput()));
+                        report.put(prefix + "throughput-per-core", String.format("%.1f", result.throughput() / CORES));
+                        report.put(prefix + "p50-ms", String.format("%.2f", result.p50Ms()));
+                        report.put(prefix + "p99-ms", String.format("%.2f", result.p99Ms()));
+                        report.put(prefix + "errors", Long.toString(result.errors()));
+                        if (result.errors() == 0 && result.p99Ms() <= P99_LIMIT_MS) {
+                            sustained = concurrency;
+                        }
+                    }
+                    report.put(variant.getKey() + ".sustained-concurrency", Integer.toString(sustained));
+                    report.put(variant.getKey() + ".sustained-concurrency-per-core", String.format("%.1f", (double) sustained / CORES));
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        StringBuilder sb = new StringBuilder("# Listado de provincias bloqueante (JPA) frente a R2DBC, bucle cerrado de "
+                + SECONDS + " s por nivel\n");
+        report.forEach((key, value) -> {
+            sb.append(key).append('=').append(value).append('\n');
+            logger.info("{} = {}", key, value);
+        });
+        Path reportFile = Path.of("target", "loadtest", "reactive-read.properties");
+        Files.createDirectories(reportFile.getParent());
+        Files.writeString(reportFile, sb.toString());
+    }
+
+    // Mantiene `concurrency` peticiones en vuelo durante `seconds` segundos
+    private static Result run(HttpClient client, URI uri, int concurrency, int seconds) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).build();
+        Recorder recorder = new Recorder(3);
+        AtomicLong completed = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        Semaphore inFlight = new Semaphore(concurrency);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        while (System.nanoTime() < end) {
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent));
+                        if (error != null || response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                        completed.incrementAndGet();
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(concurrency);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        Histogram histogram = recorder.getIntervalHistogram();
+        return new Result(completed.get() / elapsedSeconds,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                errors.get());
+    }
+}
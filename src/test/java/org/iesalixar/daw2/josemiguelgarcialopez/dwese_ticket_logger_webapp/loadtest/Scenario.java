@@ -0,0 +1,65 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Un tipo de petición dentro de la mezcla de carga.
+ *
+ * @param name     nombre del escenario (se usa en el informe).
+ * @param method   método HTTP (GET o POST).
+ * @param path     ruta relativa a la raíz de la aplicación.
+ * @param form     formulario `clave=valor&...` para los POST; admite el marcador {seq}.
+ * @param weight   peso relativo dentro de la mezcla.
+ * @param seqStart primer valor del contador {seq}.
+ */
+public record Scenario(String name, String method, String path, String form, int weight, long seqStart) {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * Crea el contador {seq} del escenario. Se pide una vez por ejecución.
+     *
+     * @return un contador que empieza en `seqStart`.
+     */
+    public AtomicLong newSequence() {
+        return new AtomicLong(seqStart);
+    }
+
+    /**
+     * Construye la petición HTTP correspondiente al escenario.
+     *
+     * @param baseUri raíz de la aplicación (http://localhost:puerto).
+     * @param seq     valor del contador para esta petición.
+     * @return la petición lista para enviarse.
+     */
+    public HttpRequest toRequest(URI baseUri, long seq) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path)).timeout(REQUEST_TIMEOUT);
+        if ("POST".equals(method)) {
+            return builder.header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(encodeForm(seq)))
+                    .build();
+        }
+        return builder.GET().build();
+    }
+
+    // Codifica cada valor del formulario después de sustituir el marcador {seq}
+    private String encodeForm(long seq) {
+        if (form == null || form.isBlank()) {
+            return "";
+        }
+        StringJoiner body = new StringJoiner("&");
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = pair.substring(0, eq);
+            String value = pair.substring(eq + 1).replace("{seq}", Long.toString(seq));
+            body.add(URLEncoder.encode(key, StandardCharsets.UTF_8) + "=" + URLEncoder.encode(value, StandardCharsets.UTF_8));
+        }
+        return body.toString();
+    }
+}
@@ -0,0 +1,124 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.loadtest;
+
+import org.apache.catalina.Container;
+import org.apache.catalina.Context;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.DweseTicketLoggerWebappApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Mide la memoria que retienen 10.000 visitantes concurrentes que eligen idioma con ?lang=, con el
+ * idioma guardado en sesión ("session") y en cookie ("cookie"). Cada visitante usa un cliente sin
+ * cookies, como un navegador nuevo, así que en el modo sesión cada uno deja una `HttpSession` viva.
+ * El resultado queda en `target/loadtest/session-heap.properties`.
+ *
+ * Se ejecuta con: mvn -Ploadtest test
+ */
+@Tag("loadtest")
+class SessionHeapBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionHeapBenchmarkTest.class);
+
+    private static final int VISITORS = Integer.getInteger("loadtest.visitors", 10_000);
+    private static final int CONCURRENCY = 64;
+
+    @Test
+    void measureHeapPerVisitors() throws Exception {
+        Map<String, String> report = new LinkedHashMap<>();
+        for (String mode : new String[]{"session", "cookie"}) {
+            measure(mode, report);
+        }
+        StringBuilder sb = new StringBuilder("# Memoria retenida por " + VISITORS + " visitantes (bytes)\n");
+        report.forEach((key, value) -> {
+            sb.append(key).append('=').append(value).append('\n');
+            logger.info("{} = {}", key, value);
+        });
+        Path reportFile = Path.of("target", "loadtest", "session-heap.properties");
+        Files.createDirectories(reportFile.getParent());
+        Files.writeString(reportFile, sb.toString());
+    }
+
+    private void measure(String mode, Map<String, String> report) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DweseTicketLoggerWebappApplication.class)
+                .profiles("loadtest")
+                .properties("server.port=0", "app.locale.resolver=" + mode)
+                .run()) {
+            ServletWebServerApplicationContext webContext = (ServletWebServerApplicationContext) context;
+            int port = webContext.getWebServer().getPort();
+            HttpClient client = HttpClient.newHttpClient(); // Sin CookieHandler: cada petición es un visitante nuevo
+            URI uri = URI.create("http://localhost:" + port + "/?lang=en");
+
+            // Calentamiento para no contar la inicialización perezosa de Spring MVC y Thymeleaf
+            for (int i = 0; i < 200; i++) {
+                client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding());
+            }
+            expireSessions(webContext);
+
+            long before = usedHeapAfterGc();
+            Semaphore inFlight = new Semaphore(CONCURRENCY);
+            for (int i = 0; i < VISITORS; i++) {
+                inFlight.acquire();
+                client.sendAsync(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> inFlight.release());
+            }
+            inFlight.acquire(CONCURRENCY);
+            long after = usedHeapAfterGc();
+
+            report.put(mode + ".active-sessions", Integer.toString(activeSessions(webContext)));
+            report.put(mode + ".heap-retained", Long.toString(after - before));
+            report.put(mode + ".heap-retained-per-visitor", Long.toString((after - before) / VISITORS));
+        }
+    }
+
+    // Sesiones activas en el contexto de Tomcat
+    private static int activeSessions(ServletWebServerApplicationContext context) {
+        Context tomcatContext = tomcatContext(context);
+        return tomcatContext.getManager().getActiveSessions();
+    }
+
+    // Invalida las sesiones creadas durante el calentamiento
+    private static void expireSessions(ServletWebServerApplicationContext context) {
+        Context tomcatContext = tomcatContext(context);
+        for (var session : tomcatContext.getManager().findSessions()) {
+            session.expire();
+        }
+    }
+
+    private static Context tomcatContext(ServletWebServerApplicationContext context) {
+        TomcatWebServer webServer = (TomcatWebServer) context.getWebServer();
+        for (Container child : webServer.getTomcat().getHost().findChildren()) {
+            if (child instanceof Context tomcatContext) {
+                return tomcatContext;
+            }
+        }
+        throw new IllegalStateException("No se encuentra el contexto de Tomcat");
+    }
+
+    // Memoria de heap usada tras forzar varias recolecciones
+    private static long usedHeapAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,159 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el arranque de la aplicación empaquetada normalmente con el de la versión optimizada
+ * (AOT + archivo CDS) que genera el perfil "fast-startup". Para cada versión lanza varios procesos
+ * y mide el tiempo hasta que el puerto HTTP acepta conexiones y la latencia de la primera petición.
+ *
+ * Se ejecuta con: mvn -Pfast-startup test-compile exec:java@startup-benchmark
+ */
+public class StartupBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupBenchmark.class);
+
+    // Petición que se mide como primera petición: pasa por el DispatcherServlet, JPA y Thymeleaf
+    private static final String FIRST_REQUEST_PATH = "/locations";
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    public static void main(String[] args) throws Exception {
+        String java = System.getProperty("benchmark.java", "java");
+        int runs = Integer.getInteger("benchmark.runs", 5);
+
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        variants.put("standard", List.of(java, "-jar", require("benchmark.standard-jar")));
+        variants.put("optimized", List.of(java,
+                "-XX:SharedArchiveFile=" + require("benchmark.cds-archive"),
+                "-Dspring.aot.enabled=true",
+                "-jar", require("benchmark.optimized-jar")));
+
+        Map<String, String> report = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+            List<Long> readyMillis = new ArrayList<>();
+            List<Long> firstRequestMillis = new ArrayList<>();
+            for (int run = 1; run <= runs; run++) {
+                long[] result = measure(variant.getKey(), run, variant.getValue());
+                readyMillis.add(result[0]);
+                firstRequestMillis.add(result[1]);
+                logger.info("{} run {}: ready in {} ms, first request in {} ms", variant.getKey(), run, result[0], result[1]);
+            }
+            summarize(report, variant.getKey() + ".time-to-ready", readyMillis);
+            summarize(report, variant.getKey() + ".first-request", firstRequestMillis);
+        }
+
+        StringBuilder sb = new StringBuilder("# Comparativa de arranque (ms)\n");
+        report.forEach((key, value) -> {
+            sb.append(key).append('=').append(value).append('\n');
+            logger.info("{} = {}", key, value);
+        });
+        Path reportFile = Path.of(System.getProperty("benchmark.report", "target/startup-benchmark.properties"));
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        Files.writeString(reportFile, sb.toString());
+        logger.info("Startup benchmark report written to {}", reportFile.toAbsolutePath());
+    }
+
+    /**
+     * Arranca un proceso de la aplicación y mide su arranque.
+     *
+     * @return {milisegundos hasta aceptar conexiones, milisegundos de la primera petición}.
+     */
+    private static long[] measure(String variant, int run, List<String> baseCommand) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(baseCommand);
+        command.add("--server.port=" + port);
+        command.add("--spring.profiles.active=benchmark"); // Con el desglose de tiempos de StartupTimingReporter
+
+        Path log = Path.of("target", "startup-benchmark", variant + "-" + run + ".log");
+        Files.createDirectories(log.getParent());
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            waitForPort(process, port, log);
+            long ready = System.nanoTime();
+
+            HttpClient client = HttpClient.newHttpClient();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + FIRST_REQUEST_PATH)).build();
+            long requestStart = System.nanoTime();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            long requestEnd = System.nanoTime();
+            if (response.statusCode() >= 400) {
+                logger.warn("{} run {}: first request answered {}", variant, run, response.statusCode());
+            }
+            return new long[]{
+                    TimeUnit.NANOSECONDS.toMillis(ready - start),
+                    TimeUnit.NANOSECONDS.toMillis(requestEnd - requestStart)};
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    // Espera hasta que el puerto acepta conexiones o el proceso termina
+    private static void waitForPort(Process process, int port, Path log) throws InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("La aplicación terminó durante el arranque; revisa " + log);
+            }
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("localhost", port), 50);
+                return;
+            } catch (IOException e) {
+                Thread.sleep(5);
+            }
+        }
+        throw new IllegalStateException("La aplicación no arrancó en " + STARTUP_TIMEOUT + "; revisa " + log);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void summarize(Map<String, String> report, String key, List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        report.put(key + ".min", Long.toString(sorted.get(0)));
+        report.put(key + ".median", Long.toString(sorted.get(sorted.size() / 2)));
+        report.put(key + ".max", Long.toString(sorted.get(sorted.size() - 1)));
+        report.put(key + ".mean", String.format(Locale.ROOT, "%.1f",
+                sorted.stream().mapToLong(Long::longValue).average().orElse(0)));
+    }
+
+    private static String require(String property) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException("Falta la propiedad del sistema " + property);
+        }
+        return value;
+    }
+}
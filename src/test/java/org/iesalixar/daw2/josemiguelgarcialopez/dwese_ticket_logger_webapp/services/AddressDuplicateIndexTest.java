@@ -0,0 +1,117 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.AddressDuplicateIndex.Match;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AddressDuplicateIndexTest {
+
+    /**
+     * Una dirección abreviada o con una errata encuentra la guardada; otra calle no.
+     */
+    @Test
+    public void testFindSimilar() {
+        AddressDuplicateIndex index = index();
+        index.put(1, "Calle Mayor 3", 41);
+        index.put(2, "Avenida de la Constitución 20", 41);
+
+        assertEquals(List.of(1), ids(index.findSimilar("C/ Mayor, nº 3", 41, null)));
+        List<Match> misspelled = index.findSimilar("Calle Mayorr 3", 41, null);
+        assertEquals(List.of(1), ids(misspelled));
+        assertTrue(misspelled.get(0).similarity() < 1);
+        assertTrue(index.findSimilar("Calle Menor 3", 41, null).isEmpty());
+    }
+
+    /**
+     * Mismo texto con otro número de portal no es la misma dirección.
+     */
+    @Test
+    public void testDifferentHouseNumberIsNotDuplicate() {
+        AddressDuplicateIndex index = index();
+        index.put(1, "Calle Mayor 3", 41);
+
+        assertTrue(index.findSimilar("Calle Mayor 5", 41, null).isEmpty());
+        assertTrue(index.findSimilar("C/ Mayor, 33", 41, null).isEmpty());
+    }
+
+    /**
+     * Filtros por provincia y por ubicación excluida, y bajas y cambios de dirección.
+     */
+    @Test
+    public void testFiltersAndUpdates() {
+        AddressDuplicateIndex index = index();
+        index.put(1, "Calle Mayor 3", 41);
+
+        assertTrue(index.findSimilar("Calle Mayor 3", 28, null).isEmpty());
+        assertTrue(index.findSimilar("Calle Mayor 3", 41, 1).isEmpty());
+        assertEquals(List.of(1), ids(index.findSimilar("Calle Mayor 3", null, null)));
+
+        index.put(1, "Plaza Nueva 1", 41);
+        assertTrue(index.findSimilar("Calle Mayor 3", null, null).isEmpty());
+        index.remove(1);
+        assertTrue(index.findSimilar("Plaza Nueva 1", null, null).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    /**
+     * En la importación, una dirección sin coincidencia exacta usa la única ubicación claramente más
+     * parecida; si dos empatan, el ticket se rechaza por ambiguo en lugar de elegir una.
+     */
+    @Test
+    public void testImportTieBreak() {
+        AddressDuplicateIndex index = index();
+        index.put(1, "Calle Mayor 3", 41);
+        index.put(2, "Avenida de la Constitución 20", 41);
+        ReceiptParser parser = parser(index, 1, 2);
+        assertEquals(1, parser.parse("a.txt", receipt("Calle Mayorr 3")).locationId());
+        assertEquals(1, parser.parse("b.txt", receipt("C/ Mayor, nº 3")).locationId()); // Coincidencia exacta
+
+        // La misma dirección en dos ubicaciones (otra provincia): empate
+        index.put(3, "Calle Mayor 3", 28);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> parser(index, 1, 2, 3).parse("c.txt", receipt("Calle Mayorr 3")));
+        assertTrue(e.getMessage().contains("ambigua"));
+
+        // Una ubicación borrada después de construir los mapas no cuenta para el empate
+        assertEquals(1, parser(index, 1, 2).parse("d.txt", receipt("Calle Mayorr 3")).locationId());
+
+        e = assertThrows(IllegalArgumentException.class, () -> parser(index, 1, 2, 3).parse("e.txt", receipt("Calle Mayor 5")));
+        assertTrue(e.getMessage().contains("desconocida"));
+    }
+
+    private static AddressDuplicateIndex index() {
+        AddressDuplicateIndex index = new AddressDuplicateIndex();
+        ReflectionTestUtils.setField(index, "minSimilarity", 0.7);
+        return index;
+    }
+
+    // Como lo construye TicketImportService, con las ubicaciones que sigan existiendo
+    private static ReceiptParser parser(AddressDuplicateIndex index, Integer... locationIds) {
+        Map<Integer, String> addresses = Map.of(1, "Calle Mayor 3", 2, "Avenida de la Constitución 20", 3, "Calle Mayor 3");
+        Map<String, Integer> byAddress = new HashMap<>();
+        for (Integer id : locationIds) {
+            byAddress.putIfAbsent(AddressNormalizer.normalize(addresses.get(id)), id);
+        }
+        return new ReceiptParser(new ReceiptParser.Lookup(Map.copyOf(byAddress), Set.of(locationIds),
+                Map.of("SMARTPHONES", 4), index));
+    }
+
+    private static byte[] receipt(String address) {
+        return ("FECHA;2024-10-01\nUBICACION;" + address + "\nLINEA;Smartphones;Teléfono XYZ;1;199.90\n")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<Integer> ids(List<Match> matches) {
+        return matches.stream().map(Match::locationId).toList();
+    }
+}
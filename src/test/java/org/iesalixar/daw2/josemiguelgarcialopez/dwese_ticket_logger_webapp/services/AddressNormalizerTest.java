@@ -0,0 +1,26 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AddressNormalizerTest {
+
+    @Test
+    public void testAbbreviationsAndPunctuation() {
+        assertEquals("calle mayor 3", AddressNormalizer.normalize("C/ Mayor, nº 3"));
+        assertEquals(AddressNormalizer.normalize("Calle Mayor 3"), AddressNormalizer.normalize("C/ Mayor, nº 3"));
+        assertEquals("avenida canal sur sn", AddressNormalizer.normalize("Avda. del Canal Sur, s/n"));
+        assertEquals("centro comercial plaza armas", AddressNormalizer.normalize("C.C. Plaza de Armas"));
+        assertEquals("", AddressNormalizer.normalize(" ,. "));
+    }
+
+    @Test
+    public void testNumbers() {
+        assertEquals(Set.of("3"), AddressNormalizer.numbers(AddressNormalizer.normalize("C/ Mayor, nº 3")));
+        assertEquals(Set.of("12b", "sn"), AddressNormalizer.numbers("calle mayor 12b local sn"));
+        assertEquals(Set.of(), AddressNormalizer.numbers(AddressNormalizer.normalize("Plaza Nueva")));
+    }
+}
@@ -0,0 +1,213 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.EntityType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reparto de eventos con conexiones de prueba que guardan lo que reciben, fallan o se bloquean.
+ */
+public class ChangeEventBroadcasterTest {
+
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private final List<TestEmitter> emitters = new CopyOnWriteArrayList<>();
+    private ChangeEventBroadcaster broadcaster;
+
+    // Comportamiento de la siguiente conexión que se abra
+    private volatile Behavior next;
+
+    @AfterEach
+    public void tearDown() {
+        unblock.countDown();
+        if (broadcaster != null) {
+            broadcaster.shutdown();
+        }
+    }
+
+    /**
+     * Cada conexión recibe solo los cambios de las entidades que sigue.
+     */
+    @Test
+    public void testEntityFilter() {
+        broadcaster = broadcaster(10, 1000);
+        TestEmitter regions = subscribe(Behavior.RECORD, EntityType.REGION);
+        TestEmitter provinces = subscribe(Behavior.RECORD, EntityType.PROVINCE, EntityType.LOCATION);
+
+        broadcaster.onChange(EntityChangeEvent.updated(EntityType.REGION, 3));
+        broadcaster.onChange(EntityChangeEvent.deleted(EntityType.LOCATION, 7));
+        broadcaster.onChange(EntityChangeEvent.inserted(EntityType.CATEGORY, 1));
+
+        awaitTrue(() -> regions.received.size() == 1 && provinces.received.size() == 1);
+        broadcaster.heartbeat(); // Va a todas y marca el final de los eventos anteriores
+        awaitTrue(() -> regions.received.size() == 2 && provinces.received.size() == 2);
+        assertTrue(regions.received.get(0).contains("entity=REGION, operation=UPDATE, id=3"));
+        assertTrue(provinces.received.get(0).contains("entity=LOCATION, operation=DELETE, id=7"));
+    }
+
+    /**
+     * Con el máximo de conexiones abiertas se rechazan las nuevas, también si llegan todas a la vez.
+     */
+    @Test
+    public void testMaxClients() throws Exception {
+        broadcaster = broadcaster(5, 1000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<SseEmitter>> attempts = new CopyOnWriteArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                attempts.add(executor.submit(() -> {
+                    go.await();
+                    return broadcaster.subscribe(Set.of(EntityType.REGION));
+                }));
+            }
+            go.countDown();
+            int accepted = 0;
+            for (Future<SseEmitter> attempt : attempts) {
+                if (attempt.get(5, TimeUnit.SECONDS) != null) {
+                    accepted++;
+                }
+            }
+            assertEquals(5, accepted);
+            assertEquals(5, broadcaster.getSubscriberCount());
+            assertNull(broadcaster.subscribe(Set.of(EntityType.REGION)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Las conexiones que fallan al escribir se quitan y dejan sitio para otras.
+     */
+    @Test
+    public void testDeadClientsAreRemoved() {
+        broadcaster = broadcaster(2, 1000);
+        TestEmitter alive = subscribe(Behavior.RECORD, EntityType.REGION);
+        TestEmitter dead = subscribe(Behavior.FAIL, EntityType.REGION);
+        assertNull(broadcaster.subscribe(Set.of(EntityType.REGION)));
+
+        broadcaster.heartbeat();
+        awaitTrue(() -> broadcaster.getSubscriberCount() == 1);
+        assertTrue(dead.completedWithError);
+        assertEquals(1, alive.received.size());
+        assertNotNull(broadcaster.subscribe(Set.of(EntityType.REGION)));
+    }
+
+    /**
+     * Una conexión bloqueada no retrasa a las demás más que el tiempo máximo de envío y se cierra.
+     */
+    @Test
+    public void testSlowClientDoesNotStallOthers() {
+        broadcaster = broadcaster(10, 200);
+        TestEmitter slow = subscribe(Behavior.BLOCK, EntityType.REGION);
+        TestEmitter fast = subscribe(Behavior.RECORD, EntityType.REGION);
+
+        long start = System.nanoTime();
+        broadcaster.onChange(EntityChangeEvent.updated(EntityType.REGION, 1));
+        awaitTrue(() -> fast.received.size() == 1);
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(200));
+
+        awaitTrue(() -> broadcaster.getSubscriberCount() == 1);
+        awaitTrue(() -> slow.completedWithError); // El envío bloqueado se interrumpe
+        broadcaster.onChange(EntityChangeEvent.updated(EntityType.REGION, 2));
+        awaitTrue(() -> fast.received.size() == 2);
+        assertTrue(slow.received.isEmpty());
+    }
+
+    private ChangeEventBroadcaster broadcaster(int maxClients, long sendTimeoutMillis) {
+        ChangeEventBroadcaster broadcaster = new ChangeEventBroadcaster() {
+            @Override
+            SseEmitter newEmitter() {
+                TestEmitter emitter = new TestEmitter(Objects.requireNonNullElse(next, Behavior.RECORD), unblock);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        ReflectionTestUtils.setField(broadcaster, "timeoutMillis", 60_000L);
+        ReflectionTestUtils.setField(broadcaster, "maxClients", maxClients);
+        ReflectionTestUtils.setField(broadcaster, "sendThreads", 2);
+        ReflectionTestUtils.setField(broadcaster, "sendTimeoutMillis", sendTimeoutMillis);
+        broadcaster.start();
+        return broadcaster;
+    }
+
+    private TestEmitter subscribe(Behavior behavior, EntityType... entities) {
+        next = behavior;
+        TestEmitter emitter = (TestEmitter) broadcaster.subscribe(Set.of(entities));
+        assertNotNull(emitter);
+        return emitter;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "la condición no se cumplió a tiempo");
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private enum Behavior { RECORD, FAIL, BLOCK }
+
+    // Conexión que no escribe en ninguna respuesta: guarda el texto de cada evento (los datos, sin
+    // convertir a JSON)
+    private static final class TestEmitter extends SseEmitter {
+
+        private final Behavior behavior;
+        private final CountDownLatch unblock;
+        private final List<String> received = new CopyOnWriteArrayList<>();
+        private volatile boolean completedWithError;
+
+        TestEmitter(Behavior behavior, CountDownLatch unblock) {
+            this.behavior = behavior;
+            this.unblock = unblock;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            switch (behavior) {
+                case FAIL -> throw new IOException("conexión cerrada");
+                case BLOCK -> {
+                    try {
+                        unblock.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException("envío interrumpido");
+                    }
+                }
+                case RECORD -> {
+                    StringBuilder text = new StringBuilder();
+                    items.forEach(item -> text.append(item.getData()));
+                    received.add(text.toString());
+                }
+            }
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completedWithError = true;
+        }
+    }
+}
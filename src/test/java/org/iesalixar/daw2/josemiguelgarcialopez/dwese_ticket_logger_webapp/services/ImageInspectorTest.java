@@ -0,0 +1,77 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ImageInspectorTest {
+
+    private final ImageInspector inspector = new ImageInspector(4096, 4096, 4_000_000);
+
+    /**
+     * Lee el formato y las dimensiones de una imagen válida.
+     */
+    @Test
+    public void testReadsHeader() throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(120, 80, BufferedImage.TYPE_INT_RGB), "png", png);
+        ImageInspector.ImageInfo info = inspector.inspect(new ByteArrayInputStream(png.toByteArray()));
+        assertEquals("png", info.format());
+        assertEquals("png", info.extension());
+        assertEquals(120, info.width());
+        assertEquals(80, info.height());
+    }
+
+    /**
+     * Una imagen de 50.000 × 50.000 se rechaza con solo su cabecera: el archivo no lleva píxeles.
+     */
+    @Test
+    public void testRejectsHugeImageFromHeaderOnly() {
+        ImageRejectedException e = assertThrows(ImageRejectedException.class,
+                () -> inspector.inspect(new ByteArrayInputStream(pngHeader(50_000, 50_000))));
+        assertEquals(ImageRejectedException.Reason.DIMENSIONS, e.getReason());
+    }
+
+    /**
+     * Dentro de ancho y alto, pero por encima del total de píxeles.
+     */
+    @Test
+    public void testRejectsPixelCount() {
+        ImageRejectedException e = assertThrows(ImageRejectedException.class,
+                () -> inspector.inspect(new ByteArrayInputStream(pngHeader(4000, 4000))));
+        assertEquals(ImageRejectedException.Reason.PIXELS, e.getReason());
+    }
+
+    /**
+     * Lo que no es una imagen admitida se rechaza, se llame como se llame.
+     */
+    @Test
+    public void testRejectsNonImages() {
+        ImageRejectedException e = assertThrows(ImageRejectedException.class,
+                () -> inspector.inspect(new ByteArrayInputStream("<svg></svg>".getBytes(StandardCharsets.US_ASCII))));
+        assertEquals(ImageRejectedException.Reason.UNREADABLE, e.getReason());
+    }
+
+    // Firma PNG y bloque IHDR (RGB de 8 bits), sin datos de imagen
+    private static byte[] pngHeader(int width, int height) {
+        ByteBuffer ihdr = ByteBuffer.allocate(17);
+        ihdr.put("IHDR".getBytes(StandardCharsets.US_ASCII)).putInt(width).putInt(height)
+                .put((byte) 8).put((byte) 2).put((byte) 0).put((byte) 0).put((byte) 0);
+        CRC32 crc = new CRC32();
+        crc.update(ihdr.array());
+        return ByteBuffer.allocate(8 + 4 + 17 + 4)
+                .put(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'})
+                .putInt(13).put(ihdr.array()).putInt((int) crc.getValue())
+                .array();
+    }
+}
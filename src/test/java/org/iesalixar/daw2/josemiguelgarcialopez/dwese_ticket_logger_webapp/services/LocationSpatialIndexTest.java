@@ -0,0 +1,105 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.LocationSpatialIndex.Neighbor;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.LocationSpatialIndex.Point;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LocationSpatialIndexTest {
+
+    /**
+     * Los k más cercanos salen ordenados por distancia y coinciden con los de un recorrido completo,
+     * tanto cerca (pocos anillos) como lejos de todos los puntos (se recorren todos).
+     */
+    @Test
+    public void testNearestMatchesFullScan() {
+        LocationSpatialIndex index = index();
+        Random random = new Random(41);
+        List<Point> points = new ArrayList<>();
+        for (int id = 1; id <= 500; id++) {
+            Point point = new Point(id, 37.0 + random.nextDouble(), -6.5 + random.nextDouble());
+            points.add(point);
+            index.put(point);
+        }
+
+        for (double[] query : new double[][]{{37.39, -5.99}, {37.0, -6.5}, {40.42, -3.70}}) {
+            List<Neighbor> nearest = index.nearest(query[0], query[1], 10);
+            List<Integer> expected = points.stream()
+                    .sorted(Comparator.comparingDouble(p -> LocationSpatialIndex.distanceKm(query[0], query[1], p.latitude(), p.longitude())))
+                    .limit(10)
+                    .map(Point::id)
+                    .toList();
+            assertEquals(expected, nearest.stream().map(neighbor -> neighbor.point().id()).toList());
+            for (int i = 1; i < nearest.size(); i++) {
+                assertTrue(nearest.get(i - 1).distanceKm() <= nearest.get(i).distanceKm());
+            }
+        }
+    }
+
+    /**
+     * Un punto de la celda contigua más cerca que otro de la misma celda sale primero.
+     */
+    @Test
+    public void testNearestLooksBeyondOwnCell() {
+        LocationSpatialIndex index = index();
+        index.put(new Point(1, 37.049, -6.01)); // Celda vecina, a unos 1,2 km
+        index.put(new Point(2, 37.098, -6.04)); // Misma celda, a unos 4,4 km
+        index.put(new Point(3, 38.0, -6.0)); // A unos 104 km
+
+        List<Neighbor> nearest = index.nearest(37.06, -6.01, 2);
+        assertEquals(List.of(1, 2), nearest.stream().map(neighbor -> neighbor.point().id()).toList());
+        assertEquals(3, index.nearest(37.06, -6.01, 5).size()); // No hay más que tres
+        assertTrue(index.nearest(37.06, -6.01, 0).isEmpty());
+    }
+
+    /**
+     * El rectángulo incluye sus bordes y nada de fuera, y los puntos movidos o quitados dejan de estar.
+     */
+    @Test
+    public void testWithinLimits() {
+        LocationSpatialIndex index = index();
+        index.put(new Point(1, 37.30, -6.00)); // En el borde inferior
+        index.put(new Point(2, 37.35, -5.95));
+        index.put(new Point(3, 37.40, -5.90)); // En la esquina superior
+        index.put(new Point(4, 37.4001, -5.95)); // Justo encima
+        index.put(new Point(5, 37.35, -6.0001)); // Justo a la izquierda
+
+        assertEquals(List.of(1, 2, 3), ids(index.within(37.30, -6.00, 37.40, -5.90)));
+        // Rectángulo pequeño: se recorren sus celdas en lugar de todos los puntos
+        assertEquals(List.of(2), ids(index.within(37.349, -5.951, 37.351, -5.949)));
+
+        index.put(new Point(2, 36.0, -5.95)); // Se mueve fuera
+        index.remove(3);
+        assertEquals(List.of(1), ids(index.within(37.30, -6.00, 37.40, -5.90)));
+        assertEquals(4, index.size());
+
+        assertThrows(IllegalArgumentException.class, () -> index.within(37.40, -6.00, 37.30, -5.90));
+    }
+
+    @Test
+    public void testDistanceKm() {
+        // Sevilla - Madrid, unos 390 km en línea recta
+        double distance = LocationSpatialIndex.distanceKm(37.3891, -5.9845, 40.4168, -3.7038);
+        assertEquals(390, distance, 5);
+        assertEquals(0, LocationSpatialIndex.distanceKm(37.0, -6.0, 37.0, -6.0), 1e-9);
+    }
+
+    private static LocationSpatialIndex index() {
+        LocationSpatialIndex index = new LocationSpatialIndex();
+        ReflectionTestUtils.setField(index, "cellDegrees", 0.05);
+        return index;
+    }
+
+    private static List<Integer> ids(List<Point> points) {
+        return points.stream().map(Point::id).toList();
+    }
+}
@@ -0,0 +1,149 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.PriceSeriesDAO;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Category;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.PriceSeriesBlock;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Ticket;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.TicketLine;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.PriceHistoryService.PriceBucket;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.PriceHistoryService.PricePoint;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.PriceHistoryService.Resolution;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Historial de precios guardado de verdad en bloques. Cada llamada a `recordTickets` confirma su
+ * transacción, así que los bloques de prueba se borran al terminar.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class PriceHistoryServiceTest {
+
+    private static final String PRODUCT = "Producto de historial";
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1); // Lunes
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private PriceSeriesDAO priceSeriesDAO;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void deleteSeries() {
+        jdbcTemplate.update("DELETE FROM price_series_blocks WHERE product = ?", PriceHistoryService.normalizeProduct(PRODUCT));
+    }
+
+    /**
+     * Más observaciones de las que caben en un bloque, llegadas desordenadas y con un ticket atrasado
+     * en un segundo lote, se leen ordenadas por fecha y sin perder ninguna.
+     */
+    @Test
+    public void testAppendPastBlockAndOutOfOrder() {
+        List<Ticket> first = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            first.add(ticket(i, 100 + i));
+        }
+        Collections.shuffle(first, new Random(7));
+        priceHistoryService.recordTickets(first);
+
+        List<Ticket> second = new ArrayList<>();
+        for (int i = 300; i < 350; i++) {
+            second.add(ticket(i, 100 + i));
+        }
+        second.add(ticket(10, 999)); // Ticket atrasado de un día que ya tiene precio
+        priceHistoryService.recordTickets(second);
+
+        List<PriceSeriesBlock> blocks = priceSeriesDAO.listBlocks(PriceHistoryService.normalizeProduct(PRODUCT), 1,
+                START, START.plusDays(400));
+        assertEquals(List.of(PriceSeriesCodec.MAX_POINTS, 351 - PriceSeriesCodec.MAX_POINTS),
+                blocks.stream().map(PriceSeriesBlock::getPointCount).toList());
+
+        List<PricePoint> history = priceHistoryService.getHistory(PRODUCT, 1, START, START.plusDays(400));
+        assertEquals(351, history.size());
+        for (int i = 1; i < history.size(); i++) {
+            assertTrue(!history.get(i).date().isBefore(history.get(i - 1).date()));
+        }
+
+        // El bloque ampliado empieza ahora en el día atrasado, así que también se lee para este rango
+        List<PricePoint> range = priceHistoryService.getHistory(PRODUCT, 1, START.plusDays(9), START.plusDays(11));
+        assertEquals(List.of(
+                new PricePoint(START.plusDays(9), new BigDecimal("1.09")),
+                new PricePoint(START.plusDays(10), new BigDecimal("1.10")),
+                new PricePoint(START.plusDays(10), new BigDecimal("9.99")),
+                new PricePoint(START.plusDays(11), new BigDecimal("1.11"))), range);
+
+        List<PriceBucket> months = priceHistoryService.getDownsampledHistory(PRODUCT, 1, START, START.plusDays(30), Resolution.MONTH);
+        // 31 días a 1,00-1,30 más el atrasado a 9,99: (3565 + 999) / 32 = 142,625 céntimos
+        assertEquals(List.of(new PriceBucket(START, new BigDecimal("1.00"), new BigDecimal("9.99"), new BigDecimal("1.00"),
+                new BigDecimal("1.30"), new BigDecimal("1.43"), 32)), months);
+
+        List<PriceBucket> weeks = priceHistoryService.getDownsampledHistory(PRODUCT, 1, START, START.plusDays(13), Resolution.WEEK);
+        assertEquals(List.of(START, START.plusDays(7)), weeks.stream().map(PriceBucket::start).toList());
+        assertEquals(List.of(7, 8), weeks.stream().map(PriceBucket::count).toList());
+    }
+
+    /**
+     * Dos importaciones de la misma serie a la vez no se pisan el último bloque.
+     */
+    @Test
+    public void testConcurrentAppends() throws Exception {
+        priceHistoryService.recordTickets(List.of(ticket(0, 100)));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> imports = new ArrayList<>();
+            for (int batch = 0; batch < 2; batch++) {
+                List<Ticket> tickets = new ArrayList<>();
+                for (int i = 1; i <= 50; i++) {
+                    tickets.add(ticket(batch * 50 + i, 100));
+                }
+                imports.add(executor.submit(() -> {
+                    start.await();
+                    priceHistoryService.recordTickets(tickets);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : imports) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(101, priceHistoryService.getHistory(PRODUCT, 1, START, START.plusDays(200)).size());
+    }
+
+    private static Ticket ticket(int day, long cents) {
+        Location location = new Location();
+        location.setId(1);
+        Category category = new Category();
+        category.setId(4);
+        TicketLine line = new TicketLine(category, PRODUCT, BigDecimal.ONE, BigDecimal.valueOf(cents, 2));
+        return new Ticket(START.plusDays(day), location, "price-history-test.txt", List.of(line));
+    }
+}
@@ -0,0 +1,78 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PriceSeriesCodecTest {
+
+    /**
+     * Un bloque lleno con días, subidas y bajadas aleatorias se recupera sin cambios.
+     */
+    @Test
+    public void testRoundTrip() {
+        Random random = new Random(42);
+        int[] days = new int[PriceSeriesCodec.MAX_POINTS];
+        long[] cents = new long[PriceSeriesCodec.MAX_POINTS];
+        days[0] = (int) LocalDate.of(2024, 1, 1).toEpochDay();
+        cents[0] = 199;
+        for (int i = 1; i < days.length; i++) {
+            days[i] = days[i - 1] + random.nextInt(4); // Puede repetirse el día
+            cents[i] = Math.max(1, cents[i - 1] + random.nextInt(41) - 20);
+        }
+
+        PriceSeriesCodec.Points points = PriceSeriesCodec.decode(PriceSeriesCodec.encode(days, cents, days.length));
+
+        assertArrayEquals(days, points.days());
+        assertArrayEquals(cents, points.cents());
+    }
+
+    /**
+     * Los precios estables en días consecutivos ocupan dos bytes por observación.
+     */
+    @Test
+    public void testStablePricesAreCompact() {
+        int[] days = new int[100];
+        long[] cents = new long[100];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = 19_700 + i;
+            cents[i] = 1_250;
+        }
+        byte[] data = PriceSeriesCodec.encode(days, cents, days.length);
+        assertTrue(data.length <= 1 + 6 + 2 * 99, "tamaño: " + data.length);
+    }
+
+    /**
+     * Los días anteriores a 1970 y los precios negativos (devoluciones) se codifican con zigzag.
+     */
+    @Test
+    public void testNegativeValues() {
+        int[] days = {-400, -399, 5};
+        long[] cents = {-150, 300, -1};
+        PriceSeriesCodec.Points points = PriceSeriesCodec.decode(PriceSeriesCodec.encode(days, cents, 3));
+        assertArrayEquals(days, points.days());
+        assertArrayEquals(cents, points.cents());
+        assertEquals(3, points.size());
+    }
+
+    /**
+     * Se rechazan los días desordenados, los bloques demasiado grandes y los datos truncados.
+     */
+    @Test
+    public void testInvalidInput() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PriceSeriesCodec.encode(new int[]{2, 1}, new long[]{1, 1}, 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> PriceSeriesCodec.encode(new int[300], new long[300], 300));
+        byte[] data = PriceSeriesCodec.encode(new int[]{1, 2, 3}, new long[]{100, 200, 300}, 3);
+        assertThrows(IllegalArgumentException.class,
+                () -> PriceSeriesCodec.decode(Arrays.copyOf(data, data.length - 1)));
+    }
+}
@@ -0,0 +1,98 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.CategoryDAO;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.LocationDAO;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.ProvinceDAO;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.SupermarketDAO;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Category;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Ticket;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.TicketLine;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Un lote de tickets con una categoría y una ubicación creadas después de cargar el almacén las lee
+ * una sola vez, por ID, en lugar de recargar todas las dimensiones por cada línea.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class SpendingAnalyticsServiceTest {
+
+    @Autowired
+    private SpendingAnalyticsService spendingAnalyticsService;
+
+    @SpyBean
+    private LocationDAO locationDAO;
+
+    @SpyBean
+    private CategoryDAO categoryDAO;
+
+    @Autowired
+    private ProvinceDAO provinceDAO;
+
+    @Autowired
+    private SupermarketDAO supermarketDAO;
+
+    @Test
+    public void testBatchLoadsOnlyMissingDimensions() throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!spendingAnalyticsService.isLoaded() && System.nanoTime() < deadline) {
+            Thread.sleep(20); // La carga inicial va en segundo plano
+        }
+        assertTrue(spendingAnalyticsService.isLoaded());
+
+        Location location = new Location("Calle Analítica, 1", "Sevilla", supermarketDAO.getSupermarketById(1),
+                provinceDAO.getProvinceById(41));
+        locationDAO.insertLocation(location);
+        Category category = new Category("Categoría de análisis", null, null);
+        categoryDAO.insertCategory(category);
+        try {
+            int before = spendingAnalyticsService.getLineCount();
+            List<Ticket> batch = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                TicketLine line = new TicketLine(category, "Producto", BigDecimal.ONE, new BigDecimal("2.50"));
+                Ticket ticket = new Ticket(LocalDate.of(2024, 3, 1), location, "analytics-test.txt", List.of(line, line));
+                ticket.setId(900_000 + i); // No se guardan: basta con un ID que no esté en el almacén
+                batch.add(ticket);
+            }
+            clearInvocations(locationDAO, categoryDAO);
+
+            spendingAnalyticsService.appendTickets(batch);
+
+            assertEquals(before + 6, spendingAnalyticsService.getLineCount());
+            verify(locationDAO).getLocationsByIds(Set.of(location.getId()));
+            verify(categoryDAO).getCategoriesByIds(Set.of(category.getId()));
+            verify(locationDAO, never()).listAllLocations();
+            verify(categoryDAO, never()).listAllCategories();
+
+            // Un segundo lote ya no consulta nada
+            clearInvocations(locationDAO, categoryDAO);
+            Ticket next = new Ticket(LocalDate.of(2024, 3, 2), location, "analytics-test.txt",
+                    List.of(new TicketLine(category, "Producto", BigDecimal.ONE, BigDecimal.ONE)));
+            next.setId(900_010);
+            spendingAnalyticsService.appendTickets(List.of(next));
+            verify(locationDAO, never()).getLocationsByIds(any());
+            verify(categoryDAO, never()).getCategoriesByIds(any());
+        } finally {
+            locationDAO.deleteLocation(location.getId());
+            categoryDAO.deleteCategory(category.getId());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.EntityChangeEvent.EntityType;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.SupermarketDAO;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.entity.Supermarket;
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.reactive.SupermarketRow;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sincronización incremental contra H2. Los cambios se confirman de verdad (hace falta para probar el
+ * orden de confirmación), así que cada prueba borra lo que crea.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class SyncServiceTest {
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private SupermarketDAO supermarketDAO;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Tras una sincronización completa solo llegan las altas, los cambios y las bajas posteriores.
+     */
+    @Test
+    public void testIncrementalChanges() {
+        String token = syncService.changesSince(null).token();
+
+        Supermarket supermarket = new Supermarket("Supermercado de prueba");
+        supermarketDAO.insertSupermarket(supermarket);
+        SyncService.Changes inserted = syncService.changesSince(token);
+        assertFalse(inserted.full());
+        assertEquals(List.of(new SupermarketRow(supermarket.getId(), "Supermercado de prueba")), inserted.supermarkets());
+        assertTrue(inserted.locations().isEmpty());
+
+        // Sin cambios nuevos, el token no avanza y la respuesta está vacía
+        SyncService.Changes unchanged = syncService.changesSince(inserted.token());
+        assertEquals(inserted.token(), unchanged.token());
+        assertTrue(unchanged.supermarkets().isEmpty());
+
+        supermarketDAO.deleteSupermarket(supermarket.getId());
+        SyncService.Changes deleted = syncService.changesSince(inserted.token());
+        assertTrue(deleted.supermarkets().isEmpty());
+        assertEquals(List.of(supermarket.getId()), deleted.deleted().get(EntityType.SUPERMARKET));
+    }
+
+    /**
+     * Un cambio de una transacción que sigue abierta durante una sincronización llega en la siguiente,
+     * por mucho que tarde en confirmarse.
+     */
+    @Test
+    public void testLongTransactionIsNotMissed() throws Exception {
+        String token = syncService.changesSince(null).token();
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> writer = executor.submit(() -> transaction.execute(status -> {
+                Supermarket supermarket = new Supermarket("Supermercado lento");
+                supermarketDAO.insertSupermarket(supermarket);
+                written.countDown();
+                await(release); // La transacción sigue abierta mientras el cliente sincroniza
+                return supermarket.getId();
+            }));
+            assertTrue(written.await(5, TimeUnit.SECONDS));
+
+            SyncService.Changes during = syncService.changesSince(token);
+            assertTrue(during.supermarkets().isEmpty());
+
+            release.countDown();
+            int id = writer.get(5, TimeUnit.SECONDS);
+            SyncService.Changes after = syncService.changesSince(during.token());
+            assertEquals(List.of(new SupermarketRow(id, "Supermercado lento")), after.supermarkets());
+
+            supermarketDAO.deleteSupermarket(id);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SyncTokenTest {
+
+    /**
+     * El token conserva la secuencia.
+     */
+    @Test
+    public void testRoundTrip() {
+        assertEquals(0L, SyncToken.decode(SyncToken.encode(0)));
+        assertEquals(9_007_199_254_740_993L, SyncToken.decode(SyncToken.encode(9_007_199_254_740_993L)));
+    }
+
+    /**
+     * Un token de la versión anterior (con un instante) obliga a una sincronización completa.
+     */
+    @Test
+    public void testPreviousVersionForcesFullSync() {
+        assertNull(SyncToken.decode("MToxNzMwODI4NTIzMTIzNDU2")); // "1:1730828523123456"
+    }
+
+    /**
+     * Un token que no ha generado la aplicación se rechaza.
+     */
+    @Test
+    public void testRejectsForeignTokens() {
+        assertThrows(IllegalArgumentException.class, () -> SyncToken.decode("no es un token"));
+        assertThrows(IllegalArgumentException.class, () -> SyncToken.decode("MzoxMjM")); // "3:123"
+        assertThrows(IllegalArgumentException.class, () -> SyncToken.decode("MjphYmM")); // "2:abc"
+        assertThrows(IllegalArgumentException.class, () -> SyncToken.decode("MjotMQ")); // "2:-1"
+        assertThrows(IllegalArgumentException.class, () -> SyncToken.decode("MTphYmM")); // "1:abc"
+    }
+}
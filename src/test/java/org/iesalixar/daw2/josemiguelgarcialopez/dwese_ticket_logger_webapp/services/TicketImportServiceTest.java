@@ -0,0 +1,115 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Importación de archivos ZIP con límites pequeños. La importación se ejecuta en su propio hilo y
+ * confirma los tickets, así que la prueba que los guarda los borra al terminar.
+ */
+@SpringBootTest(properties = {
+        "app.tickets.import.max-entries=4",
+        "app.tickets.import.max-uncompressed-bytes=1000"})
+@ActiveProfiles("test")
+public class TicketImportServiceTest {
+
+    private static final String RECEIPT = "FECHA;2024-10-01\nUBICACION;2\nLINEA;Portátiles;Portátil de prueba;1;499.90\n";
+
+    @Autowired
+    private TicketImportService ticketImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Los tickets válidos se guardan con el DAO; los que no se pueden analizar se cuentan como fallidos.
+     */
+    @Test
+    public void testImportStoresTickets() throws Exception {
+        Map<String, String> files = new LinkedHashMap<>();
+        files.put("import-test/1.txt", RECEIPT);
+        files.put("import-test/2.csv", RECEIPT.replace("UBICACION;2", "UBICACION;Avenida del Canal Sur, s/n")); // Dirección de la ubicación 2
+        files.put("import-test/3.txt", "FECHA;2024-10-01\nUBICACION;2\n"); // Sin líneas
+        files.put("import-test/notas.md", "Se ignora");
+        try {
+            TicketImportProgress progress = ticketImportService.startImport(zip(files));
+            TicketImportProgress.Snapshot snapshot = awaitFinished(progress);
+
+            assertEquals(TicketImportProgress.State.DONE, snapshot.state());
+            assertEquals(3, snapshot.totalFiles());
+            assertEquals(2, snapshot.storedTickets());
+            assertEquals(1, snapshot.failedFiles());
+            assertEquals(2, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM tickets WHERE source_file LIKE 'import-test/%' AND location_id = 2", Integer.class));
+            assertEquals(2, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM ticket_lines l JOIN tickets t ON t.id = l.ticket_id"
+                            + " WHERE t.source_file LIKE 'import-test/%' AND l.product = 'Portátil de prueba'", Integer.class));
+        } finally {
+            jdbcTemplate.update("DELETE FROM ticket_lines WHERE ticket_id IN (SELECT id FROM tickets WHERE source_file LIKE 'import-test/%')");
+            jdbcTemplate.update("DELETE FROM tickets WHERE source_file LIKE 'import-test/%'");
+            jdbcTemplate.update("DELETE FROM price_series_blocks WHERE product = ?", PriceHistoryService.normalizeProduct("Portátil de prueba"));
+        }
+    }
+
+    /**
+     * Un archivo con más entradas de las permitidas se rechaza aunque sean directorios o ficheros
+     * que se ignoran.
+     */
+    @Test
+    public void testRejectsTooManyEntries() throws IOException {
+        Map<String, String> files = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            files.put("import-test/" + i + ".md", "");
+        }
+        MockMultipartFile archive = zip(files);
+        IOException e = assertThrows(IOException.class, () -> ticketImportService.startImport(archive));
+        assertTrue(e.getMessage().contains("entradas"));
+    }
+
+    /**
+     * Un archivo que descomprimido supera el tamaño permitido se rechaza, aunque comprimido sea pequeño.
+     */
+    @Test
+    public void testRejectsTooManyUncompressedBytes() throws IOException {
+        MockMultipartFile archive = zip(Map.of("import-test/grande.txt", "#".repeat(1001)));
+        assertTrue(archive.getSize() < 1000);
+        IOException e = assertThrows(IOException.class, () -> ticketImportService.startImport(archive));
+        assertTrue(e.getMessage().contains("tamaño"));
+    }
+
+    private TicketImportProgress.Snapshot awaitFinished(TicketImportProgress progress) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!progress.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        return ticketImportService.getProgress(progress.getId()).snapshot();
+    }
+
+    private static MockMultipartFile zip(Map<String, String> files) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, String> file : files.entrySet()) {
+                zip.putNextEntry(new ZipEntry(file.getKey()));
+                zip.write(file.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return new MockMultipartFile("archive", "tickets.zip", "application/zip", out.toByteArray());
+    }
+}
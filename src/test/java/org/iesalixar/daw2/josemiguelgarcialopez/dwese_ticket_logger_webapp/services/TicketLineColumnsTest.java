@@ -0,0 +1,126 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services.SpendingQuery.Dimension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TicketLineColumnsTest {
+
+    private TicketLineColumns columns;
+
+    /**
+     * Árbol de categorías: Electrónica (1) > Smartphones (2) > Accesorios (3), y Alimentación (4).
+     * Dos ubicaciones en Sevilla (supermercados 1 y 2) y una en Málaga (supermercado 1).
+     */
+    @BeforeEach
+    public void setUp() {
+        columns = new TicketLineColumns();
+        columns.defineCategory(3, "Accesorios", 2); // El padre se registra después
+        columns.defineCategory(1, "Electrónica", null);
+        columns.defineCategory(2, "Smartphones", 1);
+        columns.defineCategory(4, "Alimentación", null);
+        columns.defineLocation(10, "Calle A", 41, "Sevilla", 1, "Mercadona");
+        columns.defineLocation(11, "Calle B", 41, "Sevilla", 2, "Lidl");
+        columns.defineLocation(12, "Calle C", 29, "Málaga", 1, "Mercadona");
+
+        columns.append(2, 10, LocalDate.of(2024, 1, 5), 19_990);
+        columns.append(3, 11, LocalDate.of(2024, 2, 20), 1_500);
+        columns.append(1, 12, LocalDate.of(2024, 2, 1), 5_000);
+        columns.append(4, 10, LocalDate.of(2024, 2, 3), 2_345);
+        columns.append(4, 12, LocalDate.of(2024, 3, 9), 655);
+    }
+
+    /**
+     * Sin filtro, agrupar por categoría suma el subárbol de cada categoría raíz.
+     */
+    @Test
+    public void testGroupByRootCategory() {
+        List<SpendingQuery.Row> rows = columns.aggregate(query(List.of(Dimension.CATEGORY), null, null, null, null));
+        assertEquals(2, rows.size());
+        assertEquals("Alimentación", name(rows.get(0), "category"));
+        assertEquals(new BigDecimal("30.00"), rows.get(0).total());
+        assertEquals("Electrónica", name(rows.get(1), "category"));
+        assertEquals(new BigDecimal("264.90"), rows.get(1).total());
+        assertEquals(3, rows.get(1).lines());
+    }
+
+    /**
+     * Con filtro de categoría, cada grupo es un hijo directo de la categoría filtrada (más la propia categoría).
+     */
+    @Test
+    public void testCategorySubtreeByProvinceAndMonth() {
+        List<SpendingQuery.Row> rows = columns.aggregate(
+                query(List.of(Dimension.CATEGORY, Dimension.PROVINCE, Dimension.MONTH), 1, null, null, null));
+        assertEquals(3, rows.size());
+        assertEquals("Electrónica", name(rows.get(0), "category"));
+        assertEquals("Málaga", name(rows.get(0), "province"));
+        assertEquals("2024-02", rows.get(0).group().get("month"));
+        assertEquals("Smartphones", name(rows.get(1), "category"));
+        assertEquals("Sevilla", name(rows.get(1), "province"));
+        assertEquals(new BigDecimal("199.90"), rows.get(1).total());
+        assertEquals("Smartphones", name(rows.get(2), "category"));
+        assertEquals(new BigDecimal("15.00"), rows.get(2).total()); // Accesorios cuenta dentro de Smartphones
+    }
+
+    /**
+     * Los filtros de provincia y de meses se combinan.
+     */
+    @Test
+    public void testFilterByProvinceAndMonths() {
+        List<SpendingQuery.Row> rows = columns.aggregate(
+                query(List.of(Dimension.SUPERMARKET), null, 41, YearMonth.of(2024, 2), YearMonth.of(2024, 12)));
+        assertEquals(2, rows.size());
+        assertEquals("Lidl", name(rows.get(0), "supermarket"));
+        assertEquals(new BigDecimal("15.00"), rows.get(0).total());
+        assertEquals("Mercadona", name(rows.get(1), "supermarket"));
+        assertEquals(new BigDecimal("23.45"), rows.get(1).total());
+    }
+
+    /**
+     * Sin agrupaciones se obtiene el total; un ID desconocido no devuelve filas.
+     */
+    @Test
+    public void testTotalsAndUnknownIds() {
+        List<SpendingQuery.Row> rows = columns.aggregate(query(List.of(), null, null, null, null));
+        assertEquals(1, rows.size());
+        assertEquals(new BigDecimal("294.90"), rows.get(0).total());
+        assertEquals(5, rows.get(0).lines());
+        assertTrue(columns.aggregate(query(List.of(), 99, null, null, null)).isEmpty());
+        assertFalse(columns.append(99, 10, LocalDate.of(2024, 1, 1), 100)); // Categoría no registrada
+    }
+
+    /**
+     * Las consultas que superan el máximo de grupos se rechazan.
+     */
+    @Test
+    public void testTooManyGroups() {
+        TicketLineColumns large = new TicketLineColumns();
+        for (int i = 0; i < 1_000; i++) {
+            large.defineCategory(i, "c" + i, null);
+            large.defineLocation(i, "l" + i, i, "p" + i, 1, "s");
+            large.append(i, i, LocalDate.of(2024, 1, 1), 1);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> large.aggregate(query(List.of(Dimension.CATEGORY, Dimension.LOCATION), null, null, null, null)));
+    }
+
+    private static SpendingQuery query(List<Dimension> groupBy, Integer category, Integer province, YearMonth from, YearMonth to) {
+        return new SpendingQuery(groupBy, category, province, null, null, from, to);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String name(SpendingQuery.Row row, String dimension) {
+        return (String) ((Map<String, Object>) row.group().get(dimension)).get("name");
+    }
+}
@@ -0,0 +1,60 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.dao.TicketPartitionDAO.TicketPartition;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TicketPartitionServiceTest {
+
+    private static final YearMonth CURRENT = YearMonth.of(2024, 11);
+    private static final TicketPartition PMAX = new TicketPartition("pmax", null, 0);
+
+    /**
+     * La primera vez se crean particiones desde el mes del ticket más antiguo hasta los meses futuros.
+     */
+    @Test
+    public void testFirstRunStartsAtOldestTicket() {
+        List<YearMonth> months = TicketPartitionService.monthsToAdd(List.of(PMAX), LocalDate.of(2024, 9, 15), CURRENT, 2);
+        assertEquals(List.of(YearMonth.of(2024, 9), YearMonth.of(2024, 10), YearMonth.of(2024, 11),
+                YearMonth.of(2024, 12), YearMonth.of(2025, 1)), months);
+    }
+
+    /**
+     * Con la tabla vacía se empieza por el mes actual.
+     */
+    @Test
+    public void testFirstRunOnEmptyTable() {
+        assertEquals(List.of(CURRENT, CURRENT.plusMonths(1)), TicketPartitionService.monthsToAdd(List.of(PMAX), null, CURRENT, 1));
+    }
+
+    /**
+     * Después solo se añaden los meses que faltan tras la última partición mensual.
+     */
+    @Test
+    public void testOnlyMissingMonthsAreAdded() {
+        List<TicketPartition> partitions = List.of(partition(2024, 12), partition(2025, 1), PMAX);
+        assertEquals(List.of(YearMonth.of(2025, 2)), TicketPartitionService.monthsToAdd(partitions, null, CURRENT, 3));
+        assertTrue(TicketPartitionService.monthsToAdd(partitions, null, CURRENT, 2).isEmpty());
+    }
+
+    /**
+     * Se conservan el mes actual y los `retentionMonths` anteriores; `pmax` nunca caduca.
+     */
+    @Test
+    public void testExpiredPartitions() {
+        List<TicketPartition> partitions = List.of(partition(2024, 7), partition(2024, 8), partition(2024, 9),
+                partition(2024, 10), partition(2024, 11), PMAX);
+        assertEquals(List.of(partition(2024, 7)), TicketPartitionService.expired(partitions, CURRENT, 3));
+        assertTrue(TicketPartitionService.expired(partitions, CURRENT, 0).isEmpty());
+    }
+
+    private static TicketPartition partition(int year, int month) {
+        return new TicketPartition(String.format("p%04d%02d", year, month), YearMonth.of(year, month), 0);
+    }
+}
@@ -0,0 +1,52 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class UploadReconcilerTest {
+
+    /**
+     * El recorrido entra en los subdirectorios y omite los archivos ocultos. Solo son huérfanos los archivos sin referencia y más antiguos que el margen de gracia.
+     */
+    @Test
+    public void testFindsOldUnreferencedFiles() throws IOException {
+        Path root = Files.createTempDirectory("uploads");
+        try {
+            Instant old = Instant.now().minus(Duration.ofDays(3));
+            write(root.resolve("used.png"), old);
+            write(root.resolve("orphan.png"), old);
+            write(root.resolve("recent.png"), Instant.now());
+            write(root.resolve("ab/cd/nested.jpg"), old);
+            write(root.resolve(".keep"), old);
+
+            List<UploadReconciler.StoredFile> files = UploadReconciler.scan(root, 2);
+            assertEquals(4, files.size());
+
+            List<String> orphans = UploadReconciler.orphans(files, Set.of("used.png"), Instant.now().minus(Duration.ofDays(1)))
+                    .stream().map(UploadReconciler.StoredFile::name).sorted().toList();
+            assertEquals(List.of("nested.jpg", "orphan.png"), orphans);
+        } finally {
+            try (Stream<Path> paths = Files.walk(root)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void write(Path file, Instant modified) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[16]);
+        Files.setLastModifiedTime(file, FileTime.from(modified));
+    }
+}
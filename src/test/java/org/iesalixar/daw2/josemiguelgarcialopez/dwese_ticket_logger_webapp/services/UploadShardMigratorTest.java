@@ -0,0 +1,54 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UploadShardMigratorTest {
+
+    /**
+     * Los archivos de la raíz pasan a su subdirectorio de dos niveles; los ocultos se quedan, y una
+     * segunda pasada no mueve nada.
+     */
+    @Test
+    public void testMovesFlatFilesIntoShards() throws IOException, InterruptedException {
+        Path root = Files.createTempDirectory("uploads");
+        try {
+            Files.write(root.resolve("a.png"), new byte[]{1});
+            Files.write(root.resolve("b.jpg"), new byte[]{2});
+            Files.write(root.resolve(".keep"), new byte[0]);
+
+            assertEquals(2, UploadShardMigrator.migrate(root, 1, 0));
+            assertTrue(Files.exists(UploadLayout.resolve(root, "a.png")));
+            assertTrue(Files.exists(UploadLayout.resolve(root, "b.jpg")));
+            assertFalse(Files.exists(UploadLayout.legacyPath(root, "a.png")));
+            assertTrue(Files.exists(root.resolve(".keep")));
+            assertEquals(root, UploadLayout.resolve(root, "a.png").getParent().getParent().getParent());
+
+            assertEquals(0, UploadShardMigrator.migrate(root, 1, 0));
+        } finally {
+            try (Stream<Path> paths = Files.walk(root)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * Un nombre que saldría del directorio de subidas se rechaza.
+     */
+    @Test
+    public void testRejectsPathsInNames() {
+        assertThrows(IllegalArgumentException.class, () -> UploadLayout.relativePath("../secret"));
+        assertThrows(IllegalArgumentException.class, () -> UploadLayout.relativePath(".."));
+        assertThrows(IllegalArgumentException.class, () -> UploadLayout.relativePath("a\\b.png"));
+    }
+}
@@ -0,0 +1,46 @@
+package org.iesalixar.daw2.josemiguelgarcialopez.dwese_ticket_logger_webapp.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ZipfSamplerTest {
+
+    /**
+     * Con exponente 0 todas las posiciones salen con la misma frecuencia.
+     */
+    @Test
+    public void testUniform() {
+        int[] counts = sample(new ZipfSampler(10, 0), 10, 100_000);
+        for (int count : counts) {
+            assertEquals(10_000, count, 500);
+        }
+    }
+
+    /**
+     * Con exponente 1 la posición k sale con probabilidad proporcional a 1 / (k + 1): la primera el
+     * doble que la segunda, y nunca fuera del rango.
+     */
+    @Test
+    public void testSkewed() {
+        int[] counts = sample(new ZipfSampler(100, 1.0), 100, 200_000);
+        // 1 / H(100) ≈ 0,1928
+        assertEquals(0.1928, counts[0] / 200_000.0, 0.01);
+        assertEquals(2.0, counts[0] / (double) counts[1], 0.1);
+        for (int k = 1; k < 10; k++) {
+            assertTrue(counts[k - 1] > counts[k]);
+        }
+    }
+
+    private static int[] sample(ZipfSampler sampler, int n, int draws) {
+        SplittableRandom random = new SplittableRandom(42);
+        int[] counts = new int[n];
+        for (int i = 0; i < draws; i++) {
+            counts[sampler.sample(random)]++;
+        }
+        return counts;
+    }
+}